@@ -11,6 +11,14 @@ import javax.swing.JSlider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+import gui.remote.RemoteCommandEvent;
+import gui.trace.Trace;
+import gui.trace.TraceStage;
+import gui.trace.TracedActionEvent;
+
 public class Controller implements ActionListener
 {
     
@@ -19,6 +27,13 @@ public class Controller implements ActionListener
      */
     private final static Logger logger = LoggerFactory.getLogger(Controller.class);      
     
+    /**
+     * Asynchrone Ausgaben im EDT (vgl. gui.log.AsyncLog)...
+     */
+    private final static LogSite BUTTON_LOG = AsyncLog.site(Controller.class, LogLevel.Debug, "actionPerformed(): {} {}", 20);
+    private final static LogSite SLIDER_LOG = AsyncLog.site(Controller.class, LogLevel.Info, "actionPerformed(): {} {}", 20);
+    private final static LogSite COMBO_BOX_LOG = AsyncLog.site(Controller.class, LogLevel.Info, "actionPerformed(): {} {} {}", 20);
+    
     /**
      * view - Referenz auf die angemeldete View...
      */
@@ -54,15 +69,30 @@ public class Controller implements ActionListener
      * beauftragt und muss die Aktion an das Model weiterreichen...
      * Das Model nimmt die Datenaenderung auf und reagiert entsprechend.
      * Dann erfolgt das Nachziehen der View durch das Model...
+     * <p>
+     * Eingaben (Slider, ComboBox) werden mit einem {@link Trace} an das Model
+     * uebergeben: Bei einem TracedActionEvent wird dessen Trace fortgefuehrt,
+     * sonst beginnt der Trace hier.
+     * </p>
+     * <p>
+     * Eingaben einer entfernten View (vgl. gui.remote.RemoteViewServer)
+     * kommen als {@link RemoteCommandEvent} ohne Swing-Komponente, Name
+     * und Wert werden gleich ausgewertet.
+     * </p>
      */
     @Override
     public void actionPerformed(ActionEvent event)
     {
+        if (event instanceof RemoteCommandEvent)
+        {
+            perform((RemoteCommandEvent)event);
+            return;
+        }
         final JComponent source = (JComponent)event.getSource();
         final String name = source.getName();
         if (source instanceof JButton)
         {
-            logger.debug("actionPerformed(): " + event.getActionCommand() + " " + name);
+            BUTTON_LOG.log(event.getActionCommand(), name);
             if (Model.NAME_START_BUTTON.equals(name))
             {
                 // Start-Button...
@@ -86,23 +116,78 @@ public class Controller implements ActionListener
         }
         if (source instanceof JSlider)
         {
+            final Trace trace = getTrace(event);
             final int value = ((JSlider)source).getValue();
-            logger.info("actionPerformed(): " + name + " " + value);
+            SLIDER_LOG.log(name, value);
             
-            this.model.setProperty(name, Integer.valueOf(value));
+            this.model.setProperty(name, Integer.valueOf(value), trace);
             
             return;
         }
         if (source instanceof JComboBox<?>)
         {
+            final Trace trace = getTrace(event);
             final Object selectedItem = ((JComboBox<?>)source).getSelectedItem();
             if (selectedItem instanceof Transmission)
             {
                 final Transmission value = (Transmission) selectedItem;
-                logger.info("actionPerformed(): " + event.getActionCommand() + " " + name + " " + value );
-                this.model.setProperty(name, value);
+                COMBO_BOX_LOG.log(event.getActionCommand(), name, value);
+                this.model.setProperty(name, value, trace);
                 return;                
             }
         }
     }
+    
+    /**
+     * perform(RemoteCommandEvent event) - Eingabe einer entfernten View...
+     * @param event - Name der Komponente und Wert
+     */
+    private void perform(RemoteCommandEvent event)
+    {
+        final String name = event.getActionCommand();
+        final Object value = event.getValue();
+        if (Model.NAME_START_BUTTON.equals(name))
+        {
+            BUTTON_LOG.log(name, value);
+            this.model.start();
+            return;
+        }
+        if (Model.NAME_STOP_BUTTON.equals(name))
+        {
+            BUTTON_LOG.log(name, value);
+            this.model.stop();
+            return;
+        }
+        if (Model.NAME_END_BUTTON.equals(name))
+        {
+            BUTTON_LOG.log(name, value);
+            this.model.shutdown();
+            System.exit(0);
+            return;
+        }
+        if (value instanceof Integer)
+        {
+            SLIDER_LOG.log(name, value);
+            this.model.setProperty(name, value, getTrace(event));
+            return;
+        }
+        if (value instanceof Transmission)
+        {
+            COMBO_BOX_LOG.log(event.getActionCommand(), name, value);
+            this.model.setProperty(name, value, getTrace(event));
+        }
+    }
+    
+    /**
+     * getTrace(ActionEvent event) - Trace zum Event (fortfuehren oder neu)...
+     * @param event
+     * @return Trace, Station TraceStage.Controller ist gesetzt
+     */
+    private static Trace getTrace(ActionEvent event)
+    {
+        final Trace trace = (event instanceof TracedActionEvent)? ((TracedActionEvent)event).getTrace() : null;
+        final Trace result = (trace != null)? trace : Trace.begin();
+        result.mark(TraceStage.Controller);
+        return result;
+    }
 }
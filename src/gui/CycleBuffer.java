@@ -0,0 +1,192 @@
+/**
+ * 
+ */
+package gui;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * CycleBuffer - Ringpuffer mit den Werten der letzten Takte der Steuerung.
+ * </p>
+ * <p>
+ * Die Ablage erfolgt spaltenweise in primitiven Arrays, ein Takt wird ohne
+ * Objekt-Erzeugung abgelegt. Es gibt genau einen Schreiber (den Takt der 
+ * Steuerung), beliebig viele Leser (z.B. EDT) lesen ohne Sperre:
+ * Der Schreiber fuellt den Platz und veroeffentlicht ihn anschliessend 
+ * ueber die volatile Variable sequence. Der Leser prueft nach dem Kopieren
+ * erneut, ob der Platz inzwischen ueberschrieben sein koennte, und verwirft
+ * den Wert dann.
+ * </p>
+ * <p>
+ * Die Reihenfolge sichern zwei Fences (vgl. Seqlock): Der Schreiber 
+ * ueberschreibt einen Platz erst nach der Veroeffentlichung, die ihn fuer
+ * die Leser sperrt (VarHandle.releaseFence()), der Leser prueft erst nach 
+ * allen Lesezugriffen auf die Spalten (VarHandle.acquireFence()). Ein 
+ * volatile read allein haelt vorangehende einfache Lesezugriffe nicht 
+ * zurueck (z.B. auf ARM).
+ * </p>
+ */
+public class CycleBuffer
+{
+    /**
+     * TRANSMISSIONS - Transmission-Werte zum Ordinal...
+     */
+    private final static Transmission[] TRANSMISSIONS = Transmission.values();
+    
+    /**
+     * STATUS - Status-Werte zum Ordinal...
+     */
+    private final static Status[] STATUS = Status.values();
+    
+    /**
+     * capacity - Anzahl der Plaetze (Zweierpotenz)
+     */
+    private final int capacity;
+    
+    /**
+     * mask - capacity - 1
+     */
+    private final int mask;
+    
+    /**
+     * Spalten des Ringpuffers, vgl. {@link CycleSample}...
+     */
+    private final long[] counter;
+    private final long[] timeNanos;
+    private final long[] periodNanos;
+    private final long[] jitterNanos;
+    private final long[] busyNanos;
+    private final long[] latencyNanos;
+    private final int[] servo;
+    private final int[] motor;
+    /**
+     * transmission, status - jeweils als Ordinal...
+     */
+    private final byte[] transmission;
+    private final byte[] status;
+    
+    /**
+     * sequence - Anzahl der bisher veroeffentlichten Takte...
+     */
+    private volatile long sequence = 0L;
+    
+    /**
+     * CycleBuffer(int capacity)
+     * @param capacity - Mindestanzahl der Plaetze, wird auf die naechste Zweierpotenz aufgerundet
+     */
+    public CycleBuffer(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        }
+        this.capacity = (Integer.bitCount(capacity) == 1)? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = this.capacity - 1;
+        this.counter = new long[this.capacity];
+        this.timeNanos = new long[this.capacity];
+        this.periodNanos = new long[this.capacity];
+        this.jitterNanos = new long[this.capacity];
+        this.busyNanos = new long[this.capacity];
+        this.latencyNanos = new long[this.capacity];
+        this.servo = new int[this.capacity];
+        this.motor = new int[this.capacity];
+        this.transmission = new byte[this.capacity];
+        this.status = new byte[this.capacity];
+    }
+    
+    /**
+     * add(...) - Ablage eines Taktes (nur durch den einen Schreiber!)...
+     * <p>
+     * Die Parameter entsprechen den Feldern von {@link CycleSample}.
+     * </p>
+     */
+    public void add(long counter, 
+                    long timeNanos, 
+                    long periodNanos, 
+                    long jitterNanos, 
+                    long busyNanos, 
+                    long latencyNanos, 
+                    int servo, 
+                    int motor, 
+                    Transmission transmission, 
+                    Status status)
+    {
+        final long next = this.sequence;
+        final int index = (int)next & this.mask;
+        // Der Platz des Taktes next - capacity ist mit sequence = next bereits
+        // gesperrt, das muss vor dem Ueberschreiben sichtbar sein...
+        VarHandle.releaseFence();
+        this.counter[index] = counter;
+        this.timeNanos[index] = timeNanos;
+        this.periodNanos[index] = periodNanos;
+        this.jitterNanos[index] = jitterNanos;
+        this.busyNanos[index] = busyNanos;
+        this.latencyNanos[index] = latencyNanos;
+        this.servo[index] = servo;
+        this.motor[index] = motor;
+        this.transmission[index] = (byte)transmission.ordinal();
+        this.status[index] = (byte)status.ordinal();
+        // Veroeffentlichen (volatile write)...
+        this.sequence = next + 1L;
+    }
+    
+    /**
+     * getSequence() - Anzahl der bisher abgelegten Takte; der juengste 
+     * Takt hat die Nummer getSequence() - 1...
+     * @return sequence
+     */
+    public long getSequence()
+    {
+        return this.sequence;
+    }
+    
+    /**
+     * getOldestSequence() - aeltester noch sicher lesbarer Takt...
+     * @return Nummer des aeltesten lesbaren Taktes
+     */
+    public long getOldestSequence()
+    {
+        return Math.max(0L, this.sequence - this.capacity + 1L);
+    }
+    
+    /**
+     * read(long number, CycleSample sample) - Auslesen des Taktes mit der
+     * Nummer number in das sample...
+     * @param number - Nummer des Taktes (0 ... getSequence() - 1)
+     * @param sample - nimmt die Werte auf
+     * @return false, wenn der Takt (noch) nicht oder nicht mehr verfuegbar ist
+     */
+    public boolean read(long number, CycleSample sample)
+    {
+        if (number < getOldestSequence() || number >= this.sequence)
+        {
+            return false;
+        }
+        final int index = (int)number & this.mask;
+        sample.counter = this.counter[index];
+        sample.timeNanos = this.timeNanos[index];
+        sample.periodNanos = this.periodNanos[index];
+        sample.jitterNanos = this.jitterNanos[index];
+        sample.busyNanos = this.busyNanos[index];
+        sample.latencyNanos = this.latencyNanos[index];
+        sample.servo = this.servo[index];
+        sample.motor = this.motor[index];
+        sample.transmission = TRANSMISSIONS[this.transmission[index]];
+        sample.status = STATUS[this.status[index]];
+        // Wurde der Platz waehrend des Kopierens ueberschrieben? Die Pruefung 
+        // erst nach allen Lesezugriffen auf die Spalten...
+        VarHandle.acquireFence();
+        return number >= getOldestSequence();
+    }
+
+    /**
+     * @return the capacity
+     */
+    public final int getCapacity()
+    {
+        return this.capacity;
+    }
+}
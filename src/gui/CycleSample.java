@@ -0,0 +1,176 @@
+/**
+ * 
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * CycleSample - Werte eines Taktes der Steuerung (vgl. {@link CycleBuffer}).
+ * </p>
+ * <p>
+ * Die Klasse ist bewusst veraenderlich: Ein Leser haelt eine Instanz und
+ * laesst sie durch {@link CycleBuffer#read(long, CycleSample)} befuellen,
+ * so dass beim Auslesen keine Objekte angelegt werden.
+ * </p>
+ */
+public class CycleSample
+{
+    /**
+     * counter - Taktzaehler
+     */
+    long counter;
+    
+    /**
+     * timeNanos - Beginn des Taktes (ns, monoton)
+     */
+    long timeNanos;
+    
+    /**
+     * periodNanos - Abstand zum Beginn des vorherigen Taktes (ns), 0 beim ersten Takt
+     */
+    long periodNanos;
+    
+    /**
+     * jitterNanos - Abweichung periodNanos von der Zykluszeit (ns)
+     */
+    long jitterNanos;
+    
+    /**
+     * busyNanos - Rechenzeit des Taktes (ns)
+     */
+    long busyNanos;
+    
+    /**
+     * latencyNanos - groesste Laufzeit Eingabe =&gt; Hardware der seit dem 
+     * vorherigen Takt abgeschlossenen Eingaben (ns), 0 ohne Eingabe
+     */
+    long latencyNanos;
+    
+    /**
+     * servo - Servo-Sollwert (-SERVO_MAX_VALUE ... +SERVO_MAX_VALUE)
+     */
+    int servo;
+    
+    /**
+     * motor - Motor-Sollwert (0 ... MOTOR_MAX_VALUE)
+     */
+    int motor;
+    
+    /**
+     * transmission - Gang
+     */
+    Transmission transmission;
+    
+    /**
+     * status - Status der Steuerung
+     */
+    Status status;
+
+    /**
+     * @return the counter
+     */
+    public final long getCounter()
+    {
+        return this.counter;
+    }
+
+    /**
+     * @return the timeNanos
+     */
+    public final long getTimeNanos()
+    {
+        return this.timeNanos;
+    }
+
+    /**
+     * @return the periodNanos
+     */
+    public final long getPeriodNanos()
+    {
+        return this.periodNanos;
+    }
+
+    /**
+     * @return the jitterNanos
+     */
+    public final long getJitterNanos()
+    {
+        return this.jitterNanos;
+    }
+
+    /**
+     * @return the busyNanos
+     */
+    public final long getBusyNanos()
+    {
+        return this.busyNanos;
+    }
+
+    /**
+     * @return the latencyNanos
+     */
+    public final long getLatencyNanos()
+    {
+        return this.latencyNanos;
+    }
+
+    /**
+     * @return the servo
+     */
+    public final int getServo()
+    {
+        return this.servo;
+    }
+
+    /**
+     * @return the motor
+     */
+    public final int getMotor()
+    {
+        return this.motor;
+    }
+
+    /**
+     * @return the transmission
+     */
+    public final Transmission getTransmission()
+    {
+        return this.transmission;
+    }
+
+    /**
+     * @return the status
+     */
+    public final Status getStatus()
+    {
+        return this.status;
+    }
+    
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[")
+                                  .append(this.counter)
+                                  .append(", servo=")
+                                  .append(this.servo)
+                                  .append(", motor=")
+                                  .append(this.motor)
+                                  .append(", ")
+                                  .append(this.transmission)
+                                  .append(", ")
+                                  .append(this.status)
+                                  .append(", period=")
+                                  .append(this.periodNanos)
+                                  .append(" ns, jitter=")
+                                  .append(this.jitterNanos)
+                                  .append(" ns, busy=")
+                                  .append(this.busyNanos)
+                                  .append(" ns]")
+                                  .toString();
+    }
+}
@@ -3,6 +3,10 @@
  */
 package gui;
 
+import gui.stats.Aggregate;
+import gui.stats.Signal;
+import gui.stats.SignalStatistics;
+
 /**
  * @author Detlef Tribius
  *
@@ -23,13 +27,30 @@ public class Data implements Comparable<Data>
      */
     private final Long counter;
     
+    /**
+     * statistics - gleitende Kennwerte des Models (lebendig, nicht der 
+     * Stand zum Zeitpunkt des Zaehlers), null: keine
+     */
+    private final SignalStatistics statistics;
+    
     /**
      * 
      * @param counter Long - Zaehlerstand
      */
     public Data(Long counter)
+    {
+        this(counter, null);
+    }
+    
+    /**
+     * 
+     * @param counter Long - Zaehlerstand
+     * @param statistics SignalStatistics - gleitende Kennwerte, null moeglich
+     */
+    public Data(Long counter, SignalStatistics statistics)
     {
         this.counter = (counter != null)? counter : Long.valueOf(0L);
+        this.statistics = statistics;
     }
     
     /**
@@ -83,6 +104,18 @@ public class Data implements Comparable<Data>
         return this.counter;
     }
 
+    /**
+     * getStatistic(Signal signal, Aggregate aggregate) - Kennwert ueber die
+     * letzten Takte, ohne Sperre und ohne Objekte anzulegen...
+     * @param signal
+     * @param aggregate
+     * @return Kennwert in der Einheit des Signals, NaN ohne Werte bzw. ohne statistics
+     */
+    public final double getStatistic(Signal signal, Aggregate aggregate)
+    {
+        return (this.statistics != null)? this.statistics.get(signal, aggregate) : Double.NaN;
+    }
+    
     /**
      * 
      * @return String[]
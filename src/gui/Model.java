@@ -4,25 +4,45 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.pi4j.io.gpio.GpioController;
-import com.pi4j.io.gpio.GpioFactory;
-import com.pi4j.io.gpio.GpioPin;
-import com.pi4j.io.gpio.GpioPinDigitalOutput;
-import com.pi4j.io.gpio.Pin;
-import com.pi4j.io.gpio.PinPullResistance;
-import com.pi4j.io.gpio.PinState;
-import com.pi4j.io.gpio.RaspiPin;
 import com.pi4j.io.i2c.I2CBus;
-import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
 
-import raspi.hardware.TB6612MDriver;
-import raspi.hardware.i2c.PCA9685;
+import gui.hardware.Actuator;
+import gui.hardware.ActuatorListener;
+import gui.hardware.LineCalibration;
+import gui.hardware.LineFollower;
+import gui.hardware.LineFollowerModule;
+import gui.hardware.PCA9685Actuator;
+import gui.hardware.PiCarActuator;
+import gui.hardware.UltrasonicRanger;
+import gui.hardware.gpio.GpioBackend;
+import gui.hardware.i2c.I2CBackend;
+import gui.hardware.i2c.ResilientI2CDevice;
+import gui.jfr.ModelPropertyEvent;
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+import gui.schedule.Schedule;
+import gui.schedule.ScheduleExecutor;
+import gui.stats.Signal;
+import gui.stats.SignalStatistics;
+import gui.task.IdlePolicy;
+import gui.task.RatePlan;
+import gui.task.Task;
+import gui.task.TaskExecutive;
+import gui.time.Clock;
+import gui.time.CycleTimer;
+import gui.time.VirtualClock;
+import gui.trace.LatencyHistogram;
+import gui.trace.LatencyTracer;
+import gui.trace.Trace;
+import gui.trace.TraceStage;
 
 // Vgl. https://www.baeldung.com/java-observer-pattern
 // auch https://wiki.swechsler.de/doku.php?id=java:allgemein:mvc-beispiel
@@ -43,14 +63,21 @@ public class Model
     private final static Logger logger = LoggerFactory.getLogger(Model.class);
     
     /**
-     * Kennung isRaspi kennzeichnet, der Lauf erfolgt auf dem RasberryPi.
-     * Die Kennung wird zur Laufzeit aus den Systemvariablen fuer das
-     * Betriebssystem und die Architektur ermittelt. Mit dieser Kennung kann
-     * die Beauftragung von Raspi-internen Programmen gesteuert werden.
-     * Beispielsweise kann die GUI in einem Nicht-Raspi-Umgebung getestet
-     * werden.
+     * Asynchrone Ausgaben aus setProperty() und dem Steuertakt 
+     * (vgl. gui.log.AsyncLog)...
      */
-    private final boolean isRaspi;
+    private final static LogSite SET_PROPERTY_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "{}: {} => {}", 100);
+    private final static LogSite SERVO_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "doServo(): servoData={} relValue={}", 100);
+    private final static LogSite PWM_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "setPWM(): servoData={} relValue={}", 100);
+    private final static LogSite APPLY_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "apply(): {} => {}", 100);
+    private final static LogSite LINE_LOG = AsyncLog.site(Model.class, LogLevel.Warn, "Linienfolger: {}", 1);
+    private final static LogSite OBSTACLE_LOG = AsyncLog.site(Model.class, LogLevel.Warn, "Hindernis bei {} m, Motor gestoppt", 1);
+    private final static LogSite CLEARED_LOG = AsyncLog.site(Model.class, LogLevel.Info, "Hindernis frei bei {} m", 1);
+    private final static LogSite FAULTED_LOG = AsyncLog.site(Model.class, LogLevel.Warn, "Stellglieder gestoert, Motor-Vorgabe {} abgewiesen", 1);
+    private final static LogSite GEAR_LOCKED_LOG = AsyncLog.site(Model.class, LogLevel.Warn, "Getriebe gesperrt, Gangwechsel {} verworfen", 1);
+    private final static LogSite EMERGENCY_LOG = AsyncLog.site(Model.class, LogLevel.Error, "Not-Aus: {}", 10);
+    private final static LogSite PROBE_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "Probezugriff im sicheren Zustand: {}", 1);
+    
     /**
      * OS_NAME_RASPI = "linux" - Kennung fuer Linux.
      * <p>
@@ -67,49 +94,13 @@ public class Model
     public final static String OS_ARCH_RASPI = "arm";
     
     /**
-     * Referenz auf den GPIO-controller...
-     * <p>
-     * Der GPIO-Controller bedient die GPIO-Schnittstelle des Raspi.
-     * </p>
-     */
-    private final GpioController gpioController;
-    
-    /**
-     * i2cBus - Referenz auf den IC2Bus...
-     */
-    private static I2CBus I2CBUS = null;
-    
-    /**
-     * Referenz auf den PWM-Driver
-     */
-    private PCA9685 pca9685 = null;
-    
-    /**
-     * Referenz auf den Servo-Antrieb als Teil des PWM-Drivers
-     * <p>
-     * Der PWM-Driver umfasst beispielsweise 16 Channel.
-     * Jeder Channel kann als Servo oder als Motor angesprochen werden.
-     * </p>
-     */
-    private PCA9685.Servo servo = null;
-    
-    /**
-     * PCA9685.Motor motorA
-     * <p>
-     * Der PWM-Driver kann jeweils einen Channel fuer einen Motor
-     * einrichten. Hier wird die Referenz auf den Motor A hinterlegt. 
-     * </p>
-     */
-    private PCA9685.Motor motorA = null;
-    
-    /**
-     * PCA9685.Motor motorB
+     * actuator - Referenz auf die Stellglieder (Servo, Motoren)...
      * <p>
-     * Der PWM-Driver kann jeweils einen Channel fuer einen Motor
-     * einrichten. Hier wird die Referenz auf den Motor B hinterlegt. 
+     * Auf dem Raspi ist das der {@link PiCarActuator}, sonst {@link Actuator#NONE}
+     * oder ein extern vorgegebener Actuator (z.B. Simulation).
      * </p>
      */
-    private PCA9685.Motor motorB = null;
+    private final Actuator actuator;
     
     /**
      * servoMinSteering - Grenzwert (links) fuer den Servo-Antrieb
@@ -126,20 +117,11 @@ public class Model
      */
     private final float servoDiffSteering;
     
-    /**
-     * Referenz auf den TB6612MDriver...
-     * <p>
-     * Der Motortreiber haelt Referenzen auf Motor A und B und auf die Steuer-Pins
-     * (GPIO-Eingabepins zur Richtungsvorgabe).
-     * </p>
-     */
-    private TB6612MDriver motorDriver;
-    
     /**
      * ADDRESS - Bus-Adresse des PCA9685-Bausteins (PWM-Driver), 
      * festgelegt durch 'Verdrahtung' auf dem Baustein... 
      */
-    public final static int ADDRESS = 0x40; 
+    public final static int ADDRESS = PiCarActuator.ADDRESS; 
     
     /**
      * PWM_FREQUENCY = 50
@@ -147,12 +129,12 @@ public class Model
      * Frequenzvorgabe fuer den PWM-Driver (Hz)
      * </p>
      */
-    public final static int PWM_FREQUENCY = 50;
+    public final static int PWM_FREQUENCY = PiCarActuator.PWM_FREQUENCY;
     
     /**
      * DELAY = 100 Pausenzeit (100 ms) fuer einzelne Aktionen...
      */
-    public final static int DELAY = 100;
+    public final static int DELAY = PiCarActuator.DELAY;
     
     /**
      * SERVO_CHANNEL = 0
@@ -160,7 +142,7 @@ public class Model
      * Channel-Nummer fuer den Servo
      * </p>
      */
-    public final static int SERVO_CHANNEL = 0;
+    public final static int SERVO_CHANNEL = PiCarActuator.SERVO_CHANNEL;
     
     /**
      * MOTOR_A_CHANNEL = 4
@@ -168,7 +150,7 @@ public class Model
      * PWM-Channel-Nummer Motor A
      * </p>
      */
-    public final static int MOTOR_A_CHANNEL = 4;
+    public final static int MOTOR_A_CHANNEL = PiCarActuator.MOTOR_A_CHANNEL;
     
     /**
      * MOTOR_B_CHANNEL = 5
@@ -176,17 +158,39 @@ public class Model
      * PWM-Channel-Nummer Motor B
      * </p>
      */
-    public final static int MOTOR_B_CHANNEL = 5;
+    public final static int MOTOR_B_CHANNEL = PiCarActuator.MOTOR_B_CHANNEL;
     
     /**
      * Referenzvariable fuer den Status
+     * <p>
+     * Anm.: Instanzvariable, damit mehrere Model-Instanzen (z.B. parallele
+     * Simulationslaeufe) unabhaengig voneinander arbeiten koennen.
+     * </p>
+     */
+    private Status status = Status.Reset;
+    
+    /**
+     * isFaulted - Stellglieder gestoert (z.B. I2C-Bus), ein Start ist
+     * erst nach der Meldung actuatorRecovered() wieder moeglich...
      */
-    private static Status status = Status.Reset;
+    private volatile boolean isFaulted = false;
+    
+    /**
+     * FAULT_PROBE_PERIOD = 1000 - Abstand der Probezugriffe im sicheren 
+     * Zustand in ms (vgl. CircuitBreaker.DEFAULT_OPEN_NANOS)
+     */
+    public final static long FAULT_PROBE_PERIOD = 1000L;
+    
+    /**
+     * faultProbe - Thread der Probezugriffe im sicheren Zustand oder null
+     * (Zugriff unter der Sperre this)
+     */
+    private Thread faultProbe = null;
     
     /**
      * counter - Taktzaehler (keine weitere funktionale Bedeutung)
      */
-    private static long counter = 0L;
+    private long counter = 0L;
 
     /**
      * Taktung in ms
@@ -194,60 +198,136 @@ public class Model
     public final static int CYCLE_TIME = 1000;
     
     /**
-     * Die Steuerung instanziieren...
+     * cycleTime - Taktung dieser Instanz in ms (Default: CYCLE_TIME)
+     */
+    private final int cycleTime;
+    
+    /**
+     * clock - Zeitbasis des Taktes (Clock.SYSTEM oder z.B. im Test eine
+     * VirtualClock, vgl. {@link #advanceTime(long)})
+     */
+    private final Clock clock;
+    
+    /**
+     * CYCLE_BUFFER_SIZE = 1024 - Anzahl der Takte im cycleBuffer
+     */
+    public final static int CYCLE_BUFFER_SIZE = 1024;
+    
+    /**
+     * cycleBuffer - Ringpuffer mit den Werten der letzten Takte 
+     * (Sollwerte, Zykluszeit, Jitter...), z.B. fuer die Anzeige...
+     */
+    private final CycleBuffer cycleBuffer = new CycleBuffer(CYCLE_BUFFER_SIZE);
+    
+    /**
+     * SIGNAL_WINDOW_SIZE = 100 - Fensterbreite (Takte) der signalStatistics
+     */
+    public final static int SIGNAL_WINDOW_SIZE = 100;
+    
+    /**
+     * signalStatistics - gleitende Kennwerte (Mittelwert, Min/Max, Streuung,
+     * Aenderung je Takt) der Sollwerte, Sensoren und Taktzeiten, 
+     * fortgeschrieben in recordCycle()
+     */
+    private final SignalStatistics signalStatistics = new SignalStatistics(SIGNAL_WINDOW_SIZE);
+    
+    /**
+     * lastCycleStartNanos - Beginn des vorherigen Taktes (ns), 0L vor dem ersten Takt
      * <p>
-     * Der ControlThread ermoeglicht die  regelmaessige Beauftragung von
-     * Algorithmen (Regelungen)...
+     * Anm.: Nur im Takt der Steuerung verwendet.
+     * </p>
+     */
+    private long lastCycleStartNanos = 0L;
+    
+    /**
+     * Die Steuerung...
+     * <p>
+     * Der TaskExecutive ermoeglicht die regelmaessige Beauftragung von
+     * Algorithmen (Regelungen), je Aufgabe mit eigener Periode (vgl. 
+     * {@link RatePlan}). Mit jedem start() wird ein neuer TaskExecutive 
+     * eingerichtet, null vor dem ersten start().
      * </p>
      * <p>
      * Die Servo- und Motor-Aktivitaeten werden zusatzlich an die User-Interaktion
      * beauftragt.
      * </p>
      */
-    private ControlThread controlThread = new ControlThread(CYCLE_TIME);
+    private volatile TaskExecutive taskExecutive = null;
     
     /**
-     * gpioPinOutputMap nimmt die GpioPinDigitalOutput-Objekte auf, 
-     * Key ist dabei jeweils der Pin_Name, z.B. "GPIO 21"...
-     * <p>
-     * Verwendung: Unter dem Key 'Name des GPIO' wird die Referenz auf den Pin abgelegt. 
-     * </p>
+     * cycleTimer - Warten des TaskExecutive auf die Freigaben (Default: 
+     * Thread.sleep()), wirksam mit dem naechsten start()
      */
-    private final java.util.TreeMap<String, GpioPinDigitalOutput> gpioPinOutputMap = new java.util.TreeMap<>();
-
+    private volatile CycleTimer cycleTimer = CycleTimer.SLEEP;
+    
     /**
-     * PIN_MA - zur Ansteuerung des Motor A (Drehrichtung...)
+     * ratePlan - Perioden von Servo, Motor und GUI (Default: alle im Takt),
+     * wirksam mit dem naechsten start()
      */
-    private final static Pin PIN_MA = RaspiPin.GPIO_00;
+    private volatile RatePlan ratePlan = RatePlan.UNIFORM;
     
     /**
-     * PIN_MB - zur Ansteuerung des Motor B (Drehrichtung...)
+     * idlePolicy - Absenkung der Rate bei stehendem Motor ohne Eingabe 
+     * (Default: kein Ruhebetrieb), wirksam ab dem naechsten Takt
      */
-    private final static Pin PIN_MB = RaspiPin.GPIO_02;
+    private volatile IdlePolicy idlePolicy = IdlePolicy.NONE;
     
     /**
-     * ...die folgenden Pins werden angesprochen...
+     * lastActivityNanos - letzte Eingabe bzw. letztes Sensor-Ereignis (ns),
+     * Beginn der Ruhezeit der idlePolicy
      */
-    private final static Pin[] GPIO_PINS = 
-    {
-        PIN_MA,
-        PIN_MB
-    };
+    private volatile long lastActivityNanos = 0L;
     
     /**
-     * PIN_NAMES - String-Array mit den Namen der RaspiPin's.
-     * Das Array wird aus dem Array GPIO_PINS[] befuellt.
+     * wasLineDetected - Linie im vorherigen Takt erkannt (Sensor-Ereignis
+     * bei Aenderung), nur im Takt der Steuerung verwendet
      */
-    public final static String[] PIN_NAMES = new String[GPIO_PINS.length];
+    private boolean wasLineDetected = false;
     
-    static 
-    {
-        // Befuellen des Arrays PIN_NAMES[] aus GPIO_PINS[]...
-        for(int index = 0; index < GPIO_PINS.length; index++)
-        {
-            PIN_NAMES[index] = GPIO_PINS[index].getName();
-        }
-    }
+    /**
+     * lineFollower - Erfassung der Linie zu Beginn jedes Taktes, 
+     * null: kein Linienfolger
+     */
+    private volatile LineFollower lineFollower = null;
+    
+    /**
+     * ultrasonicRanger - Abstandsmessung mit Notbremse, null: ohne
+     */
+    private volatile UltrasonicRanger ultrasonicRanger = null;
+    
+    /**
+     * isObstacle - Hindernis unterhalb der Bremsschwelle: Vorwaertsfahrt 
+     * gesperrt (vgl. limitSpeed())
+     */
+    private volatile boolean isObstacle = false;
+    
+    /**
+     * isEmergencyStop - Not-Aus ausgeloest: jede Motor-Vorgabe wird mit 0 
+     * ueberschrieben (vgl. limitSpeed()), Freigabe erst mit start()
+     */
+    private volatile boolean isEmergencyStop = false;
+    
+    /**
+     * emergencyStopLatency - Aufruf von emergencyStop() => Ausgaenge abgeschaltet
+     */
+    private final LatencyHistogram emergencyStopLatency = new LatencyHistogram("Not-Aus");
+    
+    /**
+     * schedule - vorgegebener Ablauf (Manoever), wird mit jedem start() 
+     * von Beginn an ausgefuehrt, null: Bedienung nur ueber die GUI
+     */
+    private volatile Schedule schedule = null;
+    
+    /**
+     * scheduleExecutor - Ausfuehrung des schedule im laufenden Start
+     */
+    private volatile ScheduleExecutor scheduleExecutor = null;
+    
+    /**
+     * PIN_NAMES - String-Array mit den Namen der RaspiPin's.
+     * (vgl. {@link PiCarActuator#PIN_NAMES})
+     */
+    public final static String[] PIN_NAMES = PiCarActuator.PIN_NAMES;
     
     /**
      * NAME_START_BUTTON = "StartButton"
@@ -340,6 +420,17 @@ public class Model
      */
     public final static String DATA_IS_RUNNABLE_KEY = "dataIsRunnableKey";
     
+    /**
+     * DATA_BATCH_KEY = "dataBatchKey"
+     * <p>
+     * Key des gemeinsamen Events einer {@link PropertyBatch}: oldValue und 
+     * newValue sind je eine (unveraenderliche) Map Key => Wert mit allen 
+     * geaenderten Eintraegen, einschliesslich der abgeleiteten Getriebesperre.
+     * Der Key selbst wird nicht in der dataMap abgelegt.
+     * </p>
+     */
+    public final static String DATA_BATCH_KEY = "dataBatchKey";
+    
     /**
      * DATA_KEYS[] - Array mit ergaenzenden Keys zur zusaetzlichen Ablage in der
      * dataMap...
@@ -354,6 +445,12 @@ public class Model
         Model.DATA_IS_RUNNABLE_KEY              // => isRunnable-Flag
     };
     
+    /**
+     * latencyTracer - Auswertung der Laufzeiten von der Eingabe (GUI) bis 
+     * zum Schreibzugriff auf die Hardware...
+     */
+    private final LatencyTracer latencyTracer = new LatencyTracer();
+    
     /**
      * support - Referenz auf den PropertyChangeSupport...
      */
@@ -361,89 +458,204 @@ public class Model
     
     /**
      * Default-Konstruktor 
+     * <p>
+     * Auf dem Raspi wird die Hardware ({@link PiCarActuator}) eingerichtet,
+     * sonst bleiben die Stellbefehle ohne Wirkung ({@link Actuator#NONE}).
+     * </p>
      */
     public Model()
     {
-        // Zuerst: Wo erfolgt der Lauf, auf einem Raspi?
-        final String os_name = System.getProperty("os.name").toLowerCase();
-        final String os_arch = System.getProperty("os.arch").toLowerCase();
-        logger.debug("Betriebssytem: " + os_name + " " + os_arch);
-        // Kennung isRaspi setzen...
-        this.isRaspi = OS_NAME_RASPI.equals(os_name) && OS_ARCH_RASPI.equals(os_arch);
+        this(createActuator(I2CBackend.Pi4j, null));
+    }
+    
+    /**
+     * Model(Actuator actuator) - Konstruktor mit Vorgabe der Stellglieder,
+     * z.B. simuliertes Fahrzeug...
+     * @param actuator
+     */
+    public Model(Actuator actuator)
+    {
+        this(actuator, CYCLE_TIME);
+    }
+    
+    /**
+     * Model(Actuator actuator, int cycleTime) - Konstruktor mit Vorgabe der 
+     * Stellglieder und der Taktung...
+     * @param actuator
+     * @param cycleTime - Taktung in ms (z.B. 20 ms fuer vorgegebene Manoever)
+     */
+    public Model(Actuator actuator, int cycleTime)
+    {
+        this(actuator, cycleTime, Clock.SYSTEM);
+    }
+    
+    /**
+     * Model(Actuator actuator, int cycleTime, Clock clock) - Konstruktor mit 
+     * Vorgabe der Stellglieder, der Taktung und der Zeitbasis...
+     * <p>
+     * Mit einer {@link VirtualClock} laeuft der Takt nach start() nicht in 
+     * eigenen Threads, sondern deterministisch ueber {@link #advanceTime(long)}
+     * (z.B. eine simulierte Stunde in Millisekunden).
+     * </p>
+     * @param actuator
+     * @param cycleTime - Taktung in ms
+     * @param clock - Zeitbasis (null: Clock.SYSTEM)
+     */
+    public Model(Actuator actuator, int cycleTime, Clock clock)
+    {
+        if (cycleTime <= 0)
+        {
+            throw new IllegalArgumentException("cycleTime: " + cycleTime);
+        }
+        this.cycleTime = cycleTime;
+        this.clock = (clock != null)? clock : Clock.SYSTEM;
+        this.actuator = (actuator != null)? actuator : Actuator.NONE;
+        logger.debug("Actuator: " + this.actuator);
         
-        // ...den gpioController anlegen...
-        this.gpioController = isRaspi? GpioFactory.getInstance() : null;
-       
-        for (Pin pin: Model.GPIO_PINS)
+        // Die Parameter ... aus dem Servo auslesen...
+        servoMinSteering = this.actuator.getServoMinSteering();
+        servoMaxSteering = this.actuator.getServoMaxSteering();
+        servoDiffSteering = ((float)(servoMaxSteering - servoMinSteering))/2.0f;
+        
+        // *** Befuellen der dataMap... ***
+        // Die dataMap muss mit allen Key-Eintraegen befuellt werden, sonst 
+        // ist setProperty(String key, Object newValue) unwirksam!
+        for (String key: Model.DATA_KEYS)
+        {
+            this.dataMap.put(key, null);
+        }
+        this.dataMap.put(Model.DATA_SERVO_KEY, Integer.valueOf(Model.SERVO_NULL_VALUE));
+        this.dataMap.put(Model.DATA_MOTOR_KEY, Integer.valueOf(Model.MOTOR_NULL_VALUE));
+        this.dataMap.put(Model.DATA_GEAR_KEY, Transmission.D);
+        this.dataMap.put(Model.DATA_GEAR_ENABLED_KEY, Boolean.TRUE);
+        this.dataMap.put(Model.DATA_IS_RUNNABLE_KEY, Boolean.TRUE);
+        
+        // Stoermeldungen der Stellglieder => sicherer Zustand...
+        this.actuator.addActuatorListener(new ActuatorListener()
         {
-            final String key = pin.getName();
-            if (isRaspi)
+            @Override
+            public void actuatorFault(String reason)
             {
-                // Zugriff auf die Pin nur wenn Lauf auf dem Raspi...
-                GpioPinDigitalOutput gpioPin = this.gpioController.provisionDigitalOutputPin(pin, key, PinState.LOW);
-                gpioPin.setShutdownOptions(true, PinState.LOW, PinPullResistance.OFF);
-                this.gpioPinOutputMap.put(key, gpioPin);
-            } 
-            else
+                enterSafeState(reason);
+            }
+
+            @Override
+            public void actuatorRecovered()
             {
-                // Der Lauf erfolgt nicht auf dem Raspi...
-                this.gpioPinOutputMap.put(key, null);
+                leaveSafeState();
             }
+        });
+    }
+    
+    /**
+     * createActuator() - Wo erfolgt der Lauf, auf einem Raspi?
+     * <p>
+     * Die Kennung isRaspi wird zur Laufzeit aus den Systemvariablen fuer das
+     * Betriebssystem und die Architektur ermittelt. Beispielsweise kann die 
+     * GUI so in einer Nicht-Raspi-Umgebung getestet werden.
+     * </p>
+     * <p>
+     * Auf dem Raspi wird der PiCarActuator eingerichtet, sonst
+     * wird Actuator.NONE geliefert.
+     * </p>
+     * <p>
+     * Ist gpioChip gesetzt (z.B. /dev/gpiochip0), werden die Richtungs-Pins 
+     * direkt ueber den GPIO-Chip angesprochen; der PCA9685 wird dann ueber 
+     * den {@link PCA9685Actuator} (Registerzugriff) gesteuert.
+     * </p>
+     * @param backend - Zugriff auf den I2C-Bus (pi4j oder direkt /dev/i2c-1)
+     * @param gpioChip - GPIO-Chip fuer die Richtungs-Pins oder null (=> pi4j)
+     * @return Actuator
+     */
+    public static Actuator createActuator(I2CBackend backend, String gpioChip)
+    {
+        final String os_name = System.getProperty("os.name").toLowerCase();
+        final String os_arch = System.getProperty("os.arch").toLowerCase();
+        logger.debug("Betriebssytem: " + os_name + " " + os_arch);
+        // Kennung isRaspi...
+        final boolean isRaspi = OS_NAME_RASPI.equals(os_name) && OS_ARCH_RASPI.equals(os_arch);
+        if (!isRaspi)
+        {
+            logger.info("Lauf nicht auf dem Raspi, keine Hardware!");
+            return Actuator.NONE;
         }
-        
         try
         {
-            Model.I2CBUS = isRaspi? I2CFactory.getInstance(I2CBus.BUS_1) : null;
-            // pca9685 - PWM-Modul (16 Channels, davon 1 Servo- und 2 Motor-Channel genutzt)
-            this.pca9685 = (Model.I2CBUS != null)? PCA9685.getInstance(Model.I2CBUS.getDevice(ADDRESS)) : null;
-            
-            if (this.pca9685 != null)
-            {
-                this.pca9685.initialize();
-                logger.info("initialize() erfolgreich.");
-                Thread.sleep(DELAY);
-                this.pca9685.setPWMFrequency(PWM_FREQUENCY);
-                logger.info("setPWMFrequency() erfolgreich.");
-                this.servo = this.pca9685.getServo(Model.SERVO_CHANNEL);
-                // motorA - Channel einrichten...
-                this.motorA = this.pca9685.getMotor(Model.MOTOR_A_CHANNEL);
-                // motorB - Channel einrichten...
-                this.motorB = this.pca9685.getMotor(Model.MOTOR_B_CHANNEL);
-                
-                final GpioPinDigitalOutput outputPinMA = this.gpioPinOutputMap.get(PIN_MA.getName());
-                final GpioPinDigitalOutput outputPinMB = this.gpioPinOutputMap.get(PIN_MB.getName());
-                this.motorDriver = new TB6612MDriver(outputPinMA, outputPinMB, this.motorA, this.motorB);
-                this.motorDriver.reset();
-                Thread.sleep(DELAY);
-            }
-            else
+            if (gpioChip == null || gpioChip.length() == 0)
             {
-                logger.info("Referenz pca9685 ist null!");  
+                return new PiCarActuator(backend);
             }
+            final PCA9685Actuator actuator = new PCA9685Actuator(new ResilientI2CDevice(backend.open(I2CBus.BUS_1, PiCarActuator.ADDRESS)), 
+                                                                 GpioBackend.Linux.open(gpioChip));
+            actuator.initialize(PiCarActuator.PWM_FREQUENCY);
+            return actuator;
         } 
         catch (UnsupportedBusNumberException | IOException | InterruptedException exception)
         {
             logger.error(exception.toString(), exception);
             System.err.println(exception.toString());
             System.exit(0);
+            return Actuator.NONE;
         }
-        // Die Parameter ... aus dem Servo auslesen...
-        servoMinSteering = (this.servo != null)? this.servo.getServoMinSteering() : 0;
-        servoMaxSteering = (this.servo != null)? this.servo.getServoMaxSteering() : 0;
-        servoDiffSteering = ((float)(servoMaxSteering - servoMinSteering))/2.0f;
-        
-        // *** Befuellen der dataMap... ***
-        // Die dataMap muss mit allen Key-Eintraegen befuellt werden, sonst 
-        // ist setProperty(String key, Object newValue) unwirksam!
-        for (String key: Model.DATA_KEYS)
+    }
+    
+    /**
+     * createLineFollower(I2CBackend backend, String calibration) - 
+     * Linienfolger-Modul am I2C-Bus 1 (nur auf dem Raspi)...
+     * @param backend - Zugriff auf den I2C-Bus
+     * @param calibration - vgl. LineCalibration.parse(), leer: Default
+     * @return LineFollower oder null (nicht auf dem Raspi, Bus nicht verfuegbar)
+     */
+    public static LineFollower createLineFollower(I2CBackend backend, String calibration)
+    {
+        final String os_name = System.getProperty("os.name").toLowerCase();
+        final String os_arch = System.getProperty("os.arch").toLowerCase();
+        if (!(OS_NAME_RASPI.equals(os_name) && OS_ARCH_RASPI.equals(os_arch)))
         {
-            this.dataMap.put(key, null);
+            logger.info("Lauf nicht auf dem Raspi, kein Linienfolger!");
+            return null;
+        }
+        try
+        {
+            return new LineFollower(new LineFollowerModule(backend.open(I2CBus.BUS_1, LineFollowerModule.ADDRESS)), 
+                                    LineCalibration.parse(calibration));
+        }
+        catch (UnsupportedBusNumberException | IOException exception)
+        {
+            logger.error("Linienfolger nicht verfuegbar: " + exception, exception);
+            return null;
+        }
+    }
+    
+    /**
+     * createUltrasonicRanger(String gpioChip, double brakeDistance) - 
+     * Ultraschall-Modul am GPIO-Chip (nur auf dem Raspi, nur Linux-Backend)...
+     * @param gpioChip - z.B. /dev/gpiochip0, leer: GpioBackend.DEFAULT_CHIP
+     * @param brakeDistance - Bremsschwelle (m)
+     * @return UltrasonicRanger oder null (nicht auf dem Raspi, Pin nicht verfuegbar)
+     */
+    public static UltrasonicRanger createUltrasonicRanger(String gpioChip, double brakeDistance)
+    {
+        final String os_name = System.getProperty("os.name").toLowerCase();
+        final String os_arch = System.getProperty("os.arch").toLowerCase();
+        if (!(OS_NAME_RASPI.equals(os_name) && OS_ARCH_RASPI.equals(os_arch)))
+        {
+            logger.info("Lauf nicht auf dem Raspi, kein Ultraschall-Modul!");
+            return null;
+        }
+        try
+        {
+            final String path = (gpioChip == null || gpioChip.length() == 0)? GpioBackend.DEFAULT_CHIP : gpioChip;
+            return new UltrasonicRanger(GpioBackend.Linux.openEcho(path), 
+                                        UltrasonicRanger.DEFAULT_PERIOD_NANOS, 
+                                        brakeDistance, 
+                                        UltrasonicRanger.DEFAULT_WINDOW);
+        }
+        catch (IOException exception)
+        {
+            logger.error("Ultraschall-Modul nicht verfuegbar: " + exception, exception);
+            return null;
         }
-        this.dataMap.put(Model.DATA_SERVO_KEY, Integer.valueOf(Model.SERVO_NULL_VALUE));
-        this.dataMap.put(Model.DATA_MOTOR_KEY, Integer.valueOf(Model.MOTOR_NULL_VALUE));
-        this.dataMap.put(Model.DATA_GEAR_KEY, Transmission.D);
-        this.dataMap.put(Model.DATA_GEAR_ENABLED_KEY, Boolean.TRUE);
-        this.dataMap.put(Model.DATA_IS_RUNNABLE_KEY, Boolean.TRUE);
     }
      
     /**
@@ -472,6 +684,40 @@ public class Model
      */
     public void setProperty(String key, Object newValue)
     {
+        setProperty(key, newValue, null);
+    }
+    
+    /**
+     * setProperty(String key, Object newValue, Trace trace) - wie 
+     * setProperty(String key, Object newValue), die Stationen werden 
+     * im trace vermerkt und der trace wird abschliessend ausgewertet...
+     * 
+     * @param key
+     * @param newValue
+     * @param trace - Trace der Eingabe oder null
+     */
+    public void setProperty(String key, Object newValue, Trace trace)
+    {
+        if (this.isFaulted && Model.DATA_MOTOR_KEY.equals(key) && toSpeed(newValue) != 0.0f)
+        {
+            // Sicherer Zustand: keine Motor-Vorgabe bis actuatorRecovered()...
+            FAULTED_LOG.log(newValue);
+            this.latencyTracer.complete(trace);
+            return;
+        }
+        final ModelPropertyEvent event = new ModelPropertyEvent();
+        event.begin();
+        boolean isChanged = false;
+        if (trace != null)
+        {
+            trace.setKey(key);
+            trace.mark(TraceStage.Model);
+        }
+        if (Model.DATA_SERVO_KEY.equals(key) || Model.DATA_MOTOR_KEY.equals(key) || Model.DATA_GEAR_KEY.equals(key))
+        {
+            // Jede Eingabe beendet den Ruhebetrieb (nicht die Ausgaben des Taktes an die GUI)...
+            noteActivity();
+        }
         if (this.dataMap.containsKey(key))
         {
             Object oldValue = this.dataMap.get(key);
@@ -480,13 +726,14 @@ public class Model
 
             if (oldValue == null || newValue == null || !oldValue.equals(newValue))
             {
-                logger.debug(key + ": " + oldValue + " => " + newValue);
+                isChanged = true;
+                SET_PROPERTY_LOG.log(key, oldValue, newValue);
                 
                 if (Model.DATA_SERVO_KEY.equals(key))
                 {
                     try
                     {
-                        doServo();
+                        doServo(trace);
                     } 
                     catch (IOException exception)
                     {
@@ -498,11 +745,11 @@ public class Model
                 {
                     try
                     {
-                        doMotor();
+                        doMotor(trace);
                     } 
                     catch (IOException exception)
                     {
-                        logger.error("IOException in doServo()!", exception);                        
+                        logger.error("IOException in doMotor()!", exception);                        
                     }
                     
                 }
@@ -510,75 +757,296 @@ public class Model
             // firePropertyChange() - reagiert nur bei Property-Aenderung!
             support.firePropertyChange(key, oldValue, newValue);
         }
+        // Auswertung des Trace...
+        this.latencyTracer.complete(trace);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.key = key;
+            event.changed = isChanged;
+            event.commit();
+        }
     }
 
     /**
-     * doServo() - Uebertragung der GUI-Eingaben oder Zustandsaenderungen
-     * auf den Servo...
-     * <p>
-     * Es gibt mehrere Beauftragungen.
-     * <ul>
-     *  <li>1. Eingabe an der GUI.</li>
-     *  <li>2. "Regler"-Takt</li>
-     * </ul>
-     * </p>
-     * @throws IOException 
+     * batch() - mehrere Aenderungen gemeinsam uebernehmen (vgl. {@link PropertyBatch})...
+     * @return PropertyBatch, Uebernahme mit commit()
      */
-    private void doServo() throws IOException
+    public PropertyBatch batch()
     {
-        final Object value = Model.this.dataMap.get(Model.DATA_SERVO_KEY);
-        final boolean isInteger = (value instanceof java.lang.Integer);
-        // servoData: Input durch den User, von -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE
-        final int servoData = (isInteger)? ((Integer)value).intValue() : 0;
-
-        // Der folgende Teil nur auf dem Raspi...
-        if (Model.this.isRaspi)
-        {
-            // Folgende Abbildung:
-            // SERVO_NULL_VALUE (0)   => (Model.this.servoMinSteering + Model.this.servoMaxSteering)/2
-            // SERVO_MAX_VALUE (30)   => Model.this.servoMaxSteering
-            // -SERVO_MAX_VALUE (-30) => Model.this.servoMinSteering
-
-            final float servoMaxValue = Float.valueOf(Model.SERVO_MAX_VALUE).floatValue();
-            // relValue - Stellgroesse fuer setPWM()...
-            final int relValue = Math.round(((float)servoData*Model.this.servoDiffSteering)/servoMaxValue);
-            
-            logger.debug("doServo(): servoData=" + servoData + " relValue=" + relValue);
-            
-            Model.this.servo.setPWM(relValue);
-        } 
+        return new PropertyBatch(this);
     }
     
     /**
-     * @throws InterruptedException 
-     * 
+     * apply(Map<String, Object> changes, Trace trace) - Uebernahme einer 
+     * PropertyBatch...
+     * <p>
+     * Die Werte werden unter der Sperre der dataMap abgelegt, die 
+     * Getriebesperre wird einmal aus dem resultierenden Motor-Sollwert 
+     * bestimmt. Danach folgt ausserhalb der Sperre ein Schreibzugriff auf die
+     * Stellglieder (Servo und/oder Motor) und ein Event unter DATA_BATCH_KEY.
+     * Keys ausserhalb der dataMap werden wie in setProperty() ignoriert.
+     * </p>
+     * <p>
+     * Die Getriebesperre wird ebenfalls unter der Sperre geprueft: Ein 
+     * Gangwechsel (DATA_GEAR_KEY) wird verworfen, wenn der Motor-Sollwert vor
+     * oder nach der PropertyBatch groesser als LIMIT_FOR_GEAR_ENABLED ist, 
+     * der bisherige Gang bleibt dann erhalten.
+     * </p>
+     * @param changes - Key => neuer Wert
+     * @param trace - Trace der Eingabe oder null
+     * @return false, wenn ein Gangwechsel (Getriebesperre) oder eine 
+     * Motor-Vorgabe (sicherer Zustand) verworfen wurde
      */
-    public void doMotor() throws IOException
+    boolean apply(Map<String, Object> changes, Trace trace)
     {
-        // 1.) Speed bestimmen...
-        final Object value = Model.this.dataMap.get(Model.DATA_MOTOR_KEY);
-        final boolean isInteger = (value instanceof java.lang.Integer);
-        // motorValue: Input durch den User, 
-        // Eingabe moeglich von MOTOR_NULL_VALUE (0) ... + MOTOR_MAX_VALUE (100)
-        final float motorValue = (isInteger)? ((Integer)value).floatValue() : 0.0f;        
-        // motorMaxValue - max. moegliche Eingabe (zur Normierung...)
-        final float motorMaxValue = Integer.valueOf(Model.MOTOR_MAX_VALUE).floatValue();
-        // Normierung, speed jetzt zwischen 0.0f und 1.0f...
-        final float speed = motorValue/motorMaxValue;
-        
-        // 2.) Schaltung (Gear) abfragen... 
-        final Object gearData = Model.this.dataMap.get(Model.DATA_GEAR_KEY);
-        final Transmission transmission = (gearData instanceof Transmission)? (Transmission) gearData : Transmission.D;
-        final float factor = transmission.getFactor();
+        if (trace != null)
+        {
+            trace.setKey(Model.DATA_BATCH_KEY);
+            trace.mark(TraceStage.Model);
+        }
+        noteActivity();
+        final Map<String, Object> oldValues = new LinkedHashMap<>();
+        final Map<String, Object> newValues = new LinkedHashMap<>();
+        final boolean isServoChanged;
+        final boolean isMotorChanged;
+        final int relValue;
+        final float speed;
+        boolean isComplete = true;
+        synchronized (this.dataMap)
+        {
+            final float oldMotorSpeed = toSpeed(this.dataMap.get(Model.DATA_MOTOR_KEY));
+            for (Map.Entry<String, Object> change: changes.entrySet())
+            {
+                final String key = change.getKey();
+                if (this.isFaulted && Model.DATA_MOTOR_KEY.equals(key) && toSpeed(change.getValue()) != 0.0f)
+                {
+                    // Sicherer Zustand: keine Motor-Vorgabe bis actuatorRecovered()...
+                    FAULTED_LOG.log(change.getValue());
+                    isComplete = false;
+                    continue;
+                }
+                if (this.dataMap.containsKey(key))
+                {
+                    final Object newValue = change.getValue();
+                    final Object oldValue = this.dataMap.put(key, newValue);
+                    if (oldValue == null || newValue == null || !oldValue.equals(newValue))
+                    {
+                        oldValues.put(key, oldValue);
+                        newValues.put(key, newValue);
+                    }
+                }
+            }
+            final float motorSpeed = toSpeed(this.dataMap.get(Model.DATA_MOTOR_KEY));
+            // Gangwechsel nur bei gesperrtem Getriebe vor und nach der PropertyBatch...
+            if (newValues.containsKey(Model.DATA_GEAR_KEY) 
+                && (oldMotorSpeed > Model.LIMIT_FOR_GEAR_ENABLED || motorSpeed > Model.LIMIT_FOR_GEAR_ENABLED))
+            {
+                GEAR_LOCKED_LOG.log(newValues.remove(Model.DATA_GEAR_KEY));
+                this.dataMap.put(Model.DATA_GEAR_KEY, oldValues.remove(Model.DATA_GEAR_KEY));
+                isComplete = false;
+            }
+            isServoChanged = newValues.containsKey(Model.DATA_SERVO_KEY);
+            isMotorChanged = newValues.containsKey(Model.DATA_MOTOR_KEY) || newValues.containsKey(Model.DATA_GEAR_KEY);
+            relValue = toServoRelValue(this.dataMap.get(Model.DATA_SERVO_KEY));
+            speed = limitSpeed(toFactor(this.dataMap.get(Model.DATA_GEAR_KEY)) * motorSpeed);
+            // Getriebesperre einmal, aus dem resultierenden Motor-Sollwert...
+            if (newValues.containsKey(Model.DATA_MOTOR_KEY))
+            {
+                final Boolean isGearEnabled = (motorSpeed > Model.LIMIT_FOR_GEAR_ENABLED)? Boolean.FALSE : Boolean.TRUE;
+                final Object oldValue = this.dataMap.put(Model.DATA_GEAR_ENABLED_KEY, isGearEnabled);
+                if (!isGearEnabled.equals(oldValue))
+                {
+                    if (!oldValues.containsKey(Model.DATA_GEAR_ENABLED_KEY))
+                    {
+                        oldValues.put(Model.DATA_GEAR_ENABLED_KEY, oldValue);
+                    }
+                    newValues.put(Model.DATA_GEAR_ENABLED_KEY, isGearEnabled);
+                }
+            }
+        }
+        if (!newValues.isEmpty())
+        {
+            APPLY_LOG.log(oldValues, newValues);
+        }
+        if (isServoChanged || isMotorChanged)
+        {
+            if (trace != null)
+            {
+                trace.mark(TraceStage.Actuate);
+            }
+            try
+            {
+                // Ein Schreibzugriff fuer alle Stellglieder...
+                if (isServoChanged && isMotorChanged)
+                {
+                    this.actuator.set(relValue, speed);
+                }
+                else if (isServoChanged)
+                {
+                    this.actuator.setServo(relValue);
+                }
+                else
+                {
+                    this.actuator.setMotor(speed);
+                }
+                if (isMotorChanged)
+                {
+                    confirmEmergencyStop(speed);
+                }
+            }
+            catch (IOException exception)
+            {
+                logger.error("IOException in apply()!", exception);
+            }
+            if (trace != null)
+            {
+                trace.mark(TraceStage.Written);
+            }
+        }
+        if (!newValues.isEmpty())
+        {
+            // Ein Event fuer alle Aenderungen...
+            support.firePropertyChange(Model.DATA_BATCH_KEY, 
+                                       Collections.unmodifiableMap(oldValues), 
+                                       Collections.unmodifiableMap(newValues));
+        }
+        this.latencyTracer.complete(trace);
+        return isComplete;
+    }
+    
+    /**
+     * doServo() - Uebertragung der GUI-Eingaben oder Zustandsaenderungen
+     * auf den Servo...
+     * <p>
+     * Es gibt mehrere Beauftragungen.
+     * <ul>
+     *  <li>1. Eingabe an der GUI.</li>
+     *  <li>2. "Regler"-Takt</li>
+     * </ul>
+     * </p>
+     * @param trace - Trace der Eingabe oder null
+     * @throws IOException 
+     */
+    private void doServo(Trace trace) throws IOException
+    {
+        if (trace != null)
+        {
+            trace.mark(TraceStage.Actuate);
+        }
+        final Object value = Model.this.dataMap.get(Model.DATA_SERVO_KEY);
+        // relValue - Stellgroesse fuer setPWM()...
+        final int relValue = toServoRelValue(value);
         
-        // 3.) Getriebe sperren? => Wenn speed-Vorgabe groesser als Model.LIMIT_FOR_GEAR_ENABLED...
-        setProperty(Model.DATA_GEAR_ENABLED_KEY, (speed > Model.LIMIT_FOR_GEAR_ENABLED)? Boolean.FALSE : Boolean.TRUE);
+        SERVO_LOG.log(value, relValue);
+        
+        // Ohne Hardware (Actuator.NONE) bleibt der Aufruf ohne Wirkung...
+        Model.this.actuator.setServo(relValue);
+        if (trace != null)
+        {
+            trace.mark(TraceStage.Written);
+        }
+    }
+    
+    /**
+     * toServoRelValue(Object value) - Stellgroesse des Servos zur Vorgabe...
+     * @param value - Servo-Vorgabe (Integer, sonst 0)
+     * @return relValue (PWM-Einheiten relativ zur Mittelstellung)
+     */
+    private int toServoRelValue(Object value)
+    {
+        final boolean isInteger = (value instanceof java.lang.Integer);
+        // servoData: Input durch den User, von -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE
+        final int servoData = (isInteger)? ((Integer)value).intValue() : 0;
+
+        // Folgende Abbildung:
+        // SERVO_NULL_VALUE (0)   => (Model.this.servoMinSteering + Model.this.servoMaxSteering)/2
+        // SERVO_MAX_VALUE (30)   => Model.this.servoMaxSteering
+        // -SERVO_MAX_VALUE (-30) => Model.this.servoMinSteering
+
+        final float servoMaxValue = Float.valueOf(Model.SERVO_MAX_VALUE).floatValue();
+        return Math.round(((float)servoData*Model.this.servoDiffSteering)/servoMaxValue);
+    }
+    
+    /**
+     * toSpeed(Object value) - normierter Motor-Sollwert...
+     * @param value - Motor-Vorgabe (Integer, sonst 0)
+     * @return speed zwischen 0.0f und 1.0f
+     */
+    private static float toSpeed(Object value)
+    {
+        final boolean isInteger = (value instanceof java.lang.Integer);
+        // motorValue: Input durch den User, 
+        // Eingabe moeglich von MOTOR_NULL_VALUE (0) ... + MOTOR_MAX_VALUE (100)
+        final float motorValue = (isInteger)? ((Integer)value).floatValue() : 0.0f;        
+        // motorMaxValue - max. moegliche Eingabe (zur Normierung...)
+        final float motorMaxValue = Integer.valueOf(Model.MOTOR_MAX_VALUE).floatValue();
+        // Normierung, speed jetzt zwischen 0.0f und 1.0f...
+        return motorValue/motorMaxValue;
+    }
+    
+    /**
+     * toFactor(Object gearData) - Faktor der Schaltung...
+     * @param gearData - Transmission, sonst D
+     * @return Faktor (+1.0f oder -1.0f)
+     */
+    private static float toFactor(Object gearData)
+    {
+        final Transmission transmission = (gearData instanceof Transmission)? (Transmission) gearData : Transmission.D;
+        return transmission.getFactor();
+    }
+    
+    /**
+     * doMotor() - Uebertragung der Motor-Vorgabe (inkl. Gang) auf den Antrieb...
+     * @throws IOException 
+     */
+    public void doMotor() throws IOException
+    {
+        doMotor(null);
+    }
+    
+    /**
+     * doMotor(Trace trace) 
+     * @param trace - Trace der Eingabe oder null
+     * @throws IOException
+     */
+    private void doMotor(Trace trace) throws IOException
+    {
+        if (trace != null)
+        {
+            trace.mark(TraceStage.Actuate);
+        }
+        final float speed;
+        final float factor;
+        final Boolean isGearEnabled;
+        final Object oldGearEnabled;
+        // Unter der Sperre der dataMap: Getriebesperre passend zum gelesenen Sollwert,
+        // kein verlorenes Update bei gleichzeitigen Motor-Vorgaben (vgl. ModelStressBench)...
+        synchronized (Model.this.dataMap)
+        {
+            // 1.) Speed bestimmen, Normierung zwischen 0.0f und 1.0f...
+            speed = toSpeed(Model.this.dataMap.get(Model.DATA_MOTOR_KEY));
+            
+            // 2.) Schaltung (Gear) abfragen... 
+            factor = toFactor(Model.this.dataMap.get(Model.DATA_GEAR_KEY));
+            
+            // 3.) Getriebe sperren? => Wenn speed-Vorgabe groesser als Model.LIMIT_FOR_GEAR_ENABLED...
+            isGearEnabled = (speed > Model.LIMIT_FOR_GEAR_ENABLED)? Boolean.FALSE : Boolean.TRUE;
+            oldGearEnabled = Model.this.dataMap.put(Model.DATA_GEAR_ENABLED_KEY, isGearEnabled);
+        }
+        if (!isGearEnabled.equals(oldGearEnabled))
+        {
+            SET_PROPERTY_LOG.log(Model.DATA_GEAR_ENABLED_KEY, oldGearEnabled, isGearEnabled);
+        }
+        support.firePropertyChange(Model.DATA_GEAR_ENABLED_KEY, oldGearEnabled, isGearEnabled);
         
         // 4.) Motor steuern...
-        if (Model.this.isRaspi)
+        final float limitedSpeed = limitSpeed(factor * speed);
+        Model.this.actuator.setMotor(limitedSpeed);
+        confirmEmergencyStop(limitedSpeed);
+        if (trace != null)
         {
-            // ...nur wenn Lauf auf dem Raspi...
-            Model.this.motorDriver.setPWM(factor * speed);
+            trace.mark(TraceStage.Written);
         }
     }
     
@@ -592,27 +1060,22 @@ public class Model
         final boolean isInteger = (value instanceof java.lang.Integer);
         // servoData: Input durch den User, von -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE
         final int servoData = (isInteger)? ((Integer)value).intValue() : 0;
-        logger.debug("doIt(): servoData = " + servoData); 
 
         // Anfangswert fuer den Stellwert relValue ist 0!
         int relValue = 0;
         
         final float servoMaxValue = Float.valueOf(Model.SERVO_MAX_VALUE).floatValue();
         
-        // Der folgende Teil nur auf dem Raspi...
-        if (Model.this.isRaspi)
-        {
-            // Folgende Abbildung:
-            // SERVO_NULL_VALUE (0)   => (Model.this.servoMinSteering + Model.this.servoMaxSteering)/2
-            // SERVO_MAX_VALUE (30)   => Model.this.servoMaxSteering
-            // -SERVO_MAX_VALUE (-30) => Model.this.servoMinSteering
-            
-            relValue = Math.round(((float)servoData*Model.this.servoDiffSteering)/((float)servoMaxValue));
-            
-            logger.debug("servoData: " + servoData + " relValue: " + relValue);
-            
-            Model.this.servo.setPWM(relValue);
-        } 
+        // Folgende Abbildung:
+        // SERVO_NULL_VALUE (0)   => (Model.this.servoMinSteering + Model.this.servoMaxSteering)/2
+        // SERVO_MAX_VALUE (30)   => Model.this.servoMaxSteering
+        // -SERVO_MAX_VALUE (-30) => Model.this.servoMinSteering
+        
+        relValue = Math.round(((float)servoData*Model.this.servoDiffSteering)/((float)servoMaxValue));
+        
+        PWM_LOG.log(servoData, relValue);
+        
+        Model.this.actuator.setServo(relValue);
     }
     
     /**
@@ -622,7 +1085,7 @@ public class Model
     {
         if (this.dataMap.containsKey(Model.DATA_KEY))
         {
-            final Data data = new Data(Long.valueOf(Model.counter));
+            final Data data = new Data(Long.valueOf(this.counter), this.signalStatistics);
             setProperty(Model.DATA_KEY, data);
         }
     }
@@ -632,13 +1095,30 @@ public class Model
      */
     public synchronized void start()
     {
-        if (Model.status != Status.Started)
+        if (this.isFaulted)
+        {
+            logger.warn("start(): Stellglieder gestoert, kein Start moeglich!");
+            return;
+        }
+        if (this.status != Status.Started)
         {
-            this.controlThread.start();
+            // Neuer Lauf, die Zykluszeit zaehlt ab dem ersten Takt...
+            this.lastCycleStartNanos = 0L;
+            // Ein Not-Aus wird erst mit dem Start aufgehoben...
+            this.isEmergencyStop = false;
+            // Ein vorgegebener Ablauf beginnt mit dem ersten Takt...
+            final Schedule currentSchedule = this.schedule;
+            this.scheduleExecutor = (currentSchedule != null)? new ScheduleExecutor(currentSchedule) : null;
             setStatus(Status.Started);
             setCounter(0);
             logger.debug("Started()...");
             setProperty(DATA_IS_RUNNABLE_KEY, Boolean.FALSE);
+            // Die Ruhezeit beginnt mit dem Start...
+            this.lastActivityNanos = this.clock.nanoTime();
+            this.wasLineDetected = false;
+            // Der Takt beginnt zuletzt, der erste Takt wartet so nicht auf start()...
+            this.taskExecutive = createTaskExecutive();
+            this.taskExecutive.start();
         }
     }
     
@@ -654,37 +1134,230 @@ public class Model
         final Integer motorNullValue = Integer.valueOf(Model.MOTOR_NULL_VALUE);
         setProperty(Model.DATA_MOTOR_KEY, motorNullValue);
         
-        this.controlThread.stop();
-        setStatus(Status.Stopped);
-        // Offensichtlich kann ein neuer Thread eher gestartet werden,
-        // als der alte beendet wurde. Daher verzoegern wir die 
-        // Moeglichkeit des Neustartes ein wenig...
-        // => Evtl. spaetere Ueberarbeitung notwendig! 
-        try
+        // Anhalten und Status gemeinsam unter der Sperre von start(), sonst
+        // kann ein gleichzeitiger start() seinen TaskExecutive mit Status
+        // Stopped hinterlassen und der naechste start() ersetzt ihn, ohne 
+        // ihn anzuhalten (gefunden mit gui.ModelStressBench)...
+        synchronized (this)
         {
-            Thread.sleep(500);
+            stopTaskExecutive();
+            setStatus(Status.Stopped);
         }
-        catch (InterruptedException exception){}
+        // Jeder start() richtet einen eigenen TaskExecutive ein, die Threads
+        // des alten enden nach ihrem laufenden Warten. Ein Neustart muss
+        // daher nicht mehr verzoegert werden...
         logger.debug("Stopped()...");
         setProperty(DATA_IS_RUNNABLE_KEY, Boolean.TRUE);
     }
+    
+    /**
+     * emergencyStop(String reason) - Not-Aus aus beliebigen Threads 
+     * (Watchdog, Shutdown-Hook, Messung, GUI)...
+     * <p>
+     * Im Gegensatz zu {@link #stop()} ohne Umweg ueber die dataMap, die 
+     * Sperre this und den Takt: Zuerst wird die Sperre isEmergencyStop 
+     * gesetzt, dann schaltet {@link Actuator#emergencyStop()} die Ausgaenge
+     * mit einem Zugriff ab. Die Zeit bis dahin haelt 
+     * {@link #getEmergencyStopLatency()} fest. Das Nachfuehren (Motor-Wert,
+     * Status, Anhalten des Taktes) erledigt stop() in einem eigenen Thread,
+     * der Aufrufer wartet darauf nicht.
+     * </p>
+     * <p>
+     * Ein gleichzeitiger Takt kann seinen Motor-Wert noch vor der Sperre 
+     * bestimmt haben und nach dem Not-Aus schreiben. Er prueft die Sperre 
+     * nach dem Schreiben erneut und wiederholt dann den Not-Aus 
+     * (confirmEmergencyStop()).
+     * </p>
+     * @param reason - Ausloeser (nur Protokoll)
+     */
+    public void emergencyStop(String reason)
+    {
+        final long startNanos = System.nanoTime();
+        final boolean isFirst = !this.isEmergencyStop;
+        this.isEmergencyStop = true;
+        try
+        {
+            this.actuator.emergencyStop();
+        }
+        catch (IOException exception)
+        {
+            logger.error("IOException in emergencyStop()!", exception);
+        }
+        this.emergencyStopLatency.record(System.nanoTime() - startNanos);
+        EMERGENCY_LOG.log(reason);
+        if (isFirst)
+        {
+            final Thread thread = new Thread(this::stop, "EmergencyStop");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /**
+     * confirmEmergencyStop(float speed) - nach einem Schreibzugriff mit 
+     * speed != 0: Not-Aus inzwischen ausgeloest? => erneut abschalten...
+     * @param speed - geschriebene Motor-Vorgabe
+     * @throws IOException
+     */
+    private void confirmEmergencyStop(float speed) throws IOException
+    {
+        if (speed != 0.0f && this.isEmergencyStop)
+        {
+            this.actuator.emergencyStop();
+        }
+    }
+    
+    /**
+     * isEmergencyStop()
+     * @return true nach einem Not-Aus bis zum naechsten start()
+     */
+    public boolean isEmergencyStop()
+    {
+        return this.isEmergencyStop;
+    }
+    
+    /**
+     * getEmergencyStopLatency()
+     * @return Histogramm Aufruf von emergencyStop() => Ausgaenge abgeschaltet
+     */
+    public LatencyHistogram getEmergencyStopLatency()
+    {
+        return this.emergencyStopLatency;
+    }
+    
+    /**
+     * enterSafeState(String reason) - sicherer Zustand nach einer Stoerung 
+     * der Stellglieder...
+     * <p>
+     * Die Motoren wurden bereits durch den Actuator abgeschaltet, daher wird
+     * der Motor-Wert hier nur in der dataMap nachgefuehrt (ohne erneuten
+     * Schreibzugriff auf die gestoerte Hardware). Der Takt wird angehalten,
+     * ein Neustart ist erst nach {@link #leaveSafeState()} moeglich.
+     * </p>
+     * <p>
+     * Ohne Schreibzugriff (Takt angehalten) wuerde der CircuitBreaker nie 
+     * einen Probezugriff erhalten. Daher prueft der Thread faultProbe alle
+     * FAULT_PROBE_PERIOD ms mit {@link Actuator#probe()} und verlaesst bei
+     * Erfolg den sicheren Zustand.
+     * </p>
+     * @param reason - Ursache der Stoerung
+     */
+    public void enterSafeState(String reason)
+    {
+        logger.error("enterSafeState(): " + reason);
+        this.isFaulted = true;
+        synchronized (this)
+        {
+            stopTaskExecutive();
+            setStatus(Status.Stopped);
+            if (this.faultProbe == null)
+            {
+                this.faultProbe = new Thread(this::probeWhileFaulted, "FaultProbe");
+                this.faultProbe.setDaemon(true);
+                this.faultProbe.start();
+            }
+        }
+        
+        final Integer motorNullValue = Integer.valueOf(Model.MOTOR_NULL_VALUE);
+        final Object oldValue = this.dataMap.put(Model.DATA_MOTOR_KEY, motorNullValue);
+        support.firePropertyChange(Model.DATA_MOTOR_KEY, oldValue, motorNullValue);
+        
+        setProperty(DATA_IS_RUNNABLE_KEY, Boolean.FALSE);
+    }
+    
+    /**
+     * probeWhileFaulted() - Probezugriffe bis zum Ende des sicheren 
+     * Zustandes (Thread faultProbe)...
+     * <p>
+     * Ende und Neustart unter der Sperre this: Ein enterSafeState() nach 
+     * der letzten Pruefung findet faultProbe == null und startet neu.
+     * </p>
+     */
+    private void probeWhileFaulted()
+    {
+        while (true)
+        {
+            synchronized (this)
+            {
+                if (!this.isFaulted)
+                {
+                    this.faultProbe = null;
+                    return;
+                }
+            }
+            try
+            {
+                Thread.sleep(Model.FAULT_PROBE_PERIOD);
+            }
+            catch (InterruptedException exception)
+            {
+                synchronized (this)
+                {
+                    this.faultProbe = null;
+                }
+                return;
+            }
+            try
+            {
+                if (this.isFaulted && this.actuator.probe())
+                {
+                    leaveSafeState();
+                }
+            }
+            catch (IOException exception)
+            {
+                // Bus weiterhin gestoert bzw. CircuitBreaker noch geoeffnet...
+                PROBE_LOG.log(exception.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * leaveSafeState() - Stellglieder wieder verfuegbar, 
+     * ein Neustart ist wieder moeglich...
+     */
+    public void leaveSafeState()
+    {
+        if (this.isFaulted)
+        {
+            logger.info("leaveSafeState()...");
+            this.isFaulted = false;
+            setProperty(DATA_IS_RUNNABLE_KEY, Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * isFaulted() - Stellglieder gestoert?
+     * @return true, wenn der sichere Zustand eingenommen wurde
+     */
+    public boolean isFaulted()
+    {
+        return this.isFaulted;
+    }
      
     /**
      * shutdown()...
      * <p>
      * Der gpioController wird auf dem Raspi heruntergefahren...
+     * (vgl. {@link Actuator#shutdown()})
      * </p>
      */
     public void shutdown()
     {
        logger.debug("shutdown()..."); 
-       if (isRaspi)
+       final UltrasonicRanger ranger = this.ultrasonicRanger;
+       if (ranger != null)
+       {
+           ranger.stop();
+       }
+       synchronized (this)
        {
-           final java.util.List<GpioPin> pinList = new java.util.ArrayList<>(this.gpioPinOutputMap.values());
-           final GpioPin[] pins = pinList.toArray(new GpioPin[(pinList != null)? pinList.size() : 0]);
-           this.gpioController.unprovisionPin(pins);
-           this.gpioController.shutdown();  
+           if (this.faultProbe != null)
+           {
+               this.faultProbe.interrupt();
+           }
        }
+       this.actuator.shutdown();
     }
     
     @Override
@@ -700,7 +1373,7 @@ public class Model
      */
     public synchronized void setStatus(Status status)
     {
-        Model.status = status;
+        this.status = status;
     }
     
     /**
@@ -709,7 +1382,7 @@ public class Model
      */
     public synchronized void setCounter(int counter)
     {
-        Model.counter = counter;
+        this.counter = counter;
     }
     
     /**
@@ -717,97 +1390,598 @@ public class Model
      */
     public synchronized void incrementCounter()
     {
-        Model.counter++;
+        this.counter++;
     }
     
     /**
-     * ControlThread - Klasse zur Taktung der Aktionen... 
-     *
+     * getCounter() - aktueller Stand des Taktzaehlers...
+     * @return counter
      */
-    class ControlThread implements Runnable
+    public synchronized long getCounter()
     {
-        /**
-         * 
-         */
-        private Thread worker;
-        /**
-         * isRunning - Flag...
-         */
-        private final AtomicBoolean isRunning = new AtomicBoolean(false); 
-        
-        /**
-         * cycleTime - Zykluszeit in ms.
-         */
-        private final int cycleTime;
-        
-        /**
-         * ControlThread(int cycleTime) - Konstruktor mit Zykluszeit in ms.
-         * @param cycleTime - Zykluszeit (ms)
-         */
-        public ControlThread(int cycleTime)
+        return this.counter;
+    }
+    
+    /**
+     * getCycleTime()
+     * @return Taktung in ms
+     */
+    public int getCycleTime()
+    {
+        return this.cycleTime;
+    }
+    
+    /**
+     * setSchedule(Schedule schedule) - vorgegebener Ablauf fuer die 
+     * folgenden Starts (null: kein Ablauf)...
+     * @param schedule
+     */
+    public void setSchedule(Schedule schedule)
+    {
+        if (schedule != null && schedule.getCycleTime() != this.cycleTime)
         {
-            this.cycleTime = cycleTime;
+            throw new IllegalArgumentException("Schedule fuer " + schedule.getCycleTime() + " ms, Taktung " + this.cycleTime + " ms");
         }
-        
-        /**
-         * 
-         */
-        public void start()
+        this.schedule = schedule;
+    }
+    
+    /**
+     * setCycleTimer(CycleTimer cycleTimer) - Warten auf die Taktgrenze 
+     * fuer die folgenden Starts (z.B. Precision: park/spin, SCHED_FIFO)...
+     * @param cycleTimer - null: CycleTimer.SLEEP
+     */
+    public void setCycleTimer(CycleTimer cycleTimer)
+    {
+        this.cycleTimer = (cycleTimer != null)? cycleTimer : CycleTimer.SLEEP;
+    }
+    
+    /**
+     * getCycleTimer()
+     * @return CycleTimer
+     */
+    public CycleTimer getCycleTimer()
+    {
+        return this.cycleTimer;
+    }
+    
+    /**
+     * setRatePlan(RatePlan ratePlan) - Perioden von Servo, Motor und GUI 
+     * fuer die folgenden Starts...
+     * @param ratePlan - null: RatePlan.UNIFORM
+     */
+    public void setRatePlan(RatePlan ratePlan)
+    {
+        this.ratePlan = (ratePlan != null)? ratePlan : RatePlan.UNIFORM;
+    }
+    
+    /**
+     * getRatePlan()
+     * @return RatePlan
+     */
+    public RatePlan getRatePlan()
+    {
+        return this.ratePlan;
+    }
+    
+    /**
+     * setIdlePolicy(IdlePolicy idlePolicy) - Ruhebetrieb bei stehendem 
+     * Motor ohne Eingabe, wirksam ab dem naechsten Takt (ein laufender 
+     * Ruhebetrieb wird beendet)...
+     * @param idlePolicy - null: IdlePolicy.NONE
+     */
+    public void setIdlePolicy(IdlePolicy idlePolicy)
+    {
+        this.idlePolicy = (idlePolicy != null)? idlePolicy : IdlePolicy.NONE;
+        noteActivity();
+    }
+    
+    /**
+     * getIdlePolicy()
+     * @return IdlePolicy
+     */
+    public IdlePolicy getIdlePolicy()
+    {
+        return this.idlePolicy;
+    }
+    
+    /**
+     * noteActivity() - Eingabe bzw. Sensor-Ereignis (beliebiger Thread): 
+     * die Ruhezeit beginnt neu, ein laufender Ruhebetrieb endet mit der
+     * naechsten Freigabe (vgl. TaskExecutive.wake())...
+     * <p>
+     * Anm.: Zuerst die Zeit, dann wake(), vgl. adaptRate().
+     * </p>
+     */
+    private void noteActivity()
+    {
+        this.lastActivityNanos = this.clock.nanoTime();
+        final TaskExecutive executive = this.taskExecutive;
+        if (executive != null)
         {
-            this.worker = new Thread(this);
-            this.worker.start();
+            executive.wake();
         }
-        
-        
-        public void stop()
+    }
+    
+    /**
+     * adaptRate(TaskExecutive executive, long startNanos) - Ende des 
+     * Taktes: Ruhebetrieb nach idlePolicy...
+     * <p>
+     * Ruhe heisst: Motor-Sollwert 0, kein laufender Ablauf (schedule) und 
+     * seit idleDelay keine Eingabe, kein Hindernis-Ereignis und kein 
+     * Wechsel der Linienerkennung. Dann wird die Rate je Takt halbiert bis
+     * zur idlePeriod. Periode und Jitter werden nur bei voller Rate 
+     * erfasst (vgl. recordCycle()).
+     * </p>
+     * @param executive - TaskExecutive dieses Laufs
+     * @param startNanos - Beginn des Taktes
+     */
+    private void adaptRate(TaskExecutive executive, long startNanos)
+    {
+        final IdlePolicy policy = this.idlePolicy;
+        if (!policy.isEnabled())
         {
-            this.isRunning.set(false);
+            return;
         }
-        
-        @Override
-        public void run()
+        // Stand vor der Entscheidung: eine gleichzeitige Eingabe hebt slowDown() wieder auf...
+        final long requests = executive.getWakeRequests();
+        final LineFollower follower = this.lineFollower;
+        final boolean isLineDetected = (follower != null) && follower.isLineDetected();
+        if (isLineDetected != this.wasLineDetected)
         {
-            logger.debug("run()...");
+            this.wasLineDetected = isLineDetected;
+            noteActivity();
+            return;
+        }
+        final ScheduleExecutor executor = this.scheduleExecutor;
+        final boolean isIdle = toSpeed(this.dataMap.get(Model.DATA_MOTOR_KEY)) == 0.0f
+                            && (executor == null || executor.isCompleted())
+                            && startNanos - this.lastActivityNanos >= policy.getIdleDelayNanos();
+        if (isIdle)
+        {
+            executive.slowDown(policy.getMaxDivider(this.cycleTime * 1_000_000L), requests);
+        }
+        if (executive.getRateDivider() > 1)
+        {
+            this.lastCycleStartNanos = 0L;
+        }
+    }
+    
+    /**
+     * setLineFollower(LineFollower lineFollower) - Linienfolger, wird zu 
+     * Beginn jedes Taktes erfasst (null: ohne)...
+     * @param lineFollower
+     */
+    public void setLineFollower(LineFollower lineFollower)
+    {
+        this.lineFollower = lineFollower;
+    }
+    
+    /**
+     * getLineFollower()
+     * @return LineFollower oder null
+     */
+    public LineFollower getLineFollower()
+    {
+        return this.lineFollower;
+    }
+    
+    /**
+     * setUltrasonicRanger(UltrasonicRanger ranger) - Abstandsmessung anmelden
+     * und starten...
+     * <p>
+     * Unterschreitet der Abstand die Bremsschwelle, so wird der Motor aus 
+     * dem Thread der Messung sofort abgeschaltet (brake()), ohne auf den 
+     * naechsten Takt zu warten. Bis zur Freigabe ueberschreibt 
+     * limitSpeed() jede Vorwaerts-Vorgabe mit 0, rueckwaerts bleibt 
+     * moeglich. Nach der Freigabe gilt wieder der Sollwert (naechster 
+     * Takt bzw. naechste Vorgabe).
+     * </p>
+     * @param ranger
+     */
+    public void setUltrasonicRanger(UltrasonicRanger ranger)
+    {
+        ranger.addListener(new UltrasonicRanger.Listener()
+        {
+            @Override
+            public void obstacleDetected(double distance)
+            {
+                brake(distance);
+                noteActivity();
+            }
+
+            @Override
+            public void obstacleCleared(double distance)
+            {
+                Model.this.isObstacle = false;
+                CLEARED_LOG.log(distance);
+                noteActivity();
+            }
+        });
+        this.ultrasonicRanger = ranger;
+        ranger.start();
+    }
+    
+    /**
+     * getUltrasonicRanger()
+     * @return UltrasonicRanger oder null
+     */
+    public UltrasonicRanger getUltrasonicRanger()
+    {
+        return this.ultrasonicRanger;
+    }
+    
+    /**
+     * isObstacle()
+     * @return true, wenn die Vorwaertsfahrt wegen eines Hindernisses gesperrt ist
+     */
+    public boolean isObstacle()
+    {
+        return this.isObstacle;
+    }
+    
+    /**
+     * brake(double distance) - Notbremse aus dem Thread der Messung...
+     * <p>
+     * Zuerst wird die Sperre gesetzt (ein gleichzeitiger Takt schreibt 
+     * damit bereits 0), dann bei Vorwaertsfahrt der Motor direkt mit 
+     * einem Schreibzugriff abgeschaltet.
+     * </p>
+     * @param distance - Abstand (m)
+     */
+    private void brake(double distance)
+    {
+        this.isObstacle = true;
+        final float speed = toFactor(this.dataMap.get(Model.DATA_GEAR_KEY)) * toSpeed(this.dataMap.get(Model.DATA_MOTOR_KEY));
+        if (speed > 0.0f)
+        {
+            try
+            {
+                this.actuator.setMotor(0.0f);
+            }
+            catch (IOException exception)
+            {
+                logger.error("IOException in brake()!", exception);
+            }
+        }
+        OBSTACLE_LOG.log(distance);
+    }
+    
+    /**
+     * limitSpeed(float speed) - Vorwaertsfahrt bei Hindernis sperren,
+     * nach einem Not-Aus jede Fahrt...
+     * @param speed - Motor-Vorgabe inkl. Gang (-1.0f ... +1.0f)
+     * @return speed bzw. 0.0f
+     */
+    private float limitSpeed(float speed)
+    {
+        if (this.isEmergencyStop)
+        {
+            return 0.0f;
+        }
+        return (this.isObstacle && speed > 0.0f)? 0.0f : speed;
+    }
+    
+    /**
+     * getScheduleExecutor() - Ausfuehrung des Ablaufes im aktuellen bzw.
+     * letzten Start (z.B. fuer die Auswertung der Abweichungen)...
+     * @return ScheduleExecutor oder null
+     */
+    public ScheduleExecutor getScheduleExecutor()
+    {
+        return this.scheduleExecutor;
+    }
+    
+    /**
+     * isGearEnabled() - Gangwechsel zulaessig? (vgl. doMotor(): gesperrt,
+     * wenn die speed-Vorgabe groesser als LIMIT_FOR_GEAR_ENABLED ist)
+     * @return true, wenn der Gang gewechselt werden darf
+     */
+    public boolean isGearEnabled()
+    {
+        return !Boolean.FALSE.equals(this.dataMap.get(Model.DATA_GEAR_ENABLED_KEY));
+    }
+    
+    /**
+     * isGearChangeAllowed() - Gangwechsel zum aktuellen Motor-Sollwert 
+     * zulaessig? Wie die Getriebesperre in doMotor(), aber direkt aus dem
+     * Sollwert bestimmt (DATA_GEAR_ENABLED_KEY folgt erst mit doMotor(), 
+     * z.B. nach einem Motor-Kommando im selben Takt)...
+     * @return true, wenn die speed-Vorgabe hoechstens LIMIT_FOR_GEAR_ENABLED ist
+     */
+    public boolean isGearChangeAllowed()
+    {
+        return toSpeed(this.dataMap.get(Model.DATA_MOTOR_KEY)) <= Model.LIMIT_FOR_GEAR_ENABLED;
+    }
+    
+    /**
+     * getProperty(String key) - aktueller Wert aus der dataMap...
+     * @param key
+     * @return Wert oder null
+     */
+    public Object getProperty(String key)
+    {
+        return this.dataMap.get(key);
+    }
+    
+    /**
+     * getStatus()
+     * @return status
+     */
+    public synchronized Status getStatus()
+    {
+        return this.status;
+    }
+    
+    /**
+     * doCycle() - ein Takt der Steuerung...
+     * <p>
+     * Der Taktzaehler wird erhoeht, Servo und Motor werden nachgezogen
+     * und die GUI wird informiert. Die Simulation (gui.sim) beauftragt 
+     * die Methode direkt in ihrem eigenen (virtuellen) Takt, im regulaeren
+     * Lauf fuehrt der TaskExecutive dieselben Schritte als einzelne 
+     * Aufgaben aus (vgl. createTaskExecutive()).
+     * </p>
+     * @throws IOException
+     */
+    public void doCycle() throws IOException
+    {
+        final long startNanos = this.clock.nanoTime();
+        try
+        {
+            doControl(startNanos);
             
-            this.isRunning.set(true);
+            doServo(null);
             
-            while(this.isRunning.get())
+            doMotor(null);
+        }
+        finally
+        {
+            // ...die relevanten Daten werden in die GUI uebertragen...
+            notifyGUI();
+            // ...und im cycleBuffer abgelegt...
+            recordCycle(startNanos);
+        }
+    }
+    
+    /**
+     * doControl(long startNanos) - Beginn eines Taktes: Taktzaehler, 
+     * Linienfolger und faellige Kommandos des vorgegebenen Ablaufes...
+     * @param startNanos - Beginn des Taktes
+     * @throws IOException
+     */
+    private void doControl(long startNanos) throws IOException
+    {
+        // incrementCounter() erhoeht den counter um 1...
+        incrementCounter();
+        // Linie erfassen, die Position gilt ab hier im selben Takt...
+        final LineFollower follower = this.lineFollower;
+        if (follower != null)
+        {
+            try
+            {
+                follower.acquire();
+            }
+            catch (IOException exception)
+            {
+                LINE_LOG.log(exception);
+            }
+        }
+        // Vorgegebener Ablauf: faellige Kommandos an der Taktgrenze...
+        final ScheduleExecutor executor = this.scheduleExecutor;
+        if (executor != null)
+        {
+            executor.execute(this, startNanos);
+        }
+    }
+    
+    /**
+     * recordCycle(long startNanos) - Ablage des Taktes im cycleBuffer...
+     * @param startNanos - Beginn des Taktes
+     */
+    private void recordCycle(long startNanos)
+    {
+        final long periodNanos = (this.lastCycleStartNanos != 0L)? startNanos - this.lastCycleStartNanos : 0L;
+        final long jitterNanos = (periodNanos != 0L)? periodNanos - this.cycleTime * 1_000_000L : 0L;
+        this.lastCycleStartNanos = startNanos;
+        
+        final Object servoValue = this.dataMap.get(Model.DATA_SERVO_KEY);
+        final Object motorValue = this.dataMap.get(Model.DATA_MOTOR_KEY);
+        final Object gearValue = this.dataMap.get(Model.DATA_GEAR_KEY);
+        final long busyNanos = this.clock.nanoTime() - startNanos;
+        final long latencyNanos = this.latencyTracer.takeMaxLatency();
+        
+        this.cycleBuffer.add(getCounter(), 
+                             startNanos, 
+                             periodNanos, 
+                             jitterNanos, 
+                             busyNanos, 
+                             latencyNanos, 
+                             (servoValue instanceof Integer)? ((Integer)servoValue).intValue() : 0, 
+                             (motorValue instanceof Integer)? ((Integer)motorValue).intValue() : 0, 
+                             (gearValue instanceof Transmission)? (Transmission)gearValue : Transmission.D, 
+                             getStatus());
+        recordSignals(periodNanos, jitterNanos, busyNanos, latencyNanos, servoValue, motorValue);
+    }
+    
+    /**
+     * recordSignals(...) - Fortschreiben der signalStatistics (Steuertakt,
+     * einziger Schreiber)...
+     * <p>
+     * Periode und Jitter erst ab dem zweiten Takt eines Laufs, Linie und 
+     * Abstand nur mit gueltigem Messwert.
+     * </p>
+     */
+    private void recordSignals(long periodNanos, long jitterNanos, long busyNanos, long latencyNanos, Object servoValue, Object motorValue)
+    {
+        final SignalStatistics statistics = this.signalStatistics;
+        statistics.add(Signal.Servo, (servoValue instanceof Integer)? ((Integer)servoValue).intValue() : 0);
+        statistics.add(Signal.Motor, (motorValue instanceof Integer)? ((Integer)motorValue).intValue() : 0);
+        if (periodNanos != 0L)
+        {
+            statistics.add(Signal.Period, periodNanos);
+            statistics.add(Signal.Jitter, jitterNanos);
+        }
+        statistics.add(Signal.Busy, busyNanos);
+        statistics.add(Signal.Latency, latencyNanos);
+        final LineFollower follower = this.lineFollower;
+        if (follower != null && follower.isLineDetected())
+        {
+            statistics.add(Signal.LinePosition, Math.round(follower.getPosition() * 1e6));
+        }
+        final UltrasonicRanger ranger = this.ultrasonicRanger;
+        if (ranger != null)
+        {
+            final double distance = ranger.getDistance();
+            if (!Double.isNaN(distance))
+            {
+                statistics.add(Signal.Distance, Math.round(distance * 1e3));
+            }
+        }
+    }
+    
+    /**
+     * getLatencyTracer() - Laufzeiten Eingabe => Hardware...
+     * @return latencyTracer
+     */
+    public LatencyTracer getLatencyTracer()
+    {
+        return this.latencyTracer;
+    }
+    
+    /**
+     * getSignalStatistics() - gleitende Kennwerte der letzten 
+     * SIGNAL_WINDOW_SIZE Takte, Lesen ohne Sperre (z.B. im EDT)...
+     * @return signalStatistics
+     */
+    public SignalStatistics getSignalStatistics()
+    {
+        return this.signalStatistics;
+    }
+    
+    /**
+     * getCycleBuffer() - Ringpuffer mit den Werten der letzten Takte...
+     * @return cycleBuffer
+     */
+    public CycleBuffer getCycleBuffer()
+    {
+        return this.cycleBuffer;
+    }
+    
+    /**
+     * createTaskExecutive() - Aufgaben der Steuerung nach ratePlan...
+     * <p>
+     * Der Takt (Taktzaehler, vorgegebener Ablauf, cycleBuffer) laeuft mit 
+     * cycleTime bei Phase 0, Servo und Motor mit ihrer Periode beim Versatz
+     * actuationPhase, die GUI wird mit ihrer Periode informiert. Bei 
+     * gleicher Periode und Phase gilt die Reihenfolge der Anmeldung, mit
+     * {@link RatePlan#UNIFORM} also wie in {@link #doCycle()}.
+     * </p>
+     * <p>
+     * Am Ende des Taktes wird ueber den Ruhebetrieb entschieden 
+     * (vgl. {@link #adaptRate(TaskExecutive, long)}).
+     * </p>
+     * @return TaskExecutive (noch nicht gestartet)
+     */
+    private TaskExecutive createTaskExecutive()
+    {
+        final RatePlan plan = this.ratePlan;
+        final long cycleNanos = this.cycleTime * 1_000_000L;
+        final TaskExecutive executive = new TaskExecutive("ControlTask", plan.getThreads(), this.cycleTimer, this.clock);
+        executive.register("cycle", cycleNanos, 0L, new Task()
+        {
+            @Override
+            public void execute(long releaseNanos) throws IOException
             {
-                doIt();
+                final long startNanos = Model.this.clock.nanoTime();
                 try
                 {
-                    Thread.sleep(cycleTime);
+                    doControl(startNanos);
                 }
-                catch(InterruptedException exception)
+                finally
                 {
-                    Thread.currentThread().interrupt();
-                    logger.error("Thread was interrupted, Failed to complete operation", exception);
+                    recordCycle(startNanos);
                 }
+                adaptRate(executive, startNanos);
             }
-        }
-        
-        /**
-         * doIt()
-         */
-        private void doIt()
+        });
+        executive.register("servo", plan.getServoPeriodNanos(cycleNanos), plan.getActuationPhaseNanos(), new Task()
         {
-            // incrementCounter() erhoeht den counter um 1...
-            incrementCounter();
-            
-            try
+            @Override
+            public void execute(long releaseNanos) throws IOException
             {
-                doServo();
-                
-                doMotor();
+                doServo(null);
             }
-            catch(IOException exception)
+        });
+        executive.register("motor", plan.getMotorPeriodNanos(cycleNanos), plan.getActuationPhaseNanos(), new Task()
+        {
+            @Override
+            public void execute(long releaseNanos) throws IOException
             {
-                logger.error("IOException in doIt()", exception);
-                Thread.currentThread().interrupt();
+                doMotor(null);
             }
-            
-            // ...die relevanten Daten werden in die GUI uebertragen...
-            notifyGUI();
+        });
+        executive.register("gui", plan.getGuiPeriodNanos(cycleNanos), 0L, new Task()
+        {
+            @Override
+            public void execute(long releaseNanos)
+            {
+                notifyGUI();
+            }
+        });
+        return executive;
+    }
+    
+    /**
+     * stopTaskExecutive() - Aufgaben der Steuerung beenden (sofern gestartet)...
+     */
+    private void stopTaskExecutive()
+    {
+        final TaskExecutive executive = this.taskExecutive;
+        if (executive != null)
+        {
+            executive.stop();
+        }
+    }
+    
+    /**
+     * advanceTime(long deltaNanos) - nur mit VirtualClock: Zeit fortschalten,
+     * nach start() werden dabei alle faelligen Aufgaben ausgefuehrt 
+     * (vgl. TaskExecutive.advance())...
+     * @param deltaNanos - Zeitschritt in ns (nicht negativ)
+     */
+    public void advanceTime(long deltaNanos)
+    {
+        if (!(this.clock instanceof VirtualClock))
+        {
+            throw new IllegalStateException("advanceTime(): keine VirtualClock, " + this.clock);
         }
+        final TaskExecutive executive = this.taskExecutive;
+        if (executive != null && executive.isRunning())
+        {
+            executive.advance(deltaNanos);
+        }
+        else
+        {
+            ((VirtualClock)this.clock).advance(deltaNanos);
+        }
+    }
+    
+    /**
+     * getClock()
+     * @return Zeitbasis des Taktes
+     */
+    public Clock getClock()
+    {
+        return this.clock;
+    }
+    
+    /**
+     * getTaskExecutive() - Aufgaben der Steuerung im aktuellen bzw. letzten
+     * Start (Terminverletzungen je Aufgabe, vgl. TaskStatistics)...
+     * @return TaskExecutive oder null vor dem ersten start()
+     */
+    public TaskExecutive getTaskExecutive()
+    {
+        return this.taskExecutive;
     }
 }
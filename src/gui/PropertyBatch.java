@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package gui;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gui.trace.Trace;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * PropertyBatch - mehrere Aenderungen am Model, die gemeinsam uebernommen
+ * werden ({@link Model#batch()}):
+ * </p>
+ * <pre>
+ * model.batch()
+ *      .set(Model.DATA_SERVO_KEY, Integer.valueOf(10))
+ *      .set(Model.DATA_MOTOR_KEY, Integer.valueOf(40))
+ *      .set(Model.DATA_GEAR_KEY, Transmission.D)
+ *      .commit();
+ * </pre>
+ * <p>
+ * commit() legt alle Werte unter einer Sperre in der dataMap ab, bestimmt
+ * die Getriebesperre einmal aus dem resultierenden Motor-Sollwert, schreibt
+ * Servo und Motor mit einem Zugriff auf die Stellglieder
+ * ({@link gui.hardware.Actuator#set(int, float)}) und meldet alle
+ * Aenderungen mit einem Event unter {@link Model#DATA_BATCH_KEY}.
+ * </p>
+ * <p>
+ * Wird ein Key mehrfach gesetzt, gilt der letzte Wert. Die Instanz gehoert
+ * dem aufrufenden Thread und ist nach commit() verbraucht.
+ * </p>
+ */
+public final class PropertyBatch
+{
+    /**
+     * model - Ziel der Aenderungen
+     */
+    private final Model model;
+
+    /**
+     * changes - Key => neuer Wert (Reihenfolge des ersten Setzens)
+     */
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+
+    /**
+     * isCommitted - commit() bereits erfolgt?
+     */
+    private boolean isCommitted = false;
+
+    /**
+     * PropertyBatch(Model model) - vgl. Model.batch()
+     * @param model
+     */
+    PropertyBatch(Model model)
+    {
+        this.model = model;
+    }
+
+    /**
+     * set(String key, Object newValue) - Aenderung vormerken...
+     * @param key
+     * @param newValue
+     * @return this
+     */
+    public PropertyBatch set(String key, Object newValue)
+    {
+        if (this.isCommitted)
+        {
+            throw new IllegalStateException("set() nach commit(): " + key);
+        }
+        this.changes.put(key, newValue);
+        return this;
+    }
+
+    /**
+     * isEmpty()
+     * @return true, wenn keine Aenderung vorgemerkt ist
+     */
+    public boolean isEmpty()
+    {
+        return this.changes.isEmpty();
+    }
+
+    /**
+     * commit() - Uebernahme aller Aenderungen...
+     * @return false, wenn ein Gangwechsel (Getriebesperre) oder eine 
+     * Motor-Vorgabe (sicherer Zustand) verworfen wurde
+     */
+    public boolean commit()
+    {
+        return commit(null);
+    }
+
+    /**
+     * commit(Trace trace) - wie commit(), die Stationen werden im trace
+     * vermerkt (Key: Model.DATA_BATCH_KEY)...
+     * @param trace - Trace der Eingabe oder null
+     * @return false, wenn eine Aenderung verworfen wurde (vgl. commit())
+     */
+    public boolean commit(Trace trace)
+    {
+        if (this.isCommitted)
+        {
+            throw new IllegalStateException("commit(): bereits uebernommen");
+        }
+        this.isCommitted = true;
+        return this.model.apply(Collections.unmodifiableMap(this.changes), trace);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.PropertyBatch" + this.changes;
+    }
+}
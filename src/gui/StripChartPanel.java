@@ -0,0 +1,314 @@
+/**
+ * 
+ */
+package gui;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * StripChartPanel - laufende Anzeige (Linienschreiber) der letzten Takte:
+ * Servo-Sollwert, Motor-Sollwert, Zykluszeit und Jitter.
+ * </p>
+ * <p>
+ * Die Werte werden aus dem {@link CycleBuffer} des Model gelesen 
+ * (ohne Sperre, ohne Objekt-Erzeugung). Je Takt wird eine Pixelspalte 
+ * gezeichnet: Ein javax.swing.Timer holt im EDT die neuen Takte ab, das 
+ * BufferedImage wird um die Anzahl der neuen Takte nach links geschoben
+ * (copyArea) und nur die neuen Spalten werden gezeichnet. paintComponent()
+ * kopiert dann lediglich das Image.
+ * </p>
+ */
+public class StripChartPanel extends JPanel
+{
+    /**
+     * serialVersionUID = 1L
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * DEFAULT_REFRESH_MS = 50 - Abholtakt der Anzeige (ms), d.h. 20 Hz
+     */
+    public final static int DEFAULT_REFRESH_MS = 50;
+    
+    /**
+     * LANES = 4 - Anzahl der Spuren (Servo, Motor, Zykluszeit, Jitter)
+     */
+    private final static int LANES = 4;
+    
+    /**
+     * LANE_COLORS - Farben der Spuren...
+     */
+    private final static Color[] LANE_COLORS = 
+    {
+        Color.BLUE,             // Servo
+        new Color(0, 128, 0),   // Motor
+        Color.DARK_GRAY,        // Zykluszeit
+        Color.RED               // Jitter
+    };
+    
+    /**
+     * LANE_NAMES - Bezeichnung der Spuren...
+     */
+    private final static String[] LANE_NAMES = 
+    {
+        "Servo",
+        "Motor",
+        "Zyklus",
+        "Jitter"
+    };
+    
+    /**
+     * BACKGROUND - Hintergrundfarbe
+     */
+    private final static Color BACKGROUND = Color.WHITE;
+    
+    /**
+     * GRID_RGB - Farbe der Nulllinien und Spurgrenzen
+     */
+    private final static int GRID_RGB = Color.LIGHT_GRAY.getRGB();
+    
+    /**
+     * cycleBuffer - Quelle der Werte...
+     */
+    private final CycleBuffer cycleBuffer;
+    
+    /**
+     * sample - wiederverwendeter Aufnehmer fuer einen Takt...
+     */
+    private final CycleSample sample = new CycleSample();
+    
+    /**
+     * image - Zeichenflaeche, wird spaltenweise fortgeschrieben...
+     */
+    private final BufferedImage image;
+    
+    /**
+     * graphics - Graphics des image (einmalig angelegt)
+     */
+    private final Graphics2D graphics;
+    
+    /**
+     * laneHeight - Hoehe einer Spur in Pixel
+     */
+    private final int laneHeight;
+    
+    /**
+     * minValues, maxValues - Wertebereich je Spur...
+     */
+    private final double[] minValues = new double[LANES];
+    private final double[] maxValues = new double[LANES];
+    
+    /**
+     * lastY - y-Koordinate des letzten Punktes je Spur (fuer die Verbindungslinie)
+     */
+    private final int[] lastY = new int[LANES];
+    
+    /**
+     * timer - Abholtakt...
+     */
+    private final Timer timer;
+    
+    /**
+     * nextSequence - naechster abzuholender Takt...
+     */
+    private long nextSequence = 0L;
+    
+    /**
+     * StripChartPanel(CycleBuffer cycleBuffer, int cycleTime, int width, int height)
+     * @param cycleBuffer - Quelle der Werte
+     * @param cycleTime - Taktung in ms (Skalierung Zykluszeit und Jitter)
+     * @param width - Breite in Pixel (= Anzahl der dargestellten Takte)
+     * @param height - Hoehe in Pixel
+     */
+    public StripChartPanel(CycleBuffer cycleBuffer, int cycleTime, int width, int height)
+    {
+        this.cycleBuffer = cycleBuffer;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.graphics = this.image.createGraphics();
+        this.laneHeight = height/LANES;
+        
+        final double servoMaxValue = Double.parseDouble(Model.SERVO_MAX_VALUE);
+        final double cycleTimeMs = cycleTime;
+        // Spur 0: Servo -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE
+        setRange(0, -servoMaxValue, servoMaxValue);
+        // Spur 1: Motor 0 ... MOTOR_MAX_VALUE
+        setRange(1, Double.parseDouble(Model.MOTOR_NULL_VALUE), Double.parseDouble(Model.MOTOR_MAX_VALUE));
+        // Spur 2: Zykluszeit 0 ... 2 * cycleTime (ms)
+        setRange(2, 0.0, 2.0 * cycleTimeMs);
+        // Spur 3: Jitter +/- 10% von cycleTime, mind. +/- 1 ms
+        final double jitterRangeMs = Math.max(1.0, cycleTimeMs/10.0);
+        setRange(3, -jitterRangeMs, jitterRangeMs);
+        
+        clear();
+        
+        setPreferredSize(new Dimension(width, height));
+        setMinimumSize(new Dimension(width, height));
+        setMaximumSize(new Dimension(width, height));
+        setToolTipText("Servo (blau), Motor (gruen), Zykluszeit (grau), Jitter (rot)");
+        
+        this.timer = new Timer(DEFAULT_REFRESH_MS, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent event)
+            {
+                update();
+            }
+        });
+        this.timer.setCoalesce(true);
+    }
+    
+    /**
+     * setRange(int lane, double min, double max) - Wertebereich einer Spur...
+     */
+    private void setRange(int lane, double min, double max)
+    {
+        this.minValues[lane] = min;
+        this.maxValues[lane] = max;
+        this.lastY[lane] = toY(lane, 0.0);
+    }
+    
+    /**
+     * setMonitoring(boolean isMonitoring) - Anzeige ein-/ausschalten...
+     * <p>
+     * Bei abgeschalteter Anzeige entsteht keinerlei Last.
+     * </p>
+     * @param isMonitoring
+     */
+    public void setMonitoring(boolean isMonitoring)
+    {
+        if (isMonitoring)
+        {
+            // Nur die neuen Takte zeigen, alte Werte nicht nachzeichnen...
+            this.nextSequence = this.cycleBuffer.getSequence();
+            this.timer.start();
+        }
+        else
+        {
+            this.timer.stop();
+        }
+    }
+    
+    /**
+     * isMonitoring()
+     * @return true, wenn die Anzeige laeuft
+     */
+    public boolean isMonitoring()
+    {
+        return this.timer.isRunning();
+    }
+    
+    /**
+     * update() - Abholen der neuen Takte und Zeichnen der neuen Spalten (im EDT)...
+     */
+    private void update()
+    {
+        final int width = this.image.getWidth();
+        final long sequence = this.cycleBuffer.getSequence();
+        // Nicht mehr als eine Bildbreite und nur noch Verfuegbares zeichnen...
+        final long first = Math.max(this.nextSequence, Math.max(this.cycleBuffer.getOldestSequence(), sequence - width));
+        final int columns = (int)(sequence - first);
+        if (columns <= 0)
+        {
+            return;
+        }
+        // 1.) Bild um die Anzahl der neuen Spalten nach links schieben...
+        if (columns < width)
+        {
+            this.graphics.copyArea(columns, 0, width - columns, this.image.getHeight(), -columns, 0);
+        }
+        // 2.) Nur die neuen Spalten zeichnen...
+        int x = width - columns;
+        for (long number = first; number < sequence; number++, x++)
+        {
+            clearColumn(x);
+            if (this.cycleBuffer.read(number, this.sample))
+            {
+                drawColumn(x, 0, this.sample.getServo());
+                drawColumn(x, 1, this.sample.getMotor());
+                drawColumn(x, 2, this.sample.getPeriodNanos()/1.0e6);
+                drawColumn(x, 3, this.sample.getJitterNanos()/1.0e6);
+            }
+        }
+        this.nextSequence = sequence;
+        repaint();
+    }
+    
+    /**
+     * clearColumn(int x) - Spalte mit Hintergrund und Gitter vorbelegen...
+     */
+    private void clearColumn(int x)
+    {
+        this.graphics.setColor(BACKGROUND);
+        this.graphics.drawLine(x, 0, x, this.image.getHeight() - 1);
+        for (int lane = 0; lane < LANES; lane++)
+        {
+            this.image.setRGB(x, lane * this.laneHeight, GRID_RGB);
+            this.image.setRGB(x, toY(lane, 0.0), GRID_RGB);
+        }
+    }
+    
+    /**
+     * drawColumn(int x, int lane, double value) - Linie vom letzten Punkt
+     * der Spur zum neuen Punkt in der Spalte x...
+     */
+    private void drawColumn(int x, int lane, double value)
+    {
+        final int y = toY(lane, value);
+        this.graphics.setColor(LANE_COLORS[lane]);
+        this.graphics.drawLine(x, this.lastY[lane], x, y);
+        this.lastY[lane] = y;
+    }
+    
+    /**
+     * toY(int lane, double value) - Umrechnung Wert => y-Koordinate (begrenzt auf die Spur)...
+     */
+    private int toY(int lane, double value)
+    {
+        final double min = this.minValues[lane];
+        final double max = this.maxValues[lane];
+        final double relValue = Math.max(0.0, Math.min(1.0, (value - min)/(max - min)));
+        final int top = lane * this.laneHeight + 1;
+        final int bottom = (lane + 1) * this.laneHeight - 1;
+        return bottom - (int)Math.round(relValue * (bottom - top));
+    }
+    
+    /**
+     * clear() - Bild komplett neu aufbauen (einmalig)...
+     */
+    private void clear()
+    {
+        this.graphics.setColor(BACKGROUND);
+        this.graphics.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+        for (int x = 0; x < this.image.getWidth(); x++)
+        {
+            clearColumn(x);
+        }
+    }
+    
+    /**
+     * paintComponent(Graphics graphics) - nur Kopie des Image und Spurbezeichnungen...
+     */
+    @Override
+    protected void paintComponent(Graphics graphics)
+    {
+        super.paintComponent(graphics);
+        graphics.drawImage(this.image, 0, 0, null);
+        for (int lane = 0; lane < LANES; lane++)
+        {
+            graphics.setColor(LANE_COLORS[lane]);
+            graphics.drawString(LANE_NAMES[lane], 4, lane * this.laneHeight + 12);
+        }
+    }
+}
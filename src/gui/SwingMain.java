@@ -2,10 +2,32 @@ package gui;
 
 import java.awt.EventQueue;
 import java.awt.image.BufferedImage;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
 import java.net.URL;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 import javax.imageio.ImageIO;
 
+import gui.archive.SessionArchiveWriter;
+import gui.hardware.UltrasonicRanger;
+import gui.hardware.i2c.I2CBackend;
+import gui.input.EvdevCommandSource;
+import gui.remote.RemoteViewServer;
+import gui.schedule.Schedule;
+import gui.task.IdlePolicy;
+import gui.task.RatePlan;
+import gui.telemetry.TelemetryFormat;
+import gui.telemetry.TelemetryPublisher;
+import gui.time.CycleTimer;
+import gui.web.DashboardServer;
+
 public class SwingMain              
 {
 
@@ -41,6 +63,191 @@ public class SwingMain
      */ 
     private final boolean defaultLookAndFeel;
     
+    /**
+     * LATENCY_EXPORT_KEY - Key unter dem die Datei zur Ausgabe der 
+     * Laufzeiten (Eingabe => Hardware) abgelegt ist. Ist der Key gesetzt,
+     * werden die Laufzeiten beim Beenden der Anwendung als CSV ausgegeben.
+     */
+    public final static String LATENCY_EXPORT_KEY = "latencyExportFile";
+    
+    /**
+     * EVDEV_DEVICE_KEY - Key unter dem ein Linux-Eingabegeraet (z.B. 
+     * /dev/input/event0) abgelegt ist. Ist der Key gesetzt, werden Servo 
+     * und Motor zusaetzlich ueber dieses Geraet gesteuert (Gamepad, Tastatur).
+     */
+    public final static String EVDEV_DEVICE_KEY = "evdevDevice";
+    
+    /**
+     * I2C_BACKEND_KEY - Key unter dem der Zugriff auf den I2C-Bus 
+     * ("pi4j" oder "linux") abgelegt ist...
+     */
+    public final static String I2C_BACKEND_KEY = "i2cBackend";
+    
+    /**
+     * GPIO_CHIP_KEY - Key unter dem ein GPIO-Chip (z.B. /dev/gpiochip0) fuer
+     * die Richtungs-Pins abgelegt ist. Ohne Eintrag: pi4j.
+     */
+    public final static String GPIO_CHIP_KEY = "gpioChip";
+    
+    /**
+     * CYCLE_TIME_KEY - Key unter dem die Taktung (ms) abgelegt ist,
+     * ohne Eintrag: Model.CYCLE_TIME
+     */
+    public final static String CYCLE_TIME_KEY = "cycleTime";
+    
+    /**
+     * SCHEDULE_FILE_KEY - Key unter dem ein vorgegebener Ablauf (Manoever,
+     * vgl. gui.schedule.Schedule) abgelegt ist. Der Ablauf wird mit jedem 
+     * Start ausgefuehrt.
+     */
+    public final static String SCHEDULE_FILE_KEY = "scheduleFile";
+    
+    /**
+     * ARCHIVE_DIRECTORY_KEY - Key unter dem das Verzeichnis fuer das 
+     * Sitzungsarchiv (vgl. gui.archive.SessionArchiveWriter) abgelegt ist,
+     * je Programmlauf eine Datei session-yyyyMMdd-HHmmss.pca
+     */
+    public final static String ARCHIVE_DIRECTORY_KEY = "archiveDirectory";
+    
+    /**
+     * DASHBOARD_PORT_KEY - Key unter dem der Port der Web-Oberflaeche 
+     * (vgl. gui.web.DashboardServer) abgelegt ist, ohne Eintrag kein Server
+     */
+    public final static String DASHBOARD_PORT_KEY = "dashboardPort";
+    
+    /**
+     * DASHBOARD_FRAME_RATE_KEY - Key unter dem die Bilder je Sekunde der 
+     * Web-Oberflaeche abgelegt sind
+     */
+    public final static String DASHBOARD_FRAME_RATE_KEY = "dashboardFrameRate";
+    
+    /**
+     * TIMER_MODE_KEY - Key unter dem das Warten des Taktes auf die Taktgrenze 
+     * ("sleep" oder "precision", vgl. gui.time.CycleTimer) abgelegt ist
+     */
+    public final static String TIMER_MODE_KEY = "timerMode";
+    
+    /**
+     * SPIN_MARGIN_KEY - Key unter dem das aktive Warten vor der Taktgrenze 
+     * (us, nur "precision") abgelegt ist
+     */
+    public final static String SPIN_MARGIN_KEY = "spinMargin";
+    
+    /**
+     * CONTROL_CPU_KEY - Key unter dem der CPU-Kern des Taktes (z.B. ein mit 
+     * isolcpus=3 isolierter Kern) abgelegt ist, ohne Eintrag keine Bindung
+     */
+    public final static String CONTROL_CPU_KEY = "controlCpu";
+    
+    /**
+     * CONTROL_PRIORITY_KEY - Key unter dem die SCHED_FIFO-Prioritaet (1..99) 
+     * des Taktes abgelegt ist, ohne Eintrag kein SCHED_FIFO
+     */
+    public final static String CONTROL_PRIORITY_KEY = "controlPriority";
+    
+    /**
+     * SERVO_PERIOD_KEY - Key unter dem die Periode des Servos (ms, z.B. 20 
+     * fuer PWM 50 Hz) abgelegt ist, ohne Eintrag: Taktung
+     */
+    public final static String SERVO_PERIOD_KEY = "servoPeriod";
+    
+    /**
+     * MOTOR_PERIOD_KEY - Key unter dem die Periode des Motors (ms) abgelegt 
+     * ist, ohne Eintrag: Taktung
+     */
+    public final static String MOTOR_PERIOD_KEY = "motorPeriod";
+    
+    /**
+     * GUI_PERIOD_KEY - Key unter dem die Periode der GUI-Information (ms) 
+     * abgelegt ist, ohne Eintrag: Taktung
+     */
+    public final static String GUI_PERIOD_KEY = "guiPeriod";
+    
+    /**
+     * ACTUATION_PHASE_KEY - Key unter dem der Versatz von Servo und Motor 
+     * gegenueber dem Takt (us) abgelegt ist, ohne Eintrag: 0
+     */
+    public final static String ACTUATION_PHASE_KEY = "actuationPhase";
+    
+    /**
+     * CONTROL_THREADS_KEY - Key unter dem die Anzahl der Threads der 
+     * Steuerung (vgl. gui.task.TaskExecutive) abgelegt ist, ohne Eintrag: 1
+     */
+    public final static String CONTROL_THREADS_KEY = "controlThreads";
+    
+    /**
+     * IDLE_DELAY_KEY - Key unter dem die Ruhezeit (s, Motor steht, keine 
+     * Eingabe) bis zur Absenkung der Rate abgelegt ist (vgl. gui.task.IdlePolicy)
+     */
+    public final static String IDLE_DELAY_KEY = "idleDelay";
+    
+    /**
+     * IDLE_PERIOD_KEY - Key unter dem die laengste Periode des Taktes im 
+     * Ruhebetrieb (ms) abgelegt ist, ohne Eintrag kein Ruhebetrieb
+     */
+    public final static String IDLE_PERIOD_KEY = "idlePeriod";
+    
+    /**
+     * LINE_FOLLOWER_KEY - Key unter dem die Kalibrierung des Linienfolgers 
+     * (weiss;schwarz je Sensor, vgl. gui.hardware.LineCalibration) bzw. 
+     * "default" abgelegt ist, ohne Eintrag kein Linienfolger
+     */
+    public final static String LINE_FOLLOWER_KEY = "lineFollower";
+    
+    /**
+     * ULTRASONIC_KEY - Key unter dem die Bremsschwelle (m) des 
+     * Ultraschall-Moduls abgelegt ist (nur mit gpioChip), ohne Eintrag 
+     * keine Abstandsmessung
+     */
+    public final static String ULTRASONIC_KEY = "ultrasonic";
+    
+    /**
+     * TELEMETRY_GROUP_KEY - Key unter dem die Multicast-Gruppe der Telemetrie
+     * (Gruppe[:Port], vgl. gui.telemetry.TelemetryPublisher) abgelegt ist,
+     * ohne Eintrag keine Telemetrie
+     */
+    public final static String TELEMETRY_GROUP_KEY = "telemetryGroup";
+    
+    /**
+     * TELEMETRY_DECIMATION_KEY - Key unter dem gesendet wird: jeder n-te 
+     * Takt, ohne Eintrag: jeder Takt
+     */
+    public final static String TELEMETRY_DECIMATION_KEY = "telemetryDecimation";
+    
+    /**
+     * TELEMETRY_INTERFACE_KEY - Key unter dem die Schnittstelle (z.B. wlan0)
+     * der Telemetrie abgelegt ist, ohne Eintrag: Vorgabe des Betriebssystems
+     */
+    public final static String TELEMETRY_INTERFACE_KEY = "telemetryInterface";
+    
+    /**
+     * REMOTE_VIEW_PORT_KEY - Key unter dem der Port der entfernten View 
+     * (vgl. gui.remote.RemoteViewServer) abgelegt ist. Ist der Key gesetzt,
+     * laeuft die Anwendung ohne Swing, das SwingWindow zeigt ein anderer 
+     * Rechner (java gui.remote.RemoteViewMain Rechner[:Port] Token).
+     */
+    public final static String REMOTE_VIEW_PORT_KEY = "remoteViewPort";
+    
+    /**
+     * REMOTE_VIEW_ADDRESS_KEY - Key unter dem die Adresse (Rechnername oder
+     * IP einer Schnittstelle) abgelegt ist, an die der Server der entfernten
+     * View gebunden wird, ohne Eintrag: nur Loopback (z.B. per SSH-Tunnel)
+     */
+    public final static String REMOTE_VIEW_ADDRESS_KEY = "remoteViewAddress";
+    
+    /**
+     * REMOTE_VIEW_TOKEN_KEY - Key unter dem der gemeinsame Token der
+     * entfernten View abgelegt ist, Pflicht bei gesetztem remoteViewPort
+     */
+    public final static String REMOTE_VIEW_TOKEN_KEY = "remoteViewToken";
+    
+    /**
+     * REMOTE_VIEW_END_KEY - Key unter dem abgelegt ist, ob der Ende-Button
+     * der entfernten View die Anwendung beenden darf (true/false),
+     * ohne Eintrag: false
+     */
+    public final static String REMOTE_VIEW_END_KEY = "remoteViewEnd";
+    
     /** main()-Funktionalitaet... */
     public static void main(String[] args)
     {
@@ -89,7 +296,185 @@ public class SwingMain
         }
         // *** Testausgabe... ***
         // System.out.println( javax.swing.UIManager.getSystemLookAndFeelClassName() );
-        final Model model = new Model();
+        final I2CBackend i2cBackend = I2CBackend.parse(properties.getProperty(SwingMain.I2C_BACKEND_KEY, ""));
+        final String gpioChip = properties.getProperty(SwingMain.GPIO_CHIP_KEY, "");
+        final int cycleTime = getInt(properties, SwingMain.CYCLE_TIME_KEY, Model.CYCLE_TIME);
+        final Model model = new Model(Model.createActuator(i2cBackend, gpioChip), cycleTime);
+        // Fehlerhafte Eintraege: Meldung, die Vorgaben des Models bleiben...
+        try
+        {
+            model.setCycleTimer(CycleTimer.parse(properties.getProperty(SwingMain.TIMER_MODE_KEY, ""), 
+                                                 properties.getProperty(SwingMain.SPIN_MARGIN_KEY, ""), 
+                                                 properties.getProperty(SwingMain.CONTROL_CPU_KEY, ""), 
+                                                 properties.getProperty(SwingMain.CONTROL_PRIORITY_KEY, "")));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Invalid timer settings in '" + SwingMain.PROPERTIES_FILE + "', using " + model.getCycleTimer() + "! " + exception);
+        }
+        try
+        {
+            model.setRatePlan(RatePlan.parse(properties.getProperty(SwingMain.SERVO_PERIOD_KEY, ""), 
+                                             properties.getProperty(SwingMain.MOTOR_PERIOD_KEY, ""), 
+                                             properties.getProperty(SwingMain.GUI_PERIOD_KEY, ""), 
+                                             properties.getProperty(SwingMain.ACTUATION_PHASE_KEY, ""), 
+                                             properties.getProperty(SwingMain.CONTROL_THREADS_KEY, "")));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Invalid rate settings in '" + SwingMain.PROPERTIES_FILE + "', using " + model.getRatePlan() + "! " + exception);
+        }
+        try
+        {
+            model.setIdlePolicy(IdlePolicy.parse(properties.getProperty(SwingMain.IDLE_DELAY_KEY, ""), 
+                                                 properties.getProperty(SwingMain.IDLE_PERIOD_KEY, "")));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Invalid idle settings in '" + SwingMain.PROPERTIES_FILE + "', using " + model.getIdlePolicy() + "! " + exception);
+        }
+        final String lineFollower = properties.getProperty(SwingMain.LINE_FOLLOWER_KEY, "").trim();
+        if (lineFollower.length() > 0)
+        {
+            model.setLineFollower(Model.createLineFollower(i2cBackend, "default".equalsIgnoreCase(lineFollower)? "" : lineFollower));
+        }
+        final double brakeDistance = getDouble(properties, SwingMain.ULTRASONIC_KEY, 0.0);
+        if (brakeDistance > 0.0)
+        {
+            final UltrasonicRanger ranger = Model.createUltrasonicRanger(gpioChip, brakeDistance);
+            if (ranger != null)
+            {
+                model.setUltrasonicRanger(ranger);
+            }
+        }
+        final String scheduleFile = properties.getProperty(SwingMain.SCHEDULE_FILE_KEY, "");
+        if (scheduleFile.length() > 0)
+        {
+            try
+            {
+                model.setSchedule(Schedule.compile(Paths.get(scheduleFile), cycleTime));
+            }
+            catch (IOException exception)
+            {
+                System.err.println("Can't read the schedule file '" + scheduleFile + "'! " + exception);
+            }
+        }
+        // Ausgabe der Laufzeiten beim Beenden (System.exit())...
+        final String latencyExportFile = properties.getProperty(SwingMain.LATENCY_EXPORT_KEY, "");
+        if (latencyExportFile.length() > 0)
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try (Writer writer = new FileWriter(latencyExportFile))
+                    {
+                        model.getLatencyTracer().export(writer);
+                    }
+                    catch (IOException exception)
+                    {
+                        System.err.println("Can't write the latency file '" + latencyExportFile + "'! " + exception);
+                    }
+                }
+            }));
+        }
+        // Sitzungsarchiv, wird beim Beenden (System.exit()) abgeschlossen...
+        final String archiveDirectory = properties.getProperty(SwingMain.ARCHIVE_DIRECTORY_KEY, "");
+        if (archiveDirectory.length() > 0)
+        {
+            final String fileName = new SimpleDateFormat("'session-'yyyyMMdd-HHmmss'.pca'").format(new Date());
+            final SessionArchiveWriter archiveWriter = new SessionArchiveWriter(Paths.get(archiveDirectory, fileName), cycleTime);
+            try
+            {
+                archiveWriter.start(model.getCycleBuffer());
+                Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        archiveWriter.stop();
+                    }
+                }));
+            }
+            catch (IOException exception)
+            {
+                System.err.println("Can't create the archive in '" + archiveDirectory + "'! " + exception);
+            }
+        }
+        // Web-Oberflaeche...
+        final int dashboardPort = getInt(properties, SwingMain.DASHBOARD_PORT_KEY, -1);
+        if (dashboardPort >= 0)
+        {
+            final int frameRate = getInt(properties, SwingMain.DASHBOARD_FRAME_RATE_KEY, DashboardServer.DEFAULT_FRAME_RATE);
+            final DashboardServer dashboardServer = new DashboardServer(model, 
+                                                                        new InetSocketAddress(dashboardPort), 
+                                                                        frameRate, 
+                                                                        DashboardServer.DEFAULT_MAX_CLIENTS);
+            try
+            {
+                dashboardServer.start();
+            }
+            catch (IOException exception)
+            {
+                System.err.println("Can't start the dashboard on port " + dashboardPort + "! " + exception);
+            }
+        }
+        // Telemetrie (UDP-Multicast)...
+        final String telemetryGroup = properties.getProperty(SwingMain.TELEMETRY_GROUP_KEY, "").trim();
+        if (telemetryGroup.length() > 0)
+        {
+            try
+            {
+                final String telemetryInterface = properties.getProperty(SwingMain.TELEMETRY_INTERFACE_KEY, "").trim();
+                final int decimation = getInt(properties, SwingMain.TELEMETRY_DECIMATION_KEY, TelemetryPublisher.DEFAULT_DECIMATION);
+                final TelemetryPublisher telemetryPublisher = new TelemetryPublisher(TelemetryFormat.toGroup(telemetryGroup), 
+                                                                                     (telemetryInterface.length() > 0)? NetworkInterface.getByName(telemetryInterface) : null, 
+                                                                                     decimation, 
+                                                                                     cycleTime);
+                telemetryPublisher.start(model.getCycleBuffer());
+            }
+            catch (IOException exception)
+            {
+                System.err.println("Can't start the telemetry for '" + telemetryGroup + "'! " + exception);
+            }
+        }
+        // Optional: Steuerung ueber ein Eingabegeraet (ohne Swing)...
+        final String evdevDevice = properties.getProperty(SwingMain.EVDEV_DEVICE_KEY, "");
+        if (evdevDevice.length() > 0)
+        {
+            new EvdevCommandSource(Paths.get(evdevDevice), model).start();
+        }
+        // Entfernte View: SwingWindow auf einem anderen Rechner, hier ohne Swing...
+        final int remoteViewPort = getInt(properties, SwingMain.REMOTE_VIEW_PORT_KEY, -1);
+        if (remoteViewPort >= 0)
+        {
+            this.iconImageFile = "";
+            final String remoteViewToken = properties.getProperty(SwingMain.REMOTE_VIEW_TOKEN_KEY, "").trim();
+            if (remoteViewToken.isEmpty())
+            {
+                System.err.println("No '" + SwingMain.REMOTE_VIEW_TOKEN_KEY + "' in 'system.properties', remote view refused!");
+                model.shutdown();
+                System.exit(0);
+            }
+            final String remoteViewAddress = properties.getProperty(SwingMain.REMOTE_VIEW_ADDRESS_KEY, "").trim();
+            try
+            {
+                final InetAddress bindAddress = remoteViewAddress.isEmpty()? InetAddress.getLoopbackAddress() 
+                                                                           : InetAddress.getByName(remoteViewAddress);
+                final RemoteViewServer remoteViewServer = new RemoteViewServer(model, new InetSocketAddress(bindAddress, remoteViewPort), remoteViewToken);
+                remoteViewServer.setEndAllowed(Boolean.parseBoolean(properties.getProperty(SwingMain.REMOTE_VIEW_END_KEY, "false").trim()));
+                new Controller(remoteViewServer, model);
+                remoteViewServer.start();
+            }
+            catch (IOException exception)
+            {
+                System.err.println("Can't start the remote view on port " + remoteViewPort + "! " + exception);
+                model.shutdown();
+                System.exit(0);
+            }
+            return;
+        }
         SwingWindow swingWindow = new SwingWindow(model);
         //
         this.iconImageFile = properties.getProperty(SwingMain.ICON_IMAGE_KEY, "");
@@ -119,5 +504,55 @@ public class SwingMain
             }
         });
     }
+    
+    /**
+     * getInt(Properties properties, String key, int defaultValue) - ganzzahliger
+     * Eintrag der properties-Datei...
+     * @param properties
+     * @param key
+     * @param defaultValue - ohne Eintrag bzw. bei fehlerhaftem Eintrag (mit Meldung)
+     * @return Wert
+     */
+    private static int getInt(java.util.Properties properties, String key, int defaultValue)
+    {
+        final String value = properties.getProperty(key, "").trim();
+        if (value.length() > 0)
+        {
+            try
+            {
+                return Integer.parseInt(value);
+            }
+            catch (NumberFormatException exception)
+            {
+                System.err.println("Invalid value '" + value + "' for '" + key + "' in '" + SwingMain.PROPERTIES_FILE + "', using " + defaultValue + "!");
+            }
+        }
+        return defaultValue;
+    }
+    
+    /**
+     * getDouble(Properties properties, String key, double defaultValue) - 
+     * Zahlenwert der properties-Datei...
+     * @param properties
+     * @param key
+     * @param defaultValue - ohne Eintrag bzw. bei fehlerhaftem Eintrag (mit Meldung)
+     * @return Wert
+     */
+    private static double getDouble(java.util.Properties properties, String key, double defaultValue)
+    {
+        final String value = properties.getProperty(key, "").trim();
+        if (value.length() > 0)
+        {
+            try
+            {
+                return Double.parseDouble(value);
+            }
+            catch (NumberFormatException exception)
+            {
+                System.err.println("Invalid value '" + value + "' for '" + key + "' in '" + SwingMain.PROPERTIES_FILE + "', using " + defaultValue + "!");
+            }
+        }
+        return defaultValue;
+    }
 }
     
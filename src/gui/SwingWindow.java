@@ -31,6 +31,13 @@ import javax.swing.text.JTextComponent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gui.jfr.EdtDispatchEvent;
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+import gui.trace.Trace;
+import gui.trace.TracedActionEvent;
+
 /**
  * <p>
  * Das SwingWindow ist ein JFrame (GUI-Swing-Klasse).
@@ -61,6 +68,17 @@ public class SwingWindow extends JFrame implements View
      * logger - Instanz zur Protokollierung...
      */
     private final static Logger logger = LoggerFactory.getLogger(SwingWindow.class);      
+    
+    /**
+     * Asynchrone Ausgaben im EDT (vgl. gui.log.AsyncLog), Slider-Bewegungen
+     * max. 20 je Sekunde...
+     */
+    private final static LogSite SLIDER_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Info, "{}: {}", 20);
+    private final static LogSite COMBO_BOX_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Info, "{}: {}", 20);
+    private final static LogSite CHECK_BOX_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Debug, "{}: {}", 20);
+    private final static LogSite BUTTON_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Debug, "{}", 20);
+    private final static LogSite UPDATE_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Debug, "{}: {} eingestellt...", 50);
+    private final static LogSite PROPERTY_CHANGE_LOG = AsyncLog.site(SwingWindow.class, LogLevel.Debug, "propertyChange(): {}: {} => {}", 100);
 
     /**
      * 
@@ -100,6 +118,21 @@ public class SwingWindow extends JFrame implements View
 
     private static final String CHECK_BOX = JCheckBox.class.getCanonicalName();
     
+    /**
+     * MONITOR_KEY = "monitorKey" - Key der CheckBox zum Ein-/Ausschalten 
+     * der laufenden Anzeige (StripChartPanel)...
+     */
+    public final static String MONITOR_KEY = "monitorKey";
+    
+    /**
+     * CHART_WIDTH = 400 - Breite der laufenden Anzeige (Pixel = Takte)
+     */
+    private final static int CHART_WIDTH = 400;
+    
+    /**
+     * CHART_HEIGHT = 160 - Hoehe der laufenden Anzeige (Pixel)
+     */
+    private final static int CHART_HEIGHT = 160;
     
     /**
      * controlData - Beschreibungsdaten der Oberflaechenelemente...
@@ -110,7 +143,8 @@ public class SwingWindow extends JFrame implements View
         {Model.DATA_SERVO_KEY, SLIDER,     "Servo", "-" + Model.SERVO_MAX_VALUE, "+" + Model.SERVO_MAX_VALUE, Model.SERVO_NULL_VALUE, "5", "10" },
         {Model.DATA_MOTOR_KEY, SLIDER,     "Motor", Model.MOTOR_NULL_VALUE,      Model.MOTOR_MAX_VALUE,       Model.MOTOR_NULL_VALUE, "5", "20" },
         {Model.DATA_GEAR_KEY, COMBO_BOX, "Gang" },
-        {Data.COUNTER_KEY,     TEXT_FIELD, "Lfd. Nr." }
+        {Data.COUNTER_KEY,     TEXT_FIELD, "Lfd. Nr." },
+        {MONITOR_KEY,          CHECK_BOX,  "Monitor" }
     };
 
     /**
@@ -127,7 +161,8 @@ public class SwingWindow extends JFrame implements View
         Model.DATA_SERVO_KEY,
         Model.DATA_MOTOR_KEY,
         Model.DATA_GEAR_KEY,
-        Data.COUNTER_KEY
+        Data.COUNTER_KEY,
+        MONITOR_KEY
     };
     
     /**
@@ -167,12 +202,19 @@ public class SwingWindow extends JFrame implements View
      */
     private JPanel jContentPane = null;
     
+    /**
+     * stripChartPanel - laufende Anzeige der letzten Takte 
+     * (Servo, Motor, Zykluszeit, Jitter)...
+     */
+    private final StripChartPanel stripChartPanel;
+    
     /**
      * This is the default constructor
      */
     public SwingWindow(Model model)
     {
         super();
+        this.stripChartPanel = new StripChartPanel(model.getCycleBuffer(), model.getCycleTime(), CHART_WIDTH, CHART_HEIGHT);
         initialize();
         addWindowListener(new WindowAdapter()
         {
@@ -229,7 +271,7 @@ public class SwingWindow extends JFrame implements View
                             
                             int value = source.getValue();
                             
-                            logger.info(source.getName() + ": " + value); 
+                            SLIDER_LOG.log(source.getName(), value); 
                             
                             stateChangedDelegate(event); 
                         }
@@ -276,7 +318,7 @@ public class SwingWindow extends JFrame implements View
                         public void actionPerformed(ActionEvent event)
                         {
                             JComboBox<BigDecimal> source = (JComboBox<BigDecimal>)event.getSource();   
-                            logger.info(source.getName() + ": " + event.getActionCommand());   
+                            COMBO_BOX_LOG.log(source.getName(), event.getActionCommand());   
                             
                             actionCommandDelegate(event);
                         }
@@ -304,6 +346,31 @@ public class SwingWindow extends JFrame implements View
                     
                     continue;
                 }
+                if (CHECK_BOX.equals(controlType) && MONITOR_KEY.equals(controlId))
+                {
+                    // CheckBox zum Ein-/Ausschalten der laufenden Anzeige,
+                    // wirkt nur in der View (keine Weitergabe an den Controller)...
+                    JCheckBox monitorCheckBox = new JCheckBox();
+                    monitorCheckBox.setName(controlId);
+                    monitorCheckBox.setSelected(false);
+                    monitorCheckBox.addActionListener(new ActionListener() 
+                    {
+                        @Override
+                        public void actionPerformed(ActionEvent event)
+                        {
+                            JCheckBox source = (JCheckBox)event.getSource();
+                            CHECK_BOX_LOG.log(source.getName(), source.isSelected());
+                            
+                            SwingWindow.this.stripChartPanel.setMonitoring(source.isSelected());
+                        }
+                    });
+                    
+                    this.checkBoxMap.put(controlId, monitorCheckBox);
+                    controlPanel.add(monitorCheckBox);
+                    controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
+                    controlPanelMap.put(controlId, controlPanel);
+                    continue;
+                }
             }
         }    
         return controlPanelMap;
@@ -418,6 +485,13 @@ public class SwingWindow extends JFrame implements View
                     }
                 }
                 
+                // Laufende Anzeige unterhalb der Controls...
+                JPanel chartPanel = new JPanel();
+                chartPanel.setLayout(new BoxLayout(chartPanel, javax.swing.BoxLayout.X_AXIS));
+                chartPanel.add(this.stripChartPanel);
+                chartPanel.setBorder(BorderFactory.createLineBorder(Color.BLUE));
+                centerPanel.add(chartPanel);
+                
                 jContentPane.add(centerPanel, BorderLayout.CENTER);
             }
             
@@ -436,7 +510,7 @@ public class SwingWindow extends JFrame implements View
                         public void actionPerformed(ActionEvent event)
                         {
                             final JButton source = (JButton)event.getSource();
-                            logger.debug(source.getName());
+                            BUTTON_LOG.log(source.getName());
                             //
                             actionCommandDelegate(event);
                         }
@@ -466,9 +540,45 @@ public class SwingWindow extends JFrame implements View
     @Override
     public void propertyChange(PropertyChangeEvent event)
     {
+        final EdtDispatchEvent dispatchEvent = new EdtDispatchEvent();
+        dispatchEvent.begin();
         final String propertyName = event.getPropertyName();
         final Object newValue = event.getNewValue();
         
+        if (Model.DATA_BATCH_KEY.equals(propertyName))
+        {
+            // Gemeinsames Event einer PropertyBatch => je Eintrag nachziehen...
+            if (newValue instanceof java.util.Map<?, ?>)
+            {
+                for (java.util.Map.Entry<?, ?> entry: ((java.util.Map<?, ?>)newValue).entrySet())
+                {
+                    update(String.valueOf(entry.getKey()), entry.getValue());
+                }
+            }
+        }
+        else
+        {
+            update(propertyName, newValue);
+        }
+        
+        // Kontrollausgabe im Debuglevel...
+        PROPERTY_CHANGE_LOG.log(propertyName, event.getOldValue(), newValue);
+        dispatchEvent.end();
+        if (dispatchEvent.shouldCommit())
+        {
+            dispatchEvent.property = propertyName;
+            dispatchEvent.commit();
+        }
+    }
+    
+    /**
+     * update(String propertyName, Object newValue) - Nachziehen der View
+     * fuer einen Eintrag...
+     * @param propertyName
+     * @param newValue
+     */
+    private void update(String propertyName, Object newValue)
+    {
         if (Model.DATA_KEY.equals(propertyName))
         {
             // propertyChange vom Model her mit DATA_KEY...
@@ -496,7 +606,7 @@ public class SwingWindow extends JFrame implements View
                 final int value = ((Integer)newValue).intValue(); 
                 JSlider slider = this.sliderMap.get(propertyName);
                 slider.setValue(value);
-                logger.debug(propertyName + ": " + value + " eingestellt...");
+                UPDATE_LOG.log(propertyName, newValue);
             }
         }
         
@@ -508,7 +618,7 @@ public class SwingWindow extends JFrame implements View
             {
                 JComboBox<Transmission> transmissionComboBox = this.comboBoxMap.get(propertyName);
                 transmissionComboBox.setSelectedItem(newValue);
-                logger.debug(propertyName + ": " + newValue + " eingestellt...");
+                UPDATE_LOG.log(propertyName, newValue);
             }
         }
         
@@ -517,7 +627,7 @@ public class SwingWindow extends JFrame implements View
             final boolean isTransmissionEnabled = Boolean.TRUE.equals(newValue);
             JComboBox<Transmission> transmissionComboBox = this.comboBoxMap.get(Model.DATA_GEAR_KEY);
             transmissionComboBox.setEnabled(isTransmissionEnabled);
-            logger.debug(propertyName + ": " + newValue + " eingestellt...");
+            UPDATE_LOG.log(propertyName, newValue);
         }
         
         if (Model.DATA_IS_RUNNABLE_KEY.equals(propertyName))
@@ -528,9 +638,6 @@ public class SwingWindow extends JFrame implements View
                 this.startButton.setEnabled(isRunnable);
             }
         }
-        
-        // Kontrollausgabe im Debuglevel...
-        logger.debug(event.toString());
     }
 
     /**
@@ -546,20 +653,28 @@ public class SwingWindow extends JFrame implements View
     }
     
     /**
-     * 
+     * stateChangedDelegate(ChangeEvent event) - Weitergabe der Slider-Aenderung
+     * an den Controller...
+     * <p>
+     * Mit dem Eingang des Events wird ein {@link Trace} (traceId, Zeitstempel)
+     * angelegt und im {@link TracedActionEvent} weitergereicht.
+     * </p>
      * @param event
      */
     private void stateChangedDelegate(ChangeEvent event)
     {
         if (this.actionListener != null)
         {
+            final Trace trace = Trace.begin();
+            
             JSlider source = (JSlider) event.getSource();
 
             final String name = source.getName();
             
-            this.actionListener.actionPerformed(new ActionEvent(source,
-                                                                ActionEvent.ACTION_PERFORMED,
-                                                                name));
+            this.actionListener.actionPerformed(new TracedActionEvent(source,
+                                                                      ActionEvent.ACTION_PERFORMED,
+                                                                      name,
+                                                                      trace));
         }    
     }
 }
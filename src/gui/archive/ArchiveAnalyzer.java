@@ -0,0 +1,361 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ArchiveAnalyzer - Auswertung aufgezeichneter Sitzungsarchive 
+ * (vgl. {@link SessionArchiveWriter}) von der Kommandozeile:
+ * </p>
+ * <pre>
+ * java gui.archive.ArchiveAnalyzer [-t Threads] Datei...
+ * </pre>
+ * <p>
+ * Die Datei wird abschnittsweise (WINDOW_SIZE) in den Speicher abgebildet.
+ * Der aufrufende Thread liest nur die Blockkoepfe und fasst je 
+ * CHUNK_BLOCKS Bloecke zu einem Abschnitt zusammen, der im ForkJoinPool 
+ * (geteilt bis LEAF_BLOCKS Bloecke) ausgewertet wird. Hoechstens 
+ * MAX_PENDING_PER_THREAD Abschnitte je Thread sind unterwegs, die 
+ * Ergebnisse werden in der Reihenfolge der Datei ausgegeben und 
+ * zusammengefasst. Der Speicherbedarf ist damit unabhaengig von der 
+ * Dateigroesse.
+ * </p>
+ */
+public class ArchiveAnalyzer
+{
+    /**
+     * WINDOW_SIZE = 256 MiB - Groesse eines abgebildeten Abschnittes
+     */
+    public final static int WINDOW_SIZE = 256 * 1024 * 1024;
+    
+    /**
+     * CHUNK_BLOCKS = 64 - Bloecke je Abschnitt (Ausgabezeile)
+     */
+    public final static int CHUNK_BLOCKS = 64;
+    
+    /**
+     * LEAF_BLOCKS = 4 - Bloecke, die eine Teilaufgabe ohne weitere 
+     * Teilung auswertet
+     */
+    public final static int LEAF_BLOCKS = 4;
+    
+    /**
+     * MAX_PENDING_PER_THREAD = 2 - Abschnitte in Arbeit je Thread
+     */
+    public final static int MAX_PENDING_PER_THREAD = 2;
+    
+    /**
+     * VALUES - dekodierte Spalten, je Thread einmal angelegt
+     */
+    private final static ThreadLocal<long[][]> VALUES = new ThreadLocal<long[][]>()
+    {
+        @Override
+        protected long[][] initialValue()
+        {
+            return new long[ArchiveFormat.COLUMNS][ArchiveFormat.BLOCK_ROWS];
+        }
+    };
+    
+    /**
+     * pool - ForkJoinPool der Auswertung
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * out - Ausgabe
+     */
+    private final PrintStream out;
+    
+    /**
+     * ArchiveAnalyzer(ForkJoinPool pool, PrintStream out)
+     * @param pool
+     * @param out
+     */
+    public ArchiveAnalyzer(ForkJoinPool pool, PrintStream out)
+    {
+        this.pool = pool;
+        this.out = out;
+    }
+    
+    /**
+     * BlockTask - Auswertung der Bloecke offsets[from] ... offsets[to - 1]
+     * eines abgebildeten Abschnittes...
+     */
+    private static class BlockTask extends RecursiveTask<ArchiveStatistics>
+    {
+        /**
+         * serialVersionUID
+         */
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * window - abgebildeter Abschnitt (nur lesend, absolute Zugriffe)
+         */
+        private final ByteBuffer window;
+        
+        /**
+         * offsets - Beginn der Bloecke im window
+         */
+        private final int[] offsets;
+        
+        /**
+         * from, to - Bereich in offsets
+         */
+        private final int from;
+        private final int to;
+        
+        /**
+         * cycleTime, resolutionNanos - aus dem Kopf des Archives
+         */
+        private final int cycleTime;
+        private final int resolutionNanos;
+        
+        /**
+         * BlockTask(...)
+         */
+        BlockTask(ByteBuffer window, int[] offsets, int from, int to, int cycleTime, int resolutionNanos)
+        {
+            this.window = window;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+            this.cycleTime = cycleTime;
+            this.resolutionNanos = resolutionNanos;
+        }
+        
+        /**
+         * compute() - Teilen bis LEAF_BLOCKS, sonst auswerten...
+         */
+        @Override
+        protected ArchiveStatistics compute()
+        {
+            if (this.to - this.from > LEAF_BLOCKS)
+            {
+                final int middle = (this.from + this.to) >>> 1;
+                final BlockTask left = new BlockTask(this.window, this.offsets, this.from, middle, this.cycleTime, this.resolutionNanos);
+                final BlockTask right = new BlockTask(this.window, this.offsets, middle, this.to, this.cycleTime, this.resolutionNanos);
+                left.fork();
+                final ArchiveStatistics statistics = right.compute();
+                statistics.merge(left.join());
+                return statistics;
+            }
+            final ArchiveStatistics statistics = new ArchiveStatistics(this.cycleTime);
+            final ByteBuffer in = this.window.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            final long[][] values = VALUES.get();
+            final int[] lengths = new int[ArchiveFormat.STORED_COLUMNS];
+            final CRC32 crc = new CRC32();
+            for (int index = this.from; index < this.to; index++)
+            {
+                final int offset = this.offsets[index];
+                final int rows = in.getInt(offset + 4);
+                final int payloadLength = in.getInt(offset + 8);
+                final int checksum = in.getInt(offset + 12);
+                final long prevTime = in.getLong(offset + 16);
+                final int lengthOffset = offset + 24 + ArchiveFormat.COLUMNS * 16;
+                for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+                {
+                    lengths[column] = in.getInt(lengthOffset + 4 * column);
+                }
+                final int payloadOffset = offset + ArchiveFormat.BLOCK_HEADER_SIZE;
+                in.limit(payloadOffset + payloadLength).position(payloadOffset);
+                crc.reset();
+                crc.update(in);
+                in.limit(in.capacity()).position(payloadOffset);
+                try
+                {
+                    if ((int)crc.getValue() != checksum || rows <= 0 || rows > ArchiveFormat.BLOCK_ROWS)
+                    {
+                        throw new IOException("Pruefsumme");
+                    }
+                    SessionArchiveReader.decode(in, rows, prevTime, lengths, this.resolutionNanos, this.cycleTime, values);
+                    statistics.add(values, rows);
+                }
+                catch (IOException | RuntimeException exception)
+                {
+                    statistics.addCorruptBlock();
+                }
+            }
+            return statistics;
+        }
+    }
+    
+    /**
+     * Chunk - Abschnitt in Arbeit
+     */
+    private static class Chunk
+    {
+        final ForkJoinTask<ArchiveStatistics> task;
+        
+        Chunk(ForkJoinTask<ArchiveStatistics> task)
+        {
+            this.task = task;
+        }
+    }
+    
+    /**
+     * analyze(Path path) - Auswertung eines Archives, je Abschnitt eine 
+     * Zeile, abschliessend die Zusammenfassung...
+     * @param path
+     * @return Gesamtergebnis
+     * @throws IOException - kein Archiv, unbekannte Version, fehlerhafter Blockkopf
+     */
+    public ArchiveStatistics analyze(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+            if (size < ArchiveFormat.HEADER_SIZE)
+            {
+                throw new IOException(path + " ist kein Archiv.");
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0L, ArchiveFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != ArchiveFormat.MAGIC 
+                || header.getShort(4) != ArchiveFormat.VERSION
+                || header.getShort(6) != ArchiveFormat.COLUMNS)
+            {
+                throw new IOException(path + " ist kein Archiv der Version " + ArchiveFormat.VERSION + ".");
+            }
+            final int cycleTime = header.getInt(12);
+            final int resolutionNanos = header.getInt(16);
+            this.out.println(String.format("%s: Taktung %d ms, Aufloesung %d ns, %d Byte", path, cycleTime, resolutionNanos, size));
+            
+            final ArchiveStatistics total = new ArchiveStatistics(cycleTime);
+            final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+            final int maxPending = MAX_PENDING_PER_THREAD * this.pool.getParallelism();
+            final int[] offsets = new int[CHUNK_BLOCKS];
+            int count = 0;
+            MappedByteBuffer window = null;
+            long windowStart = 0L;
+            long windowEnd = 0L;
+            long position = ArchiveFormat.HEADER_SIZE;
+            
+            while (position + ArchiveFormat.BLOCK_HEADER_SIZE <= size)
+            {
+                if (window == null || position + ArchiveFormat.BLOCK_HEADER_SIZE > windowEnd)
+                {
+                    count = submit(window, offsets, count, cycleTime, resolutionNanos, pending, maxPending, total);
+                    windowStart = position;
+                    windowEnd = Math.min(size, position + WINDOW_SIZE);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                    window.order(ByteOrder.LITTLE_ENDIAN);
+                }
+                final int offset = (int)(position - windowStart);
+                if (window.getInt(offset) != ArchiveFormat.BLOCK_MAGIC)
+                {
+                    throw new IOException(path + ": kein Block an Position " + position);
+                }
+                final int payloadLength = window.getInt(offset + 8);
+                if (payloadLength < 0 || payloadLength > ArchiveFormat.MAX_PAYLOAD_LENGTH)
+                {
+                    // Sonst ruecklaeufige Position bzw. Block groesser als WINDOW_SIZE...
+                    throw new IOException(path + ": fehlerhafte Blocklaenge " + payloadLength + " an Position " + position);
+                }
+                final long end = position + ArchiveFormat.BLOCK_HEADER_SIZE + payloadLength;
+                if (end > size)
+                {
+                    break;
+                }
+                if (end > windowEnd)
+                {
+                    // Block ueber das Ende des Abschnittes: neu abbilden...
+                    windowEnd = position;
+                    continue;
+                }
+                offsets[count++] = offset;
+                position = end;
+                if (count == CHUNK_BLOCKS)
+                {
+                    count = submit(window, offsets, count, cycleTime, resolutionNanos, pending, maxPending, total);
+                }
+            }
+            submit(window, offsets, count, cycleTime, resolutionNanos, pending, 0, total);
+            if (position != size)
+            {
+                this.out.println("Letzter Block unvollstaendig (Aufzeichnung abgebrochen?), ab Position " + position + " ignoriert.");
+            }
+            total.report(this.out);
+            return total;
+        }
+    }
+    
+    /**
+     * submit(...) - Abschnitt offsets[0 ... count - 1] in den pool geben, 
+     * solange mehr als maxPending Abschnitte unterwegs sind, den aeltesten 
+     * abschliessen...
+     * @return 0 (neuer Abschnitt)
+     */
+    private int submit(ByteBuffer window, int[] offsets, int count, int cycleTime, int resolutionNanos, 
+                       ArrayDeque<Chunk> pending, int maxPending, ArchiveStatistics total)
+    {
+        if (count > 0)
+        {
+            final BlockTask task = new BlockTask(window, Arrays.copyOf(offsets, count), 0, count, cycleTime, resolutionNanos);
+            pending.add(new Chunk(this.pool.submit(task)));
+        }
+        while (pending.size() > maxPending)
+        {
+            final ArchiveStatistics statistics = pending.poll().task.join();
+            statistics.summary(this.out, (total.getRows() > 0)? total.getFirstTimeNanos() : statistics.getFirstTimeNanos());
+            total.merge(statistics);
+        }
+        return 0;
+    }
+    
+    /**
+     * main()-Funktionalitaet...
+     * @param args - [-t Threads] Datei...
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int first = 0;
+        if (args.length > 1 && "-t".equals(args[0]))
+        {
+            threads = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (args.length <= first)
+        {
+            System.err.println("Aufruf: java gui.archive.ArchiveAnalyzer [-t Threads] Datei...");
+            System.exit(1);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final ArchiveAnalyzer analyzer = new ArchiveAnalyzer(pool, System.out);
+        boolean isCorrupt = false;
+        final long startNanos = System.nanoTime();
+        try
+        {
+            for (int index = first; index < args.length; index++)
+            {
+                final ArchiveStatistics statistics = analyzer.analyze(Paths.get(args[index]));
+                isCorrupt |= (statistics.getCorruptBlocks() > 0L);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        System.err.println(String.format("Auswertung in %.2f s mit %d Threads", (System.nanoTime() - startNanos)/1.0e9, threads));
+        System.exit(isCorrupt? 2 : 0);
+    }
+}
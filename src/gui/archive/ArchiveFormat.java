@@ -0,0 +1,209 @@
+/**
+ * 
+ */
+package gui.archive;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ArchiveFormat - Aufbau des Sitzungsarchives (Dateiendung .pca), 
+ * alle Zahlen little-endian.
+ * </p>
+ * <pre>
+ * Kopf (HEADER_SIZE Byte):
+ *   int   MAGIC "PCAR"
+ *   short VERSION
+ *   short COLUMNS, short STORED_COLUMNS, short (frei)
+ *   int   cycleTime (ms)
+ *   int   resolutionNanos (Aufloesung der Zeiten)
+ *   long  startEpochMillis
+ * je Block (BLOCK_HEADER_SIZE Byte + payloadLength):
+ *   int   BLOCK_MAGIC "BLK1"
+ *   int   rows
+ *   int   payloadLength
+ *   int   CRC32 der payload
+ *   long  prevTime (quantisiert) der Zeile vor dem Block, fuer PERIOD
+ *   long  min, long max je Spalte (COLUMNS, auch abgeleitete Spalten)
+ *   int   Laenge je gespeicherter Spalte (STORED_COLUMNS)
+ *   payload: Spalten nacheinander, vgl. {@link ColumnCodec}, getStep()
+ * </pre>
+ * <p>
+ * Jeder Block ist fuer sich lesbar (z.B. parallele Auswertung), ueber 
+ * min/max koennen Bloecke ohne Dekodierung uebersprungen werden.
+ * </p>
+ */
+public final class ArchiveFormat
+{
+    /**
+     * MAGIC = "PCAR"
+     */
+    public final static int MAGIC = 0x50434152;
+    
+    /**
+     * VERSION = 2 - mit Spalte LATENCY
+     */
+    public final static short VERSION = 2;
+    
+    /**
+     * BLOCK_MAGIC = "BLK1"
+     */
+    public final static int BLOCK_MAGIC = 0x424C4B31;
+    
+    /**
+     * Gespeicherte Spalten...
+     * <ul>
+     *  <li>COUNTER - Taktzaehler</li>
+     *  <li>TIME - Beginn des Taktes (ns, quantisiert)</li>
+     *  <li>BUSY - Laufzeit des Taktes (ns, quantisiert)</li>
+     *  <li>SERVO, MOTOR - Sollwerte</li>
+     *  <li>TRANSMISSION, STATUS - ordinal()</li>
+     *  <li>RESTART - 1: keine Zykluszeit (erster Takt, Neustart, Datenverlust)</li>
+     *  <li>LATENCY - Laufzeit Eingabe =&gt; Hardware (ns, quantisiert), 0 ohne Eingabe</li>
+     * </ul>
+     */
+    public final static int COUNTER = 0;
+    public final static int TIME = 1;
+    public final static int BUSY = 2;
+    public final static int SERVO = 3;
+    public final static int MOTOR = 4;
+    public final static int TRANSMISSION = 5;
+    public final static int STATUS = 6;
+    public final static int RESTART = 7;
+    public final static int LATENCY = 8;
+    
+    /**
+     * Abgeleitete Spalten (nicht gespeichert, nur min/max im Block)...
+     * <ul>
+     *  <li>PERIOD - Zykluszeit (ns) = Differenz TIME, 0 bei RESTART</li>
+     *  <li>JITTER - PERIOD - cycleTime (ns), 0 bei RESTART</li>
+     * </ul>
+     */
+    public final static int PERIOD = 9;
+    public final static int JITTER = 10;
+    
+    /**
+     * STORED_COLUMNS = 9 - Anzahl der gespeicherten Spalten
+     */
+    public final static int STORED_COLUMNS = 9;
+    
+    /**
+     * COLUMNS = 11 - Anzahl aller Spalten
+     */
+    public final static int COLUMNS = 11;
+    
+    /**
+     * COLUMN_NAMES - Bezeichnung je Spalte
+     */
+    private final static String[] COLUMN_NAMES = 
+    {
+        "counter", "timeNanos", "busyNanos", "servo", "motor", "transmission", "status", "restart", "latencyNanos", "periodNanos", "jitterNanos"
+    };
+    
+    /**
+     * HEADER_SIZE - Laenge des Kopfes
+     */
+    public final static int HEADER_SIZE = 4 + 2 + 2 + 2 + 2 + 4 + 4 + 8;
+    
+    /**
+     * BLOCK_HEADER_SIZE - Laenge des Blockkopfes
+     */
+    public final static int BLOCK_HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + COLUMNS * 16 + STORED_COLUMNS * 4;
+    
+    /**
+     * DEFAULT_RESOLUTION_NANOS = 10000 - Zeiten auf 10 us genau (fuer die
+     * Langzeitablage ausreichend, der Jitter verbraucht den groessten Teil
+     * des Platzes)
+     */
+    public final static int DEFAULT_RESOLUTION_NANOS = 10_000;
+    
+    /**
+     * BLOCK_ROWS = 4096 - max. Zeilen je Block
+     */
+    public final static int BLOCK_ROWS = 4096;
+    
+    /**
+     * MAX_PAYLOAD_LENGTH - obere Grenze der Nutzdaten eines Blockes 
+     * (STORED_COLUMNS Spalten zu BLOCK_ROWS Zeilen, vgl. ColumnCodec)
+     */
+    public final static int MAX_PAYLOAD_LENGTH = STORED_COLUMNS * ColumnCodec.maxEncodedLength(BLOCK_ROWS);
+    
+    /**
+     * Privater Konstruktor, nur statische Elemente...
+     */
+    private ArchiveFormat()
+    {
+    }
+    
+    /**
+     * getColumnName(int column)
+     * @param column
+     * @return Bezeichnung
+     */
+    public static String getColumnName(int column)
+    {
+        return COLUMN_NAMES[column];
+    }
+    
+    /**
+     * getStep(int column, int cycleTime, int resolutionNanos) - erwartete 
+     * Differenz zweier Zeilen fuer {@link ColumnCodec}...
+     * @param column - gespeicherte Spalte
+     * @param cycleTime - Taktung (ms)
+     * @param resolutionNanos
+     * @return 1 fuer COUNTER, Taktung fuer TIME, sonst 0
+     */
+    public static long getStep(int column, int cycleTime, int resolutionNanos)
+    {
+        switch (column)
+        {
+            case COUNTER:
+                return 1L;
+            case TIME:
+                return cycleTime * 1_000_000L / resolutionNanos;
+            default:
+                return 0L;
+        }
+    }
+    
+    /**
+     * isQuantized(int column) - Spalte in Einheiten von resolutionNanos?
+     * @param column
+     * @return true fuer TIME, BUSY und LATENCY
+     */
+    public static boolean isQuantized(int column)
+    {
+        return column == TIME || column == BUSY || column == LATENCY;
+    }
+    
+    /**
+     * derive(...) - abgeleitete Spalten PERIOD und JITTER eines Blockes...
+     * @param time - TIME (quantisiert)
+     * @param restart - RESTART
+     * @param prevTime - TIME (quantisiert) der Zeile vor dem Block
+     * @param rows
+     * @param resolutionNanos
+     * @param cycleTime - Taktung (ms)
+     * @param period - Ergebnis PERIOD (ns)
+     * @param jitter - Ergebnis JITTER (ns)
+     */
+    public static void derive(long[] time, long[] restart, long prevTime, int rows, int resolutionNanos, int cycleTime, long[] period, long[] jitter)
+    {
+        final long cycleNanos = cycleTime * 1_000_000L;
+        long previous = prevTime;
+        for (int row = 0; row < rows; row++)
+        {
+            if (restart[row] != 0L)
+            {
+                period[row] = 0L;
+                jitter[row] = 0L;
+            }
+            else
+            {
+                period[row] = (time[row] - previous) * resolutionNanos;
+                jitter[row] = period[row] - cycleNanos;
+            }
+            previous = time[row];
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import gui.Status;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ArchiveMain - Werkzeug fuer Sitzungsarchive:
+ * </p>
+ * <ul>
+ *  <li>info Datei - Kopf und Index (min/max) je Block</li>
+ *  <li>dump Datei - alle Zeilen als CSV (Trenner ';')</li>
+ *  <li>generate Datei [Stunden] [Aufloesung (ns)] - simulierte Fahrt mit 
+ *      100 Hz schreiben, zuruecklesen und vergleichen, Groesse je Tag 
+ *      ausgeben</li>
+ * </ul>
+ */
+public class ArchiveMain
+{
+    /**
+     * GENERATE_CYCLE_TIME = 10 - Taktung (ms) fuer generate (100 Hz)
+     */
+    private final static int GENERATE_CYCLE_TIME = 10;
+    
+    /**
+     * GENERATE_JITTER_NANOS - Standardabweichung des Taktbeginns fuer generate
+     */
+    private final static long GENERATE_JITTER_NANOS = 100_000L;
+    
+    /**
+     * SEED - feste Startzahl, damit generate() reproduzierbar vergleicht
+     */
+    private final static long SEED = 4711L;
+    
+    /**
+     * info(Path path)
+     * @param path
+     * @throws IOException
+     */
+    private static void info(Path path) throws IOException
+    {
+        try (SessionArchiveReader reader = new SessionArchiveReader(path))
+        {
+            System.out.println(path + " " + reader);
+            long rows = 0L;
+            int block = 0;
+            while (reader.nextBlock())
+            {
+                System.out.println(String.format("Block %5d: %4d Zeilen, %6d Byte, counter %d..%d, jitter %.3f..%.3f ms, busy max %.3f ms", 
+                                                 block++, 
+                                                 reader.getRows(), 
+                                                 reader.getPayloadLength(), 
+                                                 reader.getMin(ArchiveFormat.COUNTER), 
+                                                 reader.getMax(ArchiveFormat.COUNTER), 
+                                                 reader.getMin(ArchiveFormat.JITTER)/1.0e6, 
+                                                 reader.getMax(ArchiveFormat.JITTER)/1.0e6, 
+                                                 reader.getMax(ArchiveFormat.BUSY)/1.0e6));
+                rows += reader.getRows();
+            }
+            final long size = Files.size(path);
+            System.out.println(String.format("%d Zeilen, %d Byte, %.2f Byte/Zeile", rows, size, (rows > 0)? (double)size/rows : 0.0));
+        }
+    }
+    
+    /**
+     * dump(Path path)
+     * @param path
+     * @throws IOException
+     */
+    private static void dump(Path path) throws IOException
+    {
+        try (SessionArchiveReader reader = new SessionArchiveReader(path))
+        {
+            final StringBuilder line = new StringBuilder();
+            for (int column = 0; column < ArchiveFormat.COLUMNS; column++)
+            {
+                line.append((column > 0)? ";" : "").append(ArchiveFormat.getColumnName(column));
+            }
+            System.out.println(line);
+            while (reader.nextBlock())
+            {
+                reader.decode();
+                for (int row = 0; row < reader.getRows(); row++)
+                {
+                    line.setLength(0);
+                    for (int column = 0; column < ArchiveFormat.COLUMNS; column++)
+                    {
+                        line.append((column > 0)? ";" : "").append(reader.getValue(column, row));
+                    }
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drive - reproduzierbare, simulierte Fahrt (Lenkung, Gas, Gang, Status)
+     */
+    private static class Drive
+    {
+        final Random random = new Random(SEED);
+        final long cycleNanos = GENERATE_CYCLE_TIME * 1_000_000L;
+        long counter = 0L;
+        long deadline = 0L;
+        long time = 0L;
+        long period = 0L;
+        long busy = 0L;
+        long latency = 0L;
+        int servo = 350;
+        int motor = 0;
+        Transmission transmission = Transmission.D;
+        Status status = Status.Started;
+        
+        /**
+         * next() - naechster Takt, alle 30 min ein Neustart der Steuerung
+         */
+        void next()
+        {
+            final boolean isRestart = (this.counter % 180_000L == 0L);
+            final long previous = this.time;
+            this.deadline += this.cycleNanos;
+            this.time = this.deadline + Math.max(-this.cycleNanos/2, (long)(this.random.nextGaussian() * GENERATE_JITTER_NANOS));
+            this.period = (isRestart)? 0L : this.time - previous;
+            this.counter = (isRestart)? 1L : this.counter + 1L;
+            this.busy = 150_000L + (long)(this.random.nextGaussian() * 30_000.0);
+            this.latency = (this.random.nextInt(100) == 0)? 200_000L + this.random.nextInt(2_000_000) : 0L;
+            if (this.random.nextInt(200) == 0)
+            {
+                this.servo = Math.max(250, Math.min(450, this.servo + this.random.nextInt(41) - 20));
+            }
+            if (this.random.nextInt(500) == 0)
+            {
+                this.motor = this.random.nextInt(101);
+            }
+            if (this.random.nextInt(50_000) == 0)
+            {
+                this.transmission = (this.transmission == Transmission.D)? Transmission.R : Transmission.D;
+            }
+        }
+    }
+    
+    /**
+     * generate(Path path, double hours, int resolutionNanos)
+     * @param path
+     * @param hours
+     * @param resolutionNanos
+     * @throws IOException
+     */
+    private static void generate(Path path, double hours, int resolutionNanos) throws IOException
+    {
+        final long cycles = (long)(hours * 3600_000.0 / GENERATE_CYCLE_TIME);
+        Files.deleteIfExists(path);
+        final SessionArchiveWriter writer = new SessionArchiveWriter(path, GENERATE_CYCLE_TIME, resolutionNanos);
+        writer.open();
+        final Drive drive = new Drive();
+        final long startNanos = System.nanoTime();
+        for (long index = 0L; index < cycles; index++)
+        {
+            drive.next();
+            writer.append(drive.counter, drive.time, drive.period, drive.busy, drive.latency, drive.servo, drive.motor, drive.transmission, drive.status);
+        }
+        writer.close();
+        final long writeNanos = System.nanoTime() - startNanos;
+        
+        // Zuruecklesen und vergleichen (Zeiten auf die Aufloesung genau)...
+        final Drive expected = new Drive();
+        long errors = 0L;
+        long rows = 0L;
+        try (SessionArchiveReader reader = new SessionArchiveReader(path))
+        {
+            final long resolution = reader.getResolutionNanos();
+            while (reader.nextBlock())
+            {
+                reader.decode();
+                for (int row = 0; row < reader.getRows(); row++, rows++)
+                {
+                    expected.next();
+                    final boolean isEqual = reader.getValue(ArchiveFormat.COUNTER, row) == expected.counter
+                        && reader.getValue(ArchiveFormat.TIME, row) == Math.floorDiv(expected.time, resolution) * resolution
+                        && Math.abs(reader.getValue(ArchiveFormat.PERIOD, row) - expected.period) < resolution
+                        && reader.getValue(ArchiveFormat.BUSY, row) == Math.floorDiv(expected.busy, resolution) * resolution
+                        && reader.getValue(ArchiveFormat.LATENCY, row) == Math.floorDiv(expected.latency, resolution) * resolution
+                        && reader.getValue(ArchiveFormat.SERVO, row) == expected.servo
+                        && reader.getValue(ArchiveFormat.MOTOR, row) == expected.motor
+                        && reader.getValue(ArchiveFormat.TRANSMISSION, row) == expected.transmission.ordinal()
+                        && reader.getValue(ArchiveFormat.STATUS, row) == expected.status.ordinal();
+                    if (!isEqual && errors++ < 10)
+                    {
+                        System.err.println("Abweichung in Zeile " + rows);
+                    }
+                }
+            }
+        }
+        final long size = Files.size(path);
+        final double bytesPerRow = (double)size / cycles;
+        System.out.println(writer);
+        System.out.println(String.format("%d Takte (%.1f h), %d Byte, %.3f Byte/Zeile, %.1f MB je Tag bei 100 Hz, %.1f ns/Zeile schreiben", 
+                                         cycles, hours, size, bytesPerRow, 
+                                         bytesPerRow * 8_640_000.0 / 1.0e6, 
+                                         (double)writeNanos / cycles));
+        System.out.println(String.format("Vergleich: %d Zeilen, %d Abweichungen", rows, errors));
+        if (errors != 0L || rows != cycles)
+        {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * main()-Funktionalitaet...
+     * @param args
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Aufruf: java gui.archive.ArchiveMain info|dump|generate Datei [Stunden] [Aufloesung (ns)]");
+            System.exit(1);
+        }
+        final Path path = Paths.get(args[1]);
+        switch (args[0])
+        {
+            case "info":
+                info(path);
+                break;
+            case "dump":
+                dump(path);
+                break;
+            case "generate":
+                generate(path, 
+                         (args.length > 2)? Double.parseDouble(args[2]) : 1.0, 
+                         (args.length > 3)? Integer.parseInt(args[3]) : ArchiveFormat.DEFAULT_RESOLUTION_NANOS);
+                break;
+            default:
+                System.err.println("Unbekannter Befehl: " + args[0]);
+                System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.PrintStream;
+
+import gui.Status;
+import gui.Transmission;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ArchiveStatistics - Kennzahlen eines Abschnittes des Sitzungsarchives,
+ * Teilergebnisse werden mit merge() zusammengefasst. Die Groesse ist 
+ * unabhaengig von der Anzahl der Zeilen.
+ * </p>
+ * <ul>
+ *  <li>Jitter getrennt nach zu frueh/zu spaet als Histogramm (daraus die
+ *      Perzentile der Zykluszeit PERIOD = Taktung + Jitter, ein Histogramm
+ *      der Zykluszeit selbst waere mit 1/16 relativem Fehler zu grob), 
+ *      zusaetzlich Mittelwert, Standardabweichung, min/max</li>
+ *  <li>overruns - Rechenzeit (BUSY) groesser als die Taktung</li>
+ *  <li>missed - Zykluszeit groesser als 1,5 * Taktung (Takt ausgefallen)</li>
+ *  <li>Laufzeit Eingabe =&gt; Hardware (LATENCY, nur Takte mit Eingabe)</li>
+ *  <li>Sollwerte: min/max/Mittelwert, Anzahl der Aenderungen (innerhalb 
+ *      eines Blockes), Haeufigkeit je Gang und Status</li>
+ * </ul>
+ */
+public class ArchiveStatistics
+{
+    /**
+     * TRANSMISSIONS, STATUS - Werte zum Ordinal...
+     */
+    private final static Transmission[] TRANSMISSIONS = Transmission.values();
+    private final static Status[] STATUS = Status.values();
+    
+    /**
+     * cycleNanos - Taktung (ns)
+     */
+    private final long cycleNanos;
+    
+    /**
+     * Zaehler...
+     */
+    private long rows = 0L;
+    private long blocks = 0L;
+    private long corruptBlocks = 0L;
+    private long restarts = 0L;
+    private long overruns = 0L;
+    private long missed = 0L;
+    private long setpointChanges = 0L;
+    private long motorActive = 0L;
+    
+    /**
+     * firstTimeNanos, lastTimeNanos - erster bzw. letzter Taktbeginn
+     */
+    private long firstTimeNanos = Long.MAX_VALUE;
+    private long lastTimeNanos = Long.MIN_VALUE;
+    
+    /**
+     * Histogramme...
+     */
+    private final LatencyHistogram early = new LatencyHistogram("early");
+    private final LatencyHistogram late = new LatencyHistogram("late");
+    private final LatencyHistogram jitter = new LatencyHistogram("|jitter|");
+    private final LatencyHistogram busy = new LatencyHistogram("busy");
+    private final LatencyHistogram latency = new LatencyHistogram("latency");
+    
+    /**
+     * Jitter: Anzahl, Summe, Quadratsumme, min/max
+     */
+    private long jitterCount = 0L;
+    private double jitterSum = 0.0;
+    private double jitterSquareSum = 0.0;
+    private long jitterMin = Long.MAX_VALUE;
+    private long jitterMax = Long.MIN_VALUE;
+    
+    /**
+     * busyMax - groesste Rechenzeit
+     */
+    private long busyMax = 0L;
+    
+    /**
+     * Sollwerte...
+     */
+    private long servoMin = Long.MAX_VALUE;
+    private long servoMax = Long.MIN_VALUE;
+    private long servoSum = 0L;
+    private long motorMin = Long.MAX_VALUE;
+    private long motorMax = Long.MIN_VALUE;
+    private long motorSum = 0L;
+    private final long[] transmissionCounts = new long[TRANSMISSIONS.length];
+    private final long[] statusCounts = new long[STATUS.length];
+    
+    /**
+     * ArchiveStatistics(int cycleTime)
+     * @param cycleTime - Taktung (ms)
+     */
+    public ArchiveStatistics(int cycleTime)
+    {
+        this.cycleNanos = cycleTime * 1_000_000L;
+    }
+    
+    /**
+     * add(long[][] values, int rows) - Zeilen eines dekodierten Blockes 
+     * (vgl. SessionArchiveReader.decode()) aufnehmen...
+     * @param values - [ArchiveFormat.COLUMNS][rows]
+     * @param rows
+     */
+    public void add(long[][] values, int rows)
+    {
+        final long[] time = values[ArchiveFormat.TIME];
+        final long[] busyNanos = values[ArchiveFormat.BUSY];
+        final long[] servo = values[ArchiveFormat.SERVO];
+        final long[] motor = values[ArchiveFormat.MOTOR];
+        final long[] transmission = values[ArchiveFormat.TRANSMISSION];
+        final long[] status = values[ArchiveFormat.STATUS];
+        final long[] restart = values[ArchiveFormat.RESTART];
+        final long[] latencyNanos = values[ArchiveFormat.LATENCY];
+        final long[] periodNanos = values[ArchiveFormat.PERIOD];
+        final long[] jitterNanos = values[ArchiveFormat.JITTER];
+        final long missedNanos = this.cycleNanos + this.cycleNanos/2;
+        
+        for (int row = 0; row < rows; row++)
+        {
+            if (restart[row] != 0L)
+            {
+                this.restarts++;
+            }
+            else
+            {
+                final long value = jitterNanos[row];
+                if (value < 0L)
+                {
+                    this.early.record(-value);
+                }
+                else
+                {
+                    this.late.record(value);
+                }
+                this.jitter.record(Math.abs(value));
+                this.jitterCount++;
+                this.jitterSum += value;
+                this.jitterSquareSum += (double)value * value;
+                this.jitterMin = Math.min(this.jitterMin, value);
+                this.jitterMax = Math.max(this.jitterMax, value);
+                if (periodNanos[row] > missedNanos)
+                {
+                    this.missed++;
+                }
+            }
+            this.busy.record(busyNanos[row]);
+            this.busyMax = Math.max(this.busyMax, busyNanos[row]);
+            if (busyNanos[row] > this.cycleNanos)
+            {
+                this.overruns++;
+            }
+            if (latencyNanos[row] != 0L)
+            {
+                this.latency.record(latencyNanos[row]);
+            }
+            this.servoMin = Math.min(this.servoMin, servo[row]);
+            this.servoMax = Math.max(this.servoMax, servo[row]);
+            this.servoSum += servo[row];
+            this.motorMin = Math.min(this.motorMin, motor[row]);
+            this.motorMax = Math.max(this.motorMax, motor[row]);
+            this.motorSum += motor[row];
+            if (motor[row] != 0L)
+            {
+                this.motorActive++;
+            }
+            if (row > 0 && (servo[row] != servo[row - 1] || motor[row] != motor[row - 1]))
+            {
+                this.setpointChanges++;
+            }
+            this.transmissionCounts[(int)transmission[row]]++;
+            this.statusCounts[(int)status[row]]++;
+        }
+        if (rows > 0)
+        {
+            this.firstTimeNanos = Math.min(this.firstTimeNanos, time[0]);
+            this.lastTimeNanos = Math.max(this.lastTimeNanos, time[rows - 1]);
+        }
+        this.rows += rows;
+        this.blocks++;
+    }
+    
+    /**
+     * addCorruptBlock() - Block mit falscher Pruefsumme oder Kodierung
+     */
+    public void addCorruptBlock()
+    {
+        this.corruptBlocks++;
+    }
+    
+    /**
+     * merge(ArchiveStatistics other) - Teilergebnis hinzufuegen...
+     * @param other
+     */
+    public void merge(ArchiveStatistics other)
+    {
+        this.rows += other.rows;
+        this.blocks += other.blocks;
+        this.corruptBlocks += other.corruptBlocks;
+        this.restarts += other.restarts;
+        this.overruns += other.overruns;
+        this.missed += other.missed;
+        this.setpointChanges += other.setpointChanges;
+        this.motorActive += other.motorActive;
+        this.firstTimeNanos = Math.min(this.firstTimeNanos, other.firstTimeNanos);
+        this.lastTimeNanos = Math.max(this.lastTimeNanos, other.lastTimeNanos);
+        this.early.add(other.early);
+        this.late.add(other.late);
+        this.jitter.add(other.jitter);
+        this.busy.add(other.busy);
+        this.latency.add(other.latency);
+        this.jitterCount += other.jitterCount;
+        this.jitterSum += other.jitterSum;
+        this.jitterSquareSum += other.jitterSquareSum;
+        this.jitterMin = Math.min(this.jitterMin, other.jitterMin);
+        this.jitterMax = Math.max(this.jitterMax, other.jitterMax);
+        this.busyMax = Math.max(this.busyMax, other.busyMax);
+        this.servoMin = Math.min(this.servoMin, other.servoMin);
+        this.servoMax = Math.max(this.servoMax, other.servoMax);
+        this.servoSum += other.servoSum;
+        this.motorMin = Math.min(this.motorMin, other.motorMin);
+        this.motorMax = Math.max(this.motorMax, other.motorMax);
+        this.motorSum += other.motorSum;
+        for (int index = 0; index < this.transmissionCounts.length; index++)
+        {
+            this.transmissionCounts[index] += other.transmissionCounts[index];
+        }
+        for (int index = 0; index < this.statusCounts.length; index++)
+        {
+            this.statusCounts[index] += other.statusCounts[index];
+        }
+    }
+    
+    /**
+     * getJitterPercentile(double percentile) - Perzentil des Jitters mit 
+     * Vorzeichen (aus early und late)...
+     * @param percentile - 0.0 ... 100.0
+     * @return Jitter in ns, 0L ohne Werte
+     */
+    public long getJitterPercentile(double percentile)
+    {
+        final long earlyCount = this.early.getCount();
+        final long count = earlyCount + this.late.getCount();
+        if (count == 0L)
+        {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long)Math.ceil(count * percentile/100.0));
+        if (rank <= earlyCount)
+        {
+            // aufsteigend mit Vorzeichen = absteigend in early...
+            return -this.early.getPercentile(100.0 * (earlyCount - rank + 1L)/earlyCount);
+        }
+        return this.late.getPercentile(100.0 * (rank - earlyCount)/(count - earlyCount));
+    }
+    
+    /**
+     * getPeriodPercentile(double percentile) - Perzentil der Zykluszeit
+     * (ohne Neustarts)...
+     * @param percentile - 0.0 ... 100.0
+     * @return Zykluszeit in ns
+     */
+    public long getPeriodPercentile(double percentile)
+    {
+        return this.cycleNanos + getJitterPercentile(percentile);
+    }
+    
+    /**
+     * getJitterMean() - mittlerer Jitter (ns)
+     * @return Mittelwert, 0.0 ohne Werte
+     */
+    public double getJitterMean()
+    {
+        return (this.jitterCount > 0L)? this.jitterSum/this.jitterCount : 0.0;
+    }
+    
+    /**
+     * getJitterDeviation() - Standardabweichung des Jitters (ns)
+     * @return Standardabweichung, 0.0 ohne Werte
+     */
+    public double getJitterDeviation()
+    {
+        if (this.jitterCount < 2L)
+        {
+            return 0.0;
+        }
+        final double mean = getJitterMean();
+        return Math.sqrt(Math.max(0.0, this.jitterSquareSum/this.jitterCount - mean * mean));
+    }
+    
+    /**
+     * summary(PrintStream out, long originNanos) - eine Zeile je Abschnitt...
+     * @param out
+     * @param originNanos - Bezugszeit fuer die Zeitangabe (Beginn der Sitzung)
+     */
+    public void summary(PrintStream out, long originNanos)
+    {
+        out.println(String.format("+%8.1f s: %8d Takte, period p99 %7.3f ms, |jitter| p99 %7.3f ms, busy max %7.3f ms, overruns %d, missed %d, restarts %d%s", 
+                                  (this.rows > 0)? (this.firstTimeNanos - originNanos)/1.0e9 : 0.0, 
+                                  this.rows, 
+                                  getPeriodPercentile(99.0)/1.0e6, 
+                                  this.jitter.getPercentile(99.0)/1.0e6, 
+                                  this.busyMax/1.0e6, 
+                                  this.overruns, 
+                                  this.missed, 
+                                  this.restarts, 
+                                  (this.corruptBlocks > 0L)? ", FEHLERHAFTE BLOECKE " + this.corruptBlocks : ""));
+    }
+    
+    /**
+     * report(PrintStream out) - ausfuehrliche Auswertung...
+     * @param out
+     */
+    public void report(PrintStream out)
+    {
+        out.println(String.format("Takte:        %d in %d Bloecken (fehlerhaft %d), Dauer %.1f s, Neustarts %d", 
+                                  this.rows, this.blocks, this.corruptBlocks, 
+                                  (this.rows > 0)? (this.lastTimeNanos - this.firstTimeNanos)/1.0e9 : 0.0, 
+                                  this.restarts));
+        out.println(String.format("Zykluszeit:   p1 %.3f ms, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms, ausgefallen (> 1,5 Takte) %d", 
+                                  getPeriodPercentile(1.0)/1.0e6, 
+                                  getPeriodPercentile(50.0)/1.0e6, 
+                                  getPeriodPercentile(99.0)/1.0e6, 
+                                  getPeriodPercentile(99.9)/1.0e6, 
+                                  (this.jitterCount > 0L)? (this.cycleNanos + this.jitterMax)/1.0e6 : 0.0, 
+                                  this.missed));
+        out.println(String.format("Jitter:       Mittel %.3f ms, Std.abw. %.3f ms, min %.3f ms, max %.3f ms, |jitter| p99 %.3f ms", 
+                                  getJitterMean()/1.0e6, 
+                                  getJitterDeviation()/1.0e6, 
+                                  (this.jitterCount > 0L)? this.jitterMin/1.0e6 : 0.0, 
+                                  (this.jitterCount > 0L)? this.jitterMax/1.0e6 : 0.0, 
+                                  this.jitter.getPercentile(99.0)/1.0e6));
+        out.println(String.format("Rechenzeit:   p50 %.3f ms, p99 %.3f ms, max %.3f ms, Ueberlaeufe (> Taktung) %d", 
+                                  this.busy.getPercentile(50.0)/1.0e6, 
+                                  this.busy.getPercentile(99.0)/1.0e6, 
+                                  this.busyMax/1.0e6, 
+                                  this.overruns));
+        out.println(String.format("Eingabe=>HW:  n=%d, p50 %.3f ms, p99 %.3f ms, max %.3f ms", 
+                                  this.latency.getCount(), 
+                                  this.latency.getPercentile(50.0)/1.0e6, 
+                                  this.latency.getPercentile(99.0)/1.0e6, 
+                                  this.latency.getPercentile(100.0)/1.0e6));
+        if (this.rows > 0)
+        {
+            out.println(String.format("Servo:        min %d, max %d, Mittel %.1f", 
+                                      this.servoMin, this.servoMax, (double)this.servoSum/this.rows));
+            out.println(String.format("Motor:        min %d, max %d, Mittel %.1f, aktiv %.1f %%, Sollwertaenderungen %d", 
+                                      this.motorMin, this.motorMax, (double)this.motorSum/this.rows, 
+                                      100.0 * this.motorActive/this.rows, this.setpointChanges));
+        }
+        final StringBuilder builder = new StringBuilder("Gang/Status: ");
+        for (int index = 0; index < TRANSMISSIONS.length; index++)
+        {
+            builder.append(" ").append(TRANSMISSIONS[index]).append("=").append(this.transmissionCounts[index]);
+        }
+        for (int index = 0; index < STATUS.length; index++)
+        {
+            builder.append(" ").append(STATUS[index]).append("=").append(this.statusCounts[index]);
+        }
+        out.println(builder);
+    }
+    
+    /**
+     * @return the rows
+     */
+    public final long getRows()
+    {
+        return this.rows;
+    }
+
+    /**
+     * @return the firstTimeNanos (Long.MAX_VALUE ohne Zeilen)
+     */
+    public final long getFirstTimeNanos()
+    {
+        return this.firstTimeNanos;
+    }
+
+    /**
+     * @return the overruns
+     */
+    public final long getOverruns()
+    {
+        return this.overruns;
+    }
+
+    /**
+     * @return the missed
+     */
+    public final long getMissed()
+    {
+        return this.missed;
+    }
+
+    /**
+     * @return the corruptBlocks
+     */
+    public final long getCorruptBlocks()
+    {
+        return this.corruptBlocks;
+    }
+}
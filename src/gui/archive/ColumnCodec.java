@@ -0,0 +1,174 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ColumnCodec - Kodierung einer Spalte: Differenz zum Vorgaenger abzueglich
+ * des erwarteten Schrittes step, ZigZag und Varint (7 Bit je Byte), 
+ * Wiederholungen als Lauf.
+ * </p>
+ * <p>
+ * Je Eintrag ein Varint token = (zigzag(d) &lt;&lt; 1) | isRun. Bei isRun folgt
+ * ein Varint mit (Laenge - 2): Die Differenz d wiederholt sich so oft. 
+ * Konstante Sollwerte und der Taktzaehler (step 1) belegen damit nur wenige
+ * Byte je Block, bei der Zeit (step = Taktung) bleibt nur der Jitter.
+ * </p>
+ * <p>
+ * Die Differenzen muessen betragsmaessig kleiner als 2^61 sein.
+ * Es werden keine Objekte angelegt.
+ * </p>
+ */
+public final class ColumnCodec
+{
+    /**
+     * MAX_ENCODED_BYTES - max. Laenge eines Eintrages (Varint 64 Bit)
+     */
+    public final static int MAX_ENCODED_BYTES = 10;
+    
+    /**
+     * Privater Konstruktor, nur statische Elemente...
+     */
+    private ColumnCodec()
+    {
+    }
+    
+    /**
+     * maxEncodedLength(int rows) - obere Grenze der Laenge einer Spalte
+     * @param rows
+     * @return Byte
+     */
+    public static int maxEncodedLength(int rows)
+    {
+        return rows * MAX_ENCODED_BYTES;
+    }
+    
+    /**
+     * residual(long[] values, int index, long step) - Abweichung vom 
+     * erwarteten Wert (der erste Eintrag bezieht sich auf 0)...
+     */
+    private static long residual(long[] values, int index, long step)
+    {
+        return (index > 0)? values[index] - values[index - 1] - step : values[index];
+    }
+    
+    /**
+     * encode(long[] values, int rows, long step, byte[] out, int offset)
+     * @param values - Werte der Spalte
+     * @param rows - Anzahl
+     * @param step - erwartete Differenz zweier Eintraege
+     * @param out - Ziel (mind. maxEncodedLength(rows) ab offset)
+     * @param offset - Beginn im Ziel
+     * @return Ende im Ziel (offset + Laenge)
+     */
+    public static int encode(long[] values, int rows, long step, byte[] out, int offset)
+    {
+        int position = offset;
+        int index = 0;
+        while (index < rows)
+        {
+            final long delta = residual(values, index, step);
+            int run = 1;
+            while (index + run < rows && residual(values, index + run, step) == delta)
+            {
+                run++;
+            }
+            final long zigzag = (delta << 1) ^ (delta >> 63);
+            if (run >= 2)
+            {
+                position = putVarint(out, position, (zigzag << 1) | 1L);
+                position = putVarint(out, position, run - 2);
+            }
+            else
+            {
+                position = putVarint(out, position, zigzag << 1);
+            }
+            index += run;
+        }
+        return position;
+    }
+    
+    /**
+     * decode(ByteBuffer in, int length, long step, long[] values, int rows) - 
+     * Gegenstueck zu encode(), liest length Byte ab der aktuellen Position...
+     * @param in - Quelle (z.B. MappedByteBuffer)
+     * @param length - Laenge der Spalte
+     * @param step - wie bei encode()
+     * @param values - Ergebnis
+     * @param rows - Anzahl
+     * @throws IOException - fehlerhafte Kodierung
+     */
+    public static void decode(ByteBuffer in, int length, long step, long[] values, int rows) throws IOException
+    {
+        final int end = in.position() + length;
+        long previous = 0L;
+        int index = 0;
+        while (index < rows)
+        {
+            if (in.position() >= end)
+            {
+                throw new IOException("Spalte zu kurz: " + index + " von " + rows + " Zeilen");
+            }
+            final long token = getVarint(in);
+            final long zigzag = token >>> 1;
+            final long delta = (zigzag >>> 1) ^ -(zigzag & 1L);
+            final int run = ((token & 1L) != 0L)? (int)getVarint(in) + 2 : 1;
+            if (index + run > rows)
+            {
+                throw new IOException("Lauf ueber das Blockende: " + (index + run) + " > " + rows);
+            }
+            for (int count = 0; count < run; count++)
+            {
+                previous = (index > 0)? previous + step + delta : delta;
+                values[index++] = previous;
+            }
+        }
+        if (in.position() != end)
+        {
+            throw new IOException("Laenge der Spalte: " + (in.position() - end + length) + " statt " + length);
+        }
+    }
+    
+    /**
+     * putVarint(byte[] out, int position, long value) - 7 Bit je Byte, 
+     * vorzeichenlos...
+     * @return neue Position
+     */
+    private static int putVarint(byte[] out, int position, long value)
+    {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0L)
+        {
+            out[position++] = (byte)((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out[position++] = (byte)remaining;
+        return position;
+    }
+    
+    /**
+     * getVarint(ByteBuffer in)
+     * @return Wert
+     * @throws IOException - mehr als 10 Byte
+     */
+    private static long getVarint(ByteBuffer in) throws IOException
+    {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            final int b = in.get();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Varint zu lang.");
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SessionArchiveReader - liest ein Archiv des {@link SessionArchiveWriter}
+ * blockweise.
+ * </p>
+ * <p>
+ * nextBlock() liest nur den Blockkopf (Zeilen, min/max je Spalte), erst 
+ * decode() dekodiert die Spalten. Bloecke, die nach min/max nicht 
+ * interessieren, werden ohne Dekodierung uebersprungen.
+ * </p>
+ */
+public class SessionArchiveReader implements Closeable
+{
+    /**
+     * channel - Archivdatei
+     */
+    private final FileChannel channel;
+    
+    /**
+     * Werte aus dem Kopf...
+     */
+    private final int version;
+    private final int cycleTime;
+    private final int resolutionNanos;
+    private final long startEpochMillis;
+    
+    /**
+     * header - Blockkopf
+     */
+    private final ByteBuffer header = ByteBuffer.allocate(ArchiveFormat.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    
+    /**
+     * payload - Spalten des Blockes
+     */
+    private ByteBuffer payload = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    
+    /**
+     * Werte aus dem Blockkopf...
+     */
+    private int rows = 0;
+    private int payloadLength = 0;
+    private int checksum = 0;
+    private long prevTime = 0L;
+    private final long[] min = new long[ArchiveFormat.COLUMNS];
+    private final long[] max = new long[ArchiveFormat.COLUMNS];
+    private final int[] lengths = new int[ArchiveFormat.STORED_COLUMNS];
+    
+    /**
+     * payloadPosition - Beginn der payload des aktuellen Blockes in der Datei
+     */
+    private long payloadPosition = -1L;
+    
+    /**
+     * values - dekodierte Spalten (in ns bzw. Originaleinheit)
+     */
+    private final long[][] values = new long[ArchiveFormat.COLUMNS][ArchiveFormat.BLOCK_ROWS];
+    
+    /**
+     * crc - Pruefung der payload
+     */
+    private final CRC32 crc = new CRC32();
+    
+    /**
+     * SessionArchiveReader(Path path) - oeffnet das Archiv und liest den Kopf...
+     * @param path
+     * @throws IOException - kein Archiv oder unbekannte Version
+     */
+    public SessionArchiveReader(Path path) throws IOException
+    {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(ArchiveFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(buffer);
+            if (buffer.getInt() != ArchiveFormat.MAGIC)
+            {
+                throw new IOException(path + " ist kein Archiv.");
+            }
+            this.version = buffer.getShort();
+            final int columns = buffer.getShort();
+            final int storedColumns = buffer.getShort();
+            buffer.getShort();
+            if (this.version != ArchiveFormat.VERSION 
+                || columns != ArchiveFormat.COLUMNS 
+                || storedColumns != ArchiveFormat.STORED_COLUMNS)
+            {
+                throw new IOException(path + ": Version " + this.version + " (" + columns + "/" + storedColumns + " Spalten) nicht unterstuetzt.");
+            }
+            this.cycleTime = buffer.getInt();
+            this.resolutionNanos = buffer.getInt();
+            this.startEpochMillis = buffer.getLong();
+        }
+        catch (IOException exception)
+        {
+            this.channel.close();
+            throw exception;
+        }
+    }
+    
+    /**
+     * readFully(ByteBuffer buffer) - fuellt buffer und setzt ihn auf Lesen...
+     * @throws EOFException - Dateiende
+     */
+    private void readFully(ByteBuffer buffer) throws IOException
+    {
+        buffer.clear();
+        while (buffer.hasRemaining())
+        {
+            if (this.channel.read(buffer) < 0)
+            {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+    
+    /**
+     * nextBlock() - liest den naechsten Blockkopf, die Spalten werden erst
+     * mit decode() gelesen...
+     * @return false am Dateiende (auch bei unvollstaendigem letzten Block)
+     * @throws IOException
+     */
+    public boolean nextBlock() throws IOException
+    {
+        if (this.payloadPosition >= 0L)
+        {
+            this.channel.position(this.payloadPosition + this.payloadLength);
+        }
+        final long position = this.channel.position();
+        if (position + ArchiveFormat.BLOCK_HEADER_SIZE > this.channel.size())
+        {
+            return false;
+        }
+        readFully(this.header);
+        if (this.header.getInt() != ArchiveFormat.BLOCK_MAGIC)
+        {
+            throw new IOException("Kein Block an Position " + position);
+        }
+        this.rows = this.header.getInt();
+        this.payloadLength = this.header.getInt();
+        this.checksum = this.header.getInt();
+        this.prevTime = this.header.getLong();
+        for (int column = 0; column < ArchiveFormat.COLUMNS; column++)
+        {
+            this.min[column] = this.header.getLong();
+            this.max[column] = this.header.getLong();
+        }
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            this.lengths[column] = this.header.getInt();
+        }
+        if (this.rows <= 0 || this.rows > ArchiveFormat.BLOCK_ROWS || this.payloadLength < 0 || this.payloadLength > ArchiveFormat.MAX_PAYLOAD_LENGTH)
+        {
+            throw new IOException("Fehlerhafter Block an Position " + position);
+        }
+        this.payloadPosition = this.channel.position();
+        return this.payloadPosition + this.payloadLength <= this.channel.size();
+    }
+    
+    /**
+     * decode() - dekodiert die Spalten des aktuellen Blockes, danach 
+     * getValue(column, row)...
+     * @throws IOException - Pruefsumme oder Kodierung fehlerhaft
+     */
+    public void decode() throws IOException
+    {
+        if (this.payload.capacity() < this.payloadLength)
+        {
+            this.payload = ByteBuffer.allocate(this.payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.payload.clear().limit(this.payloadLength);
+        this.channel.position(this.payloadPosition);
+        while (this.payload.hasRemaining())
+        {
+            if (this.channel.read(this.payload) < 0)
+            {
+                throw new EOFException();
+            }
+        }
+        this.payload.flip();
+        this.crc.reset();
+        this.crc.update(this.payload.array(), 0, this.payloadLength);
+        if ((int)this.crc.getValue() != this.checksum)
+        {
+            throw new IOException("Pruefsumme des Blockes an Position " + this.payloadPosition + " falsch.");
+        }
+        decode(this.payload, this.rows, this.prevTime, this.lengths, this.resolutionNanos, this.cycleTime, this.values);
+    }
+    
+    /**
+     * decode(...) - dekodiert die payload eines Blockes ab der aktuellen 
+     * Position von in (auch fuer andere Quellen, z.B. MappedByteBuffer)...
+     * @param in - payload
+     * @param rows - Zeilen des Blockes
+     * @param prevTime - aus dem Blockkopf
+     * @param lengths - Laenge je gespeicherter Spalte
+     * @param resolutionNanos - aus dem Kopf
+     * @param cycleTime - aus dem Kopf
+     * @param values - Ergebnis [COLUMNS][>= rows], Zeiten in ns
+     * @throws IOException - Kodierung fehlerhaft
+     */
+    public static void decode(ByteBuffer in, int rows, long prevTime, int[] lengths, int resolutionNanos, int cycleTime, long[][] values) throws IOException
+    {
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            ColumnCodec.decode(in, lengths[column], ArchiveFormat.getStep(column, cycleTime, resolutionNanos), values[column], rows);
+        }
+        ArchiveFormat.derive(values[ArchiveFormat.TIME], values[ArchiveFormat.RESTART], prevTime, rows, resolutionNanos, cycleTime, 
+                             values[ArchiveFormat.PERIOD], values[ArchiveFormat.JITTER]);
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            if (ArchiveFormat.isQuantized(column))
+            {
+                final long[] quantized = values[column];
+                for (int row = 0; row < rows; row++)
+                {
+                    quantized[row] *= resolutionNanos;
+                }
+            }
+        }
+    }
+    
+    /**
+     * getValue(int column, int row) - Wert nach decode()
+     * @param column - ArchiveFormat.COUNTER ... ArchiveFormat.JITTER
+     * @param row - 0 ... getRows() - 1
+     * @return Wert
+     */
+    public long getValue(int column, int row)
+    {
+        return this.values[column][row];
+    }
+    
+    /**
+     * @return Zeilen des aktuellen Blockes
+     */
+    public final int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * @return Laenge der payload des aktuellen Blockes
+     */
+    public final int getPayloadLength()
+    {
+        return this.payloadLength;
+    }
+    
+    /**
+     * getMin(int column) - Index des aktuellen Blockes
+     * @param column
+     * @return kleinster Wert
+     */
+    public long getMin(int column)
+    {
+        return this.min[column];
+    }
+    
+    /**
+     * getMax(int column) - Index des aktuellen Blockes
+     * @param column
+     * @return groesster Wert
+     */
+    public long getMax(int column)
+    {
+        return this.max[column];
+    }
+    
+    /**
+     * @return the cycleTime (ms)
+     */
+    public final int getCycleTime()
+    {
+        return this.cycleTime;
+    }
+
+    /**
+     * @return the resolutionNanos
+     */
+    public final int getResolutionNanos()
+    {
+        return this.resolutionNanos;
+    }
+
+    /**
+     * @return the startEpochMillis
+     */
+    public final long getStartEpochMillis()
+    {
+        return this.startEpochMillis;
+    }
+
+    /**
+     * close()
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.channel.close();
+    }
+
+    /**
+     * toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[version=")
+               .append(this.version)
+               .append(", cycleTime=")
+               .append(this.cycleTime)
+               .append(", resolutionNanos=")
+               .append(this.resolutionNanos)
+               .append(", start=")
+               .append(java.time.Instant.ofEpochMilli(this.startEpochMillis))
+               .append("]");
+        return builder.toString();
+    }
+}
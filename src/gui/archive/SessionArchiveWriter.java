@@ -0,0 +1,613 @@
+/**
+ * 
+ */
+package gui.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Status;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SessionArchiveWriter - schreibt die Takte einer Fahrt spaltenweise und
+ * komprimiert in ein Archiv (Aufbau vgl. {@link ArchiveFormat}).
+ * </p>
+ * <p>
+ * Die Zeilen werden in vorab angelegten Spalten (long[]) gesammelt, je
+ * {@link ArchiveFormat#BLOCK_ROWS} Zeilen wird ein Block kodiert und in den
+ * Ausgabepuffer (OUTPUT_BUFFER_SIZE) uebernommen. Erst der volle 
+ * Ausgabepuffer wird in die Datei geschrieben, damit auf der SD-Karte 
+ * wenige, grosse und fortlaufende Schreibzugriffe entstehen. Im Betrieb
+ * werden keine Objekte angelegt.
+ * </p>
+ * <p>
+ * Mit start(CycleBuffer) liest ein eigener Thread alle POLL_MILLIS den
+ * Ringpuffer des Models aus, der Steuertakt wird nicht belastet. Zeiten 
+ * werden mit der Aufloesung resolutionNanos abgelegt (Standard 10 us).
+ * </p>
+ */
+public class SessionArchiveWriter implements Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(SessionArchiveWriter.class);
+    
+    /**
+     * OUTPUT_BUFFER_SIZE = 64 KiB - Groesse eines Schreibzugriffes
+     */
+    public final static int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * POLL_MILLIS = 100 - Abfrage des Ringpuffers
+     */
+    public final static long POLL_MILLIS = 100L;
+    
+    /**
+     * FORCE_INTERVAL_MILLIS = 60000 - max. Abstand fuer force() (Daten 
+     * auf der Karte sichern)
+     */
+    public final static long FORCE_INTERVAL_MILLIS = 60_000L;
+    
+    /**
+     * path - Archivdatei
+     */
+    private final Path path;
+    
+    /**
+     * cycleTime - Taktung (ms) des Models
+     */
+    private final int cycleTime;
+    
+    /**
+     * resolutionNanos - Aufloesung der Zeiten
+     */
+    private final int resolutionNanos;
+    
+    /**
+     * channel - geoeffnete Archivdatei
+     */
+    private FileChannel channel;
+    
+    /**
+     * output - Ausgabepuffer (direct, little-endian)
+     */
+    private final ByteBuffer output;
+    
+    /**
+     * columns - gespeicherte Spalten des laufenden Blockes
+     */
+    private final long[][] columns;
+    
+    /**
+     * min, max - Index je Spalte (auch abgeleitete) des laufenden Blockes
+     */
+    private final long[] min;
+    private final long[] max;
+    
+    /**
+     * lengths - Laenge der kodierten Spalten
+     */
+    private final int[] lengths;
+    
+    /**
+     * payload - kodierte Spalten, payloadBuffer als Sicht darauf
+     */
+    private final byte[] payload;
+    private final ByteBuffer payloadBuffer;
+    
+    /**
+     * crc - Pruefsumme der payload
+     */
+    private final CRC32 crc = new CRC32();
+    
+    /**
+     * rows - Zeilen im laufenden Block
+     */
+    private int rows = 0;
+    
+    /**
+     * blockPrevTime - quantisierte Zeit der Zeile vor dem laufenden Block
+     */
+    private long blockPrevTime = 0L;
+    
+    /**
+     * prevTime, prevCounter, hasPrevious - Zustand der letzten Zeile
+     */
+    private long prevTime = 0L;
+    private long prevCounter = 0L;
+    private boolean hasPrevious = false;
+    
+    /**
+     * gap - Takte vor der naechsten Zeile verloren gegangen
+     */
+    private boolean gap = false;
+    
+    /**
+     * lastForceMillis - Zeitpunkt des letzten force()
+     */
+    private long lastForceMillis = 0L;
+    
+    /**
+     * Statistik: Zeilen, Bloecke, Byte in der Datei, verlorene Takte
+     */
+    private long rowCount = 0L;
+    private long blockCount = 0L;
+    private long byteCount = 0L;
+    private volatile long lostCount = 0L;
+    
+    /**
+     * cycleBuffer - Quelle im Hintergrundbetrieb
+     */
+    private CycleBuffer cycleBuffer = null;
+    
+    /**
+     * sample - wiederverwendeter Takt
+     */
+    private final CycleSample sample = new CycleSample();
+    
+    /**
+     * nextSequence - naechster abzuholender Takt
+     */
+    private long nextSequence = 0L;
+    
+    /**
+     * thread - Hintergrundthread
+     */
+    private Thread thread = null;
+    
+    /**
+     * running - Hintergrundthread laeuft
+     */
+    private volatile boolean running = false;
+    
+    /**
+     * SessionArchiveWriter(Path path, int cycleTime) - mit 
+     * DEFAULT_RESOLUTION_NANOS...
+     * @param path - Archivdatei (wird neu angelegt)
+     * @param cycleTime - Taktung (ms)
+     */
+    public SessionArchiveWriter(Path path, int cycleTime)
+    {
+        this(path, cycleTime, ArchiveFormat.DEFAULT_RESOLUTION_NANOS);
+    }
+    
+    /**
+     * SessionArchiveWriter(Path path, int cycleTime, int resolutionNanos)
+     * @param path - Archivdatei (wird neu angelegt)
+     * @param cycleTime - Taktung (ms)
+     * @param resolutionNanos - Aufloesung der Zeiten (1 ... 1000000)
+     */
+    public SessionArchiveWriter(Path path, int cycleTime, int resolutionNanos)
+    {
+        if (cycleTime <= 0)
+        {
+            throw new IllegalArgumentException("cycleTime <= 0: " + cycleTime);
+        }
+        if (resolutionNanos <= 0 || resolutionNanos > 1_000_000)
+        {
+            throw new IllegalArgumentException("resolutionNanos: " + resolutionNanos);
+        }
+        this.path = path;
+        this.cycleTime = cycleTime;
+        this.resolutionNanos = resolutionNanos;
+        this.output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.columns = new long[ArchiveFormat.STORED_COLUMNS][ArchiveFormat.BLOCK_ROWS];
+        this.min = new long[ArchiveFormat.COLUMNS];
+        this.max = new long[ArchiveFormat.COLUMNS];
+        this.lengths = new int[ArchiveFormat.STORED_COLUMNS];
+        this.payload = new byte[ArchiveFormat.STORED_COLUMNS * ColumnCodec.maxEncodedLength(ArchiveFormat.BLOCK_ROWS)];
+        this.payloadBuffer = ByteBuffer.wrap(this.payload);
+    }
+    
+    /**
+     * open() - legt die Datei an und schreibt den Kopf (in den Ausgabepuffer)...
+     * @throws IOException
+     */
+    public void open() throws IOException
+    {
+        this.channel = FileChannel.open(this.path, 
+                                        StandardOpenOption.CREATE_NEW, 
+                                        StandardOpenOption.WRITE);
+        this.output.putInt(ArchiveFormat.MAGIC);
+        this.output.putShort(ArchiveFormat.VERSION);
+        this.output.putShort((short)ArchiveFormat.COLUMNS);
+        this.output.putShort((short)ArchiveFormat.STORED_COLUMNS);
+        this.output.putShort((short)0);
+        this.output.putInt(this.cycleTime);
+        this.output.putInt(this.resolutionNanos);
+        this.output.putLong(System.currentTimeMillis());
+        this.lastForceMillis = System.currentTimeMillis();
+        resetIndex();
+    }
+    
+    /**
+     * append(...) - eine Zeile anfuegen (periodNanos == 0: erster Takt nach 
+     * dem Start, jitter wird daraus beim Lesen abgeleitet)...
+     * @param counter
+     * @param timeNanos
+     * @param periodNanos
+     * @param busyNanos
+     * @param latencyNanos
+     * @param servo
+     * @param motor
+     * @param transmission
+     * @param status
+     * @throws IOException
+     */
+    public void append(long counter, 
+                       long timeNanos, 
+                       long periodNanos, 
+                       long busyNanos, 
+                       long latencyNanos, 
+                       int servo, 
+                       int motor, 
+                       Transmission transmission, 
+                       Status status) throws IOException
+    {
+        final long time = Math.floorDiv(timeNanos, this.resolutionNanos);
+        final boolean restart = !this.hasPrevious 
+                             || this.gap 
+                             || periodNanos == 0L 
+                             || counter != this.prevCounter + 1L;
+        final int row = this.rows;
+        this.columns[ArchiveFormat.COUNTER][row] = counter;
+        this.columns[ArchiveFormat.TIME][row] = time;
+        this.columns[ArchiveFormat.BUSY][row] = Math.floorDiv(busyNanos, this.resolutionNanos);
+        this.columns[ArchiveFormat.SERVO][row] = servo;
+        this.columns[ArchiveFormat.MOTOR][row] = motor;
+        this.columns[ArchiveFormat.TRANSMISSION][row] = transmission.ordinal();
+        this.columns[ArchiveFormat.STATUS][row] = status.ordinal();
+        this.columns[ArchiveFormat.RESTART][row] = restart? 1L : 0L;
+        this.columns[ArchiveFormat.LATENCY][row] = Math.floorDiv(latencyNanos, this.resolutionNanos);
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            final long value = ArchiveFormat.isQuantized(column)? this.columns[column][row] * this.resolutionNanos
+                                                                : this.columns[column][row];
+            updateIndex(column, value);
+        }
+        // Abgeleitete Spalten wie beim Lesen (ArchiveFormat.derive())...
+        final long period = restart? 0L : (time - this.prevTime) * this.resolutionNanos;
+        updateIndex(ArchiveFormat.PERIOD, period);
+        updateIndex(ArchiveFormat.JITTER, restart? 0L : period - this.cycleTime * 1_000_000L);
+        
+        this.prevTime = time;
+        this.prevCounter = counter;
+        this.hasPrevious = true;
+        this.gap = false;
+        this.rowCount++;
+        if (++this.rows == ArchiveFormat.BLOCK_ROWS)
+        {
+            writeBlock();
+        }
+    }
+    
+    /**
+     * updateIndex(int column, long value)
+     */
+    private void updateIndex(int column, long value)
+    {
+        if (value < this.min[column])
+        {
+            this.min[column] = value;
+        }
+        if (value > this.max[column])
+        {
+            this.max[column] = value;
+        }
+    }
+    
+    /**
+     * resetIndex() - min/max fuer den naechsten Block
+     */
+    private void resetIndex()
+    {
+        for (int column = 0; column < ArchiveFormat.COLUMNS; column++)
+        {
+            this.min[column] = Long.MAX_VALUE;
+            this.max[column] = Long.MIN_VALUE;
+        }
+    }
+    
+    /**
+     * markGap(long lost) - Takte sind verloren gegangen, die naechste Zeile
+     * erhaelt keine Zykluszeit...
+     * @param lost - Anzahl
+     */
+    public void markGap(long lost)
+    {
+        this.gap = true;
+        this.lostCount += lost;
+    }
+    
+    /**
+     * writeBlock() - kodiert den laufenden Block in den Ausgabepuffer...
+     * @throws IOException
+     */
+    private void writeBlock() throws IOException
+    {
+        if (this.rows == 0)
+        {
+            return;
+        }
+        int length = 0;
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            final int end = ColumnCodec.encode(this.columns[column], this.rows, ArchiveFormat.getStep(column, this.cycleTime, this.resolutionNanos), this.payload, length);
+            this.lengths[column] = end - length;
+            length = end;
+        }
+        this.crc.reset();
+        this.crc.update(this.payload, 0, length);
+        
+        if (this.output.remaining() < ArchiveFormat.BLOCK_HEADER_SIZE)
+        {
+            flushOutput();
+        }
+        this.output.putInt(ArchiveFormat.BLOCK_MAGIC);
+        this.output.putInt(this.rows);
+        this.output.putInt(length);
+        this.output.putInt((int)this.crc.getValue());
+        this.output.putLong(this.blockPrevTime);
+        for (int column = 0; column < ArchiveFormat.COLUMNS; column++)
+        {
+            this.output.putLong(this.min[column]);
+            this.output.putLong(this.max[column]);
+        }
+        for (int column = 0; column < ArchiveFormat.STORED_COLUMNS; column++)
+        {
+            this.output.putInt(this.lengths[column]);
+        }
+        // payload ggf. ueber mehrere Schreibzugriffe...
+        int offset = 0;
+        while (offset < length)
+        {
+            if (!this.output.hasRemaining())
+            {
+                flushOutput();
+            }
+            final int count = Math.min(this.output.remaining(), length - offset);
+            this.payloadBuffer.limit(offset + count).position(offset);
+            this.output.put(this.payloadBuffer);
+            offset += count;
+        }
+        this.blockCount++;
+        this.blockPrevTime = this.prevTime;
+        this.rows = 0;
+        resetIndex();
+    }
+    
+    /**
+     * flushOutput() - Ausgabepuffer in die Datei, spaetestens nach 
+     * FORCE_INTERVAL_MILLIS auch force()...
+     * @throws IOException
+     */
+    private void flushOutput() throws IOException
+    {
+        this.output.flip();
+        while (this.output.hasRemaining())
+        {
+            this.byteCount += this.channel.write(this.output);
+        }
+        this.output.clear();
+        final long now = System.currentTimeMillis();
+        if (now - this.lastForceMillis >= FORCE_INTERVAL_MILLIS)
+        {
+            this.channel.force(false);
+            this.lastForceMillis = now;
+        }
+    }
+    
+    /**
+     * close() - schreibt den angefangenen Block und den Ausgabepuffer, 
+     * schliesst die Datei...
+     * @throws IOException
+     */
+    public void close() throws IOException
+    {
+        if (this.channel == null)
+        {
+            return;
+        }
+        try
+        {
+            writeBlock();
+            flushOutput();
+            this.channel.force(true);
+        }
+        finally
+        {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+    
+    /**
+     * start(CycleBuffer cycleBuffer) - open() und Hintergrundthread, der 
+     * die Takte aus dem cycleBuffer abholt...
+     * @param cycleBuffer - Ringpuffer des Models
+     * @throws IOException
+     */
+    public void start(CycleBuffer cycleBuffer) throws IOException
+    {
+        open();
+        this.cycleBuffer = cycleBuffer;
+        this.nextSequence = cycleBuffer.getSequence();
+        this.running = true;
+        this.thread = new Thread(this, "SessionArchiveWriter");
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+        this.thread.start();
+    }
+    
+    /**
+     * stop() - beendet den Hintergrundthread, holt die letzten Takte ab 
+     * und schliesst die Datei...
+     */
+    public void stop()
+    {
+        this.running = false;
+        final Thread current = this.thread;
+        if (current != null)
+        {
+            current.interrupt();
+            try
+            {
+                current.join();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+    }
+    
+    /**
+     * run() - Hintergrundthread
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (this.running)
+            {
+                poll();
+                try
+                {
+                    Thread.sleep(POLL_MILLIS);
+                }
+                catch (InterruptedException exception)
+                {
+                    // stop()...
+                }
+            }
+            poll();
+        }
+        catch (IOException exception)
+        {
+            logger.error("Archiv " + this.path + ": " + exception.getMessage(), exception);
+        }
+        finally
+        {
+            try
+            {
+                close();
+                logger.info(toString());
+            }
+            catch (IOException exception)
+            {
+                logger.error("Archiv " + this.path + ": " + exception.getMessage(), exception);
+            }
+        }
+    }
+    
+    /**
+     * poll() - alle neuen Takte aus dem cycleBuffer uebernehmen...
+     * @throws IOException
+     */
+    private void poll() throws IOException
+    {
+        final long sequence = this.cycleBuffer.getSequence();
+        final long oldest = this.cycleBuffer.getOldestSequence();
+        if (this.nextSequence < oldest)
+        {
+            markGap(oldest - this.nextSequence);
+            this.nextSequence = oldest;
+        }
+        for (; this.nextSequence < sequence; this.nextSequence++)
+        {
+            if (this.cycleBuffer.read(this.nextSequence, this.sample))
+            {
+                append(this.sample.getCounter(), 
+                       this.sample.getTimeNanos(), 
+                       this.sample.getPeriodNanos(), 
+                       this.sample.getBusyNanos(), 
+                       this.sample.getLatencyNanos(), 
+                       this.sample.getServo(), 
+                       this.sample.getMotor(), 
+                       this.sample.getTransmission(), 
+                       this.sample.getStatus());
+            }
+            else
+            {
+                markGap(1L);
+            }
+        }
+    }
+    
+    /**
+     * @return the path
+     */
+    public final Path getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * @return Anzahl der geschriebenen Zeilen
+     */
+    public final long getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * @return Anzahl der Bloecke
+     */
+    public final long getBlockCount()
+    {
+        return this.blockCount;
+    }
+
+    /**
+     * @return Byte in der Datei (ohne Ausgabepuffer)
+     */
+    public final long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    /**
+     * @return Anzahl der verlorenen Takte (Ringpuffer ueberlaufen)
+     */
+    public final long getLostCount()
+    {
+        return this.lostCount;
+    }
+
+    /**
+     * toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[")
+               .append(this.path)
+               .append(", rows=")
+               .append(this.rowCount)
+               .append(", blocks=")
+               .append(this.blockCount)
+               .append(", bytes=")
+               .append(this.byteCount)
+               .append(", lost=")
+               .append(this.lostCount)
+               .append("]");
+        return builder.toString();
+    }
+}
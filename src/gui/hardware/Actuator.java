@@ -0,0 +1,178 @@
+/**
+ * 
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface Actuator - Abstraktion der Stellglieder des PiCar-S 
+ * (Servo fuer die Lenkung, Motoren ueber den TB6612-Treiber).
+ * </p>
+ * <p>
+ * Das Model arbeitet ausschliesslich gegen dieses Interface. Damit 
+ * kann neben der echten Hardware ({@link PiCarActuator}) z.B. auch
+ * ein simuliertes Fahrzeug (gui.sim) angeschlossen werden.
+ * </p>
+ */
+public interface Actuator
+{
+    /**
+     * NONE - Actuator ohne Hardware (Lauf nicht auf dem Raspi), 
+     * alle Stellbefehle bleiben ohne Wirkung...
+     */
+    public final static Actuator NONE = new Actuator()
+    {
+        @Override
+        public int getServoMinSteering()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getServoMaxSteering()
+        {
+            return 0;
+        }
+
+        @Override
+        public void setServo(int relValue)
+        {
+        }
+
+        @Override
+        public void setMotor(float speed)
+        {
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "gui.hardware.Actuator.NONE";
+        }
+    };
+    
+    /**
+     * getServoMinSteering() - Grenzwert (links) fuer den Servo-Antrieb
+     * @return Grenzwert links (PWM-Einheiten)
+     */
+    public int getServoMinSteering();
+    
+    /**
+     * getServoMaxSteering() - Grenzwert (rechts) fuer den Servo-Antrieb
+     * @return Grenzwert rechts (PWM-Einheiten)
+     */
+    public int getServoMaxSteering();
+    
+    /**
+     * setServo(int relValue) - Stellwert fuer den Servo, relativ zur Mittelstellung
+     * (PWM-Einheiten)...
+     * @param relValue
+     * @throws IOException
+     */
+    public void setServo(int relValue) throws IOException;
+    
+    /**
+     * setMotor(float speed) - Stellwert fuer den Antrieb...
+     * <p>
+     * speed zwischen -1.0f (Rueckwaerts) und +1.0f (Vorwaerts), 
+     * d.h. der Faktor der {@link gui.Transmission} ist bereits beruecksichtigt.
+     * </p>
+     * @param speed
+     * @throws IOException
+     */
+    public void setMotor(float speed) throws IOException;
+    
+    /**
+     * set(int relValue, float speed) - Servo und Antrieb gemeinsam stellen
+     * (vgl. gui.PropertyBatch)...
+     * <p>
+     * Default: setServo(), danach setMotor(). Ein Actuator mit direktem
+     * Registerzugriff kann beides mit einem Schreibzugriff erledigen.
+     * </p>
+     * @param relValue - vgl. setServo()
+     * @param speed - vgl. setMotor()
+     * @throws IOException
+     */
+    public default void set(int relValue, float speed) throws IOException
+    {
+        setServo(relValue);
+        setMotor(speed);
+    }
+    
+    /**
+     * emergencyStop() - Not-Aus: Antrieb sofort abschalten...
+     * <p>
+     * Aufruf aus beliebigen Threads (Watchdog, Signal-Handler, Messung),
+     * daher ohne Sperren des Actuators, ohne Wiederholungen und ohne 
+     * Warten auf andere Schreibzugriffe, soweit die Hardware das zulaesst.
+     * Ein nachfolgender Schreibzugriff kann die Ausgaenge wieder setzen,
+     * die Sperre weiterer Vorgaben obliegt dem Aufrufer (vgl. 
+     * gui.Model#emergencyStop()).
+     * </p>
+     * <p>
+     * Default: setMotor(0.0f).
+     * </p>
+     * @throws IOException
+     */
+    public default void emergencyStop() throws IOException
+    {
+        setMotor(0.0f);
+    }
+    
+    /**
+     * reset() - Stellglieder in den Grundzustand...
+     * @throws IOException
+     */
+    public void reset() throws IOException;
+    
+    /**
+     * shutdown() - Freigabe der Hardware-Resourcen...
+     */
+    public void shutdown();
+    
+    /**
+     * probe() - harmloser Zugriff im sicheren Zustand (vgl. 
+     * gui.Model#enterSafeState(String)): Sind die Stellglieder wieder
+     * erreichbar?
+     * <p>
+     * Ein Actuator mit CircuitBreaker liest dazu z.B. ein Register ueber
+     * den Schutzschalter (Probezugriff nach Open), schaltet bei Erfolg die
+     * Motoren ab und meldet actuatorRecovered().
+     * </p>
+     * <p>
+     * Default: true (der Actuator meldet keine Stoerungen).
+     * </p>
+     * @return true, wenn die Stellglieder wieder verfuegbar sind
+     * @throws IOException - Zugriff gescheitert bzw. abgewiesen
+     */
+    public default boolean probe() throws IOException
+    {
+        return true;
+    }
+    
+    /**
+     * addActuatorListener(ActuatorListener listener) - Anmeldung fuer 
+     * Stoermeldungen (z.B. I2C-Bus dauerhaft gestoert)...
+     * <p>
+     * Default: Der Actuator meldet keine Stoerungen.
+     * </p>
+     * @param listener
+     */
+    public default void addActuatorListener(ActuatorListener listener)
+    {
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * 
+ */
+package gui.hardware;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface ActuatorListener - Meldungen der Stellglieder an das Model,
+ * z.B. dauerhaft gestoerter I2C-Bus.
+ * </p>
+ */
+public interface ActuatorListener
+{
+    /**
+     * actuatorFault(String reason) - die Stellglieder sind nicht mehr 
+     * erreichbar, die Hardware wurde (soweit moeglich) in den sicheren 
+     * Zustand gebracht; das Model muss die Steuerung anhalten...
+     * @param reason
+     */
+    public void actuatorFault(String reason);
+    
+    /**
+     * actuatorRecovered() - die Stellglieder sind wieder erreichbar...
+     */
+    public void actuatorRecovered();
+}
@@ -0,0 +1,55 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface EchoSource - Ultraschall-Modul des PiCar-S (ein Signal-Pin fuer
+ * Trigger und Echo): Ausloesen einer Messung und Zeitstempel beider Flanken
+ * des Echo-Impulses.
+ * </p>
+ * <p>
+ * Die Zeitstempel stammen von den Flanken selbst (GPIO-Edge-Events des
+ * Kernels, CLOCK_MONOTONIC), nicht aus einem Abfragen des Pegels. Unter
+ * Linux entspricht die Zeitbasis System.nanoTime(), die Verzoegerung bis
+ * zur Reaktion in Java ist damit direkt messbar.
+ * </p>
+ */
+public interface EchoSource
+{
+    /**
+     * RISING = 0 - Index der steigenden Flanke in edges
+     */
+    public final static int RISING = 0;
+
+    /**
+     * FALLING = 1 - Index der fallenden Flanke in edges
+     */
+    public final static int FALLING = 1;
+
+    /**
+     * trigger() - Triggerimpuls ausgeben, Erfassung der Flanken beginnt...
+     * @throws IOException
+     */
+    public void trigger() throws IOException;
+
+    /**
+     * awaitEcho(long[] edges, long timeoutNanos) - Warten auf das Ende des
+     * Echo-Impulses...
+     * @param edges - Ziel: edges[RISING], edges[FALLING] in ns (System.nanoTime())
+     * @param timeoutNanos - max. Wartezeit ab Aufruf
+     * @return true, wenn beide Flanken erfasst wurden, false: kein Echo (Zeitueberschreitung)
+     * @throws IOException
+     */
+    public boolean awaitEcho(long[] edges, long timeoutNanos) throws IOException;
+
+    /**
+     * close() - Freigabe des Pins...
+     */
+    public void close();
+}
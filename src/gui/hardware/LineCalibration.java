@@ -0,0 +1,144 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.util.Arrays;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LineCalibration - Kalibrierung der Sensoren des Linienfolgers: je Sensor
+ * der Rohwert auf weissem Untergrund und auf der Linie.
+ * </p>
+ * <p>
+ * Offset und Steigung werden einmal im Konstruktor bestimmt, im Takt
+ * bleibt je Sensor eine Subtraktion und eine Multiplikation
+ * ({@link #darkness(int, int)}).
+ * </p>
+ */
+public final class LineCalibration
+{
+    /**
+     * DEFAULT_WHITE = 700 - Rohwert auf weissem Untergrund ohne Kalibrierung
+     */
+    public final static int DEFAULT_WHITE = 700;
+
+    /**
+     * DEFAULT_BLACK = 100 - Rohwert auf der Linie ohne Kalibrierung
+     */
+    public final static int DEFAULT_BLACK = 100;
+
+    /**
+     * DEFAULT - alle Sensoren mit DEFAULT_WHITE bzw. DEFAULT_BLACK
+     */
+    public final static LineCalibration DEFAULT = new LineCalibration(filled(DEFAULT_WHITE), filled(DEFAULT_BLACK));
+
+    /**
+     * white, black - Rohwerte je Sensor
+     */
+    private final int[] white;
+    private final int[] black;
+
+    /**
+     * offset - Rohwert weiss je Sensor (als float)
+     */
+    private final float[] offset;
+
+    /**
+     * scale - 1/(weiss - schwarz) je Sensor
+     */
+    private final float[] scale;
+
+    /**
+     * LineCalibration(int[] white, int[] black)
+     * @param white - Rohwerte auf weissem Untergrund (LineSensor.CHANNELS)
+     * @param black - Rohwerte auf der Linie (LineSensor.CHANNELS)
+     */
+    public LineCalibration(int[] white, int[] black)
+    {
+        if (white.length != LineSensor.CHANNELS || black.length != LineSensor.CHANNELS)
+        {
+            throw new IllegalArgumentException("LineCalibration: je " + LineSensor.CHANNELS + " Werte erforderlich.");
+        }
+        this.white = white.clone();
+        this.black = black.clone();
+        this.offset = new float[LineSensor.CHANNELS];
+        this.scale = new float[LineSensor.CHANNELS];
+        for (int channel = 0; channel < LineSensor.CHANNELS; channel++)
+        {
+            if (white[channel] <= black[channel])
+            {
+                throw new IllegalArgumentException("LineCalibration: Sensor " + channel + " weiss " + white[channel] + " <= schwarz " + black[channel]);
+            }
+            this.offset[channel] = white[channel];
+            this.scale[channel] = 1.0f/(white[channel] - black[channel]);
+        }
+    }
+
+    /**
+     * darkness(int channel, int raw) - normierter Anteil der Linie am Sensor...
+     * @param channel - Sensor 0 ... LineSensor.CHANNELS-1
+     * @param raw - Rohwert
+     * @return 0.0f (weiss) ... 1.0f (Linie)
+     */
+    public float darkness(int channel, int raw)
+    {
+        final float value = (this.offset[channel] - raw) * this.scale[channel];
+        return (value < 0.0f)? 0.0f : (value > 1.0f)? 1.0f : value;
+    }
+
+    /**
+     * parse(String calibration) - Kalibrierung aus der properties-Datei...
+     * @param calibration - "w0,w1,w2,w3,w4;b0,b1,b2,b3,b4" oder leer (=> DEFAULT)
+     * @return LineCalibration
+     */
+    public static LineCalibration parse(String calibration)
+    {
+        if (calibration == null || calibration.trim().length() == 0)
+        {
+            return DEFAULT;
+        }
+        final String[] parts = calibration.trim().split(";");
+        if (parts.length != 2)
+        {
+            throw new IllegalArgumentException("LineCalibration: weiss;schwarz erwartet: " + calibration);
+        }
+        return new LineCalibration(parseValues(parts[0]), parseValues(parts[1]));
+    }
+
+    /**
+     * parseValues(String values) - "v0,v1,v2,v3,v4"...
+     * @param values
+     * @return Werte
+     */
+    private static int[] parseValues(String values)
+    {
+        final String[] items = values.split(",");
+        final int[] result = new int[items.length];
+        for (int index = 0; index < items.length; index++)
+        {
+            result[index] = Integer.parseInt(items[index].trim());
+        }
+        return result;
+    }
+
+    /**
+     * filled(int value)
+     * @param value
+     * @return LineSensor.CHANNELS mal value
+     */
+    private static int[] filled(int value)
+    {
+        final int[] values = new int[LineSensor.CHANNELS];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.LineCalibration[white=" + Arrays.toString(this.white) + ", black=" + Arrays.toString(this.black) + "]";
+    }
+}
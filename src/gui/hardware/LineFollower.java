@@ -0,0 +1,206 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LineFollower - Erfassung der Linie im Takt der Steuerung: Rohwerte des
+ * {@link LineSensor}, Normierung mit der {@link LineCalibration} und
+ * Querablage der Linie als gewichteter Schwerpunkt der Sensoren.
+ * </p>
+ * <pre>
+ *   position = sum(darkness[i] * OFFSET[i]) / sum(darkness[i])
+ *   OFFSET   = +2, +1, 0, -1, -2 * SENSOR_SPACING (Index 0 links)
+ * </pre>
+ * <p>
+ * {@link #acquire()} wird zu Beginn des Taktes aufgerufen (Model.doCycle()
+ * bzw. TaskExecutive), die Position steht damit im selben Takt zur
+ * Verfuegung. Rohwerte und Normierung liegen in festen Feldern, je Takt
+ * wird nichts angelegt.
+ * </p>
+ * <p>
+ * Anm.: Geschrieben wird nur aus dem Takt, gelesen aus beliebigen Threads.
+ * Position und Kennung sind volatile, die Felder je Sensor sind nur zur
+ * Anzeige gedacht (ohne Sperre).
+ * </p>
+ */
+public class LineFollower
+{
+    /**
+     * SENSOR_SPACING = 0.015 - Abstand benachbarter Sensoren in m
+     */
+    public final static double SENSOR_SPACING = 0.015;
+
+    /**
+     * MAX_POSITION - groesste erfassbare Querablage in m (aeusserer Sensor)
+     */
+    public final static double MAX_POSITION = SENSOR_SPACING * (LineSensor.CHANNELS - 1)/2;
+
+    /**
+     * MIN_DARKNESS = 0.5f - Linie erkannt ab dieser Summe der normierten Werte
+     */
+    public final static float MIN_DARKNESS = 0.5f;
+
+    /**
+     * OFFSET - Querlage der Sensoren in m (positiv: links)
+     */
+    private final static double[] OFFSET = new double[LineSensor.CHANNELS];
+    static
+    {
+        for (int channel = 0; channel < LineSensor.CHANNELS; channel++)
+        {
+            OFFSET[channel] = MAX_POSITION - channel * SENSOR_SPACING;
+        }
+    }
+
+    /**
+     * sensor - Quelle der Rohwerte
+     */
+    private final LineSensor sensor;
+
+    /**
+     * calibration - Kalibrierung je Sensor
+     */
+    private final LineCalibration calibration;
+
+    /**
+     * raw - Rohwerte des letzten Taktes
+     */
+    private final int[] raw = new int[LineSensor.CHANNELS];
+
+    /**
+     * darkness - normierte Werte des letzten Taktes (0.0f: weiss ... 1.0f: Linie)
+     */
+    private final float[] darkness = new float[LineSensor.CHANNELS];
+
+    /**
+     * position - Querablage der Linie in m (positiv: links), bei verlorener
+     * Linie der letzte gueltige Wert
+     */
+    private volatile double position = 0.0;
+
+    /**
+     * isLineDetected - Linie im letzten Takt erkannt?
+     */
+    private volatile boolean isLineDetected = false;
+
+    /**
+     * acquisitions - Anzahl der Erfassungen
+     */
+    private volatile long acquisitions = 0L;
+
+    /**
+     * LineFollower(LineSensor sensor, LineCalibration calibration)
+     * @param sensor
+     * @param calibration
+     */
+    public LineFollower(LineSensor sensor, LineCalibration calibration)
+    {
+        this.sensor = sensor;
+        this.calibration = calibration;
+    }
+
+    /**
+     * acquire() - ein Takt: Rohwerte lesen, Querablage bestimmen...
+     * <p>
+     * Bei einem Fehler gilt die Linie als nicht erkannt, die Ausnahme
+     * wird weitergereicht.
+     * </p>
+     * @throws IOException
+     */
+    public void acquire() throws IOException
+    {
+        try
+        {
+            this.sensor.read(this.raw);
+        }
+        catch (IOException exception)
+        {
+            this.isLineDetected = false;
+            throw exception;
+        }
+        float sum = 0.0f;
+        double weighted = 0.0;
+        for (int channel = 0; channel < LineSensor.CHANNELS; channel++)
+        {
+            final float value = this.calibration.darkness(channel, this.raw[channel]);
+            this.darkness[channel] = value;
+            sum += value;
+            weighted += value * OFFSET[channel];
+        }
+        final boolean isDetected = (sum >= MIN_DARKNESS);
+        if (isDetected)
+        {
+            this.position = weighted/sum;
+        }
+        this.isLineDetected = isDetected;
+        this.acquisitions++;
+    }
+
+    /**
+     * getPosition()
+     * @return Querablage der Linie in m (positiv: links), -MAX_POSITION ... +MAX_POSITION
+     */
+    public double getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * isLineDetected()
+     * @return true, wenn die Linie im letzten Takt erkannt wurde
+     */
+    public boolean isLineDetected()
+    {
+        return this.isLineDetected;
+    }
+
+    /**
+     * getAcquisitions()
+     * @return Anzahl der Erfassungen
+     */
+    public long getAcquisitions()
+    {
+        return this.acquisitions;
+    }
+
+    /**
+     * getRaw(int channel)
+     * @param channel
+     * @return Rohwert des letzten Taktes
+     */
+    public int getRaw(int channel)
+    {
+        return this.raw[channel];
+    }
+
+    /**
+     * getDarkness(int channel)
+     * @param channel
+     * @return normierter Wert des letzten Taktes
+     */
+    public float getDarkness(int channel)
+    {
+        return this.darkness[channel];
+    }
+
+    /**
+     * getCalibration()
+     * @return calibration
+     */
+    public LineCalibration getCalibration()
+    {
+        return this.calibration;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("gui.hardware.LineFollower[%s, position=%.4f m, erkannt=%b]", this.sensor, this.position, this.isLineDetected);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LineFollowerModule - SunFounder Linienfolger-Modul des PiCar-S am I2C-Bus
+ * (Adresse 0x11).
+ * </p>
+ * <p>
+ * Das Modul liefert ab Register 0 die 5 Messwerte mit je 2 Byte (High-Byte
+ * zuerst). Alle Werte werden mit einem Block-Lesezugriff (10 Byte) in einen
+ * wiederverwendeten Puffer gelesen, d.h. ein I2C-Transfer je Takt und keine
+ * Objekte je Zugriff.
+ * </p>
+ */
+public class LineFollowerModule implements LineSensor
+{
+    /**
+     * ADDRESS = 0x11 - Bus-Adresse des Moduls
+     */
+    public final static int ADDRESS = 0x11;
+
+    /**
+     * REGISTER = 0 - erster Messwert
+     */
+    private final static int REGISTER = 0;
+
+    /**
+     * BLOCK_SIZE = 10 - 5 Messwerte mit je 2 Byte
+     */
+    private final static int BLOCK_SIZE = 2 * CHANNELS;
+
+    /**
+     * device - Zugriff auf das Modul
+     */
+    private final I2CDevice device;
+
+    /**
+     * buffer - wiederverwendeter Puffer (Zugriff nur unter der Sperre this)
+     */
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+
+    /**
+     * LineFollowerModule(I2CDevice device)
+     * @param device - Zugriff auf das Modul (pi4j, FFM, Simulation, ...)
+     */
+    public LineFollowerModule(I2CDevice device)
+    {
+        this.device = device;
+    }
+
+    @Override
+    public synchronized void read(int[] raw) throws IOException
+    {
+        final int count = this.device.read(REGISTER, this.buffer, 0, BLOCK_SIZE);
+        if (count != BLOCK_SIZE)
+        {
+            throw new IOException("LineFollowerModule: " + count + " von " + BLOCK_SIZE + " Byte gelesen.");
+        }
+        for (int channel = 0; channel < CHANNELS; channel++)
+        {
+            raw[channel] = ((this.buffer[2 * channel] & 0xFF) << 8) | (this.buffer[2 * channel + 1] & 0xFF);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.LineFollowerModule[" + this.device + "]";
+    }
+}
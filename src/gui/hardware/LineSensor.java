@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface LineSensor - Abstraktion des Linienfolger-Moduls des PiCar-S
+ * (5 Reflexionssensoren quer zur Fahrtrichtung).
+ * </p>
+ * <p>
+ * Neben der echten Hardware ({@link LineFollowerModule}, I2C) kann ein
+ * simulierter Sensor (gui.sim) angeschlossen werden. Ausgewertet werden
+ * die Rohwerte im {@link LineFollower}.
+ * </p>
+ */
+public interface LineSensor
+{
+    /**
+     * CHANNELS = 5 - Anzahl der Sensoren, Index 0: ganz links (in Fahrtrichtung)
+     */
+    public final static int CHANNELS = 5;
+
+    /**
+     * read(int[] raw) - Rohwerte aller Sensoren mit einem Zugriff...
+     * <p>
+     * Die Werte werden in raw[0] ... raw[CHANNELS-1] abgelegt, hell (weiss)
+     * liefert hohe, dunkel (Linie) niedrige Werte. Es wird nichts angelegt.
+     * </p>
+     * @param raw - Ziel, mind. CHANNELS Eintraege
+     * @throws IOException
+     */
+    public void read(int[] raw) throws IOException;
+}
@@ -0,0 +1,126 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * MedianWindow - gleitender Median ueber die letzten size Werte (ungerade),
+ * z.B. zur Unterdrueckung einzelner Fehlmessungen des Ultraschall-Moduls.
+ * </p>
+ * <p>
+ * Ein Thread schreibt ({@link #add(long)}), beliebige Threads lesen ohne
+ * Sperre: Die Werte liegen in einem AtomicLongArray, der Median wird beim
+ * Schreiben bestimmt (Einfuegesortierung in einem festen Feld, keine
+ * Objekte) und volatile veroeffentlicht.
+ * </p>
+ */
+public final class MedianWindow
+{
+    /**
+     * EMPTY = Long.MIN_VALUE - Median vor dem ersten Wert
+     */
+    public final static long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * values - Ringpuffer der letzten Werte
+     */
+    private final AtomicLongArray values;
+
+    /**
+     * sorted - Arbeitsfeld des Schreibers
+     */
+    private final long[] sorted;
+
+    /**
+     * count - Anzahl der bisher abgelegten Werte
+     */
+    private long count = 0L;
+
+    /**
+     * median - Median der abgelegten Werte (max. size), EMPTY: noch keiner
+     */
+    private volatile long median = EMPTY;
+
+    /**
+     * MedianWindow(int size)
+     * @param size - Fensterbreite, ungerade
+     */
+    public MedianWindow(int size)
+    {
+        if (size < 1 || (size % 2) == 0)
+        {
+            throw new IllegalArgumentException("MedianWindow: ungerade Fensterbreite erwartet: " + size);
+        }
+        this.values = new AtomicLongArray(size);
+        this.sorted = new long[size];
+    }
+
+    /**
+     * add(long value) - neuer Wert (nur ein schreibender Thread)...
+     * @param value
+     * @return Median inkl. value
+     */
+    public long add(long value)
+    {
+        final int size = this.sorted.length;
+        this.values.set((int)(this.count % size), value);
+        this.count++;
+        final int filled = (int)Math.min(this.count, size);
+        for (int index = 0; index < filled; index++)
+        {
+            final long item = this.values.get(index);
+            int position = index;
+            while (position > 0 && this.sorted[position - 1] > item)
+            {
+                this.sorted[position] = this.sorted[position - 1];
+                position--;
+            }
+            this.sorted[position] = item;
+        }
+        final long result = this.sorted[(filled - 1)/2];
+        this.median = result;
+        return result;
+    }
+
+    /**
+     * getMedian()
+     * @return Median der letzten Werte oder EMPTY
+     */
+    public long getMedian()
+    {
+        return this.median;
+    }
+
+    /**
+     * get(int index) - Wert im Ringpuffer (z.B. zur Anzeige)...
+     * @param index - 0 ... size-1
+     * @return Wert
+     */
+    public long get(int index)
+    {
+        return this.values.get(index);
+    }
+
+    /**
+     * getSize()
+     * @return Fensterbreite
+     */
+    public int getSize()
+    {
+        return this.sorted.length;
+    }
+
+    /**
+     * reset() - alle Werte verwerfen (nur der schreibende Thread)...
+     */
+    public void reset()
+    {
+        this.count = 0L;
+        this.median = EMPTY;
+    }
+}
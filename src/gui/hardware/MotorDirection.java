@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface MotorDirection - Richtungsvorgabe fuer die beiden Motoren 
+ * (Steuer-Pins PIN_MA, PIN_MB des TB6612).
+ * </p>
+ */
+public interface MotorDirection
+{
+    /**
+     * NONE - ohne Richtungs-Pins...
+     */
+    public final static MotorDirection NONE = new MotorDirection()
+    {
+        @Override
+        public void set(boolean isHighA, boolean isHighB)
+        {
+        }
+        
+        @Override
+        public void close()
+        {
+        }
+    };
+    
+    /**
+     * set(boolean isHighA, boolean isHighB) - beide Pins setzen...
+     * @param isHighA - Pegel PIN_MA
+     * @param isHighB - Pegel PIN_MB
+     * @throws IOException
+     */
+    public void set(boolean isHighA, boolean isHighB) throws IOException;
+    
+    /**
+     * close() - Freigabe der Pins...
+     */
+    public void close();
+}
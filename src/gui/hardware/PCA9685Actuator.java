@@ -0,0 +1,483 @@
+/**
+ * 
+ */
+package gui.hardware;
+
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+import gui.hardware.i2c.CircuitBreaker;
+import gui.hardware.i2c.PCA9685Registers;
+import gui.hardware.i2c.ResilientI2CDevice;
+import gui.jfr.ActuatorWriteEvent;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * PCA9685Actuator - Stellglieder des PiCar-S mit direktem Registerzugriff 
+ * auf den PCA9685 ueber ein beliebiges I2CDevice (pi4j, Simulation, ...).
+ * </p>
+ * <p>
+ * Im Gegensatz zum {@link PiCarActuator} (Treiber aus raspi.hardware) werden 
+ * die PWM-Register hier selbst beschrieben: je Channel ein Schreibzugriff
+ * mit 4 Byte (LEDn_ON_L ... LEDn_OFF_H, Auto-Increment). Die Drehrichtung
+ * wird ueber {@link MotorDirection} vorgegeben (Pegel LOW: vorwaerts).
+ * </p>
+ * <p>
+ * Ist das I2CDevice ein {@link ResilientI2CDevice}, so fuehrt das Oeffnen 
+ * des CircuitBreaker zum sicheren Zustand: Die Motor-Channel werden mit je 
+ * einem einzelnen, direkten Zugriff abgeschaltet, die Richtungs-Pins auf LOW
+ * gesetzt und die ActuatorListener (Model) informiert. Bis zum Schliessen
+ * schreiben alle Zugriffe auf die Motor-Channel 0, auch der Probezugriff
+ * des CircuitBreaker. Beim Schliessen wird nur der Wiederanlauf gemeldet,
+ * der Listener schreibt selbst nicht (er laeuft innerhalb des 
+ * Probezugriffs), erst die naechste Vorgabe gilt wieder.
+ * </p>
+ * <p>
+ * Der Not-Aus ({@link #emergencyStop()}) schaltet alle 16 Channel mit einem
+ * einzigen Zugriff auf ALL_LED_OFF_H ab, direkt am ResilientI2CDevice und 
+ * an der Sperre this vorbei.
+ * </p>
+ */
+public class PCA9685Actuator implements Actuator
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(PCA9685Actuator.class);
+    
+    /**
+     * DEFAULT_SERVO_MIN_STEERING = 250 - Grenzwert links (PWM-Einheiten bei 50 Hz)
+     */
+    public final static int DEFAULT_SERVO_MIN_STEERING = 250;
+    
+    /**
+     * DEFAULT_SERVO_MAX_STEERING = 450 - Grenzwert rechts (PWM-Einheiten bei 50 Hz)
+     */
+    public final static int DEFAULT_SERVO_MAX_STEERING = 450;
+    
+    /**
+     * MAX_DUTY = 4095 - max. Einschaltdauer (PWM-Einheiten)
+     */
+    private final static int MAX_DUTY = PCA9685Registers.STEPS - 1;
+    
+    /**
+     * device - Zugriff auf den PCA9685
+     */
+    private final I2CDevice device;
+    
+    /**
+     * directDevice - I2CDevice ohne Wiederholungen und CircuitBreaker 
+     * (Not-Aus, sicherer Zustand, Freigabe)
+     */
+    private final I2CDevice directDevice;
+    
+    /**
+     * isDirectionOnStop - Richtungs-Pins beim Not-Aus auf LOW setzen
+     */
+    private volatile boolean isDirectionOnStop = true;
+    
+    /**
+     * isSafeState - CircuitBreaker geoeffnet: Motor-Channel werden mit 0
+     * geschrieben (bis recover())
+     */
+    private volatile boolean isSafeState = false;
+    
+    /**
+     * motorDirection - Richtungs-Pins
+     */
+    private final MotorDirection motorDirection;
+    
+    /**
+     * servoMinSteering, servoMaxSteering - Grenzwerte des Servos
+     */
+    private final int servoMinSteering;
+    private final int servoMaxSteering;
+    
+    /**
+     * servoCenter - Mittelstellung des Servos
+     */
+    private final int servoCenter;
+    
+    /**
+     * channelBuffer - wiederverwendeter Puffer fuer die 4 Register eines Channels
+     * (Zugriff nur unter der Sperre this)
+     */
+    private final byte[] channelBuffer = new byte[4];
+    
+    /**
+     * BLOCK_CHANNELS = 6 - Channel 0 (Servo) ... 5 (Motor B) in set()
+     */
+    private final static int BLOCK_CHANNELS = PiCarActuator.MOTOR_B_CHANNEL + 1;
+    
+    /**
+     * blockBuffer - wiederverwendeter Puffer fuer die Register der Channel 
+     * 0 ... 5 (Zugriff nur unter der Sperre this)
+     */
+    private final byte[] blockBuffer = new byte[4 * BLOCK_CHANNELS];
+    
+    /**
+     * listeners - angemeldete ActuatorListener
+     */
+    private final CopyOnWriteArrayList<ActuatorListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * PCA9685Actuator(I2CDevice device, MotorDirection motorDirection) - Default-Grenzwerte...
+     * @param device
+     * @param motorDirection
+     */
+    public PCA9685Actuator(I2CDevice device, MotorDirection motorDirection)
+    {
+        this(device, motorDirection, DEFAULT_SERVO_MIN_STEERING, DEFAULT_SERVO_MAX_STEERING);
+    }
+    
+    /**
+     * PCA9685Actuator(...)
+     * @param device - Zugriff auf den PCA9685
+     * @param motorDirection - Richtungs-Pins
+     * @param servoMinSteering - Grenzwert links
+     * @param servoMaxSteering - Grenzwert rechts
+     */
+    public PCA9685Actuator(I2CDevice device, MotorDirection motorDirection, int servoMinSteering, int servoMaxSteering)
+    {
+        this.device = device;
+        this.directDevice = (device instanceof ResilientI2CDevice)? ((ResilientI2CDevice)device).getDelegate() : device;
+        this.motorDirection = motorDirection;
+        this.servoMinSteering = servoMinSteering;
+        this.servoMaxSteering = servoMaxSteering;
+        this.servoCenter = (servoMinSteering + servoMaxSteering)/2;
+        
+        if (device instanceof ResilientI2CDevice)
+        {
+            final ResilientI2CDevice resilientDevice = (ResilientI2CDevice) device;
+            resilientDevice.getCircuitBreaker().addListener(new CircuitBreaker.Listener()
+            {
+                @Override
+                public void opened(String reason)
+                {
+                    enterSafeState(resilientDevice.getDelegate(), reason);
+                }
+
+                @Override
+                public void closed()
+                {
+                    logger.info("I2C-Bus wieder verfuegbar.");
+                    recover();
+                }
+            });
+        }
+    }
+    
+    /**
+     * initialize(int frequency) - PWM-Frequenz einstellen, Auto-Increment setzen...
+     * @param frequency - PWM-Frequenz (Hz)
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void initialize(int frequency) throws IOException, InterruptedException
+    {
+        this.device.write(PCA9685Registers.MODE1, (byte)(PCA9685Registers.MODE1_SLEEP | PCA9685Registers.MODE1_AI));
+        this.device.write(PCA9685Registers.PRE_SCALE, (byte)PCA9685Registers.preScale(frequency));
+        this.device.write(PCA9685Registers.MODE1, (byte)PCA9685Registers.MODE1_AI);
+        // Oszillator benoetigt max. 500 us...
+        Thread.sleep(1);
+        this.device.write(PCA9685Registers.MODE1, (byte)(PCA9685Registers.MODE1_RESTART | PCA9685Registers.MODE1_AI));
+        reset();
+    }
+
+    @Override
+    public int getServoMinSteering()
+    {
+        return this.servoMinSteering;
+    }
+
+    @Override
+    public int getServoMaxSteering()
+    {
+        return this.servoMaxSteering;
+    }
+
+    @Override
+    public void setServo(int relValue) throws IOException
+    {
+        final int value = Math.max(this.servoMinSteering, Math.min(this.servoMaxSteering, this.servoCenter + relValue));
+        writeChannel(PiCarActuator.SERVO_CHANNEL, value);
+    }
+
+    @Override
+    public void setMotor(float speed) throws IOException
+    {
+        // Im sicheren Zustand beide Motor-Channel 0 (einmal bestimmt, 
+        // auch wenn der Probezugriff auf Motor A den Schalter schliesst)...
+        final boolean isSafeState = this.isSafeState;
+        final int duty = isSafeState? 0 : toDuty(speed);
+        // Richtung: vorwaerts LOW, rueckwaerts HIGH...
+        final boolean isReverse = !isSafeState && (speed < 0.0f);
+        this.motorDirection.set(isReverse, isReverse);
+        writeChannel(PiCarActuator.MOTOR_A_CHANNEL, duty);
+        writeChannel(PiCarActuator.MOTOR_B_CHANNEL, duty);
+    }
+    
+    /**
+     * set(int relValue, float speed) - Servo und Motoren mit einem 
+     * Schreibzugriff (Channel 0 ... 5, 24 Byte mit Auto-Increment)...
+     * <p>
+     * Die Channel 1 ... 3 werden vom PiCar-S nicht verwendet und dabei 
+     * voll aus geschrieben (wie nach dem Reset des PCA9685).
+     * </p>
+     */
+    @Override
+    public void set(int relValue, float speed) throws IOException
+    {
+        final int servoValue = Math.max(this.servoMinSteering, Math.min(this.servoMaxSteering, this.servoCenter + relValue));
+        final boolean isSafeState = this.isSafeState;
+        final int duty = isSafeState? 0 : toDuty(speed);
+        final boolean isReverse = !isSafeState && (speed < 0.0f);
+        this.motorDirection.set(isReverse, isReverse);
+        synchronized (this)
+        {
+            for (int channel = 0; channel < BLOCK_CHANNELS; channel++)
+            {
+                final int value = (channel == PiCarActuator.SERVO_CHANNEL)? servoValue
+                                : (channel == PiCarActuator.MOTOR_A_CHANNEL || channel == PiCarActuator.MOTOR_B_CHANNEL)? duty 
+                                : 0;
+                fillChannel(this.blockBuffer, 4 * channel, value);
+            }
+            final ActuatorWriteEvent event = new ActuatorWriteEvent();
+            event.begin();
+            this.device.write(PCA9685Registers.ledOnL(0), this.blockBuffer, 0, this.blockBuffer.length);
+            commit(event, 0, BLOCK_CHANNELS, servoValue);
+        }
+    }
+    
+    /**
+     * emergencyStop() - Not-Aus: ein Schreibzugriff auf ALL_LED_OFF_H mit 
+     * FULL_BIT schaltet alle Channel (Servo und Motoren) voll aus...
+     * <p>
+     * Ohne die Sperre this, ohne Wiederholung und auch bei offenem 
+     * CircuitBreaker. Ein laufender Zugriff auf den Bus wird nicht 
+     * unterbrochen, der Not-Aus folgt unmittelbar danach (Sperre des 
+     * I2C-Adapters im Kernel bzw. des I2CDevice). Die Register der 
+     * einzelnen Channel werden mit dem naechsten Schreibzugriff wieder 
+     * wirksam. Danach optional die Richtungs-Pins auf LOW
+     * ({@link #setDirectionOnStop(boolean)}).
+     * </p>
+     */
+    @Override
+    public void emergencyStop() throws IOException
+    {
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.directDevice.write(PCA9685Registers.ALL_LED_OFF_H, (byte)PCA9685Registers.FULL_BIT);
+        commit(event, -1, 0, 0);
+        if (this.isDirectionOnStop)
+        {
+            this.motorDirection.set(false, false);
+        }
+    }
+    
+    /**
+     * setDirectionOnStop(boolean isDirectionOnStop) - Richtungs-Pins beim 
+     * Not-Aus auf LOW setzen (Default: true)...
+     * <p>
+     * Die Pins bestimmen am TB6612 nur die Drehrichtung, der Antrieb ist 
+     * bereits mit der PWM abgeschaltet. Ohne die Pins endet der Not-Aus 
+     * nach dem I2C-Zugriff.
+     * </p>
+     * @param isDirectionOnStop
+     */
+    public void setDirectionOnStop(boolean isDirectionOnStop)
+    {
+        this.isDirectionOnStop = isDirectionOnStop;
+    }
+    
+    /**
+     * toDuty(float speed) - Einschaltdauer zum Stellwert des Antriebes...
+     * @param speed - -1.0f ... +1.0f
+     * @return duty 0 ... 4095
+     */
+    private static int toDuty(float speed)
+    {
+        return Math.round(Math.min(1.0f, Math.abs(speed)) * MAX_DUTY);
+    }
+    
+    /**
+     * writeChannel(int channel, int duty) - ein Schreibzugriff je Channel
+     * (ON = 0, OFF = duty, duty = 0 => voll aus)...
+     * @param channel
+     * @param duty - 0 ... 4095
+     * @throws IOException
+     */
+    private synchronized void writeChannel(int channel, int duty) throws IOException
+    {
+        fillChannel(this.channelBuffer, 0, duty);
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.device.write(PCA9685Registers.ledOnL(channel), this.channelBuffer, 0, this.channelBuffer.length);
+        commit(event, channel, 1, duty);
+    }
+    
+    /**
+     * commit(ActuatorWriteEvent event, int channel, int channels, int value) - 
+     * JFR-Event zum Schreibzugriff (nur bei aktiver Aufzeichnung)...
+     * @param event - mit begin() vor dem Zugriff
+     * @param channel - erster Channel, -1: ALL_LED
+     * @param channels - Anzahl, 0: alle
+     * @param value - Wert des ersten Channels
+     */
+    private static void commit(ActuatorWriteEvent event, int channel, int channels, int value)
+    {
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.device = ActuatorWriteEvent.PCA9685;
+            event.channel = channel;
+            event.channels = channels;
+            event.value = value;
+            event.commit();
+        }
+    }
+    
+    /**
+     * fillChannel(byte[] buffer, int offset, int duty) - die 4 Register eines 
+     * Channels (ON = 0, OFF = duty, duty = 0 => voll aus)...
+     * @param buffer
+     * @param offset
+     * @param duty - 0 ... 4095
+     */
+    private static void fillChannel(byte[] buffer, int offset, int duty)
+    {
+        buffer[offset] = 0;
+        buffer[offset + 1] = 0;
+        buffer[offset + 2] = (byte)(duty & 0xFF);
+        buffer[offset + 3] = (byte)((duty == 0)? PCA9685Registers.FULL_BIT : (duty >> 8) & 0x0F);
+    }
+
+    @Override
+    public void reset() throws IOException
+    {
+        setMotor(0.0f);
+        setServo(0);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        try
+        {
+            setMotor(0.0f);
+        }
+        catch (IOException exception)
+        {
+            logger.error("shutdown(): " + exception, exception);
+        }
+        this.motorDirection.close();
+        // Das FFM-Backend haelt die Geraetedatei offen...
+        if (this.directDevice instanceof java.io.Closeable)
+        {
+            try
+            {
+                ((java.io.Closeable)this.directDevice).close();
+            }
+            catch (IOException exception)
+            {
+                logger.error("shutdown(): " + exception, exception);
+            }
+        }
+    }
+    
+    @Override
+    public void addActuatorListener(ActuatorListener listener)
+    {
+        this.listeners.add(listener);
+    }
+    
+    /**
+     * probe() - Lesezugriff auf MODE1 ueber den CircuitBreaker (nach 
+     * Open der Probezugriff, bei Erfolg vgl. recover())...
+     */
+    @Override
+    public boolean probe() throws IOException
+    {
+        this.device.read(PCA9685Registers.MODE1);
+        return !this.isSafeState || recover();
+    }
+    
+    /**
+     * recover() - Bus wieder verfuegbar: zuerst beide Motor-Channel auf 0
+     * (die Register sind seit dem Ausfall unbestimmt, der Schalter kann auch
+     * mit einem Lese- oder Servo-Zugriff schliessen), danach Freigabe...
+     * @return true, wenn die Motoren abgeschaltet und die Listener 
+     * informiert wurden
+     */
+    private boolean recover()
+    {
+        try
+        {
+            writeChannel(PiCarActuator.MOTOR_A_CHANNEL, 0);
+            writeChannel(PiCarActuator.MOTOR_B_CHANNEL, 0);
+        }
+        catch (IOException exception)
+        {
+            logger.error("recover(): " + exception);
+            return false;
+        }
+        this.isSafeState = false;
+        for (ActuatorListener listener: this.listeners)
+        {
+            listener.actuatorRecovered();
+        }
+        return true;
+    }
+    
+    /**
+     * enterSafeState(I2CDevice directDevice, String reason) - sicherer Zustand...
+     * <p>
+     * Je ein einzelner Versuch (ohne Wiederholung, am CircuitBreaker vorbei),
+     * Fehler werden nur protokolliert.
+     * </p>
+     * @param directDevice - I2CDevice ohne Wiederholungen
+     * @param reason
+     */
+    private void enterSafeState(I2CDevice directDevice, String reason)
+    {
+        logger.error("I2C-Bus gestoert, sicherer Zustand: " + reason);
+        this.isSafeState = true;
+        try
+        {
+            this.motorDirection.set(false, false);
+        }
+        catch (IOException exception)
+        {
+            logger.error("enterSafeState(): " + exception);
+        }
+        final int[] motorChannels = {PiCarActuator.MOTOR_A_CHANNEL, PiCarActuator.MOTOR_B_CHANNEL};
+        for (int channel: motorChannels)
+        {
+            try
+            {
+                directDevice.write(PCA9685Registers.ledOffH(channel), (byte)PCA9685Registers.FULL_BIT);
+            }
+            catch (IOException exception)
+            {
+                logger.error("enterSafeState(): Channel " + channel + ": " + exception);
+            }
+        }
+        for (ActuatorListener listener: this.listeners)
+        {
+            listener.actuatorFault(reason);
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.PCA9685Actuator[" + this.device + "]";
+    }
+}
@@ -0,0 +1,454 @@
+/**
+ * 
+ */
+package gui.hardware;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.RaspiPin;
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+
+import gui.hardware.i2c.BusHealth;
+import gui.hardware.i2c.CircuitBreaker;
+import gui.hardware.i2c.I2CBackend;
+import gui.hardware.i2c.PCA9685Registers;
+import gui.hardware.i2c.ResilientI2CDevice;
+import gui.jfr.ActuatorWriteEvent;
+import raspi.hardware.TB6612MDriver;
+import raspi.hardware.i2c.PCA9685;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * PiCarActuator - die Stellglieder des PiCar-S auf dem Raspi:
+ * PWM-Driver PCA9685 (I2C) mit Servo und Motor-Channels sowie
+ * der Motortreiber TB6612 mit den GPIO-Pins zur Richtungsvorgabe.
+ * </p>
+ */
+public class PiCarActuator implements Actuator
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(PiCarActuator.class);
+    
+    /**
+     * ADDRESS - Bus-Adresse des PCA9685-Bausteins (PWM-Driver), 
+     * festgelegt durch 'Verdrahtung' auf dem Baustein... 
+     */
+    public final static int ADDRESS = 0x40; 
+    
+    /**
+     * PWM_FREQUENCY = 50
+     * <p>
+     * Frequenzvorgabe fuer den PWM-Driver (Hz)
+     * </p>
+     */
+    public final static int PWM_FREQUENCY = 50;
+    
+    /**
+     * DELAY = 100 Pausenzeit (100 ms) fuer einzelne Aktionen...
+     */
+    public final static int DELAY = 100;
+    
+    /**
+     * SERVO_CHANNEL = 0
+     * <p>
+     * Channel-Nummer fuer den Servo
+     * </p>
+     */
+    public final static int SERVO_CHANNEL = 0;
+    
+    /**
+     * MOTOR_A_CHANNEL = 4
+     * <p>
+     * PWM-Channel-Nummer Motor A
+     * </p>
+     */
+    public final static int MOTOR_A_CHANNEL = 4;
+    
+    /**
+     * MOTOR_B_CHANNEL = 5
+     * <p>
+     * PWM-Channel-Nummer Motor B
+     * </p>
+     */
+    public final static int MOTOR_B_CHANNEL = 5;
+    
+    /**
+     * PIN_MA - zur Ansteuerung des Motor A (Drehrichtung...)
+     */
+    public final static Pin PIN_MA = RaspiPin.GPIO_00;
+    
+    /**
+     * PIN_MB - zur Ansteuerung des Motor B (Drehrichtung...)
+     */
+    public final static Pin PIN_MB = RaspiPin.GPIO_02;
+    
+    /**
+     * ...die folgenden Pins werden angesprochen...
+     */
+    private final static Pin[] GPIO_PINS = 
+    {
+        PIN_MA,
+        PIN_MB
+    };
+    
+    /**
+     * PIN_NAMES - String-Array mit den Namen der RaspiPin's.
+     * Das Array wird aus dem Array GPIO_PINS[] befuellt.
+     */
+    public final static String[] PIN_NAMES = new String[GPIO_PINS.length];
+    
+    static 
+    {
+        // Befuellen des Arrays PIN_NAMES[] aus GPIO_PINS[]...
+        for(int index = 0; index < GPIO_PINS.length; index++)
+        {
+            PIN_NAMES[index] = GPIO_PINS[index].getName();
+        }
+    }
+    
+    /**
+     * Referenz auf den GPIO-controller...
+     * <p>
+     * Der GPIO-Controller bedient die GPIO-Schnittstelle des Raspi.
+     * </p>
+     */
+    private final GpioController gpioController;
+    
+    /**
+     * gpioPinOutputMap nimmt die GpioPinDigitalOutput-Objekte auf, 
+     * Key ist dabei jeweils der Pin_Name, z.B. "GPIO 21"...
+     */
+    private final java.util.TreeMap<String, GpioPinDigitalOutput> gpioPinOutputMap = new java.util.TreeMap<>();
+    
+    /**
+     * backend - Zugriff auf den I2C-Bus (pi4j oder direkt /dev/i2c-1)
+     */
+    private final I2CBackend backend;
+    
+    /**
+     * Referenz auf den PWM-Driver
+     */
+    private final PCA9685 pca9685;
+    
+    /**
+     * Referenz auf den Servo-Antrieb als Teil des PWM-Drivers
+     */
+    private final PCA9685.Servo servo;
+    
+    /**
+     * Referenz auf den TB6612MDriver...
+     * <p>
+     * Der Motortreiber haelt Referenzen auf Motor A und B und auf die Steuer-Pins
+     * (GPIO-Eingabepins zur Richtungsvorgabe).
+     * </p>
+     */
+    private final TB6612MDriver motorDriver;
+    
+    /**
+     * i2cDevice - Zugriff auf den PCA9685 mit begrenzter Wiederholung 
+     * und CircuitBreaker...
+     */
+    private final ResilientI2CDevice i2cDevice;
+    
+    /**
+     * listeners - angemeldete ActuatorListener
+     */
+    private final java.util.concurrent.CopyOnWriteArrayList<ActuatorListener> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+    /**
+     * isSafeState - CircuitBreaker geoeffnet: der Motor wird mit 0
+     * geschrieben (bis recover())
+     */
+    private volatile boolean isSafeState = false;
+
+    /**
+     * PiCarActuator() - Einrichten von GPIO, I2C-Bus, PCA9685 und TB6612...
+     * 
+     * @throws UnsupportedBusNumberException
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public PiCarActuator() throws UnsupportedBusNumberException, IOException, InterruptedException
+    {
+        this(I2CBackend.Pi4j);
+    }
+    
+    /**
+     * PiCarActuator(I2CBackend backend) - wie PiCarActuator(), jedoch mit 
+     * Vorgabe des Zugriffes auf den I2C-Bus...
+     * 
+     * @param backend - Pi4j oder Linux (/dev/i2c-1, FFM)
+     * @throws UnsupportedBusNumberException
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public PiCarActuator(I2CBackend backend) throws UnsupportedBusNumberException, IOException, InterruptedException
+    {
+        this.backend = backend;
+        // ...den gpioController anlegen...
+        this.gpioController = GpioFactory.getInstance();
+        
+        for (Pin pin: PiCarActuator.GPIO_PINS)
+        {
+            final String key = pin.getName();
+            GpioPinDigitalOutput gpioPin = this.gpioController.provisionDigitalOutputPin(pin, key, PinState.LOW);
+            gpioPin.setShutdownOptions(true, PinState.LOW, PinPullResistance.OFF);
+            this.gpioPinOutputMap.put(key, gpioPin);
+        }
+        
+        final I2CDevice device = backend.open(I2CBus.BUS_1, ADDRESS);
+        logger.info("I2C-Backend: " + device);
+        // pca9685 - PWM-Modul (16 Channels, davon 1 Servo- und 2 Motor-Channel genutzt)
+        // Schreibzugriffe mit begrenzter Latenz, bei dauerhafter Stoerung => sicherer Zustand...
+        this.i2cDevice = new ResilientI2CDevice(device);
+        this.i2cDevice.getCircuitBreaker().addListener(new CircuitBreaker.Listener()
+        {
+            @Override
+            public void opened(String reason)
+            {
+                enterSafeState(reason);
+            }
+
+            @Override
+            public void closed()
+            {
+                logger.info("I2C-Bus wieder verfuegbar.");
+                recover();
+            }
+        });
+        this.pca9685 = PCA9685.getInstance(this.i2cDevice);
+        this.pca9685.initialize();
+        logger.info("initialize() erfolgreich.");
+        Thread.sleep(DELAY);
+        this.pca9685.setPWMFrequency(PWM_FREQUENCY);
+        logger.info("setPWMFrequency() erfolgreich.");
+        this.servo = this.pca9685.getServo(PiCarActuator.SERVO_CHANNEL);
+        // motorA, motorB - Channel einrichten...
+        final PCA9685.Motor motorA = this.pca9685.getMotor(PiCarActuator.MOTOR_A_CHANNEL);
+        final PCA9685.Motor motorB = this.pca9685.getMotor(PiCarActuator.MOTOR_B_CHANNEL);
+        
+        final GpioPinDigitalOutput outputPinMA = this.gpioPinOutputMap.get(PIN_MA.getName());
+        final GpioPinDigitalOutput outputPinMB = this.gpioPinOutputMap.get(PIN_MB.getName());
+        this.motorDriver = new TB6612MDriver(outputPinMA, outputPinMB, motorA, motorB);
+        this.motorDriver.reset();
+        Thread.sleep(DELAY);
+    }
+
+    @Override
+    public int getServoMinSteering()
+    {
+        return this.servo.getServoMinSteering();
+    }
+
+    @Override
+    public int getServoMaxSteering()
+    {
+        return this.servo.getServoMaxSteering();
+    }
+
+    @Override
+    public void setServo(int relValue) throws IOException
+    {
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.servo.setPWM(relValue);
+        commit(event, PiCarActuator.SERVO_CHANNEL, 1, relValue);
+    }
+
+    @Override
+    public void setMotor(float speed) throws IOException
+    {
+        // Im sicheren Zustand 0, auch im Probezugriff des CircuitBreaker...
+        final float value = this.isSafeState? 0.0f : speed;
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.motorDriver.setPWM(value);
+        // Einschaltdauer 0 ... 4095, inkl. Richtungs-Pins im TB6612MDriver...
+        commit(event, PiCarActuator.MOTOR_A_CHANNEL, 2, Math.round(Math.min(1.0f, Math.abs(value)) * (PCA9685Registers.STEPS - 1)));
+    }
+    
+    /**
+     * commit(ActuatorWriteEvent event, int channel, int channels, int value) - 
+     * JFR-Event zum Schreibzugriff (nur bei aktiver Aufzeichnung)...
+     * @param event - mit begin() vor dem Zugriff
+     * @param channel - erster Channel, -1: ALL_LED
+     * @param channels - Anzahl, 0: alle
+     * @param value - Wert des ersten Channels
+     */
+    private static void commit(ActuatorWriteEvent event, int channel, int channels, int value)
+    {
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.device = ActuatorWriteEvent.PCA9685;
+            event.channel = channel;
+            event.channels = channels;
+            event.value = value;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void reset() throws IOException
+    {
+        this.motorDriver.reset();
+    }
+
+    @Override
+    public void addActuatorListener(ActuatorListener listener)
+    {
+        this.listeners.add(listener);
+    }
+    
+    /**
+     * getBusHealth() - Zaehler und Latenzen der I2C-Zugriffe
+     * @return BusHealth
+     */
+    public BusHealth getBusHealth()
+    {
+        return this.i2cDevice.getBusHealth();
+    }
+    
+    /**
+     * emergencyStop() - Not-Aus: ein direkter Zugriff auf ALL_LED_OFF_H 
+     * (alle Channel voll aus, am Treiber und CircuitBreaker vorbei), 
+     * danach die Richtungs-Pins LOW...
+     */
+    @Override
+    public void emergencyStop() throws IOException
+    {
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.i2cDevice.getDelegate().write(PCA9685Registers.ALL_LED_OFF_H, (byte)PCA9685Registers.FULL_BIT);
+        commit(event, -1, 0, 0);
+        for (GpioPinDigitalOutput gpioPin: this.gpioPinOutputMap.values())
+        {
+            gpioPin.setState(PinState.LOW);
+        }
+    }
+    
+    /**
+     * probe() - Lesezugriff auf MODE1 ueber den CircuitBreaker (nach 
+     * Open der Probezugriff, bei Erfolg vgl. recover())...
+     */
+    @Override
+    public boolean probe() throws IOException
+    {
+        this.i2cDevice.read(PCA9685Registers.MODE1);
+        return !this.isSafeState || recover();
+    }
+    
+    /**
+     * recover() - Bus wieder verfuegbar: zuerst beide Motor-Channel aus 
+     * (die Register sind seit dem Ausfall unbestimmt, der Schalter kann auch
+     * mit einem Lese- oder Servo-Zugriff schliessen), danach Freigabe...
+     * @return true, wenn die Motoren abgeschaltet und die Listener 
+     * informiert wurden
+     */
+    private boolean recover()
+    {
+        final int[] motorChannels = {PiCarActuator.MOTOR_A_CHANNEL, PiCarActuator.MOTOR_B_CHANNEL};
+        try
+        {
+            for (int channel: motorChannels)
+            {
+                this.i2cDevice.write(PCA9685Registers.ledOffH(channel), (byte)PCA9685Registers.FULL_BIT);
+            }
+        }
+        catch (IOException exception)
+        {
+            logger.error("recover(): " + exception);
+            return false;
+        }
+        this.isSafeState = false;
+        for (ActuatorListener listener: this.listeners)
+        {
+            listener.actuatorRecovered();
+        }
+        return true;
+    }
+    
+    /**
+     * enterSafeState(String reason) - sicherer Zustand bei gestoertem I2C-Bus...
+     * <p>
+     * Richtungs-Pins LOW, die Motor-Channel werden mit je einem einzelnen,
+     * direkten Zugriff (am CircuitBreaker vorbei) abgeschaltet. 
+     * Fehler werden nur protokolliert.
+     * </p>
+     * @param reason
+     */
+    private void enterSafeState(String reason)
+    {
+        logger.error("I2C-Bus gestoert, sicherer Zustand: " + reason);
+        this.isSafeState = true;
+        for (GpioPinDigitalOutput gpioPin: this.gpioPinOutputMap.values())
+        {
+            gpioPin.setState(PinState.LOW);
+        }
+        final int[] motorChannels = {PiCarActuator.MOTOR_A_CHANNEL, PiCarActuator.MOTOR_B_CHANNEL};
+        for (int channel: motorChannels)
+        {
+            try
+            {
+                this.i2cDevice.getDelegate().write(PCA9685Registers.ledOffH(channel), (byte)PCA9685Registers.FULL_BIT);
+            }
+            catch (IOException exception)
+            {
+                logger.error("enterSafeState(): Channel " + channel + ": " + exception);
+            }
+        }
+        for (ActuatorListener listener: this.listeners)
+        {
+            listener.actuatorFault(reason);
+        }
+    }
+    
+    /**
+     * shutdown()...
+     * <p>
+     * Der gpioController wird auf dem Raspi heruntergefahren...
+     * </p>
+     */
+    @Override
+    public void shutdown()
+    {
+        final java.util.List<GpioPin> pinList = new java.util.ArrayList<>(this.gpioPinOutputMap.values());
+        final GpioPin[] pins = pinList.toArray(new GpioPin[pinList.size()]);
+        this.gpioController.unprovisionPin(pins);
+        this.gpioController.shutdown();  
+        // Das FFM-Backend haelt die Geraetedatei offen...
+        if (this.i2cDevice.getDelegate() instanceof java.io.Closeable)
+        {
+            try
+            {
+                ((java.io.Closeable)this.i2cDevice.getDelegate()).close();
+            }
+            catch (IOException exception)
+            {
+                logger.error("shutdown(): " + exception, exception);
+            }
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.PiCarActuator[" + this.backend.getBackend() + "]";
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ *
+ */
+package gui.hardware;
+
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * UltrasonicRanger - Abstandsmessung mit dem Ultraschall-Modul in einem
+ * eigenen Thread: Trigger, Zeitstempel der Echo-Flanken ({@link EchoSource}),
+ * Vergleich jeder Impulsbreite mit der Bremsschwelle, gleitender Median 
+ * ({@link MedianWindow}) fuer Abstand und Freigabe.
+ * </p>
+ * <p>
+ * Unterschreitet bereits eine einzelne Messung die Bremsschwelle, so 
+ * werden die Listener (Model) sofort aus diesem Thread informiert, ohne 
+ * auf den naechsten Takt der Steuerung zu warten. Der Median muesste erst
+ * eine zweite Messung abwarten, das kostete eine Messperiode (20 ms) 
+ * Bremsweg; eine Stoermessung bremst dagegen nur kurz. Die Zeit von der 
+ * fallenden Flanke des ausloesenden Echos bis zur Rueckkehr der Listener
+ * (Motor abgeschaltet) wird in {@link #getBrakeLatency()} festgehalten. 
+ * Die Freigabe erfolgt ueber den Median mit Hysterese (RELEASE_MARGIN).
+ * </p>
+ * <p>
+ * Der Vergleich erfolgt auf der Impulsbreite in ns, die Schwellen werden
+ * einmal im Konstruktor umgerechnet.
+ * </p>
+ */
+public class UltrasonicRanger implements Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(UltrasonicRanger.class);
+
+    /**
+     * ECHO_LOG - Messung ohne Echo bzw. Fehler am Pin
+     */
+    private final static LogSite ECHO_LOG = AsyncLog.site(UltrasonicRanger.class, LogLevel.Warn, "Ultraschall: {}", 1);
+
+    /**
+     * SPEED_OF_SOUND = 343.0 - Schallgeschwindigkeit in m/s (20 Grad C)
+     */
+    public final static double SPEED_OF_SOUND = 343.0;
+
+    /**
+     * DEFAULT_PERIOD_NANOS - Messung alle 20 ms (50 Hz)
+     */
+    public final static long DEFAULT_PERIOD_NANOS = 20_000_000L;
+
+    /**
+     * ECHO_TIMEOUT_NANOS - max. Wartezeit auf das Echo, 15 ms (ca. 2.5 m)
+     */
+    public final static long ECHO_TIMEOUT_NANOS = 15_000_000L;
+
+    /**
+     * DEFAULT_BRAKE_DISTANCE = 0.2 - Bremsschwelle in m
+     */
+    public final static double DEFAULT_BRAKE_DISTANCE = 0.2;
+
+    /**
+     * RELEASE_MARGIN = 0.05 - Freigabe ab Bremsschwelle + RELEASE_MARGIN (m)
+     */
+    public final static double RELEASE_MARGIN = 0.05;
+
+    /**
+     * DEFAULT_WINDOW = 3 - Breite des Median-Fensters (Messungen)
+     */
+    public final static int DEFAULT_WINDOW = 3;
+
+    /**
+     * Listener - Reaktion auf Hindernisse...
+     */
+    public interface Listener
+    {
+        /**
+         * obstacleDetected(double distance) - Bremsschwelle unterschritten,
+         * Aufruf aus dem Thread der Messung...
+         * @param distance - Abstand in m (ausloesende Messung)
+         */
+        public void obstacleDetected(double distance);
+
+        /**
+         * obstacleCleared(double distance) - Freigabeschwelle ueberschritten...
+         * @param distance - Abstand in m (Median)
+         */
+        public void obstacleCleared(double distance);
+    }
+
+    /**
+     * echoSource - Trigger und Flanken
+     */
+    private final EchoSource echoSource;
+
+    /**
+     * periodNanos - Abstand der Messungen
+     */
+    private final long periodNanos;
+
+    /**
+     * brakeWidthNanos, releaseWidthNanos - Schwellen als Impulsbreite (ns)
+     */
+    private final long brakeWidthNanos;
+    private final long releaseWidthNanos;
+
+    /**
+     * window - gleitender Median der Impulsbreite (ns)
+     */
+    private final MedianWindow window;
+
+    /**
+     * edges - Zeitstempel der Flanken (nur Thread der Messung)
+     */
+    private final long[] edges = new long[2];
+
+    /**
+     * brakeLatency - fallende Flanke => Motor abgeschaltet
+     */
+    private final LatencyHistogram brakeLatency = new LatencyHistogram("Echo => Bremse");
+
+    /**
+     * listeners - angemeldete Listener
+     */
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * isRunning - Flag...
+     */
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+    /**
+     * isObstacle - Bremsschwelle unterschritten (bis zur Freigabe)
+     */
+    private volatile boolean isObstacle = false;
+
+    /**
+     * measurements, timeouts - Anzahl der Messungen bzw. Messungen ohne Echo
+     */
+    private volatile long measurements = 0L;
+    private volatile long timeouts = 0L;
+
+    /**
+     * thread - Thread der Messung
+     */
+    private Thread thread = null;
+
+    /**
+     * UltrasonicRanger(EchoSource echoSource) - Default-Parameter...
+     * @param echoSource
+     */
+    public UltrasonicRanger(EchoSource echoSource)
+    {
+        this(echoSource, DEFAULT_PERIOD_NANOS, DEFAULT_BRAKE_DISTANCE, DEFAULT_WINDOW);
+    }
+
+    /**
+     * UltrasonicRanger(EchoSource echoSource, long periodNanos, double brakeDistance, int windowSize)
+     * @param echoSource - Trigger und Flanken
+     * @param periodNanos - Abstand der Messungen (ns)
+     * @param brakeDistance - Bremsschwelle (m)
+     * @param windowSize - Breite des Median-Fensters (ungerade)
+     */
+    public UltrasonicRanger(EchoSource echoSource, long periodNanos, double brakeDistance, int windowSize)
+    {
+        this.echoSource = echoSource;
+        this.periodNanos = periodNanos;
+        this.brakeWidthNanos = toWidthNanos(brakeDistance);
+        this.releaseWidthNanos = toWidthNanos(brakeDistance + RELEASE_MARGIN);
+        this.window = new MedianWindow(windowSize);
+    }
+
+    /**
+     * toWidthNanos(double distance) - Abstand => Impulsbreite (Hin- und Rueckweg)...
+     * @param distance (m)
+     * @return Impulsbreite (ns)
+     */
+    public static long toWidthNanos(double distance)
+    {
+        return Math.round(2.0 * distance/SPEED_OF_SOUND * 1.0e9);
+    }
+
+    /**
+     * toDistance(long widthNanos) - Impulsbreite => Abstand...
+     * @param widthNanos (ns)
+     * @return Abstand (m)
+     */
+    public static double toDistance(long widthNanos)
+    {
+        return widthNanos/1.0e9 * SPEED_OF_SOUND/2.0;
+    }
+
+    /**
+     * addListener(Listener listener)
+     * @param listener
+     */
+    public void addListener(Listener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * removeListener(Listener listener)
+     * @param listener
+     */
+    public void removeListener(Listener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * start() - Thread der Messung starten...
+     */
+    public synchronized void start()
+    {
+        if (this.isRunning.getAndSet(true))
+        {
+            return;
+        }
+        this.thread = new Thread(this, "Ultrasonic");
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MAX_PRIORITY);
+        this.thread.start();
+    }
+
+    /**
+     * stop() - Ende nach der laufenden Messung, Pin freigeben...
+     */
+    public synchronized void stop()
+    {
+        if (!this.isRunning.getAndSet(false))
+        {
+            return;
+        }
+        try
+        {
+            this.thread.join(2L * (this.periodNanos + ECHO_TIMEOUT_NANOS)/1_000_000L + 1L);
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        this.echoSource.close();
+        logger.info(toString() + ": " + this.brakeLatency);
+    }
+
+    @Override
+    public void run()
+    {
+        long releaseNanos = System.nanoTime();
+        while (this.isRunning.get())
+        {
+            measure();
+            releaseNanos += this.periodNanos;
+            final long waitNanos = releaseNanos - System.nanoTime();
+            if (waitNanos > 0L)
+            {
+                LockSupport.parkNanos(waitNanos);
+            }
+            else
+            {
+                // Verspaetet (z.B. Zeitueberschreitung), neu aufsetzen...
+                releaseNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * measure() - eine Messung inkl. Auswertung...
+     */
+    private void measure()
+    {
+        final boolean isEcho;
+        try
+        {
+            this.echoSource.trigger();
+            isEcho = this.echoSource.awaitEcho(this.edges, ECHO_TIMEOUT_NANOS);
+        }
+        catch (IOException exception)
+        {
+            ECHO_LOG.log(exception);
+            return;
+        }
+        this.measurements++;
+        if (!isEcho)
+        {
+            // Kein Echo: nichts in Reichweite...
+            this.timeouts++;
+            this.window.add(ECHO_TIMEOUT_NANOS);
+        }
+        else
+        {
+            final long width = this.edges[EchoSource.FALLING] - this.edges[EchoSource.RISING];
+            this.window.add(width);
+            // Bremsen ab der ersten Messung unter der Schwelle, nicht erst ueber den Median...
+            if (!this.isObstacle && width <= this.brakeWidthNanos)
+            {
+                this.isObstacle = true;
+                final double distance = toDistance(width);
+                for (Listener listener: this.listeners)
+                {
+                    listener.obstacleDetected(distance);
+                }
+                this.brakeLatency.record(System.nanoTime() - this.edges[EchoSource.FALLING]);
+                return;
+            }
+        }
+        if (this.isObstacle && this.window.getMedian() >= this.releaseWidthNanos)
+        {
+            this.isObstacle = false;
+            final double distance = toDistance(this.window.getMedian());
+            for (Listener listener: this.listeners)
+            {
+                listener.obstacleCleared(distance);
+            }
+        }
+    }
+
+    /**
+     * getDistance()
+     * @return Abstand in m (Median), NaN vor der ersten Messung
+     */
+    public double getDistance()
+    {
+        final long median = this.window.getMedian();
+        return (median == MedianWindow.EMPTY)? Double.NaN : toDistance(median);
+    }
+
+    /**
+     * isObstacle()
+     * @return true, wenn die Bremsschwelle unterschritten ist (bis zur Freigabe)
+     */
+    public boolean isObstacle()
+    {
+        return this.isObstacle;
+    }
+
+    /**
+     * getBrakeLatency()
+     * @return Histogramm fallende Flanke => Listener beendet (Motor abgeschaltet)
+     */
+    public LatencyHistogram getBrakeLatency()
+    {
+        return this.brakeLatency;
+    }
+
+    /**
+     * getMeasurements()
+     * @return Anzahl der Messungen
+     */
+    public long getMeasurements()
+    {
+        return this.measurements;
+    }
+
+    /**
+     * getTimeouts()
+     * @return Anzahl der Messungen ohne Echo
+     */
+    public long getTimeouts()
+    {
+        return this.timeouts;
+    }
+
+    /**
+     * getPeriodNanos()
+     * @return Abstand der Messungen (ns)
+     */
+    public long getPeriodNanos()
+    {
+        return this.periodNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.UltrasonicRanger[" + this.echoSource + "]";
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * 
+ */
+package gui.hardware.ffm;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LibC - Systemaufrufe der libc ueber die FFM-API (java.lang.foreign, ab Java 22)
+ * fuer die Linux-Geraetedateien (/dev/i2c-N, /dev/gpiochipN, inkl. poll()) und den 
+ * Scheduler (sched_setaffinity(), sched_setscheduler()).
+ * </p>
+ * <p>
+ * Alle Handles sichern errno in einem Segment mit dem Layout {@link #CALL_STATE},
+ * das als erstes Argument uebergeben wird (Ausnahme: close()). 
+ * Aufruf jeweils mit invokeExact(), z.B.
+ * (int)LibC.IOCTL_VALUE.invokeExact(callState, fd, request, value).
+ * </p>
+ */
+public final class LibC
+{
+    /**
+     * O_RDWR, O_CLOEXEC - Flags fuer open()
+     */
+    public final static int O_RDWR = 0x0002;
+    public final static int O_CLOEXEC = 0x80000;
+    
+    /**
+     * ENOTTY = 25 - kein ioctl fuer dieses Geraet (=> Ersatzgeraet)
+     */
+    public final static int ENOTTY = 25;
+    
+    /**
+     * POLLIN = 0x0001 - Daten lesbar (poll())
+     */
+    public final static short POLLIN = 0x0001;
+    
+    /**
+     * CALL_STATE - Layout zur Sicherung von errno nach dem Aufruf
+     */
+    public final static StructLayout CALL_STATE = Linker.Option.captureStateLayout();
+    
+    /**
+     * ERRNO - Offset von errno in CALL_STATE
+     */
+    private final static long ERRNO = CALL_STATE.byteOffset(MemoryLayout.PathElement.groupElement("errno"));
+    
+    /**
+     * OPEN - int open(const char *path, int flags)
+     */
+    public final static MethodHandle OPEN;
+    
+    /**
+     * CLOSE - int close(int fd), ohne errno
+     */
+    public final static MethodHandle CLOSE;
+    
+    /**
+     * READ - ssize_t read(int fd, void *buf, size_t count)
+     */
+    public final static MethodHandle READ;
+    
+    /**
+     * WRITE - ssize_t write(int fd, const void *buf, size_t count)
+     */
+    public final static MethodHandle WRITE;
+    
+    /**
+     * POLL - int poll(struct pollfd *fds, nfds_t nfds, int timeout)
+     */
+    public final static MethodHandle POLL;
+    
+    /**
+     * IOCTL_VALUE - int ioctl(int fd, unsigned long request, long value)
+     */
+    public final static MethodHandle IOCTL_VALUE;
+    
+    /**
+     * IOCTL_POINTER - int ioctl(int fd, unsigned long request, void *argp)
+     */
+    public final static MethodHandle IOCTL_POINTER;
+    
+    /**
+     * SCHED_SETAFFINITY - int sched_setaffinity(pid_t pid, size_t cpusetsize, const cpu_set_t *mask)
+     */
+    public final static MethodHandle SCHED_SETAFFINITY;
+    
+    /**
+     * SCHED_SETSCHEDULER - int sched_setscheduler(pid_t pid, int policy, const struct sched_param *param)
+     */
+    public final static MethodHandle SCHED_SETSCHEDULER;
+    
+    static
+    {
+        final Linker linker = Linker.nativeLinker();
+        final SymbolLookup libc = linker.defaultLookup();
+        final Linker.Option errno = Linker.Option.captureCallState("errno");
+        // ioctl(int fd, unsigned long request, ...) - variable Argumentliste ab Index 2
+        final Linker.Option variadic = Linker.Option.firstVariadicArg(2);
+        OPEN = linker.downcallHandle(libc.find("open").orElseThrow(), 
+                                     FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT), 
+                                     errno);
+        CLOSE = linker.downcallHandle(libc.find("close").orElseThrow(), 
+                                      FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+        READ = linker.downcallHandle(libc.find("read").orElseThrow(), 
+                                     FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS, JAVA_LONG), 
+                                     errno);
+        WRITE = linker.downcallHandle(libc.find("write").orElseThrow(), 
+                                      FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS, JAVA_LONG), 
+                                      errno);
+        POLL = linker.downcallHandle(libc.find("poll").orElseThrow(), 
+                                     FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG, JAVA_INT), 
+                                     errno);
+        IOCTL_VALUE = linker.downcallHandle(libc.find("ioctl").orElseThrow(), 
+                                            FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_LONG), 
+                                            errno, variadic);
+        IOCTL_POINTER = linker.downcallHandle(libc.find("ioctl").orElseThrow(), 
+                                              FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, ADDRESS), 
+                                              errno, variadic);
+        SCHED_SETAFFINITY = linker.downcallHandle(libc.find("sched_setaffinity").orElseThrow(), 
+                                                  FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, ADDRESS), 
+                                                  errno);
+        SCHED_SETSCHEDULER = linker.downcallHandle(libc.find("sched_setscheduler").orElseThrow(), 
+                                                   FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), 
+                                                   errno);
+    }
+    
+    /**
+     * Privater Konstruktor, nur statische Elemente...
+     */
+    private LibC()
+    {
+    }
+    
+    /**
+     * allocateCallState(Arena arena) - Segment fuer errno
+     * @param arena
+     * @return MemorySegment mit dem Layout CALL_STATE
+     */
+    public static MemorySegment allocateCallState(Arena arena)
+    {
+        return arena.allocate(CALL_STATE.byteSize(), CALL_STATE.byteAlignment());
+    }
+    
+    /**
+     * errno(MemorySegment callState) - errno des letzten Aufrufes
+     * @param callState
+     * @return errno
+     */
+    public static int errno(MemorySegment callState)
+    {
+        return callState.get(JAVA_INT, ERRNO);
+    }
+    
+    /**
+     * allocateString(Arena arena, String value) - C-String (UTF-8, '\0')
+     * @param arena
+     * @param value
+     * @return MemorySegment
+     */
+    public static MemorySegment allocateString(Arena arena, String value)
+    {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        final MemorySegment segment = arena.allocate(bytes.length + 1L, 1);
+        MemorySegment.copy(bytes, 0, segment, JAVA_BYTE, 0L, bytes.length);
+        segment.set(JAVA_BYTE, bytes.length, (byte)0);
+        return segment;
+    }
+    
+    /**
+     * closeQuietly(int fd) - close() ohne Fehlerbehandlung (Aufraeumen 
+     * nach einem Fehler)...
+     * @param fd
+     * @return Ergebnis von close() oder -1
+     */
+    public static int closeQuietly(int fd)
+    {
+        try
+        {
+            return (int)CLOSE.invokeExact(fd);
+        }
+        catch (Throwable throwable)
+        {
+            return -1;
+        }
+    }
+}
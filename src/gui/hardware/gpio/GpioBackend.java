@@ -0,0 +1,175 @@
+/**
+ * 
+ */
+package gui.hardware.gpio;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.PinState;
+
+import gui.hardware.EchoSource;
+import gui.hardware.MotorDirection;
+import gui.hardware.PiCarActuator;
+
+/**
+ * enum GpioBackend - Auswahl des Zugriffes auf die Richtungs-Pins des TB6612.
+ * 
+ * @author Detlef Tribius
+ * 
+ * <p>
+ * Pi4j - pi4j 1.x (GpioPinDigitalOutput), bisheriger Zugriff.
+ * </p>
+ * <p>
+ * Linux - direkt ueber /dev/gpiochipN mit der FFM-API 
+ * ({@link gui.hardware.gpio.ffm.GpioChipDirection}, ab Java 22). Die Klasse 
+ * wird nur mit 'ant -Dffm=true' uebersetzt und daher per Reflection geladen.
+ * </p>
+ * <p>
+ * Das Ultraschall-Modul ({@link #openEcho(String)}) benoetigt die 
+ * Zeitstempel der Edge-Events und ist daher nur mit Linux verfuegbar.
+ * </p>
+ */
+public enum GpioBackend
+{
+    /**
+     * Pi4j("pi4j")
+     */
+    Pi4j("pi4j"),
+    /**
+     * Linux("linux")
+     */
+    Linux("linux");
+    
+    /**
+     * LINE_MA = 17 - Leitung am gpiochip0 fuer PIN_MA (wiringPi GPIO 0 = BCM 17)
+     */
+    public final static int LINE_MA = 17;
+    
+    /**
+     * LINE_MB = 27 - Leitung am gpiochip0 fuer PIN_MB (wiringPi GPIO 2 = BCM 27)
+     */
+    public final static int LINE_MB = 27;
+    
+    /**
+     * LINE_ULTRASONIC = 20 - Leitung am gpiochip0 fuer das Ultraschall-Modul (BCM 20)
+     */
+    public final static int LINE_ULTRASONIC = 20;
+    
+    /**
+     * DEFAULT_CHIP = "/dev/gpiochip0"
+     */
+    public final static String DEFAULT_CHIP = "/dev/gpiochip0";
+    
+    /**
+     * GPIO_CHIP_DIRECTION_CLASS - Klassenname des FFM-Backends
+     */
+    private final static String GPIO_CHIP_DIRECTION_CLASS = "gui.hardware.gpio.ffm.GpioChipDirection";
+    
+    /**
+     * GPIO_CHIP_ECHO_CLASS - Klassenname des Ultraschall-Moduls (FFM-Backend)
+     */
+    private final static String GPIO_CHIP_ECHO_CLASS = "gui.hardware.gpio.ffm.GpioChipEcho";
+    
+    /**
+     * String backend - Kennung...
+     */
+    private final String backend;
+    
+    /**
+     * private GpioBackend(String backend) - Privater Konstruktor...
+     * @param backend
+     */
+    private GpioBackend(String backend)
+    {
+        this.backend = backend;
+    }
+    
+    /**
+     * getBackend()
+     * @return Kennung, z.B. "linux"
+     */
+    public String getBackend()
+    {
+        return this.backend;
+    }
+    
+    /**
+     * open(String path) - Richtungs-Pins PIN_MA/PIN_MB belegen (Anfangswert LOW)...
+     * @param path - Linux: Geraetedatei, z.B. /dev/gpiochip0 (auch Ersatzgeraet: 
+     * Datei, FIFO); Pi4j: ohne Bedeutung
+     * @return MotorDirection
+     * @throws IOException
+     */
+    public MotorDirection open(String path) throws IOException
+    {
+        if (this == Pi4j)
+        {
+            final GpioController gpioController = GpioFactory.getInstance();
+            final GpioPinDigitalOutput pinA = gpioController.provisionDigitalOutputPin(PiCarActuator.PIN_MA, PiCarActuator.PIN_MA.getName(), PinState.LOW);
+            final GpioPinDigitalOutput pinB = gpioController.provisionDigitalOutputPin(PiCarActuator.PIN_MB, PiCarActuator.PIN_MB.getName(), PinState.LOW);
+            pinA.setShutdownOptions(true, PinState.LOW, PinPullResistance.OFF);
+            pinB.setShutdownOptions(true, PinState.LOW, PinPullResistance.OFF);
+            return new Pi4jMotorDirection(gpioController, pinA, pinB);
+        }
+        try
+        {
+            final Class<?> directionClass = Class.forName(GPIO_CHIP_DIRECTION_CLASS);
+            return (MotorDirection)directionClass.getConstructor(String.class, int.class, int.class)
+                                                 .newInstance(path, Integer.valueOf(LINE_MA), Integer.valueOf(LINE_MB));
+        }
+        catch (InvocationTargetException exception)
+        {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+            throw new IOException(path + ": " + cause, cause);
+        }
+        catch (ReflectiveOperationException | LinkageError exception)
+        {
+            // Nicht uebersetzt (ant -Dffm=true) oder Laufzeit vor Java 22...
+            throw new IOException("FFM-Backend nicht verfuegbar: " + exception, exception);
+        }
+    }
+    
+    /**
+     * openEcho(String path) - Ultraschall-Modul an LINE_ULTRASONIC belegen...
+     * @param path - Geraetedatei, z.B. /dev/gpiochip0 (auch Ersatzgeraet: 
+     * Datei, FIFO mit Edge-Events)
+     * @return EchoSource
+     * @throws IOException - auch mit Pi4j (keine Zeitstempel der Flanken)
+     */
+    public EchoSource openEcho(String path) throws IOException
+    {
+        if (this == Pi4j)
+        {
+            throw new IOException(this + ": Ultraschall-Modul nur mit Linux (Edge-Events) moeglich.");
+        }
+        try
+        {
+            final Class<?> echoClass = Class.forName(GPIO_CHIP_ECHO_CLASS);
+            return (EchoSource)echoClass.getConstructor(String.class, int.class)
+                                        .newInstance(path, Integer.valueOf(LINE_ULTRASONIC));
+        }
+        catch (InvocationTargetException exception)
+        {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+            throw new IOException(path + ": " + cause, cause);
+        }
+        catch (ReflectiveOperationException | LinkageError exception)
+        {
+            // Nicht uebersetzt (ant -Dffm=true) oder Laufzeit vor Java 22...
+            throw new IOException("FFM-Backend nicht verfuegbar: " + exception, exception);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * 
+ */
+package gui.hardware.gpio;
+
+import java.io.IOException;
+
+import gui.hardware.MotorDirection;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * GpioBenchmark - Vergleich der GPIO-Backends (pi4j, Linux/FFM) anhand der 
+ * Richtungswechsel des TB6612 (beide Pins je Wechsel).
+ * </p>
+ * <p>
+ * Aufruf: java gui.hardware.gpio.GpioBenchmark [Wechsel] [Geraetedatei]
+ * </p>
+ * <p>
+ * Ohne Raspi kann als Geraetedatei ein gpio-sim-Chip, eine normale Datei 
+ * oder ein FIFO angegeben werden. pi4j wird nur gemessen, wenn verfuegbar.
+ * </p>
+ */
+public class GpioBenchmark
+{
+    /**
+     * DEFAULT_TOGGLES = 100000 - Richtungswechsel je Backend
+     */
+    public final static int DEFAULT_TOGGLES = 100_000;
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int toggles = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_TOGGLES;
+        final String path = (args.length > 1)? args[1] : GpioBackend.DEFAULT_CHIP;
+        
+        for (GpioBackend backend: GpioBackend.values())
+        {
+            final MotorDirection direction;
+            try
+            {
+                direction = backend.open(path);
+            }
+            catch (Throwable throwable)
+            {
+                System.out.println(backend.getBackend() + ": nicht verfuegbar, " + throwable);
+                continue;
+            }
+            try
+            {
+                run(backend, direction, toggles);
+            }
+            finally
+            {
+                direction.close();
+            }
+        }
+    }
+    
+    /**
+     * run(GpioBackend backend, MotorDirection direction, int toggles) - Aufwaermen, dann Messung...
+     * @param backend
+     * @param direction
+     * @param toggles
+     * @throws IOException
+     */
+    private static void run(GpioBackend backend, MotorDirection direction, int toggles) throws IOException
+    {
+        // Aufwaermen (JIT)...
+        for (int index = 0; index < Math.min(toggles, 10_000); index++)
+        {
+            final boolean isReverse = (index & 1) != 0;
+            direction.set(isReverse, isReverse);
+        }
+        
+        final LatencyHistogram histogram = new LatencyHistogram(backend.getBackend());
+        final long startNanos = System.nanoTime();
+        for (int index = 0; index < toggles; index++)
+        {
+            final boolean isReverse = (index & 1) != 0;
+            final long toggleNanos = System.nanoTime();
+            direction.set(isReverse, isReverse);
+            histogram.record(System.nanoTime() - toggleNanos);
+        }
+        final long totalNanos = System.nanoTime() - startNanos;
+        
+        System.out.println(String.format("%-6s %s", backend.getBackend(), direction));
+        System.out.println(String.format("       %d Wechsel, %.0f ns je Wechsel, %s", toggles, (double)totalNanos/toggles, histogram));
+    }
+}
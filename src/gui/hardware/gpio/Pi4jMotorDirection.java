@@ -0,0 +1,79 @@
+/**
+ * 
+ */
+package gui.hardware.gpio;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+
+import gui.hardware.MotorDirection;
+import gui.jfr.ActuatorWriteEvent;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Pi4jMotorDirection - Richtungs-Pins ueber pi4j (GpioPinDigitalOutput), 
+ * bisheriger Zugriff: Die beiden Pins werden nacheinander gesetzt.
+ * </p>
+ */
+public class Pi4jMotorDirection implements MotorDirection
+{
+    /**
+     * gpioController - null, wenn die Pins von aussen verwaltet werden
+     */
+    private final GpioController gpioController;
+    
+    /**
+     * pinA, pinB - Richtungs-Pins Motor A und B
+     */
+    private final GpioPinDigitalOutput pinA;
+    private final GpioPinDigitalOutput pinB;
+    
+    /**
+     * Pi4jMotorDirection(...)
+     * @param gpioController - gibt die Pins bei close() frei (oder null)
+     * @param pinA
+     * @param pinB
+     */
+    public Pi4jMotorDirection(GpioController gpioController, GpioPinDigitalOutput pinA, GpioPinDigitalOutput pinB)
+    {
+        this.gpioController = gpioController;
+        this.pinA = pinA;
+        this.pinB = pinB;
+    }
+
+    @Override
+    public void set(boolean isHighA, boolean isHighB)
+    {
+        final ActuatorWriteEvent event = new ActuatorWriteEvent();
+        event.begin();
+        this.pinA.setState(isHighA);
+        this.pinB.setState(isHighB);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.device = ActuatorWriteEvent.GPIO;
+            event.channel = 0;
+            event.channels = 2;
+            event.value = (isHighA? 1 : 0) | (isHighB? 2 : 0);
+            event.commit();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        set(false, false);
+        if (this.gpioController != null)
+        {
+            this.gpioController.unprovisionPin(this.pinA, this.pinB);
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.gpio.Pi4jMotorDirection[" + this.pinA + ", " + this.pinB + "]";
+    }
+}
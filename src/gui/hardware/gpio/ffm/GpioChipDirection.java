@@ -0,0 +1,363 @@
+/**
+ * 
+ */
+package gui.hardware.gpio.ffm;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.hardware.MotorDirection;
+import gui.hardware.ffm.LibC;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * GpioChipDirection - Richtungs-Pins des TB6612 ueber das Linux-GPIO-Geraet
+ * /dev/gpiochipN (Character Device, uAPI v2) statt pi4j/sysfs. Aufrufe der 
+ * libc ueber die FFM-API (ab Java 22, vgl. {@link LibC}).
+ * </p>
+ * <p>
+ * Beide Leitungen werden in einer Anforderung (GPIO_V2_GET_LINE_IOCTL, 
+ * Ausgang, Anfangswert LOW) belegt. {@link #set(boolean, boolean)} setzt 
+ * beide Leitungen gemeinsam mit einem ioctl(GPIO_V2_LINE_SET_VALUES_IOCTL):
+ * Ein Richtungswechsel ist damit atomar und kostet einen Systemaufruf;
+ * unveraenderte Werte werden nicht erneut geschrieben.
+ * </p>
+ * <p>
+ * Ersatzgeraet: Lehnt das Geraet die Anforderung mit ENOTTY ab (normale 
+ * Datei oder FIFO), so wird je Aenderung die struct gpio_v2_line_values 
+ * (16 Byte: bits, mask) mit einem write() ausgegeben. Fuer den Test auf 
+ * einem normalen Linux-Rechner, alternativ mit dem Kernel-Modul gpio-sim.
+ * </p>
+ */
+public class GpioChipDirection implements MotorDirection, Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(GpioChipDirection.class);
+    
+    /**
+     * GPIO_V2_GET_LINE_IOCTL = _IOWR(0xB4, 0x07, struct gpio_v2_line_request)
+     */
+    public final static long GPIO_V2_GET_LINE_IOCTL = 0xC250B407L;
+    
+    /**
+     * GPIO_V2_LINE_SET_VALUES_IOCTL = _IOWR(0xB4, 0x0F, struct gpio_v2_line_values)
+     */
+    public final static long GPIO_V2_LINE_SET_VALUES_IOCTL = 0xC010B40FL;
+    
+    /**
+     * GPIO_V2_LINE_GET_VALUES_IOCTL = _IOWR(0xB4, 0x0E, struct gpio_v2_line_values)
+     */
+    public final static long GPIO_V2_LINE_GET_VALUES_IOCTL = 0xC010B40EL;
+    
+    /**
+     * GPIO_V2_LINE_FLAG_OUTPUT - Leitung als Ausgang
+     */
+    private final static long GPIO_V2_LINE_FLAG_OUTPUT = 1L << 3;
+    
+    /**
+     * GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES = 2 - Attribut: Anfangswerte
+     */
+    private final static int GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES = 2;
+    
+    /**
+     * struct gpio_v2_line_request (linux/gpio.h), 592 Byte:
+     * offsets[64] (0), consumer[32] (256), config (288: flags, num_attrs, 
+     * padding[5], attrs[10] ab 320 zu je 24 Byte), num_lines (560), 
+     * event_buffer_size (564), padding[5] (568), fd (588)
+     */
+    private final static long REQUEST_SIZE = 592L;
+    private final static long REQUEST_OFFSETS = 0L;
+    private final static long REQUEST_CONSUMER = 256L;
+    private final static int CONSUMER_SIZE = 32;
+    private final static long REQUEST_FLAGS = 288L;
+    private final static long REQUEST_NUM_ATTRS = 296L;
+    private final static long REQUEST_ATTR_ID = 320L;
+    private final static long REQUEST_ATTR_VALUES = 328L;
+    private final static long REQUEST_ATTR_MASK = 336L;
+    private final static long REQUEST_NUM_LINES = 560L;
+    private final static long REQUEST_FD = 588L;
+    
+    /**
+     * struct gpio_v2_line_values { __u64 bits; __u64 mask; }, 16 Byte
+     */
+    private final static long VALUES_SIZE = 16L;
+    private final static long VALUES_BITS = 0L;
+    private final static long VALUES_MASK = 8L;
+    
+    /**
+     * LINES_MASK - beide Leitungen (Bit 0: A, Bit 1: B)
+     */
+    private final static long LINES_MASK = 0x03L;
+    
+    /**
+     * CONSUMER = "picar01" - Kennung der Belegung (z.B. gpioinfo)
+     */
+    public final static String CONSUMER = "picar01";
+    
+    /**
+     * path - Geraetedatei, z.B. /dev/gpiochip0
+     */
+    private final String path;
+    
+    /**
+     * lineA, lineB - Leitungsnummern am Chip (Raspi: BCM-Nummer)
+     */
+    private final int lineA;
+    private final int lineB;
+    
+    /**
+     * arena - Lebensdauer der Puffer
+     */
+    private final Arena arena;
+    
+    /**
+     * values - struct gpio_v2_line_values (einmalig ausserhalb des Heaps)
+     */
+    private final MemorySegment values;
+    
+    /**
+     * callState - errno des letzten Aufrufes
+     */
+    private final MemorySegment callState;
+    
+    /**
+     * fileDescriptor - Leitungsanforderung bzw. Ersatzgeraet
+     */
+    private final int fileDescriptor;
+    
+    /**
+     * isStandIn - Ersatzgeraet (Datei, FIFO) ohne GPIO-ioctl
+     */
+    private final boolean isStandIn;
+    
+    /**
+     * bits - zuletzt geschriebene Werte (-1: noch keine)
+     */
+    private long bits = -1L;
+    
+    /**
+     * isClosed - nach close() keine Zugriffe mehr
+     */
+    private boolean isClosed = false;
+    
+    /**
+     * GpioChipDirection(String path, int lineA, int lineB) - Anforderung
+     * beider Leitungen als Ausgang mit Anfangswert LOW...
+     * @param path - Geraetedatei, z.B. /dev/gpiochip0 (oder Ersatzgeraet)
+     * @param lineA - Leitung Motor A (Raspi: BCM 17)
+     * @param lineB - Leitung Motor B (Raspi: BCM 27)
+     * @throws IOException
+     */
+    public GpioChipDirection(String path, int lineA, int lineB) throws IOException
+    {
+        this.path = path;
+        this.lineA = lineA;
+        this.lineB = lineB;
+        this.arena = Arena.ofShared();
+        this.values = this.arena.allocate(VALUES_SIZE, 8);
+        this.callState = LibC.allocateCallState(this.arena);
+        this.values.set(JAVA_LONG, VALUES_MASK, LINES_MASK);
+        
+        final int chipFd;
+        try
+        {
+            chipFd = (int)LibC.OPEN.invokeExact(this.callState, LibC.allocateString(this.arena, path), LibC.O_RDWR | LibC.O_CLOEXEC);
+        }
+        catch (Throwable throwable)
+        {
+            this.arena.close();
+            throw new IOException("open(" + path + "): " + throwable, throwable);
+        }
+        if (chipFd < 0)
+        {
+            final int errno = LibC.errno(this.callState);
+            this.arena.close();
+            throw new IOException("open(" + path + "): errno=" + errno);
+        }
+        
+        // Anforderung der Leitungen (einmalig, daher im Konstruktor angelegt)...
+        final MemorySegment request = this.arena.allocate(REQUEST_SIZE, 8);
+        request.set(JAVA_INT, REQUEST_OFFSETS, lineA);
+        request.set(JAVA_INT, REQUEST_OFFSETS + 4L, lineB);
+        final byte[] consumer = CONSUMER.getBytes(StandardCharsets.US_ASCII);
+        MemorySegment.copy(consumer, 0, request, JAVA_BYTE, REQUEST_CONSUMER, Math.min(consumer.length, CONSUMER_SIZE - 1));
+        request.set(JAVA_LONG, REQUEST_FLAGS, GPIO_V2_LINE_FLAG_OUTPUT);
+        request.set(JAVA_INT, REQUEST_NUM_ATTRS, 1);
+        request.set(JAVA_INT, REQUEST_ATTR_ID, GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES);
+        request.set(JAVA_LONG, REQUEST_ATTR_VALUES, 0L);
+        request.set(JAVA_LONG, REQUEST_ATTR_MASK, LINES_MASK);
+        request.set(JAVA_INT, REQUEST_NUM_LINES, 2);
+        
+        final int result;
+        try
+        {
+            result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, chipFd, GPIO_V2_GET_LINE_IOCTL, request);
+        }
+        catch (Throwable throwable)
+        {
+            LibC.closeQuietly(chipFd);
+            this.arena.close();
+            throw new IOException("ioctl(GPIO_V2_GET_LINE_IOCTL): " + throwable, throwable);
+        }
+        if (result < 0 && LibC.errno(this.callState) == LibC.ENOTTY)
+        {
+            logger.info(path + " ist kein GPIO-Chip, Betrieb als Ersatzgeraet.");
+            this.isStandIn = true;
+            this.fileDescriptor = chipFd;
+        }
+        else if (result < 0)
+        {
+            final int errno = LibC.errno(this.callState);
+            LibC.closeQuietly(chipFd);
+            this.arena.close();
+            throw new IOException("ioctl(" + path + ", GPIO_V2_GET_LINE_IOCTL, " + lineA + ", " + lineB + "): errno=" + errno);
+        }
+        else
+        {
+            // Die Leitungsanforderung ist unabhaengig vom Chip...
+            this.isStandIn = false;
+            this.fileDescriptor = request.get(JAVA_INT, REQUEST_FD);
+            LibC.closeQuietly(chipFd);
+        }
+    }
+    
+    /**
+     * set(boolean isHighA, boolean isHighB) - beide Leitungen in einem Aufruf...
+     */
+    @Override
+    public synchronized void set(boolean isHighA, boolean isHighB) throws IOException
+    {
+        final long newBits = (isHighA? 0x01L : 0L) | (isHighB? 0x02L : 0L);
+        if (newBits == this.bits)
+        {
+            return;
+        }
+        if (this.isClosed)
+        {
+            throw new IOException(this.path + " ist geschlossen.");
+        }
+        this.values.set(JAVA_LONG, VALUES_BITS, newBits);
+        try
+        {
+            if (this.isStandIn)
+            {
+                final long written = (long)LibC.WRITE.invokeExact(this.callState, this.fileDescriptor, this.values, VALUES_SIZE);
+                if (written != VALUES_SIZE)
+                {
+                    throw new IOException("write(" + this.path + "): errno=" + LibC.errno(this.callState));
+                }
+            }
+            else
+            {
+                final int result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, this.fileDescriptor, GPIO_V2_LINE_SET_VALUES_IOCTL, this.values);
+                if (result < 0)
+                {
+                    throw new IOException("ioctl(" + this.path + ", GPIO_V2_LINE_SET_VALUES_IOCTL): errno=" + LibC.errno(this.callState));
+                }
+            }
+        }
+        catch (IOException exception)
+        {
+            // Zustand unbekannt => naechster Aufruf schreibt in jedem Fall...
+            this.bits = -1L;
+            throw exception;
+        }
+        catch (Throwable throwable)
+        {
+            this.bits = -1L;
+            throw new IOException("set(): " + throwable, throwable);
+        }
+        this.bits = newBits;
+    }
+    
+    /**
+     * readValues() - aktuelle Werte beider Leitungen (Bit 0: A, Bit 1: B)...
+     * <p>
+     * Nur am GPIO-Chip, nicht am Ersatzgeraet (z.B. zur Pruefung mit gpio-sim).
+     * </p>
+     * @return Bit 0: A, Bit 1: B
+     * @throws IOException
+     */
+    public synchronized int readValues() throws IOException
+    {
+        if (this.isStandIn || this.isClosed)
+        {
+            throw new IOException(this.path + ": Lesen nicht moeglich.");
+        }
+        try (Arena confined = Arena.ofConfined())
+        {
+            final MemorySegment readValues = confined.allocate(VALUES_SIZE, 8);
+            readValues.set(JAVA_LONG, VALUES_MASK, LINES_MASK);
+            final int result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, this.fileDescriptor, GPIO_V2_LINE_GET_VALUES_IOCTL, readValues);
+            if (result < 0)
+            {
+                throw new IOException("ioctl(" + this.path + ", GPIO_V2_LINE_GET_VALUES_IOCTL): errno=" + LibC.errno(this.callState));
+            }
+            return (int)(readValues.get(JAVA_LONG, VALUES_BITS) & LINES_MASK);
+        }
+        catch (IOException exception)
+        {
+            throw exception;
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("readValues(): " + throwable, throwable);
+        }
+    }
+    
+    /**
+     * isStandIn() - Ersatzgeraet (Datei, FIFO)?
+     * @return true, wenn ohne GPIO-ioctl betrieben
+     */
+    public boolean isStandIn()
+    {
+        return this.isStandIn;
+    }
+    
+    /**
+     * close() - beide Leitungen LOW, Freigabe...
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.isClosed)
+        {
+            return;
+        }
+        try
+        {
+            set(false, false);
+        }
+        catch (IOException exception)
+        {
+            logger.warn("close(): " + exception);
+        }
+        this.isClosed = true;
+        if (LibC.closeQuietly(this.fileDescriptor) < 0)
+        {
+            logger.warn("close(" + this.path + ") gescheitert.");
+        }
+        this.arena.close();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.gpio.ffm.GpioChipDirection[" + this.path + ", " + this.lineA + ", " + this.lineB 
+                + (this.isStandIn? ", Ersatzgeraet" : "") + "]";
+    }
+}
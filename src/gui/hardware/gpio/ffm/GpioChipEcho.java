@@ -0,0 +1,452 @@
+/**
+ *
+ */
+package gui.hardware.gpio.ffm;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.hardware.EchoSource;
+import gui.hardware.ffm.LibC;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * GpioChipEcho - Ultraschall-Modul des PiCar-S an einer Leitung des
+ * Linux-GPIO-Geraetes /dev/gpiochipN (uAPI v2, Aufrufe der libc ueber die
+ * FFM-API, vgl. {@link GpioChipDirection}).
+ * </p>
+ * <p>
+ * Das Modul nutzt einen Pin fuer Trigger und Echo: {@link #trigger()}
+ * konfiguriert die Leitung als Ausgang mit HIGH, haelt den Pegel
+ * TRIGGER_NANOS (aktives Warten), setzt LOW und schaltet auf Eingang mit
+ * Flankenerkennung (steigend und fallend) um. {@link #awaitEcho(long[], long)}
+ * wartet mit poll() auf die Edge-Events und uebernimmt deren Zeitstempel
+ * (timestamp_ns, CLOCK_MONOTONIC wie System.nanoTime()). Es wird nicht
+ * gepollt und nicht geschlafen, die Aufloesung ist die des Kernels.
+ * </p>
+ * <p>
+ * Ersatzgeraet: Lehnt das Geraet die Anforderung mit ENOTTY ab (normale
+ * Datei oder FIFO), so entfaellt der Trigger und die Edge-Events
+ * (struct gpio_v2_line_event, 48 Byte) werden aus der Datei gelesen.
+ * </p>
+ */
+public class GpioChipEcho implements EchoSource
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(GpioChipEcho.class);
+
+    /**
+     * GPIO_V2_LINE_SET_CONFIG_IOCTL = _IOWR(0xB4, 0x0D, struct gpio_v2_line_config)
+     */
+    public final static long GPIO_V2_LINE_SET_CONFIG_IOCTL = 0xC110B40DL;
+
+    /**
+     * TRIGGER_NANOS = 10 us - Dauer des Triggerimpulses
+     */
+    public final static long TRIGGER_NANOS = 10_000L;
+
+    /**
+     * GPIO_V2_LINE_FLAG_... - Eingang, Ausgang, Flankenerkennung
+     */
+    private final static long GPIO_V2_LINE_FLAG_INPUT = 1L << 2;
+    private final static long GPIO_V2_LINE_FLAG_OUTPUT = 1L << 3;
+    private final static long GPIO_V2_LINE_FLAG_EDGE_RISING = 1L << 4;
+    private final static long GPIO_V2_LINE_FLAG_EDGE_FALLING = 1L << 5;
+
+    /**
+     * GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES = 2 - Attribut: Ausgangswerte
+     */
+    private final static int GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES = 2;
+
+    /**
+     * GPIO_V2_LINE_EVENT_RISING_EDGE = 1, GPIO_V2_LINE_EVENT_FALLING_EDGE = 2
+     */
+    private final static int GPIO_V2_LINE_EVENT_RISING_EDGE = 1;
+    private final static int GPIO_V2_LINE_EVENT_FALLING_EDGE = 2;
+
+    /**
+     * struct gpio_v2_line_request (vgl. GpioChipDirection), 592 Byte
+     */
+    private final static long REQUEST_SIZE = 592L;
+    private final static long REQUEST_OFFSETS = 0L;
+    private final static long REQUEST_CONSUMER = 256L;
+    private final static int CONSUMER_SIZE = 32;
+    private final static long REQUEST_CONFIG = 288L;
+    private final static long REQUEST_NUM_LINES = 560L;
+    private final static long REQUEST_EVENT_BUFFER_SIZE = 564L;
+    private final static long REQUEST_FD = 588L;
+
+    /**
+     * struct gpio_v2_line_config, 272 Byte: flags (0), num_attrs (8),
+     * padding[5] (12), attrs[10] ab 32 zu je 24 Byte (id, padding, values, mask)
+     */
+    private final static long CONFIG_SIZE = 272L;
+    private final static long CONFIG_FLAGS = 0L;
+    private final static long CONFIG_NUM_ATTRS = 8L;
+    private final static long CONFIG_ATTR_ID = 32L;
+    private final static long CONFIG_ATTR_VALUES = 40L;
+    private final static long CONFIG_ATTR_MASK = 48L;
+
+    /**
+     * struct gpio_v2_line_values { __u64 bits; __u64 mask; }, 16 Byte
+     */
+    private final static long VALUES_SIZE = 16L;
+    private final static long VALUES_BITS = 0L;
+    private final static long VALUES_MASK = 8L;
+
+    /**
+     * struct gpio_v2_line_event, 48 Byte: timestamp_ns (0), id (8), ...
+     */
+    private final static long EVENT_SIZE = 48L;
+    private final static long EVENT_TIMESTAMP = 0L;
+    private final static long EVENT_ID = 8L;
+
+    /**
+     * EVENT_COUNT = 16 - Events je read(), Groesse des Kernel-Puffers
+     */
+    private final static int EVENT_COUNT = 16;
+
+    /**
+     * struct pollfd { int fd; short events; short revents; }, 8 Byte
+     */
+    private final static long POLLFD_SIZE = 8L;
+    private final static long POLLFD_FD = 0L;
+    private final static long POLLFD_EVENTS = 4L;
+
+    /**
+     * path - Geraetedatei, z.B. /dev/gpiochip0
+     */
+    private final String path;
+
+    /**
+     * line - Leitungsnummer am Chip (Raspi: BCM-Nummer)
+     */
+    private final int line;
+
+    /**
+     * arena - Lebensdauer der Puffer
+     */
+    private final Arena arena;
+
+    /**
+     * outputConfig, inputConfig - struct gpio_v2_line_config (einmalig angelegt)
+     */
+    private final MemorySegment outputConfig;
+    private final MemorySegment inputConfig;
+
+    /**
+     * values - struct gpio_v2_line_values
+     */
+    private final MemorySegment values;
+
+    /**
+     * events - Puffer fuer EVENT_COUNT Edge-Events
+     */
+    private final MemorySegment events;
+
+    /**
+     * pollFd - struct pollfd der Leitungsanforderung
+     */
+    private final MemorySegment pollFd;
+
+    /**
+     * callState - errno des letzten Aufrufes
+     */
+    private final MemorySegment callState;
+
+    /**
+     * fileDescriptor - Leitungsanforderung bzw. Ersatzgeraet
+     */
+    private final int fileDescriptor;
+
+    /**
+     * isStandIn - Ersatzgeraet (Datei, FIFO) ohne GPIO-ioctl
+     */
+    private final boolean isStandIn;
+
+    /**
+     * isClosed - nach close() keine Zugriffe mehr
+     */
+    private boolean isClosed = false;
+
+    /**
+     * GpioChipEcho(String path, int line) - Anforderung der Leitung als
+     * Ausgang (LOW)...
+     * @param path - Geraetedatei, z.B. /dev/gpiochip0 (oder Ersatzgeraet)
+     * @param line - Leitung des Moduls (PiCar-S: BCM 20)
+     * @throws IOException
+     */
+    public GpioChipEcho(String path, int line) throws IOException
+    {
+        this.path = path;
+        this.line = line;
+        this.arena = Arena.ofShared();
+        this.callState = LibC.allocateCallState(this.arena);
+        this.values = this.arena.allocate(VALUES_SIZE, 8);
+        this.values.set(JAVA_LONG, VALUES_MASK, 0x01L);
+        this.events = this.arena.allocate(EVENT_SIZE * EVENT_COUNT, 8);
+        this.pollFd = this.arena.allocate(POLLFD_SIZE, 4);
+        // Ausgang mit HIGH (Beginn des Triggers), Eingang mit beiden Flanken...
+        this.outputConfig = this.arena.allocate(CONFIG_SIZE, 8);
+        this.outputConfig.set(JAVA_LONG, CONFIG_FLAGS, GPIO_V2_LINE_FLAG_OUTPUT);
+        this.outputConfig.set(JAVA_INT, CONFIG_NUM_ATTRS, 1);
+        this.outputConfig.set(JAVA_INT, CONFIG_ATTR_ID, GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES);
+        this.outputConfig.set(JAVA_LONG, CONFIG_ATTR_VALUES, 0x01L);
+        this.outputConfig.set(JAVA_LONG, CONFIG_ATTR_MASK, 0x01L);
+        this.inputConfig = this.arena.allocate(CONFIG_SIZE, 8);
+        this.inputConfig.set(JAVA_LONG, CONFIG_FLAGS, GPIO_V2_LINE_FLAG_INPUT | GPIO_V2_LINE_FLAG_EDGE_RISING | GPIO_V2_LINE_FLAG_EDGE_FALLING);
+
+        final int chipFd;
+        try
+        {
+            chipFd = (int)LibC.OPEN.invokeExact(this.callState, LibC.allocateString(this.arena, path), LibC.O_RDWR | LibC.O_CLOEXEC);
+        }
+        catch (Throwable throwable)
+        {
+            this.arena.close();
+            throw new IOException("open(" + path + "): " + throwable, throwable);
+        }
+        if (chipFd < 0)
+        {
+            final int errno = LibC.errno(this.callState);
+            this.arena.close();
+            throw new IOException("open(" + path + "): errno=" + errno);
+        }
+
+        // Anforderung der Leitung als Ausgang mit LOW...
+        final MemorySegment request = this.arena.allocate(REQUEST_SIZE, 8);
+        request.set(JAVA_INT, REQUEST_OFFSETS, line);
+        final byte[] consumer = GpioChipDirection.CONSUMER.getBytes(StandardCharsets.US_ASCII);
+        MemorySegment.copy(consumer, 0, request, JAVA_BYTE, REQUEST_CONSUMER, Math.min(consumer.length, CONSUMER_SIZE - 1));
+        request.set(JAVA_LONG, REQUEST_CONFIG + CONFIG_FLAGS, GPIO_V2_LINE_FLAG_OUTPUT);
+        request.set(JAVA_INT, REQUEST_CONFIG + CONFIG_NUM_ATTRS, 1);
+        request.set(JAVA_INT, REQUEST_CONFIG + CONFIG_ATTR_ID, GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES);
+        request.set(JAVA_LONG, REQUEST_CONFIG + CONFIG_ATTR_VALUES, 0L);
+        request.set(JAVA_LONG, REQUEST_CONFIG + CONFIG_ATTR_MASK, 0x01L);
+        request.set(JAVA_INT, REQUEST_NUM_LINES, 1);
+        request.set(JAVA_INT, REQUEST_EVENT_BUFFER_SIZE, EVENT_COUNT);
+
+        final int result;
+        try
+        {
+            result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, chipFd, GpioChipDirection.GPIO_V2_GET_LINE_IOCTL, request);
+        }
+        catch (Throwable throwable)
+        {
+            LibC.closeQuietly(chipFd);
+            this.arena.close();
+            throw new IOException("ioctl(GPIO_V2_GET_LINE_IOCTL): " + throwable, throwable);
+        }
+        if (result < 0 && LibC.errno(this.callState) == LibC.ENOTTY)
+        {
+            logger.info(path + " ist kein GPIO-Chip, Betrieb als Ersatzgeraet.");
+            this.isStandIn = true;
+            this.fileDescriptor = chipFd;
+        }
+        else if (result < 0)
+        {
+            final int errno = LibC.errno(this.callState);
+            LibC.closeQuietly(chipFd);
+            this.arena.close();
+            throw new IOException("ioctl(" + path + ", GPIO_V2_GET_LINE_IOCTL, " + line + "): errno=" + errno);
+        }
+        else
+        {
+            this.isStandIn = false;
+            this.fileDescriptor = request.get(JAVA_INT, REQUEST_FD);
+            LibC.closeQuietly(chipFd);
+        }
+        this.pollFd.set(JAVA_INT, POLLFD_FD, this.fileDescriptor);
+        this.pollFd.set(JAVA_SHORT, POLLFD_EVENTS, LibC.POLLIN);
+    }
+
+    /**
+     * trigger() - Ausgang HIGH, TRIGGER_NANOS warten, LOW, Eingang mit
+     * Flankenerkennung...
+     */
+    @Override
+    public synchronized void trigger() throws IOException
+    {
+        if (this.isClosed)
+        {
+            throw new IOException(this.path + " ist geschlossen.");
+        }
+        // Reste einer abgebrochenen Messung verwerfen...
+        while (poll(0) > 0 && readEvents() > 0)
+        {
+            // Ersatzgeraet: read() liefert 0 am Dateiende...
+        }
+        if (this.isStandIn)
+        {
+            return;
+        }
+        try
+        {
+            setConfig(this.outputConfig);
+            final long endNanos = System.nanoTime() + TRIGGER_NANOS;
+            while (System.nanoTime() - endNanos < 0L)
+            {
+                Thread.onSpinWait();
+            }
+            this.values.set(JAVA_LONG, VALUES_BITS, 0L);
+            final int result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, this.fileDescriptor, GpioChipDirection.GPIO_V2_LINE_SET_VALUES_IOCTL, this.values);
+            if (result < 0)
+            {
+                throw new IOException("ioctl(" + this.path + ", GPIO_V2_LINE_SET_VALUES_IOCTL): errno=" + LibC.errno(this.callState));
+            }
+            setConfig(this.inputConfig);
+        }
+        catch (IOException exception)
+        {
+            throw exception;
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("trigger(): " + throwable, throwable);
+        }
+    }
+
+    /**
+     * awaitEcho(long[] edges, long timeoutNanos) - poll() auf die Edge-Events...
+     */
+    @Override
+    public synchronized boolean awaitEcho(long[] edges, long timeoutNanos) throws IOException
+    {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        boolean isRising = false;
+        long remaining = timeoutNanos;
+        while (remaining > 0L)
+        {
+            // poll() in ms, aufgerundet...
+            if (poll((int)((remaining + 999_999L)/1_000_000L)) <= 0)
+            {
+                break;
+            }
+            final int count = readEvents();
+            if (count == 0)
+            {
+                // Ersatzgeraet: Dateiende...
+                break;
+            }
+            for (int index = 0; index < count; index++)
+            {
+                final long offset = index * EVENT_SIZE;
+                final int id = this.events.get(JAVA_INT, offset + EVENT_ID);
+                final long timestamp = this.events.get(JAVA_LONG, offset + EVENT_TIMESTAMP);
+                if (id == GPIO_V2_LINE_EVENT_RISING_EDGE)
+                {
+                    edges[RISING] = timestamp;
+                    isRising = true;
+                }
+                else if (id == GPIO_V2_LINE_EVENT_FALLING_EDGE && isRising)
+                {
+                    edges[FALLING] = timestamp;
+                    return true;
+                }
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        return false;
+    }
+
+    /**
+     * setConfig(MemorySegment config) - GPIO_V2_LINE_SET_CONFIG_IOCTL...
+     */
+    private void setConfig(MemorySegment config) throws Throwable
+    {
+        final int result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, this.fileDescriptor, GPIO_V2_LINE_SET_CONFIG_IOCTL, config);
+        if (result < 0)
+        {
+            throw new IOException("ioctl(" + this.path + ", GPIO_V2_LINE_SET_CONFIG_IOCTL): errno=" + LibC.errno(this.callState));
+        }
+    }
+
+    /**
+     * poll(int timeoutMillis)
+     * @return > 0: Events lesbar, 0: Zeitueberschreitung
+     */
+    private int poll(int timeoutMillis) throws IOException
+    {
+        try
+        {
+            final int result = (int)LibC.POLL.invokeExact(this.callState, this.pollFd, 1L, timeoutMillis);
+            if (result < 0)
+            {
+                throw new IOException("poll(" + this.path + "): errno=" + LibC.errno(this.callState));
+            }
+            return result;
+        }
+        catch (IOException exception)
+        {
+            throw exception;
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("poll(): " + throwable, throwable);
+        }
+    }
+
+    /**
+     * readEvents() - verfuegbare Edge-Events in den Puffer...
+     * @return Anzahl der Events
+     */
+    private int readEvents() throws IOException
+    {
+        try
+        {
+            final long count = (long)LibC.READ.invokeExact(this.callState, this.fileDescriptor, this.events, EVENT_SIZE * EVENT_COUNT);
+            if (count < 0L)
+            {
+                throw new IOException("read(" + this.path + "): errno=" + LibC.errno(this.callState));
+            }
+            return (int)(count/EVENT_SIZE);
+        }
+        catch (IOException exception)
+        {
+            throw exception;
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("read(): " + throwable, throwable);
+        }
+    }
+
+    /**
+     * close() - Freigabe der Leitung...
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.isClosed)
+        {
+            return;
+        }
+        this.isClosed = true;
+        if (LibC.closeQuietly(this.fileDescriptor) < 0)
+        {
+            logger.warn("close(" + this.path + ") gescheitert.");
+        }
+        this.arena.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.gpio.ffm.GpioChipEcho[" + this.path + ", " + this.line
+                + (this.isStandIn? ", Ersatzgeraet" : "") + "]";
+    }
+}
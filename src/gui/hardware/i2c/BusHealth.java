@@ -0,0 +1,196 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * BusHealth - Statistik der Buszugriffe eines {@link ResilientI2CDevice}.
+ * </p>
+ * <p>
+ * Alle Zaehler koennen ohne Sperre aus beliebigen Threads fortgeschrieben 
+ * und gelesen werden.
+ * </p>
+ */
+public class BusHealth
+{
+    /**
+     * operations - Anzahl der beauftragten Zugriffe
+     */
+    private final AtomicLong operations = new AtomicLong(0L);
+    
+    /**
+     * attempts - Anzahl der Versuche (inkl. Wiederholungen)
+     */
+    private final AtomicLong attempts = new AtomicLong(0L);
+    
+    /**
+     * retries - Anzahl der Wiederholungen
+     */
+    private final AtomicLong retries = new AtomicLong(0L);
+    
+    /**
+     * errors - Anzahl der gescheiterten Versuche (IOException, z.B. NACK)
+     */
+    private final AtomicLong errors = new AtomicLong(0L);
+    
+    /**
+     * failures - Anzahl der endgueltig gescheiterten Zugriffe
+     */
+    private final AtomicLong failures = new AtomicLong(0L);
+    
+    /**
+     * budgetExceeded - Anzahl der wegen des Zeitbudgets abgebrochenen Zugriffe
+     */
+    private final AtomicLong budgetExceeded = new AtomicLong(0L);
+    
+    /**
+     * rejected - Anzahl der durch den CircuitBreaker abgewiesenen Zugriffe
+     */
+    private final AtomicLong rejected = new AtomicLong(0L);
+    
+    /**
+     * latency - Laufzeit der erfolgreichen Zugriffe (inkl. Wiederholungen)
+     */
+    private final LatencyHistogram latency = new LatencyHistogram("I2C");
+    
+    /*
+     * Fortschreiben der Zaehler (nur durch ResilientI2CDevice)...
+     */
+    
+    void operation()
+    {
+        this.operations.incrementAndGet();
+    }
+    
+    void attempt()
+    {
+        this.attempts.incrementAndGet();
+    }
+    
+    void retry()
+    {
+        this.retries.incrementAndGet();
+    }
+    
+    void error()
+    {
+        this.errors.incrementAndGet();
+    }
+    
+    void failure()
+    {
+        this.failures.incrementAndGet();
+    }
+    
+    void budgetExceeded()
+    {
+        this.budgetExceeded.incrementAndGet();
+    }
+    
+    void rejected()
+    {
+        this.rejected.incrementAndGet();
+    }
+    
+    void success(long nanos)
+    {
+        this.latency.record(nanos);
+    }
+    
+    /**
+     * @return Anzahl der beauftragten Zugriffe
+     */
+    public long getOperations()
+    {
+        return this.operations.get();
+    }
+    
+    /**
+     * @return Anzahl der Versuche
+     */
+    public long getAttempts()
+    {
+        return this.attempts.get();
+    }
+    
+    /**
+     * @return Anzahl der Wiederholungen
+     */
+    public long getRetries()
+    {
+        return this.retries.get();
+    }
+    
+    /**
+     * @return Anzahl der gescheiterten Versuche
+     */
+    public long getErrors()
+    {
+        return this.errors.get();
+    }
+    
+    /**
+     * @return Anzahl der endgueltig gescheiterten Zugriffe
+     */
+    public long getFailures()
+    {
+        return this.failures.get();
+    }
+    
+    /**
+     * @return Anzahl der wegen des Zeitbudgets abgebrochenen Zugriffe
+     */
+    public long getBudgetExceeded()
+    {
+        return this.budgetExceeded.get();
+    }
+    
+    /**
+     * @return Anzahl der abgewiesenen Zugriffe
+     */
+    public long getRejected()
+    {
+        return this.rejected.get();
+    }
+    
+    /**
+     * @return Laufzeit der erfolgreichen Zugriffe
+     */
+    public LatencyHistogram getLatency()
+    {
+        return this.latency;
+    }
+    
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[operations=")
+                                  .append(getOperations())
+                                  .append(", attempts=")
+                                  .append(getAttempts())
+                                  .append(", retries=")
+                                  .append(getRetries())
+                                  .append(", errors=")
+                                  .append(getErrors())
+                                  .append(", failures=")
+                                  .append(getFailures())
+                                  .append(", budgetExceeded=")
+                                  .append(getBudgetExceeded())
+                                  .append(", rejected=")
+                                  .append(getRejected())
+                                  .append(", ")
+                                  .append(this.latency)
+                                  .append("]")
+                                  .toString();
+    }
+}
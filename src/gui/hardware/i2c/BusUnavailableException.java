@@ -0,0 +1,31 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * BusUnavailableException - Zugriff abgewiesen, der {@link CircuitBreaker}
+ * ist geoeffnet (Bus dauerhaft gestoert).
+ * </p>
+ */
+public class BusUnavailableException extends IOException
+{
+    /**
+     * serialVersionUID = 1L
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * BusUnavailableException(String message)
+     * @param message
+     */
+    public BusUnavailableException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import gui.time.Clock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * CircuitBreaker - Schutzschalter fuer den I2C-Bus.
+ * </p>
+ * <p>
+ * Nach failureThreshold aufeinanderfolgenden, endgueltig gescheiterten
+ * Schreibzugriffen wird der Schalter geoeffnet (State.Open): Zugriffe werden 
+ * dann ohne Buszugriff sofort abgewiesen und die Listener werden informiert
+ * (sicherer Zustand). Nach openNanos wird ein einzelner Probezugriff 
+ * zugelassen (State.HalfOpen); gelingt er, wird der Schalter wieder 
+ * geschlossen (State.Closed).
+ * </p>
+ */
+public class CircuitBreaker
+{
+    /**
+     * enum State - Zustand des Schalters...
+     */
+    public enum State
+    {
+        /**
+         * Closed - Zugriffe erlaubt
+         */
+        Closed,
+        /**
+         * Open - Zugriffe gesperrt
+         */
+        Open,
+        /**
+         * HalfOpen - ein Probezugriff erlaubt
+         */
+        HalfOpen
+    }
+    
+    /**
+     * Listener - wird bei Oeffnen und Schliessen des Schalters informiert...
+     */
+    public interface Listener
+    {
+        /**
+         * opened(String reason) - Bus dauerhaft gestoert, sicheren Zustand herstellen!
+         * @param reason
+         */
+        public void opened(String reason);
+        
+        /**
+         * closed() - Bus wieder verfuegbar...
+         */
+        public void closed();
+    }
+    
+    /**
+     * DEFAULT_FAILURE_THRESHOLD = 3 - aufeinanderfolgende Fehler bis zum Oeffnen
+     */
+    public final static int DEFAULT_FAILURE_THRESHOLD = 3;
+    
+    /**
+     * DEFAULT_OPEN_NANOS - Wartezeit bis zum Probezugriff (1 s)
+     */
+    public final static long DEFAULT_OPEN_NANOS = 1_000_000_000L;
+    
+    /**
+     * clock - Zeitbasis
+     */
+    private final Clock clock;
+    
+    /**
+     * failureThreshold - aufeinanderfolgende Fehler bis zum Oeffnen
+     */
+    private final int failureThreshold;
+    
+    /**
+     * openNanos - Wartezeit im Zustand Open bis zum Probezugriff
+     */
+    private final long openNanos;
+    
+    /**
+     * listeners - angemeldete Listener
+     */
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * state - aktueller Zustand
+     */
+    private State state = State.Closed;
+    
+    /**
+     * consecutiveFailures - aufeinanderfolgende Fehler
+     */
+    private int consecutiveFailures = 0;
+    
+    /**
+     * openedNanos - Zeitpunkt des (letzten) Oeffnens
+     */
+    private long openedNanos = 0L;
+    
+    /**
+     * trips - Anzahl des Oeffnens
+     */
+    private long trips = 0L;
+    
+    /**
+     * CircuitBreaker() - Default-Parameter, Systemuhr...
+     */
+    public CircuitBreaker()
+    {
+        this(Clock.SYSTEM, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_NANOS);
+    }
+    
+    /**
+     * CircuitBreaker(Clock clock, int failureThreshold, long openNanos)
+     * @param clock
+     * @param failureThreshold
+     * @param openNanos
+     */
+    public CircuitBreaker(Clock clock, int failureThreshold, long openNanos)
+    {
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+    
+    /**
+     * addListener(Listener listener)
+     * @param listener
+     */
+    public void addListener(Listener listener)
+    {
+        this.listeners.add(listener);
+    }
+    
+    /**
+     * removeListener(Listener listener)
+     * @param listener
+     */
+    public void removeListener(Listener listener)
+    {
+        this.listeners.remove(listener);
+    }
+    
+    /**
+     * allowRequest() - ist ein Zugriff erlaubt?
+     * <p>
+     * Im Zustand Open wird nach Ablauf von openNanos genau ein 
+     * Probezugriff erlaubt (Uebergang nach HalfOpen).
+     * </p>
+     * @return true, wenn der Zugriff erfolgen darf
+     */
+    public synchronized boolean allowRequest()
+    {
+        switch (this.state)
+        {
+            case Closed:
+                return true;
+            case Open:
+                if (this.clock.nanoTime() - this.openedNanos >= this.openNanos)
+                {
+                    this.state = State.HalfOpen;
+                    return true;
+                }
+                return false;
+            case HalfOpen:
+            default:
+                // Probezugriff laeuft bereits...
+                return false;
+        }
+    }
+    
+    /**
+     * success() - Zugriff erfolgreich...
+     */
+    public void success()
+    {
+        final boolean isClosing;
+        synchronized(this)
+        {
+            this.consecutiveFailures = 0;
+            isClosing = (this.state != State.Closed);
+            this.state = State.Closed;
+        }
+        if (isClosing)
+        {
+            for (Listener listener: this.listeners)
+            {
+                listener.closed();
+            }
+        }
+    }
+    
+    /**
+     * failure(String reason) - Zugriff endgueltig gescheitert...
+     * @param reason
+     */
+    public void failure(String reason)
+    {
+        final boolean isOpening;
+        synchronized(this)
+        {
+            this.consecutiveFailures++;
+            if (this.state == State.HalfOpen)
+            {
+                // Probezugriff gescheitert => wieder Open (Listener wurden bereits informiert)
+                this.state = State.Open;
+                this.openedNanos = this.clock.nanoTime();
+                isOpening = false;
+            }
+            else if (this.state == State.Closed && this.consecutiveFailures >= this.failureThreshold)
+            {
+                this.state = State.Open;
+                this.openedNanos = this.clock.nanoTime();
+                this.trips++;
+                isOpening = true;
+            }
+            else
+            {
+                isOpening = false;
+            }
+        }
+        if (isOpening)
+        {
+            for (Listener listener: this.listeners)
+            {
+                listener.opened(reason);
+            }
+        }
+    }
+    
+    /**
+     * getState()
+     * @return aktueller Zustand
+     */
+    public synchronized State getState()
+    {
+        return this.state;
+    }
+    
+    /**
+     * getTrips()
+     * @return Anzahl des Oeffnens
+     */
+    public synchronized long getTrips()
+    {
+        return this.trips;
+    }
+    
+    /**
+     * getConsecutiveFailures()
+     * @return aufeinanderfolgende Fehler
+     */
+    public synchronized int getConsecutiveFailures()
+    {
+        return this.consecutiveFailures;
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ *
+ */
+package gui.hardware.i2c;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import gui.Model;
+import gui.Status;
+import gui.hardware.MotorDirection;
+import gui.hardware.PCA9685Actuator;
+import gui.hardware.PiCarActuator;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * EStopBench - Not-Aus ({@link Model#emergencyStop(String)}) im Vergleich
+ * zum regulaeren {@link Model#stop()} ohne Hardware: PCA9685Actuator =&gt;
+ * ResilientI2CDevice =&gt; FaultInjectingI2CDevice (Laufzeit je Zugriff)
+ * =&gt; SimulatedI2CDevice.
+ * </p>
+ * <p>
+ * Aufruf: java gui.hardware.i2c.EStopBench [Versuche] [Taktung ms]
+ * </p>
+ * <p>
+ * Waehrend der Versuche setzt ein Thread fortlaufend Sollwerte (wie die
+ * GUI) und haelt damit die dataMap und den Bus belegt. Gemessen wird vom
+ * Aufruf bis zum abgeschalteten Motor-Channel A im PCA9685 (OFF_H mit
+ * FULL_BIT). Nach dem Not-Aus darf der Motor auch mit weiteren Sollwerten
+ * nicht wieder anlaufen.
+ * </p>
+ */
+public class EStopBench
+{
+    /**
+     * DEFAULT_TRIALS = 200 - Versuche je Verfahren
+     */
+    public final static int DEFAULT_TRIALS = 200;
+
+    /**
+     * DEFAULT_CYCLE_TIME = 10 - Taktung in ms
+     */
+    public final static int DEFAULT_CYCLE_TIME = 10;
+
+    /**
+     * BUS_NANOS = 300 us - Laufzeit je I2C-Zugriff (ca. 24 Byte bei 400 kHz)
+     */
+    private final static long BUS_NANOS = 300_000L;
+
+    /**
+     * LOAD_PAUSE_NANOS = 200 us - Abstand der Sollwerte des Last-Threads
+     */
+    private final static long LOAD_PAUSE_NANOS = 200_000L;
+
+    /**
+     * TIMEOUT_MILLIS = 2000 - max. Wartezeit je Schritt
+     */
+    private final static long TIMEOUT_MILLIS = 2000L;
+
+    /**
+     * ProbeDevice - SimulatedI2CDevice, haelt den Zeitpunkt fest, zu dem
+     * Motor-Channel A erstmals nach armNanos voll aus ist...
+     */
+    private final static class ProbeDevice extends SimulatedI2CDevice
+    {
+        /**
+         * armNanos - Beginn der Messung, 0: keine Messung
+         */
+        private volatile long armNanos = 0L;
+
+        /**
+         * offNanos - Motor-Channel A voll aus, 0: noch nicht
+         */
+        private volatile long offNanos = 0L;
+
+        /**
+         * ProbeDevice()
+         */
+        ProbeDevice()
+        {
+            super(PiCarActuator.ADDRESS);
+        }
+
+        /**
+         * arm() - neue Messung...
+         * @return Beginn der Messung
+         */
+        long arm()
+        {
+            this.offNanos = 0L;
+            this.armNanos = System.nanoTime();
+            return this.armNanos;
+        }
+
+        /**
+         * isMotorOff()
+         * @return true, wenn Motor-Channel A voll aus ist
+         */
+        boolean isMotorOff()
+        {
+            return (getRegister(PCA9685Registers.ledOffH(PiCarActuator.MOTOR_A_CHANNEL)) & PCA9685Registers.FULL_BIT) != 0;
+        }
+
+        /**
+         * probe() - nach jedem Schreibzugriff...
+         */
+        private void probe()
+        {
+            if (this.armNanos != 0L && this.offNanos == 0L && isMotorOff())
+            {
+                this.offNanos = System.nanoTime();
+                this.armNanos = 0L;
+            }
+        }
+
+        @Override
+        public synchronized void write(int address, byte b) throws java.io.IOException
+        {
+            super.write(address, b);
+            probe();
+        }
+
+        @Override
+        public synchronized void write(int address, byte[] buffer, int offset, int size) throws java.io.IOException
+        {
+            super.write(address, buffer, offset, size);
+            probe();
+        }
+    }
+
+    /**
+     * Load - Sollwerte wie aus der GUI, bis stop()...
+     */
+    private final static class Load extends Thread
+    {
+        /**
+         * model - Ziel der Sollwerte
+         */
+        private final Model model;
+
+        /**
+         * random - Sollwerte, fester Seed
+         */
+        private final Random random = new Random(4711L);
+
+        /**
+         * isRunning - Flag...
+         */
+        private volatile boolean isRunning = true;
+
+        /**
+         * Load(Model model)
+         * @param model
+         */
+        Load(Model model)
+        {
+            super("Load");
+            setDaemon(true);
+            this.model = model;
+        }
+
+        @Override
+        public void run()
+        {
+            while (this.isRunning)
+            {
+                if (this.random.nextBoolean())
+                {
+                    this.model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(40 + this.random.nextInt(61)));
+                }
+                else
+                {
+                    this.model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(this.random.nextInt(61) - 30));
+                }
+                LockSupport.parkNanos(LOAD_PAUSE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * await(ProbeDevice device) - Warten auf den abgeschalteten Motor...
+     * @return true, wenn erreicht
+     */
+    private static boolean await(ProbeDevice device) throws InterruptedException
+    {
+        final long endMillis = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (device.offNanos == 0L)
+        {
+            if (System.currentTimeMillis() > endMillis)
+            {
+                return false;
+            }
+            Thread.sleep(0L, 100_000);
+        }
+        return true;
+    }
+
+    /**
+     * awaitStopped(Model model) - Warten auf Status Stopped...
+     * @return true, wenn erreicht
+     */
+    private static boolean awaitStopped(Model model) throws InterruptedException
+    {
+        final long endMillis = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (model.getStatus() != Status.Stopped)
+        {
+            if (System.currentTimeMillis() > endMillis)
+            {
+                return false;
+            }
+            Thread.sleep(1L);
+        }
+        return true;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int trials = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_TRIALS;
+        final int cycleTime = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLE_TIME;
+
+        final ProbeDevice probeDevice = new ProbeDevice();
+        final FaultInjectingI2CDevice faultDevice = new FaultInjectingI2CDevice(probeDevice, 4711L);
+        final PCA9685Actuator actuator = new PCA9685Actuator(new ResilientI2CDevice(faultDevice), MotorDirection.NONE);
+        actuator.initialize(PiCarActuator.PWM_FREQUENCY);
+        faultDevice.setLatencyNanos(BUS_NANOS);
+
+        final Model model = new Model(actuator, cycleTime);
+        final Load load = new Load(model);
+        load.start();
+
+        final LatencyHistogram stopLatency = new LatencyHistogram("stop() => Motor aus");
+        final LatencyHistogram emergencyLatency = new LatencyHistogram("emergencyStop() => Motor aus");
+        final Random random = new Random(42L);
+        int failures = 0;
+        int restarts = 0;
+        for (int trial = 0; trial < 2 * trials; trial++)
+        {
+            final boolean isEmergency = (trial % 2) == 1;
+            model.start();
+            model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(60));
+            Thread.sleep(5L + random.nextInt(20));
+            final long startNanos = probeDevice.arm();
+            if (isEmergency)
+            {
+                model.emergencyStop("EStopBench");
+            }
+            else
+            {
+                model.stop();
+            }
+            if (!await(probeDevice))
+            {
+                failures++;
+                continue;
+            }
+            (isEmergency? emergencyLatency : stopLatency).record(probeDevice.offNanos - startNanos);
+            if (!awaitStopped(model))
+            {
+                failures++;
+                continue;
+            }
+            if (isEmergency)
+            {
+                // Die Last setzt weiter Sollwerte, der Motor muss aus bleiben...
+                Thread.sleep(3L * cycleTime);
+                if (!probeDevice.isMotorOff())
+                {
+                    restarts++;
+                }
+            }
+        }
+        load.isRunning = false;
+        load.join();
+        model.shutdown();
+
+        System.out.println(String.format("Takt %d ms, %d us je I2C-Zugriff, %d Versuche je Verfahren",
+                                         cycleTime, BUS_NANOS/1000L, trials));
+        System.out.println(stopLatency);
+        System.out.println(emergencyLatency);
+        System.out.println("  davon " + model.getEmergencyStopLatency());
+        System.out.println(String.format("%d ohne Ergebnis, %d Wiederanlaeufe nach Not-Aus", failures, restarts));
+        System.exit((failures == 0 && restarts == 0)? 0 : 1);
+    }
+}
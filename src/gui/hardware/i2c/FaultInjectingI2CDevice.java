@@ -0,0 +1,229 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * FaultInjectingI2CDevice - Decorator um ein I2CDevice (i.d.R. 
+ * {@link SimulatedI2CDevice}), der Busfehler erzeugt:
+ * </p>
+ * <ul>
+ *  <li>sporadische NACKs mit der Wahrscheinlichkeit nackProbability,</li>
+ *  <li>Ausfall (outage): jeder Zugriff scheitert,</li>
+ *  <li>zusaetzliche Laufzeit je Zugriff (latencyNanos, "clock stretching").</li>
+ * </ul>
+ * <p>
+ * Der Zufallsgenerator hat einen festen Seed, ein Lauf ist reproduzierbar.
+ * </p>
+ */
+public class FaultInjectingI2CDevice implements I2CDevice
+{
+    /**
+     * delegate - das eigentliche I2CDevice
+     */
+    private final I2CDevice delegate;
+    
+    /**
+     * random - Zufallsgenerator fuer die NACKs
+     */
+    private final Random random;
+    
+    /**
+     * nackProbability - Wahrscheinlichkeit eines NACK je Zugriff (0.0 ... 1.0)
+     */
+    private volatile double nackProbability = 0.0;
+    
+    /**
+     * isOutage - Ausfall: jeder Zugriff scheitert
+     */
+    private volatile boolean isOutage = false;
+    
+    /**
+     * latencyNanos - zusaetzliche Laufzeit je Zugriff
+     */
+    private volatile long latencyNanos = 0L;
+    
+    /**
+     * injectedFaults - Anzahl der erzeugten Fehler
+     */
+    private long injectedFaults = 0L;
+    
+    /**
+     * FaultInjectingI2CDevice(I2CDevice delegate, long seed)
+     * @param delegate
+     * @param seed - Seed des Zufallsgenerators
+     */
+    public FaultInjectingI2CDevice(I2CDevice delegate, long seed)
+    {
+        this.delegate = delegate;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * @param nackProbability the nackProbability to set
+     */
+    public void setNackProbability(double nackProbability)
+    {
+        this.nackProbability = nackProbability;
+    }
+    
+    /**
+     * @param isOutage the isOutage to set
+     */
+    public void setOutage(boolean isOutage)
+    {
+        this.isOutage = isOutage;
+    }
+    
+    /**
+     * @param latencyNanos the latencyNanos to set
+     */
+    public void setLatencyNanos(long latencyNanos)
+    {
+        this.latencyNanos = latencyNanos;
+    }
+    
+    /**
+     * getInjectedFaults()
+     * @return Anzahl der erzeugten Fehler
+     */
+    public synchronized long getInjectedFaults()
+    {
+        return this.injectedFaults;
+    }
+    
+    /**
+     * inject(String name) - Laufzeit und evtl. Fehler vor dem Zugriff...
+     * @param name
+     * @throws IOException - erzeugter Fehler
+     */
+    private void inject(String name) throws IOException
+    {
+        final long latency = this.latencyNanos;
+        if (latency > 0L)
+        {
+            LockSupport.parkNanos(latency);
+        }
+        final boolean isFault;
+        synchronized(this)
+        {
+            isFault = this.isOutage || (this.random.nextDouble() < this.nackProbability);
+            if (isFault)
+            {
+                this.injectedFaults++;
+            }
+        }
+        if (isFault)
+        {
+            throw new IOException(name + ": NACK (simuliert)");
+        }
+    }
+
+    @Override
+    public int getAddress()
+    {
+        return this.delegate.getAddress();
+    }
+
+    @Override
+    public void write(byte b) throws IOException
+    {
+        inject("write(b)");
+        this.delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int size) throws IOException
+    {
+        inject("write(buffer)");
+        this.delegate.write(buffer, offset, size);
+    }
+
+    @Override
+    public void write(byte[] buffer) throws IOException
+    {
+        inject("write(buffer)");
+        this.delegate.write(buffer);
+    }
+
+    @Override
+    public void write(int address, byte b) throws IOException
+    {
+        inject("write(address, b)");
+        this.delegate.write(address, b);
+    }
+
+    @Override
+    public void write(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        inject("write(address, buffer)");
+        this.delegate.write(address, buffer, offset, size);
+    }
+
+    @Override
+    public void write(int address, byte[] buffer) throws IOException
+    {
+        inject("write(address, buffer)");
+        this.delegate.write(address, buffer);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        inject("read()");
+        return this.delegate.read();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int size) throws IOException
+    {
+        inject("read(buffer)");
+        return this.delegate.read(buffer, offset, size);
+    }
+
+    @Override
+    public int read(int address) throws IOException
+    {
+        inject("read(address)");
+        return this.delegate.read(address);
+    }
+
+    @Override
+    public int read(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        inject("read(address, buffer)");
+        return this.delegate.read(address, buffer, offset, size);
+    }
+
+    @Override
+    public void ioctl(long command, int value) throws IOException
+    {
+        inject("ioctl()");
+        this.delegate.ioctl(command, value);
+    }
+
+    @Override
+    public void ioctl(long command, ByteBuffer data, IntBuffer offsets) throws IOException
+    {
+        inject("ioctl()");
+        this.delegate.ioctl(command, data, offsets);
+    }
+
+    @Override
+    public int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException
+    {
+        inject("read(writeBuffer, readBuffer)");
+        return this.delegate.read(writeBuffer, writeOffset, writeSize, readBuffer, readOffset, readSize);
+    }
+}
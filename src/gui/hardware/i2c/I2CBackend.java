@@ -0,0 +1,138 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+
+/**
+ * enum I2CBackend - Auswahl des Zugriffes auf den I2C-Bus beim Start.
+ * 
+ * @author Detlef Tribius
+ * 
+ * <p>
+ * Pi4j - pi4j 1.x (I2CFactory, JNI), bisheriger Zugriff.
+ * </p>
+ * <p>
+ * Linux - direkt ueber /dev/i2c-N mit der FFM-API 
+ * ({@link gui.hardware.i2c.ffm.LinuxI2CDevice}, ab Java 22). Die Klasse 
+ * wird nur mit 'ant -Dffm=true' uebersetzt und daher per Reflection geladen.
+ * </p>
+ */
+public enum I2CBackend
+{
+    /**
+     * Pi4j("pi4j")
+     */
+    Pi4j("pi4j"),
+    /**
+     * Linux("linux")
+     */
+    Linux("linux");
+    
+    /**
+     * LINUX_DEVICE_CLASS - Klassenname des FFM-Backends
+     */
+    private final static String LINUX_DEVICE_CLASS = "gui.hardware.i2c.ffm.LinuxI2CDevice";
+    
+    /**
+     * String backend - Kennung in der properties-Datei...
+     */
+    private final String backend;
+    
+    /**
+     * private I2CBackend(String backend) - Privater Konstruktor...
+     * @param backend
+     */
+    private I2CBackend(String backend)
+    {
+        this.backend = backend;
+    }
+    
+    /**
+     * getBackend()
+     * @return Kennung, z.B. "linux"
+     */
+    public String getBackend()
+    {
+        return this.backend;
+    }
+    
+    /**
+     * parse(String backend) - Kennung aus der properties-Datei...
+     * @param backend - "pi4j", "linux" oder leer (=> Pi4j)
+     * @return I2CBackend
+     */
+    public static I2CBackend parse(String backend)
+    {
+        if (backend == null || backend.trim().length() == 0)
+        {
+            return Pi4j;
+        }
+        for (I2CBackend value: values())
+        {
+            if (value.backend.equalsIgnoreCase(backend.trim()))
+            {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unbekanntes I2C-Backend: " + backend);
+    }
+    
+    /**
+     * open(int busNumber, int address) - Zugriff auf ein Geraet am Bus...
+     * @param busNumber - z.B. I2CBus.BUS_1
+     * @param address - Slave-Adresse, z.B. 0x40
+     * @return I2CDevice
+     * @throws IOException
+     * @throws UnsupportedBusNumberException
+     */
+    public I2CDevice open(int busNumber, int address) throws IOException, UnsupportedBusNumberException
+    {
+        if (this == Pi4j)
+        {
+            return I2CFactory.getInstance(busNumber).getDevice(address);
+        }
+        return open("/dev/i2c-" + busNumber, address);
+    }
+    
+    /**
+     * open(String path, int address) - Zugriff ueber eine Geraetedatei 
+     * (nur Linux, auch Ersatzgeraet: Datei, FIFO)...
+     * @param path - z.B. /dev/i2c-1
+     * @param address - Slave-Adresse
+     * @return I2CDevice
+     * @throws IOException
+     */
+    public I2CDevice open(String path, int address) throws IOException
+    {
+        if (this != Linux)
+        {
+            throw new IOException(this + ": Zugriff ueber Geraetedatei nicht moeglich.");
+        }
+        try
+        {
+            final Class<?> deviceClass = Class.forName(LINUX_DEVICE_CLASS);
+            return (I2CDevice)deviceClass.getConstructor(String.class, int.class).newInstance(path, Integer.valueOf(address));
+        }
+        catch (InvocationTargetException exception)
+        {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+            throw new IOException(path + ": " + cause, cause);
+        }
+        catch (ReflectiveOperationException | LinkageError exception)
+        {
+            // Nicht uebersetzt (ant -Dffm=true) oder Laufzeit vor Java 22...
+            throw new IOException("FFM-Backend nicht verfuegbar: " + exception, exception);
+        }
+    }
+}
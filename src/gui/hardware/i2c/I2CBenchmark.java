@@ -0,0 +1,148 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+import gui.hardware.PCA9685Actuator;
+import gui.hardware.PiCarActuator;
+import gui.time.ThreadMeter;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * I2CBenchmark - Vergleich der I2C-Backends (pi4j, Linux/FFM) anhand der 
+ * Schreibzugriffe des PCA9685 (je Channel 4 Byte ab LEDn_ON_L).
+ * </p>
+ * <p>
+ * Aufruf: java gui.hardware.i2c.I2CBenchmark [Schreibzugriffe] [Geraetedatei]
+ * </p>
+ * <p>
+ * Ohne Raspi kann als Geraetedatei eine normale Datei oder ein FIFO 
+ * angegeben werden (z.B. mkfifo /tmp/i2c-stand-in; cat /tmp/i2c-stand-in &gt; /dev/null &amp;), 
+ * gemessen wird dann nur das Linux-Backend. Ausgegeben werden Latenzen 
+ * und die je Zugriff auf dem Heap angelegten Bytes.
+ * </p>
+ */
+public class I2CBenchmark
+{
+    /**
+     * DEFAULT_WRITES = 100000 - Schreibzugriffe je Backend
+     */
+    public final static int DEFAULT_WRITES = 100_000;
+    
+    /**
+     * DEFAULT_DEVICE = "/dev/i2c-1"
+     */
+    public final static String DEFAULT_DEVICE = "/dev/i2c-1";
+    
+    /**
+     * BUS_DEVICE - Muster der i2c-dev-Geraetedatei (Bus-Nummer fuer pi4j)
+     */
+    private final static Pattern BUS_DEVICE = Pattern.compile("/dev/i2c-(\\d+)");
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int writes = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_WRITES;
+        final String path = (args.length > 1)? args[1] : DEFAULT_DEVICE;
+        final Matcher matcher = BUS_DEVICE.matcher(path);
+        
+        for (I2CBackend backend: I2CBackend.values())
+        {
+            final I2CDevice device;
+            try
+            {
+                if (backend == I2CBackend.Pi4j)
+                {
+                    if (!matcher.matches())
+                    {
+                        System.out.println(backend.getBackend() + ": nur fuer /dev/i2c-N.");
+                        continue;
+                    }
+                    device = backend.open(Integer.parseInt(matcher.group(1)), PiCarActuator.ADDRESS);
+                }
+                else
+                {
+                    device = backend.open(path, PiCarActuator.ADDRESS);
+                }
+            }
+            catch (Throwable throwable)
+            {
+                System.out.println(backend.getBackend() + ": nicht verfuegbar, " + throwable);
+                continue;
+            }
+            try
+            {
+                run(backend, device, writes);
+            }
+            finally
+            {
+                if (device instanceof Closeable)
+                {
+                    ((Closeable)device).close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * run(I2CBackend backend, I2CDevice device, int writes) - Aufwaermen, dann Messung...
+     * @param backend
+     * @param device
+     * @param writes
+     * @throws IOException
+     */
+    private static void run(I2CBackend backend, I2CDevice device, int writes) throws IOException
+    {
+        final byte[] buffer = new byte[4];
+        final int register = PCA9685Registers.ledOnL(PiCarActuator.SERVO_CHANNEL);
+        // Aufwaermen (JIT)...
+        for (int index = 0; index < Math.min(writes, 10_000); index++)
+        {
+            writeChannel(device, register, buffer, index);
+        }
+        
+        final LatencyHistogram histogram = new LatencyHistogram(backend.getBackend());
+        final long startBytes = ThreadMeter.allocatedBytes();
+        final long startNanos = System.nanoTime();
+        for (int index = 0; index < writes; index++)
+        {
+            final long writeNanos = System.nanoTime();
+            writeChannel(device, register, buffer, index);
+            histogram.record(System.nanoTime() - writeNanos);
+        }
+        final long totalNanos = System.nanoTime() - startNanos;
+        final long bytes = ThreadMeter.allocatedBytes() - startBytes;
+        
+        System.out.println(String.format("%-6s %s", backend.getBackend(), device));
+        System.out.println(String.format("       %d Zugriffe, %.0f ns je Zugriff, %s", writes, (double)totalNanos/writes, histogram));
+        System.out.println(String.format("       Heap: %s je Zugriff", (bytes < 0L)? "?" : String.format("%.1f Byte", (double)bytes/writes)));
+    }
+    
+    /**
+     * writeChannel(...) - ein Channel (ON = 0, OFF = Servo-Bereich)...
+     * @param device
+     * @param register - LEDn_ON_L
+     * @param buffer - 4 Byte
+     * @param index - laufender Zugriff
+     * @throws IOException
+     */
+    private static void writeChannel(I2CDevice device, int register, byte[] buffer, int index) throws IOException
+    {
+        final int off = PCA9685Actuator.DEFAULT_SERVO_MIN_STEERING + (index % 200);
+        buffer[0] = 0;
+        buffer[1] = 0;
+        buffer[2] = (byte)(off & 0xFF);
+        buffer[3] = (byte)(off >> 8);
+        device.write(register, buffer, 0, buffer.length);
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import gui.Model;
+import gui.hardware.MotorDirection;
+import gui.hardware.PCA9685Actuator;
+import gui.hardware.PiCarActuator;
+import gui.time.Clock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * I2CFaultBench - Pruefstand fuer die I2C-Zugriffe ohne Hardware:
+ * PCA9685Actuator =&gt; ResilientI2CDevice =&gt; FaultInjectingI2CDevice 
+ * =&gt; SimulatedI2CDevice.
+ * </p>
+ * <p>
+ * Aufruf: java gui.hardware.i2c.I2CFaultBench [Schreibzugriffe]
+ * </p>
+ * <ol>
+ * <li>NACK-Raten 1 %, 5 %, 20 %: Wiederholungen, Fehler, Latenzen (BusHealth)</li>
+ * <li>Bus-Ausfall: CircuitBreaker oeffnet, Model im sicheren Zustand, 
+ * nach Ende des Ausfalls ohne weitere Vorgabe wieder startbereit 
+ * (Probezugriff des Model, Motoren dabei abgeschaltet).</li>
+ * </ol>
+ */
+public class I2CFaultBench
+{
+    /**
+     * DEFAULT_WRITES = 10000 - Schreibzugriffe je NACK-Rate
+     */
+    public final static int DEFAULT_WRITES = 10000;
+    
+    /**
+     * NACK_PROBABILITIES - untersuchte NACK-Raten
+     */
+    private final static double[] NACK_PROBABILITIES = {0.01, 0.05, 0.20};
+    
+    /**
+     * OPEN_NANOS = 50 ms - verkuerzte Wartezeit des CircuitBreaker
+     */
+    private final static long OPEN_NANOS = 50_000_000L;
+    
+    /**
+     * TIMEOUT_MILLIS = 2000 - max. Wartezeit im Ausfall-Szenario
+     */
+    private final static long TIMEOUT_MILLIS = 2000L;
+    
+    /**
+     * SEED - Seed der Fehlerinjektion
+     */
+    private final static long SEED = 4711L;
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int writes = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_WRITES;
+        
+        for (double nackProbability: NACK_PROBABILITIES)
+        {
+            runNackScenario(nackProbability, writes);
+        }
+        final boolean isOk = runOutageScenario();
+        System.out.println("Ausfall-Szenario: " + (isOk? "OK" : "FEHLER"));
+        System.exit(isOk? 0 : 1);
+    }
+    
+    /**
+     * runNackScenario(double nackProbability, int writes) - abwechselnd 
+     * Servo- und Motor-Sollwerte mit zufaelligen NACKs...
+     * @param nackProbability
+     * @param writes
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    private static void runNackScenario(double nackProbability, int writes) throws IOException, InterruptedException
+    {
+        final FaultInjectingI2CDevice faultDevice = new FaultInjectingI2CDevice(new SimulatedI2CDevice(PiCarActuator.ADDRESS), SEED);
+        final ResilientI2CDevice device = createDevice(faultDevice);
+        final PCA9685Actuator actuator = new PCA9685Actuator(device, MotorDirection.NONE);
+        actuator.initialize(PiCarActuator.PWM_FREQUENCY);
+        faultDevice.setNackProbability(nackProbability);
+        
+        int failed = 0;
+        for (int index = 0; index < writes; index++)
+        {
+            try
+            {
+                if ((index & 1) == 0)
+                {
+                    actuator.setServo((index % 200) - 100);
+                }
+                else
+                {
+                    actuator.setMotor(((index % 200) - 100)/100.0f);
+                }
+            }
+            catch (IOException exception)
+            {
+                failed++;
+            }
+        }
+        System.out.println(String.format("NACK %4.1f %%: fehlgeschlagen %d von %d, Ausloesungen %d", 
+                                         nackProbability * 100.0, 
+                                         failed, 
+                                         writes,
+                                         device.getCircuitBreaker().getTrips()));
+        System.out.println("    " + device.getBusHealth());
+    }
+    
+    /**
+     * runOutageScenario() - Bus-Ausfall waehrend des Taktes...
+     * @return true, wenn sicherer Zustand und Wiederanlauf erreicht wurden
+     * @throws Exception
+     */
+    private static boolean runOutageScenario() throws Exception
+    {
+        final SimulatedI2CDevice simulatedDevice = new SimulatedI2CDevice(PiCarActuator.ADDRESS);
+        final FaultInjectingI2CDevice faultDevice = new FaultInjectingI2CDevice(simulatedDevice, SEED);
+        final ResilientI2CDevice device = createDevice(faultDevice);
+        final PCA9685Actuator actuator = new PCA9685Actuator(device, MotorDirection.NONE);
+        actuator.initialize(PiCarActuator.PWM_FREQUENCY);
+        
+        final Model model = new Model(actuator);
+        // Die zuletzt gemeldeten Werte (wie in der View)...
+        final Map<String, Object> values = new ConcurrentHashMap<>();
+        model.addPropertyChangeListener(new PropertyChangeListener()
+        {
+            @Override
+            public void propertyChange(PropertyChangeEvent event)
+            {
+                if (event.getNewValue() != null)
+                {
+                    values.put(event.getPropertyName(), event.getNewValue());
+                }
+            }
+        });
+        model.start();
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(50));
+        Thread.sleep(100);
+        
+        // Ausfall: jeder Zugriff scheitert...
+        faultDevice.setOutage(true);
+        final long outageNanos = System.nanoTime();
+        if (!awaitFault(model))
+        {
+            System.out.println("Sicherer Zustand nicht erreicht!");
+            return false;
+        }
+        System.out.println(String.format("Sicherer Zustand nach %.3f ms: status=%s, motor=%s", 
+                                         (System.nanoTime() - outageNanos)/1.0e6, 
+                                         model.getStatus(),
+                                         values.get(Model.DATA_MOTOR_KEY)));
+        
+        // Motor-Vorgaben im sicheren Zustand werden abgewiesen...
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(80));
+        final boolean isRejected = Integer.valueOf(Model.MOTOR_NULL_VALUE).equals(model.getProperty(Model.DATA_MOTOR_KEY));
+        
+        // Ende des Ausfalls: ohne Schreibzugriff (Takt angehalten), der 
+        // Probezugriff des Model (Model.FAULT_PROBE_PERIOD) schliesst den 
+        // CircuitBreaker, danach werden beide Motoren abgeschaltet...
+        faultDevice.setOutage(false);
+        final long recoveryNanos = System.nanoTime();
+        if (!await(model, false))
+        {
+            System.out.println("Wiederanlauf nicht erreicht!");
+            return false;
+        }
+        System.out.println(String.format("Wiederanlauf nach %.3f ms (Probezugriff alle %d ms)", 
+                                         (System.nanoTime() - recoveryNanos)/1.0e6, 
+                                         Model.FAULT_PROBE_PERIOD));
+        final int motorAOffH = simulatedDevice.getRegister(PCA9685Registers.ledOffH(PiCarActuator.MOTOR_A_CHANNEL));
+        final int motorBOffH = simulatedDevice.getRegister(PCA9685Registers.ledOffH(PiCarActuator.MOTOR_B_CHANNEL));
+        System.out.println(String.format("Wiederanlauf: isRunnable=%s, Motor A OFF_H=0x%02X, Motor B OFF_H=0x%02X, Vorgabe im Ausfall %s, %s",
+                                         values.get(Model.DATA_IS_RUNNABLE_KEY),
+                                         motorAOffH,
+                                         motorBOffH,
+                                         isRejected? "abgewiesen" : "UEBERNOMMEN",
+                                         device.getBusHealth()));
+        model.shutdown();
+        // Beide Motoren aus (Register waehrend des Ausfalls unveraendert), keine Vorgabe im Ausfall...
+        return isRejected
+            && motorAOffH == PCA9685Registers.FULL_BIT
+            && motorBOffH == PCA9685Registers.FULL_BIT;
+    }
+    
+    /**
+     * createDevice(FaultInjectingI2CDevice faultDevice) - Default-Parameter, 
+     * aber verkuerzte Wartezeit des CircuitBreaker...
+     * @param faultDevice
+     * @return ResilientI2CDevice
+     */
+    private static ResilientI2CDevice createDevice(FaultInjectingI2CDevice faultDevice)
+    {
+        return new ResilientI2CDevice(faultDevice, 
+                                      Clock.SYSTEM, 
+                                      ResilientI2CDevice.DEFAULT_BUDGET_NANOS, 
+                                      ResilientI2CDevice.DEFAULT_MAX_RETRIES, 
+                                      ResilientI2CDevice.DEFAULT_BACKOFF_NANOS, 
+                                      new CircuitBreaker(Clock.SYSTEM, CircuitBreaker.DEFAULT_FAILURE_THRESHOLD, OPEN_NANOS));
+    }
+    
+    /**
+     * awaitFault(Model model) - weitere Sollwerte (wie aus der GUI), 
+     * bis der sichere Zustand erreicht ist...
+     * @param model
+     * @return true, wenn der Zustand innerhalb TIMEOUT_MILLIS erreicht wurde
+     * @throws InterruptedException
+     */
+    private static boolean awaitFault(Model model) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        int value = 0;
+        while (!model.isFaulted())
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                return false;
+            }
+            value = (value + 1) % 40;
+            model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(value));
+        }
+        return true;
+    }
+    
+    /**
+     * await(Model model, boolean isFaulted) - Warten auf den Zustand...
+     * @param model
+     * @param isFaulted
+     * @return true, wenn der Zustand innerhalb TIMEOUT_MILLIS erreicht wurde
+     * @throws InterruptedException
+     */
+    private static boolean await(Model model, boolean isFaulted) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (model.isFaulted() != isFaulted)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+}
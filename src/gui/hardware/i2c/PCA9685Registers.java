@@ -0,0 +1,120 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * PCA9685Registers - Registeradressen und Bits des PWM-Bausteins PCA9685 
+ * (vgl. Datenblatt NXP PCA9685, Abschnitt 7.3).
+ * </p>
+ */
+public final class PCA9685Registers
+{
+    /**
+     * MODE1 = 0x00
+     */
+    public final static int MODE1 = 0x00;
+    
+    /**
+     * MODE2 = 0x01
+     */
+    public final static int MODE2 = 0x01;
+    
+    /**
+     * LED0_ON_L = 0x06 - erstes Register von Channel 0, je Channel 4 Register
+     * (ON_L, ON_H, OFF_L, OFF_H)
+     */
+    public final static int LED0_ON_L = 0x06;
+    
+    /**
+     * ALL_LED_ON_L = 0xFA - erstes der 4 Register fuer alle Channel
+     * (ALL_LED_ON_L ... ALL_LED_OFF_H)
+     */
+    public final static int ALL_LED_ON_L = 0xFA;
+    
+    /**
+     * ALL_LED_OFF_L = 0xFC
+     */
+    public final static int ALL_LED_OFF_L = 0xFC;
+    
+    /**
+     * ALL_LED_OFF_H = 0xFD - wirkt auf LEDn_OFF_H aller 16 Channel, 
+     * mit FULL_BIT: alle Ausgaenge voll aus (Not-Aus mit einem Zugriff)
+     */
+    public final static int ALL_LED_OFF_H = 0xFD;
+    
+    /**
+     * PRE_SCALE = 0xFE - Vorteiler der PWM-Frequenz
+     */
+    public final static int PRE_SCALE = 0xFE;
+    
+    /**
+     * MODE1_RESTART = 0x80
+     */
+    public final static int MODE1_RESTART = 0x80;
+    
+    /**
+     * MODE1_AI = 0x20 - Auto-Increment der Registeradresse
+     */
+    public final static int MODE1_AI = 0x20;
+    
+    /**
+     * MODE1_SLEEP = 0x10
+     */
+    public final static int MODE1_SLEEP = 0x10;
+    
+    /**
+     * FULL_BIT = 0x10 - Bit 4 in LEDn_ON_H (voll ein) bzw. LEDn_OFF_H (voll aus)
+     */
+    public final static int FULL_BIT = 0x10;
+    
+    /**
+     * OSCILLATOR_FREQUENCY = 25 MHz - interner Oszillator
+     */
+    public final static int OSCILLATOR_FREQUENCY = 25_000_000;
+    
+    /**
+     * STEPS = 4096 - Aufloesung der PWM (12 Bit)
+     */
+    public final static int STEPS = 4096;
+    
+    /**
+     * PCA9685Registers() - keine Instanzen...
+     */
+    private PCA9685Registers()
+    {
+    }
+    
+    /**
+     * ledOnL(int channel) - erstes Register des Channels...
+     * @param channel - 0...15
+     * @return Registeradresse LEDn_ON_L
+     */
+    public static int ledOnL(int channel)
+    {
+        return LED0_ON_L + 4 * channel;
+    }
+    
+    /**
+     * ledOffH(int channel)
+     * @param channel - 0...15
+     * @return Registeradresse LEDn_OFF_H
+     */
+    public static int ledOffH(int channel)
+    {
+        return LED0_ON_L + 4 * channel + 3;
+    }
+    
+    /**
+     * preScale(int frequency) - Vorteiler zur PWM-Frequenz...
+     * @param frequency - Frequenz in Hz
+     * @return Wert fuer PRE_SCALE
+     */
+    public static int preScale(int frequency)
+    {
+        return Math.round((float)OSCILLATOR_FREQUENCY/(STEPS * frequency)) - 1;
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+import gui.time.Clock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ResilientI2CDevice - I2CDevice mit begrenzten Wiederholungen und 
+ * Schutzschalter (Decorator um das eigentliche I2CDevice).
+ * </p>
+ * <p>
+ * Jeder Zugriff hat ein Zeitbudget (budgetNanos). Scheitert ein Versuch
+ * (IOException, z.B. NACK), wird nach einer Pause mit Jitter (exponentiell,
+ * "full jitter") bis zu maxRetries mal wiederholt, solange das Zeitbudget 
+ * nicht ueberschritten wird. Ein endgueltig gescheiterter Zugriff wird an 
+ * den {@link CircuitBreaker} gemeldet; ist dieser geoeffnet, werden Zugriffe
+ * sofort mit einer {@link BusUnavailableException} abgewiesen. Die Statistik
+ * wird in {@link BusHealth} gefuehrt.
+ * </p>
+ * <p>
+ * Damit kann z.B. der PCA9685 ueber 
+ * PCA9685.getInstance(new ResilientI2CDevice(i2cBus.getDevice(ADDRESS)))
+ * angesprochen werden.
+ * </p>
+ */
+public class ResilientI2CDevice implements I2CDevice
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(ResilientI2CDevice.class);
+    
+    /**
+     * DEFAULT_BUDGET_NANOS - Zeitbudget je Zugriff (5 ms)
+     */
+    public final static long DEFAULT_BUDGET_NANOS = 5_000_000L;
+    
+    /**
+     * DEFAULT_MAX_RETRIES = 3 - max. Anzahl der Wiederholungen
+     */
+    public final static int DEFAULT_MAX_RETRIES = 3;
+    
+    /**
+     * DEFAULT_BACKOFF_NANOS - Basis der Pause vor einer Wiederholung (200 us)
+     */
+    public final static long DEFAULT_BACKOFF_NANOS = 200_000L;
+    
+    /**
+     * Operation - ein Buszugriff...
+     */
+    private interface Operation
+    {
+        public int execute() throws IOException;
+    }
+    
+    /**
+     * delegate - das eigentliche I2CDevice
+     */
+    private final I2CDevice delegate;
+    
+    /**
+     * clock - Zeitbasis fuer das Zeitbudget
+     */
+    private final Clock clock;
+    
+    /**
+     * budgetNanos - Zeitbudget je Zugriff
+     */
+    private final long budgetNanos;
+    
+    /**
+     * maxRetries - max. Anzahl der Wiederholungen
+     */
+    private final int maxRetries;
+    
+    /**
+     * backoffNanos - Basis der Pause vor einer Wiederholung
+     */
+    private final long backoffNanos;
+    
+    /**
+     * circuitBreaker - Schutzschalter
+     */
+    private final CircuitBreaker circuitBreaker;
+    
+    /**
+     * busHealth - Statistik
+     */
+    private final BusHealth busHealth = new BusHealth();
+    
+    /**
+     * ResilientI2CDevice(I2CDevice delegate) - Default-Parameter...
+     * @param delegate
+     */
+    public ResilientI2CDevice(I2CDevice delegate)
+    {
+        this(delegate, Clock.SYSTEM, DEFAULT_BUDGET_NANOS, DEFAULT_MAX_RETRIES, DEFAULT_BACKOFF_NANOS, new CircuitBreaker());
+    }
+    
+    /**
+     * ResilientI2CDevice(...)
+     * @param delegate - das eigentliche I2CDevice
+     * @param clock - Zeitbasis
+     * @param budgetNanos - Zeitbudget je Zugriff
+     * @param maxRetries - max. Anzahl der Wiederholungen
+     * @param backoffNanos - Basis der Pause vor einer Wiederholung
+     * @param circuitBreaker - Schutzschalter
+     */
+    public ResilientI2CDevice(I2CDevice delegate, 
+                              Clock clock, 
+                              long budgetNanos, 
+                              int maxRetries, 
+                              long backoffNanos, 
+                              CircuitBreaker circuitBreaker)
+    {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.budgetNanos = budgetNanos;
+        this.maxRetries = maxRetries;
+        this.backoffNanos = backoffNanos;
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    /**
+     * execute(String name, Operation operation) - Zugriff mit Wiederholungen...
+     * @param name - Bezeichnung (Protokoll)
+     * @param operation
+     * @return Ergebnis der Operation
+     * @throws IOException - endgueltig gescheitert oder abgewiesen
+     */
+    private int execute(String name, Operation operation) throws IOException
+    {
+        this.busHealth.operation();
+        if (!this.circuitBreaker.allowRequest())
+        {
+            this.busHealth.rejected();
+            throw new BusUnavailableException(name + ": CircuitBreaker " + this.circuitBreaker.getState());
+        }
+        final long startNanos = this.clock.nanoTime();
+        final long deadline = startNanos + this.budgetNanos;
+        int attempt = 0;
+        while (true)
+        {
+            this.busHealth.attempt();
+            try
+            {
+                final int result = operation.execute();
+                this.busHealth.success(this.clock.nanoTime() - startNanos);
+                this.circuitBreaker.success();
+                return result;
+            }
+            catch (IOException exception)
+            {
+                this.busHealth.error();
+                // Pause mit "full jitter": 0 ... backoffNanos * 2^attempt
+                final long backoff = ThreadLocalRandom.current().nextLong((this.backoffNanos << Math.min(attempt, 16)) + 1L);
+                final long now = this.clock.nanoTime();
+                final boolean isBudgetLeft = (now + backoff) - deadline < 0L;
+                if (attempt >= this.maxRetries || !isBudgetLeft)
+                {
+                    if (!isBudgetLeft)
+                    {
+                        this.busHealth.budgetExceeded();
+                    }
+                    this.busHealth.failure();
+                    final String reason = name + ": " + (attempt + 1) + " Versuche, " + exception.getMessage();
+                    logger.warn("execute(): " + reason);
+                    this.circuitBreaker.failure(reason);
+                    throw exception;
+                }
+                attempt++;
+                this.busHealth.retry();
+                LockSupport.parkNanos(backoff);
+            }
+        }
+    }
+    
+    /**
+     * getBusHealth()
+     * @return Statistik
+     */
+    public BusHealth getBusHealth()
+    {
+        return this.busHealth;
+    }
+    
+    /**
+     * getCircuitBreaker()
+     * @return Schutzschalter
+     */
+    public CircuitBreaker getCircuitBreaker()
+    {
+        return this.circuitBreaker;
+    }
+    
+    /**
+     * getDelegate() - das eigentliche I2CDevice (z.B. fuer einen einzelnen,
+     * direkten Zugriff im sicheren Zustand)...
+     * @return delegate
+     */
+    public I2CDevice getDelegate()
+    {
+        return this.delegate;
+    }
+
+    @Override
+    public int getAddress()
+    {
+        return this.delegate.getAddress();
+    }
+
+    @Override
+    public void write(byte b) throws IOException
+    {
+        execute("write(b)", () -> { this.delegate.write(b); return 0; });
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int size) throws IOException
+    {
+        execute("write(buffer)", () -> { this.delegate.write(buffer, offset, size); return 0; });
+    }
+
+    @Override
+    public void write(byte[] buffer) throws IOException
+    {
+        execute("write(buffer)", () -> { this.delegate.write(buffer); return 0; });
+    }
+
+    @Override
+    public void write(int address, byte b) throws IOException
+    {
+        execute("write(address, b)", () -> { this.delegate.write(address, b); return 0; });
+    }
+
+    @Override
+    public void write(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        execute("write(address, buffer)", () -> { this.delegate.write(address, buffer, offset, size); return 0; });
+    }
+
+    @Override
+    public void write(int address, byte[] buffer) throws IOException
+    {
+        execute("write(address, buffer)", () -> { this.delegate.write(address, buffer); return 0; });
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return execute("read()", () -> this.delegate.read());
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int size) throws IOException
+    {
+        return execute("read(buffer)", () -> this.delegate.read(buffer, offset, size));
+    }
+
+    @Override
+    public int read(int address) throws IOException
+    {
+        return execute("read(address)", () -> this.delegate.read(address));
+    }
+
+    @Override
+    public int read(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        return execute("read(address, buffer)", () -> this.delegate.read(address, buffer, offset, size));
+    }
+
+    @Override
+    public void ioctl(long command, int value) throws IOException
+    {
+        execute("ioctl()", () -> { this.delegate.ioctl(command, value); return 0; });
+    }
+
+    @Override
+    public void ioctl(long command, ByteBuffer data, IntBuffer offsets) throws IOException
+    {
+        execute("ioctl()", () -> { this.delegate.ioctl(command, data, offsets); return 0; });
+    }
+
+    @Override
+    public int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException
+    {
+        return execute("read(writeBuffer, readBuffer)", 
+                       () -> this.delegate.read(writeBuffer, writeOffset, writeSize, readBuffer, readOffset, readSize));
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * 
+ */
+package gui.hardware.i2c;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulatedI2CDevice - I2C-Baustein ohne Hardware: 256 Register, 
+ * Mehrbyte-Zugriffe mit automatischem Adress-Inkrement (wie der 
+ * PCA9685 mit gesetztem AI-Bit). Schreibzugriffe auf ALL_LED_ON_L ... 
+ * ALL_LED_OFF_H wirken wie beim PCA9685 auf die Register aller 16 Channel.
+ * </p>
+ * <p>
+ * Verwendung z.B. fuer Tests des {@link ResilientI2CDevice} 
+ * (zusammen mit {@link FaultInjectingI2CDevice}) ohne Raspi.
+ * </p>
+ */
+public class SimulatedI2CDevice implements I2CDevice
+{
+    /**
+     * REGISTER_COUNT = 256
+     */
+    public final static int REGISTER_COUNT = 256;
+    
+    /**
+     * CHANNELS = 16 - PWM-Channel des PCA9685
+     */
+    private final static int CHANNELS = 16;
+    
+    /**
+     * address - Bus-Adresse
+     */
+    private final int address;
+    
+    /**
+     * registers - Registerinhalte
+     */
+    private final byte[] registers = new byte[REGISTER_COUNT];
+    
+    /**
+     * pointer - aktuelles Register (fuer Zugriffe ohne Registeradresse)
+     */
+    private int pointer = 0;
+    
+    /**
+     * writeCount - Anzahl der Schreibzugriffe
+     */
+    private long writeCount = 0L;
+    
+    /**
+     * SimulatedI2CDevice(int address)
+     * @param address - Bus-Adresse
+     */
+    public SimulatedI2CDevice(int address)
+    {
+        this.address = address;
+    }
+    
+    /**
+     * getRegister(int register) - Registerinhalt (0...255)
+     * @param register
+     * @return Inhalt
+     */
+    public synchronized int getRegister(int register)
+    {
+        return this.registers[register & 0xFF] & 0xFF;
+    }
+    
+    /**
+     * getWriteCount()
+     * @return Anzahl der Schreibzugriffe
+     */
+    public synchronized long getWriteCount()
+    {
+        return this.writeCount;
+    }
+
+    @Override
+    public int getAddress()
+    {
+        return this.address;
+    }
+
+    @Override
+    public synchronized void write(byte b) throws IOException
+    {
+        // Erstes Byte ohne Registeradresse setzt den Registerzeiger...
+        this.pointer = b & 0xFF;
+        this.writeCount++;
+    }
+
+    @Override
+    public synchronized void write(byte[] buffer, int offset, int size) throws IOException
+    {
+        if (size > 0)
+        {
+            write(buffer[offset] & 0xFF, buffer, offset + 1, size - 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] buffer) throws IOException
+    {
+        write(buffer, 0, buffer.length);
+    }
+
+    @Override
+    public synchronized void write(int address, byte b) throws IOException
+    {
+        store(address & 0xFF, b);
+        this.pointer = (address + 1) & 0xFF;
+        this.writeCount++;
+    }
+
+    @Override
+    public synchronized void write(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        for (int index = 0; index < size; index++)
+        {
+            store((address + index) & 0xFF, buffer[offset + index]);
+        }
+        this.pointer = (address + size) & 0xFF;
+        this.writeCount++;
+    }
+
+    /**
+     * store(int register, byte b) - ein Register schreiben, ALL_LED_xxx 
+     * zusaetzlich in alle Channel...
+     * @param register - 0...255
+     * @param b
+     */
+    private void store(int register, byte b)
+    {
+        this.registers[register] = b;
+        if (register >= PCA9685Registers.ALL_LED_ON_L && register <= PCA9685Registers.ALL_LED_OFF_H)
+        {
+            final int index = register - PCA9685Registers.ALL_LED_ON_L;
+            for (int channel = 0; channel < CHANNELS; channel++)
+            {
+                this.registers[PCA9685Registers.ledOnL(channel) + index] = b;
+            }
+        }
+    }
+
+    @Override
+    public void write(int address, byte[] buffer) throws IOException
+    {
+        write(address, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public synchronized int read() throws IOException
+    {
+        final int value = this.registers[this.pointer] & 0xFF;
+        this.pointer = (this.pointer + 1) & 0xFF;
+        return value;
+    }
+
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int size) throws IOException
+    {
+        return read(this.pointer, buffer, offset, size);
+    }
+
+    @Override
+    public synchronized int read(int address) throws IOException
+    {
+        this.pointer = (address + 1) & 0xFF;
+        return this.registers[address & 0xFF] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        for (int index = 0; index < size; index++)
+        {
+            buffer[offset + index] = this.registers[(address + index) & 0xFF];
+        }
+        this.pointer = (address + size) & 0xFF;
+        return size;
+    }
+
+    @Override
+    public void ioctl(long command, int value) throws IOException
+    {
+        throw new IOException("ioctl() wird nicht unterstuetzt.");
+    }
+
+    @Override
+    public void ioctl(long command, ByteBuffer data, IntBuffer offsets) throws IOException
+    {
+        throw new IOException("ioctl() wird nicht unterstuetzt.");
+    }
+
+    @Override
+    public synchronized int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException
+    {
+        // Schreibteil (Registeradresse, evtl. Daten), dann Lesen ab Registerzeiger...
+        write(writeBuffer, writeOffset, writeSize);
+        return read(this.pointer, readBuffer, readOffset, readSize);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.i2c.SimulatedI2CDevice[0x" + Integer.toHexString(this.address) + "]";
+    }
+}
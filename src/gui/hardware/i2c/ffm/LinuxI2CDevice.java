@@ -0,0 +1,522 @@
+/**
+ * 
+ */
+package gui.hardware.i2c.ffm;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+import gui.hardware.ffm.LibC;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LinuxI2CDevice - I2CDevice direkt ueber das Linux-Geraet /dev/i2c-N 
+ * (i2c-dev), ohne pi4j/JNI. Die Systemaufrufe open(), ioctl(), read(), 
+ * write() und close() der libc werden ueber die FFM-API (java.lang.foreign, 
+ * ab Java 22) aufgerufen (vgl. {@link LibC}).
+ * </p>
+ * <p>
+ * Alle Puffer (Daten, i2c_msg, i2c_rdwr_ioctl_data, errno) liegen einmalig 
+ * ausserhalb des Heaps, ein Schreibzugriff erzeugt keine Objekte. 
+ * Schreiben: Registeradresse und Daten in einem write(). Lesen ab Register: 
+ * ein ioctl(I2C_RDWR) mit zwei Nachrichten (Schreiben der Registeradresse, 
+ * Lesen mit Repeated Start).
+ * </p>
+ * <p>
+ * Ersatzgeraet: Lehnt das Geraet ioctl(I2C_SLAVE) mit ENOTTY ab (normale
+ * Datei oder FIFO), so wird es als Ersatzgeraet betrieben. Geschrieben wird 
+ * der Byte-Strom wie auf dem Bus (Registeradresse, Daten), gelesen wird 
+ * nach dem Schreiben der Registeradresse mit read(). 
+ * Damit ist der Test auf einem normalen Linux-Rechner moeglich.
+ * </p>
+ * <p>
+ * Start der JVM mit --enable-native-access=ALL-UNNAMED (sonst Warnung).
+ * </p>
+ */
+public class LinuxI2CDevice implements I2CDevice, Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(LinuxI2CDevice.class);
+    
+    /**
+     * I2C_SLAVE = 0x0703 - ioctl: Slave-Adresse setzen (linux/i2c-dev.h)
+     */
+    public final static long I2C_SLAVE = 0x0703L;
+    
+    /**
+     * I2C_RDWR = 0x0707 - ioctl: kombinierte Uebertragung (linux/i2c-dev.h)
+     */
+    public final static long I2C_RDWR = 0x0707L;
+    
+    /**
+     * I2C_M_RD = 0x0001 - Flag einer i2c_msg: Lesen
+     */
+    private final static short I2C_M_RD = 0x0001;
+    
+    /**
+     * MAX_TRANSFER = 257 - max. Laenge einer Uebertragung (Register + 256 Byte)
+     */
+    public final static int MAX_TRANSFER = 257;
+    
+    /**
+     * I2C_MSG - struct i2c_msg { __u16 addr; __u16 flags; __u16 len; __u8 *buf; }
+     */
+    private final static StructLayout I2C_MSG = MemoryLayout.structLayout(JAVA_SHORT.withName("addr"),
+                                                                         JAVA_SHORT.withName("flags"),
+                                                                         JAVA_SHORT.withName("len"),
+                                                                         MemoryLayout.paddingLayout(2),
+                                                                         ADDRESS.withName("buf"));
+    
+    /**
+     * I2C_RDWR_DATA - struct i2c_rdwr_ioctl_data { struct i2c_msg *msgs; __u32 nmsgs; }
+     */
+    private final static StructLayout I2C_RDWR_DATA = MemoryLayout.structLayout(ADDRESS.withName("msgs"),
+                                                                               JAVA_INT.withName("nmsgs"),
+                                                                               MemoryLayout.paddingLayout(4));
+    
+    /**
+     * Offsets innerhalb der Strukturen...
+     */
+    private final static long MSG_ADDR = I2C_MSG.byteOffset(MemoryLayout.PathElement.groupElement("addr"));
+    private final static long MSG_FLAGS = I2C_MSG.byteOffset(MemoryLayout.PathElement.groupElement("flags"));
+    private final static long MSG_LEN = I2C_MSG.byteOffset(MemoryLayout.PathElement.groupElement("len"));
+    private final static long MSG_BUF = I2C_MSG.byteOffset(MemoryLayout.PathElement.groupElement("buf"));
+    private final static long RDWR_MSGS = I2C_RDWR_DATA.byteOffset(MemoryLayout.PathElement.groupElement("msgs"));
+    private final static long RDWR_NMSGS = I2C_RDWR_DATA.byteOffset(MemoryLayout.PathElement.groupElement("nmsgs"));
+    
+    /**
+     * path - Geraetedatei, z.B. /dev/i2c-1
+     */
+    private final String path;
+    
+    /**
+     * address - Slave-Adresse
+     */
+    private final int address;
+    
+    /**
+     * arena - Lebensdauer der Puffer (shared: Zugriffe aus GUI und Takt)
+     */
+    private final Arena arena;
+    
+    /**
+     * transmit - Puffer Schreibteil (Registeradresse und Daten)
+     */
+    private final MemorySegment transmit;
+    
+    /**
+     * receive - Puffer Leseteil
+     */
+    private final MemorySegment receive;
+    
+    /**
+     * messages - zwei struct i2c_msg fuer I2C_RDWR
+     */
+    private final MemorySegment messages;
+    
+    /**
+     * rdwrData - struct i2c_rdwr_ioctl_data
+     */
+    private final MemorySegment rdwrData;
+    
+    /**
+     * callState - errno des letzten Aufrufes
+     */
+    private final MemorySegment callState;
+    
+    /**
+     * fileDescriptor - Ergebnis von open()
+     */
+    private final int fileDescriptor;
+    
+    /**
+     * isStandIn - Ersatzgeraet (Datei, FIFO) ohne I2C-ioctl
+     */
+    private final boolean isStandIn;
+    
+    /**
+     * isClosed - nach close() keine Zugriffe mehr
+     */
+    private boolean isClosed = false;
+    
+    /**
+     * LinuxI2CDevice(int busNumber, int address) - Geraet /dev/i2c-busNumber...
+     * @param busNumber - z.B. 1 (I2CBus.BUS_1)
+     * @param address - Slave-Adresse, z.B. 0x40
+     * @throws IOException
+     */
+    public LinuxI2CDevice(int busNumber, int address) throws IOException
+    {
+        this("/dev/i2c-" + busNumber, address);
+    }
+    
+    /**
+     * LinuxI2CDevice(String path, int address)
+     * @param path - Geraetedatei (oder Ersatzgeraet: Datei, FIFO)
+     * @param address - Slave-Adresse
+     * @throws IOException
+     */
+    public LinuxI2CDevice(String path, int address) throws IOException
+    {
+        this.path = path;
+        this.address = address;
+        this.arena = Arena.ofShared();
+        this.transmit = this.arena.allocate(MAX_TRANSFER, 8);
+        this.receive = this.arena.allocate(MAX_TRANSFER, 8);
+        this.messages = this.arena.allocate(2 * I2C_MSG.byteSize(), I2C_MSG.byteAlignment());
+        this.rdwrData = this.arena.allocate(I2C_RDWR_DATA.byteSize(), I2C_RDWR_DATA.byteAlignment());
+        this.callState = LibC.allocateCallState(this.arena);
+        
+        // Die beiden Nachrichten fuer I2C_RDWR sind bis auf die Laengen fest...
+        this.messages.set(JAVA_SHORT, MSG_ADDR, (short)address);
+        this.messages.set(JAVA_SHORT, MSG_FLAGS, (short)0);
+        this.messages.set(ADDRESS, MSG_BUF, this.transmit);
+        this.messages.set(JAVA_SHORT, I2C_MSG.byteSize() + MSG_ADDR, (short)address);
+        this.messages.set(JAVA_SHORT, I2C_MSG.byteSize() + MSG_FLAGS, I2C_M_RD);
+        this.messages.set(ADDRESS, I2C_MSG.byteSize() + MSG_BUF, this.receive);
+        this.rdwrData.set(ADDRESS, RDWR_MSGS, this.messages);
+        this.rdwrData.set(JAVA_INT, RDWR_NMSGS, 2);
+        
+        final MemorySegment pathSegment = LibC.allocateString(this.arena, path);
+        final int fd;
+        try
+        {
+            fd = (int)LibC.OPEN.invokeExact(this.callState, pathSegment, LibC.O_RDWR | LibC.O_CLOEXEC);
+        }
+        catch (Throwable throwable)
+        {
+            this.arena.close();
+            throw new IOException("open(" + path + "): " + throwable, throwable);
+        }
+        if (fd < 0)
+        {
+            final int errno = errno();
+            this.arena.close();
+            throw new IOException("open(" + path + "): errno=" + errno);
+        }
+        this.fileDescriptor = fd;
+        
+        final int result = ioctlValue(I2C_SLAVE, address);
+        if (result < 0 && errno() == LibC.ENOTTY)
+        {
+            logger.info(path + " ist kein i2c-dev-Geraet, Betrieb als Ersatzgeraet.");
+            this.isStandIn = true;
+        }
+        else if (result < 0)
+        {
+            final int errno = errno();
+            LibC.closeQuietly(fd);
+            this.arena.close();
+            throw new IOException("ioctl(" + path + ", I2C_SLAVE, 0x" + Integer.toHexString(address) + "): errno=" + errno);
+        }
+        else
+        {
+            this.isStandIn = false;
+        }
+    }
+    
+    /**
+     * isStandIn() - Ersatzgeraet (Datei, FIFO)?
+     * @return true, wenn ohne I2C-ioctl betrieben
+     */
+    public boolean isStandIn()
+    {
+        return this.isStandIn;
+    }
+    
+    /**
+     * errno() - errno des letzten Aufrufes
+     * @return errno
+     */
+    private int errno()
+    {
+        return LibC.errno(this.callState);
+    }
+    
+    /**
+     * ioctlValue(long request, long value) - ioctl mit Wert-Argument
+     * @param request
+     * @param value
+     * @return Ergebnis (&lt; 0: Fehler, vgl. errno())
+     * @throws IOException
+     */
+    private int ioctlValue(long request, long value) throws IOException
+    {
+        try
+        {
+            return (int)LibC.IOCTL_VALUE.invokeExact(this.callState, this.fileDescriptor, request, value);
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("ioctl(): " + throwable, throwable);
+        }
+    }
+    
+    /**
+     * transmit(int size) - size Byte aus transmit in einem write()...
+     * @param size
+     * @throws IOException
+     */
+    private void transmit(int size) throws IOException
+    {
+        checkOpen();
+        final long written;
+        try
+        {
+            written = (long)LibC.WRITE.invokeExact(this.callState, this.fileDescriptor, this.transmit, (long)size);
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("write(): " + throwable, throwable);
+        }
+        if (written != size)
+        {
+            throw new IOException("write(" + this.path + "): " + written + " von " + size + " Byte, errno=" + ((written < 0)? errno() : 0));
+        }
+    }
+    
+    /**
+     * receive(int size) - size Byte nach receive in einem read()...
+     * @param size
+     * @throws IOException
+     */
+    private void receive(int size) throws IOException
+    {
+        checkOpen();
+        final long read;
+        try
+        {
+            read = (long)LibC.READ.invokeExact(this.callState, this.fileDescriptor, this.receive, (long)size);
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("read(): " + throwable, throwable);
+        }
+        if (read != size)
+        {
+            throw new IOException("read(" + this.path + "): " + read + " von " + size + " Byte, errno=" + ((read < 0)? errno() : 0));
+        }
+    }
+    
+    /**
+     * transfer(int writeSize, int readSize) - Schreiben aus transmit, dann 
+     * Lesen nach receive mit Repeated Start (ein ioctl(I2C_RDWR))...
+     * @param writeSize
+     * @param readSize
+     * @throws IOException
+     */
+    private void transfer(int writeSize, int readSize) throws IOException
+    {
+        if (this.isStandIn)
+        {
+            transmit(writeSize);
+            receive(readSize);
+            return;
+        }
+        checkOpen();
+        this.messages.set(JAVA_SHORT, MSG_LEN, (short)writeSize);
+        this.messages.set(JAVA_SHORT, I2C_MSG.byteSize() + MSG_LEN, (short)readSize);
+        final int result;
+        try
+        {
+            result = (int)LibC.IOCTL_POINTER.invokeExact(this.callState, this.fileDescriptor, I2C_RDWR, this.rdwrData);
+        }
+        catch (Throwable throwable)
+        {
+            throw new IOException("ioctl(I2C_RDWR): " + throwable, throwable);
+        }
+        if (result < 0)
+        {
+            throw new IOException("ioctl(" + this.path + ", I2C_RDWR): errno=" + errno());
+        }
+    }
+    
+    /**
+     * checkOpen()
+     * @throws IOException - nach close()
+     */
+    private void checkOpen() throws IOException
+    {
+        if (this.isClosed)
+        {
+            throw new IOException(this.path + " ist geschlossen.");
+        }
+    }
+    
+    /**
+     * checkSize(int size, int max)
+     * @param size
+     * @param max
+     */
+    private static void checkSize(int size, int max)
+    {
+        if (size < 0 || size > max)
+        {
+            throw new IllegalArgumentException("Laenge " + size + " ausserhalb 0 ... " + max);
+        }
+    }
+
+    @Override
+    public int getAddress()
+    {
+        return this.address;
+    }
+
+    @Override
+    public synchronized void write(byte b) throws IOException
+    {
+        this.transmit.set(JAVA_BYTE, 0L, b);
+        transmit(1);
+    }
+
+    @Override
+    public synchronized void write(byte[] buffer, int offset, int size) throws IOException
+    {
+        checkSize(size, MAX_TRANSFER);
+        MemorySegment.copy(buffer, offset, this.transmit, JAVA_BYTE, 0L, size);
+        transmit(size);
+    }
+
+    @Override
+    public void write(byte[] buffer) throws IOException
+    {
+        write(buffer, 0, buffer.length);
+    }
+
+    @Override
+    public synchronized void write(int address, byte b) throws IOException
+    {
+        this.transmit.set(JAVA_BYTE, 0L, (byte)address);
+        this.transmit.set(JAVA_BYTE, 1L, b);
+        transmit(2);
+    }
+
+    @Override
+    public synchronized void write(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        checkSize(size, MAX_TRANSFER - 1);
+        this.transmit.set(JAVA_BYTE, 0L, (byte)address);
+        MemorySegment.copy(buffer, offset, this.transmit, JAVA_BYTE, 1L, size);
+        transmit(size + 1);
+    }
+
+    @Override
+    public void write(int address, byte[] buffer) throws IOException
+    {
+        write(address, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public synchronized int read() throws IOException
+    {
+        receive(1);
+        return this.receive.get(JAVA_BYTE, 0L) & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int size) throws IOException
+    {
+        checkSize(size, MAX_TRANSFER);
+        receive(size);
+        MemorySegment.copy(this.receive, JAVA_BYTE, 0L, buffer, offset, size);
+        return size;
+    }
+
+    @Override
+    public synchronized int read(int address) throws IOException
+    {
+        this.transmit.set(JAVA_BYTE, 0L, (byte)address);
+        transfer(1, 1);
+        return this.receive.get(JAVA_BYTE, 0L) & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(int address, byte[] buffer, int offset, int size) throws IOException
+    {
+        checkSize(size, MAX_TRANSFER);
+        this.transmit.set(JAVA_BYTE, 0L, (byte)address);
+        transfer(1, size);
+        MemorySegment.copy(this.receive, JAVA_BYTE, 0L, buffer, offset, size);
+        return size;
+    }
+
+    @Override
+    public synchronized void ioctl(long command, int value) throws IOException
+    {
+        checkOpen();
+        if (ioctlValue(command, value) < 0)
+        {
+            throw new IOException("ioctl(" + this.path + ", 0x" + Long.toHexString(command) + "): errno=" + errno());
+        }
+    }
+
+    @Override
+    public void ioctl(long command, ByteBuffer data, IntBuffer offsets) throws IOException
+    {
+        throw new IOException("ioctl() mit Puffern wird nicht unterstuetzt.");
+    }
+
+    @Override
+    public synchronized int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException
+    {
+        checkSize(writeSize, MAX_TRANSFER);
+        checkSize(readSize, MAX_TRANSFER);
+        MemorySegment.copy(writeBuffer, writeOffset, this.transmit, JAVA_BYTE, 0L, writeSize);
+        transfer(writeSize, readSize);
+        MemorySegment.copy(this.receive, JAVA_BYTE, 0L, readBuffer, readOffset, readSize);
+        return readSize;
+    }
+    
+    /**
+     * close() - Geraet schliessen, Puffer freigeben...
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.isClosed)
+        {
+            return;
+        }
+        this.isClosed = true;
+        try
+        {
+            final int result = (int)LibC.CLOSE.invokeExact(this.fileDescriptor);
+            if (result < 0)
+            {
+                logger.warn("close(" + this.path + ") gescheitert.");
+            }
+        }
+        catch (Throwable throwable)
+        {
+            logger.error("close(): " + throwable, throwable);
+        }
+        this.arena.close();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.hardware.i2c.ffm.LinuxI2CDevice[" + this.path + ", 0x" + Integer.toHexString(this.address) 
+                + (this.isStandIn? ", Ersatzgeraet" : "") + "]";
+    }
+}
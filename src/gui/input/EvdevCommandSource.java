@@ -0,0 +1,525 @@
+/**
+ * 
+ */
+package gui.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.Model;
+import gui.trace.Trace;
+import gui.trace.TraceStage;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * EvdevCommandSource - Vorgabe von Servo- und Motor-Sollwert ueber ein
+ * Linux-Eingabegeraet (evdev, /dev/input/event*), z.B. Gamepad oder Tastatur.
+ * </p>
+ * <p>
+ * Die Events (struct input_event) werden ueber einen FileChannel in einen 
+ * wiederverwendeten, direkten ByteBuffer gelesen und ohne Objekt-Erzeugung 
+ * dekodiert:
+ * </p>
+ * <pre>
+ *   struct input_event {
+ *       struct timeval time;   // 2 x long (32 Bit: 8 Byte, 64 Bit: 16 Byte)
+ *       __u16 type;
+ *       __u16 code;
+ *       __s32 value;
+ *   };
+ * </pre>
+ * <p>
+ * Achsen (EV_ABS) und Tasten (EV_KEY) werden gesammelt und mit jedem 
+ * SYN_REPORT direkt (ohne Swing) per Model.setProperty() uebertragen, 
+ * nur bei geaenderten Werten. Zum Test kann statt des Geraetes eine 
+ * aufgezeichnete Event-Datei oder ein FIFO angegeben werden; am Dateiende
+ * (bzw. wenn der Schreiber des FIFO schliesst) endet der Lauf.
+ * </p>
+ */
+public class EvdevCommandSource implements Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(EvdevCommandSource.class);
+    
+    /**
+     * Event-Typen (linux/input-event-codes.h)...
+     */
+    public final static int EV_SYN = 0x00;
+    public final static int EV_KEY = 0x01;
+    public final static int EV_ABS = 0x03;
+    
+    /**
+     * SYN_REPORT - Abschluss eines Event-Paketes
+     */
+    public final static int SYN_REPORT = 0;
+    
+    /**
+     * Achsen...
+     */
+    public final static int ABS_X = 0x00;
+    public final static int ABS_Y = 0x01;
+    
+    /**
+     * Tasten (Tastatur)...
+     */
+    public final static int KEY_SPACE = 57;
+    public final static int KEY_UP = 103;
+    public final static int KEY_LEFT = 105;
+    public final static int KEY_RIGHT = 106;
+    public final static int KEY_DOWN = 108;
+    
+    /**
+     * EVENT_SIZE_32 = 16 - Groesse struct input_event bei 32-Bit-Userland (Raspbian)
+     */
+    public final static int EVENT_SIZE_32 = 16;
+    
+    /**
+     * EVENT_SIZE_64 = 24 - Groesse struct input_event bei 64-Bit-Userland
+     */
+    public final static int EVENT_SIZE_64 = 24;
+    
+    /**
+     * EVENTS_PER_READ = 64 - max. Anzahl der Events je read()
+     */
+    public final static int EVENTS_PER_READ = 64;
+    
+    /**
+     * DEFAULT_AXIS_MIN, DEFAULT_AXIS_MAX - Wertebereich der Achsen (typ. Gamepad)
+     */
+    public final static int DEFAULT_AXIS_MIN = 0;
+    public final static int DEFAULT_AXIS_MAX = 255;
+    
+    /**
+     * DEFAULT_DEAD_ZONE = 0.05f - Totzone um die Mittelstellung (relativ)
+     */
+    public final static float DEFAULT_DEAD_ZONE = 0.05f;
+    
+    /**
+     * KEY_STEP = 5 - Schrittweite je Tastendruck (GUI-Einheiten)
+     */
+    public final static int KEY_STEP = 5;
+    
+    /**
+     * SERVO_MAX - Endwert Servo (Model.SERVO_MAX_VALUE)
+     */
+    private final static int SERVO_MAX = Integer.parseInt(Model.SERVO_MAX_VALUE);
+    
+    /**
+     * MOTOR_MAX - Endwert Motor (Model.MOTOR_MAX_VALUE)
+     */
+    private final static int MOTOR_MAX = Integer.parseInt(Model.MOTOR_MAX_VALUE);
+    
+    /**
+     * path - Geraet, Datei oder FIFO
+     */
+    private final Path path;
+    
+    /**
+     * model - nimmt die Sollwerte auf
+     */
+    private final Model model;
+    
+    /**
+     * eventSize - Groesse von struct input_event (16 oder 24)
+     */
+    private final int eventSize;
+    
+    /**
+     * axisMin, axisMax - Wertebereich der Achsen
+     */
+    private final int axisMin;
+    private final int axisMax;
+    
+    /**
+     * deadZone - Totzone um die Mittelstellung (relativ, 0.0 ... 1.0)
+     */
+    private final float deadZone;
+    
+    /**
+     * buffer - wiederverwendeter Lesepuffer (direkt, native Byte-Reihenfolge)
+     */
+    private final ByteBuffer buffer;
+    
+    /**
+     * isRunning - Flag...
+     */
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    
+    /**
+     * worker - Lese-Thread
+     */
+    private Thread worker;
+    
+    /**
+     * channel - geoeffneter Kanal (zum Abbruch durch stop())
+     */
+    private volatile FileChannel channel;
+    
+    /**
+     * servoValue, motorValue - aktuelle Sollwerte der Quelle
+     */
+    private int servoValue = Integer.parseInt(Model.SERVO_NULL_VALUE);
+    private int motorValue = Integer.parseInt(Model.MOTOR_NULL_VALUE);
+    
+    /**
+     * appliedServoValue, appliedMotorValue - zuletzt uebertragene Sollwerte
+     */
+    private int appliedServoValue = servoValue;
+    private int appliedMotorValue = motorValue;
+    
+    /**
+     * eventCount - Anzahl der dekodierten Events
+     */
+    private volatile long eventCount = 0L;
+    
+    /**
+     * reportCount - Anzahl der SYN_REPORTs
+     */
+    private volatile long reportCount = 0L;
+    
+    /**
+     * EvdevCommandSource(Path path, Model model) - Default-Parameter, Groesse
+     * der Events aus der Architektur...
+     * @param path - Geraet, Datei oder FIFO
+     * @param model
+     */
+    public EvdevCommandSource(Path path, Model model)
+    {
+        this(path, model, defaultEventSize(), DEFAULT_AXIS_MIN, DEFAULT_AXIS_MAX, DEFAULT_DEAD_ZONE);
+    }
+    
+    /**
+     * EvdevCommandSource(...)
+     * @param path - Geraet, Datei oder FIFO
+     * @param model - nimmt die Sollwerte auf
+     * @param eventSize - EVENT_SIZE_32 oder EVENT_SIZE_64
+     * @param axisMin - Minimum der Achsen
+     * @param axisMax - Maximum der Achsen
+     * @param deadZone - Totzone (relativ)
+     */
+    public EvdevCommandSource(Path path, Model model, int eventSize, int axisMin, int axisMax, float deadZone)
+    {
+        if (eventSize != EVENT_SIZE_32 && eventSize != EVENT_SIZE_64)
+        {
+            throw new IllegalArgumentException("eventSize: " + eventSize);
+        }
+        if (axisMax <= axisMin)
+        {
+            throw new IllegalArgumentException("axisMax <= axisMin: " + axisMax + " <= " + axisMin);
+        }
+        this.path = path;
+        this.model = model;
+        this.eventSize = eventSize;
+        this.axisMin = axisMin;
+        this.axisMax = axisMax;
+        this.deadZone = deadZone;
+        this.buffer = ByteBuffer.allocateDirect(EVENTS_PER_READ * eventSize).order(ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * defaultEventSize() - 64-Bit-Architektur => 24 Byte, sonst 16 Byte...
+     * @return Groesse von struct input_event
+     */
+    public static int defaultEventSize()
+    {
+        final String dataModel = System.getProperty("sun.arch.data.model", "");
+        final String osArch = System.getProperty("os.arch", "").toLowerCase();
+        final boolean is64 = "64".equals(dataModel) || osArch.contains("64");
+        return is64? EVENT_SIZE_64 : EVENT_SIZE_32;
+    }
+    
+    /**
+     * start() - Lesen im eigenen Thread...
+     */
+    public void start()
+    {
+        this.worker = new Thread(this, "EvdevCommandSource");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    /**
+     * stop() - Lesen beenden, ein blockierendes read() wird durch
+     * Schliessen des Kanals abgebrochen...
+     */
+    public void stop()
+    {
+        this.isRunning.set(false);
+        final FileChannel channel = this.channel;
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException exception)
+            {
+                logger.error("stop(): " + exception, exception);
+            }
+        }
+    }
+    
+    @Override
+    public void run()
+    {
+        logger.debug("run(): " + this.path);
+        this.isRunning.set(true);
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ))
+        {
+            this.channel = channel;
+            this.buffer.clear();
+            while (this.isRunning.get())
+            {
+                final int count = channel.read(this.buffer);
+                if (count < 0)
+                {
+                    // Dateiende bzw. FIFO vom Schreiber geschlossen...
+                    logger.info("run(): Ende von " + this.path);
+                    break;
+                }
+                this.buffer.flip();
+                while (this.buffer.remaining() >= this.eventSize)
+                {
+                    decode(this.buffer.position());
+                    this.buffer.position(this.buffer.position() + this.eventSize);
+                }
+                // Angebrochenes Event (Datei, FIFO) fuer das naechste read() aufheben...
+                this.buffer.compact();
+            }
+        }
+        catch (ClosedChannelException exception)
+        {
+            // stop()...
+            logger.debug("run(): Kanal geschlossen.");
+        }
+        catch (IOException exception)
+        {
+            logger.error("IOException in run(): " + this.path, exception);
+        }
+        finally
+        {
+            this.channel = null;
+            this.isRunning.set(false);
+        }
+    }
+    
+    /**
+     * decode(int offset) - Dekodieren eines Events ab offset (absolut, ohne 
+     * Objekt-Erzeugung)...
+     * @param offset
+     */
+    private void decode(int offset)
+    {
+        final int typeOffset = offset + this.eventSize - 8;
+        final int type = this.buffer.getShort(typeOffset) & 0xFFFF;
+        final int code = this.buffer.getShort(typeOffset + 2) & 0xFFFF;
+        final int value = this.buffer.getInt(typeOffset + 4);
+        this.eventCount++;
+        
+        switch (type)
+        {
+            case EV_ABS:
+                onAxis(code, value);
+                break;
+            case EV_KEY:
+                onKey(code, value);
+                break;
+            case EV_SYN:
+                if (code == SYN_REPORT)
+                {
+                    this.reportCount++;
+                    apply();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * onAxis(int code, int value) - ABS_X => Servo, ABS_Y => Motor 
+     * (nach oben: vorwaerts, Betrag)...
+     */
+    private void onAxis(int code, int value)
+    {
+        final float center = (this.axisMin + this.axisMax)/2.0f;
+        final float halfRange = (this.axisMax - this.axisMin)/2.0f;
+        float relValue = (value - center)/halfRange;
+        relValue = Math.max(-1.0f, Math.min(1.0f, relValue));
+        if (Math.abs(relValue) < this.deadZone)
+        {
+            relValue = 0.0f;
+        }
+        if (code == ABS_X)
+        {
+            this.servoValue = Math.round(relValue * SERVO_MAX);
+        }
+        else if (code == ABS_Y)
+        {
+            // Achse nach oben (kleine Werte) => Motor...
+            this.motorValue = Math.round(Math.max(0.0f, -relValue) * MOTOR_MAX);
+        }
+    }
+    
+    /**
+     * onKey(int code, int value) - Pfeiltasten in Schritten, Leertaste => Stop...
+     * <p>
+     * value: 1 - gedrueckt, 2 - Wiederholung, 0 - losgelassen
+     * </p>
+     */
+    private void onKey(int code, int value)
+    {
+        if (value == 0)
+        {
+            return;
+        }
+        switch (code)
+        {
+            case KEY_LEFT:
+                this.servoValue = Math.max(-SERVO_MAX, this.servoValue - KEY_STEP);
+                break;
+            case KEY_RIGHT:
+                this.servoValue = Math.min(SERVO_MAX, this.servoValue + KEY_STEP);
+                break;
+            case KEY_UP:
+                this.motorValue = Math.min(MOTOR_MAX, this.motorValue + KEY_STEP);
+                break;
+            case KEY_DOWN:
+                this.motorValue = Math.max(0, this.motorValue - KEY_STEP);
+                break;
+            case KEY_SPACE:
+                this.servoValue = 0;
+                this.motorValue = 0;
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * apply() - geaenderte Sollwerte an das Model (mit Trace)...
+     * <p>
+     * Aendern sich Servo und Motor im selben Report (z.B. KEY_SPACE), 
+     * werden beide als {@link gui.PropertyBatch} mit einem Schreibzugriff 
+     * auf die Stellglieder uebernommen.
+     * </p>
+     * <p>
+     * Anm.: Integer.valueOf() liefert im Wertebereich -128...127 
+     * gecachte Instanzen.
+     * </p>
+     */
+    private void apply()
+    {
+        final boolean isServoChanged = (this.servoValue != this.appliedServoValue);
+        final boolean isMotorChanged = (this.motorValue != this.appliedMotorValue);
+        if (!isServoChanged && !isMotorChanged)
+        {
+            return;
+        }
+        this.appliedServoValue = this.servoValue;
+        this.appliedMotorValue = this.motorValue;
+        final Trace trace = Trace.begin();
+        trace.mark(TraceStage.Controller);
+        if (isServoChanged && isMotorChanged)
+        {
+            this.model.batch()
+                      .set(Model.DATA_SERVO_KEY, Integer.valueOf(this.servoValue))
+                      .set(Model.DATA_MOTOR_KEY, Integer.valueOf(this.motorValue))
+                      .commit(trace);
+        }
+        else if (isServoChanged)
+        {
+            this.model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(this.servoValue), trace);
+        }
+        else
+        {
+            this.model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(this.motorValue), trace);
+        }
+    }
+    
+    /**
+     * isRunning()
+     * @return true, solange gelesen wird
+     */
+    public boolean isRunning()
+    {
+        return this.isRunning.get();
+    }
+    
+    /**
+     * join(long millis) - Warten auf das Ende des Lese-Thread...
+     * @param millis
+     * @throws InterruptedException
+     */
+    public void join(long millis) throws InterruptedException
+    {
+        final Thread worker = this.worker;
+        if (worker != null)
+        {
+            worker.join(millis);
+        }
+    }
+
+    /**
+     * @return the eventCount
+     */
+    public final long getEventCount()
+    {
+        return this.eventCount;
+    }
+
+    /**
+     * @return the reportCount
+     */
+    public final long getReportCount()
+    {
+        return this.reportCount;
+    }
+    
+    /**
+     * main() - Test gegen ein Geraet, eine aufgezeichnete Datei oder ein FIFO 
+     * ohne Hardware...
+     * <p>
+     * Aufruf: java gui.input.EvdevCommandSource &lt;Pfad&gt; [16|24]
+     * </p>
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Aufruf: java gui.input.EvdevCommandSource <Pfad> [16|24]");
+            return;
+        }
+        final Model model = new Model(gui.hardware.Actuator.NONE);
+        final int eventSize = (args.length > 1)? Integer.parseInt(args[1]) : defaultEventSize();
+        final EvdevCommandSource source = new EvdevCommandSource(Paths.get(args[0]), model, 
+                                                                 eventSize, DEFAULT_AXIS_MIN, DEFAULT_AXIS_MAX, DEFAULT_DEAD_ZONE);
+        model.addPropertyChangeListener(new java.beans.PropertyChangeListener()
+        {
+            @Override
+            public void propertyChange(java.beans.PropertyChangeEvent event)
+            {
+                System.out.println(event.getPropertyName() + ": " + event.getOldValue() + " => " + event.getNewValue());
+            }
+        });
+        final long startNanos = System.nanoTime();
+        source.run();
+        final double seconds = (System.nanoTime() - startNanos)/1.0e9;
+        System.out.println(String.format("%d Events, %d Reports in %.3f s", source.getEventCount(), source.getReportCount(), seconds));
+        System.out.print(model.getLatencyTracer());
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package gui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ActuatorWriteEvent - ein Schreibzugriff auf die Stellglieder, Dauer des
+ * Events ist die Laufzeit des Zugriffs (I2C bzw. GPIO).
+ * </p>
+ * <ul>
+ *  <li>PCA9685: channel ist der erste geschriebene Channel, channels die
+ *      Anzahl (Not-Aus ueber ALL_LED: channel -1, channels 0), value Servo-Wert bzw. Einschaltdauer des
+ *      ersten Channels</li>
+ *  <li>GPIO: Richtungs-Pins, channel 0, channels 2, value Bit 0 = PIN_MA,
+ *      Bit 1 = PIN_MB</li>
+ * </ul>
+ */
+@Name("picar.ActuatorWrite")
+@Label("Actuator Write")
+@Category({"PiCar", "Hardware"})
+@Description("Schreibzugriff auf PCA9685 bzw. GPIO")
+@StackTrace(false)
+public class ActuatorWriteEvent extends jdk.jfr.Event
+{
+    /**
+     * PCA9685 = "PCA9685", GPIO = "GPIO" - Werte fuer device
+     */
+    public final static String PCA9685 = "PCA9685";
+    public final static String GPIO = "GPIO";
+
+    /**
+     * device - PCA9685 oder GPIO
+     */
+    @Label("Device")
+    public String device;
+
+    /**
+     * channel - erster Channel, -1: ALL_LED
+     */
+    @Label("Channel")
+    public int channel;
+
+    /**
+     * channels - Anzahl der Channel, 0: alle
+     */
+    @Label("Channels")
+    public int channels;
+
+    /**
+     * value - geschriebener Wert
+     */
+    @Label("Value")
+    public int value;
+}
@@ -0,0 +1,62 @@
+/**
+ *
+ */
+package gui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ControlCycleEvent - eine Ausfuehrung einer Aufgabe der Steuerung
+ * (TaskExecutive, z.B. Takt, Servo, Motor, GUI). Dauer des Events ist die
+ * Rechenzeit, zusaetzlich Verspaetung gegenueber der Freigabe und
+ * Terminverletzung (Antwortzeit laenger als die Periode).
+ * </p>
+ */
+@Name("picar.ControlCycle")
+@Label("Control Cycle")
+@Category({"PiCar", "Steuerung"})
+@Description("Ausfuehrung einer periodischen Aufgabe der Steuerung")
+@StackTrace(false)
+public class ControlCycleEvent extends jdk.jfr.Event
+{
+    /**
+     * task - Name der Aufgabe
+     */
+    @Label("Task")
+    public String task;
+
+    /**
+     * periodNanos - Periode der Aufgabe
+     */
+    @Label("Period")
+    @Timespan(Timespan.NANOSECONDS)
+    public long periodNanos;
+
+    /**
+     * releaseDelayNanos - Beginn nach der Freigabe
+     */
+    @Label("Release Delay")
+    @Timespan(Timespan.NANOSECONDS)
+    public long releaseDelayNanos;
+
+    /**
+     * responseNanos - Freigabe bis Ende
+     */
+    @Label("Response Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long responseNanos;
+
+    /**
+     * overrun - Termin (Ende der Periode) verfehlt
+     */
+    @Label("Overrun")
+    public boolean overrun;
+}
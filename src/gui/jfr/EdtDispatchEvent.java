@@ -0,0 +1,33 @@
+/**
+ *
+ */
+package gui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * EdtDispatchEvent - SwingWindow.propertyChange(), Dauer des Nachziehens
+ * der Anzeige. Der Thread des Events zeigt, ob das Model den EDT
+ * (AWT-EventQueue) oder einen eigenen Thread verwendet.
+ * </p>
+ */
+@Name("picar.EdtDispatch")
+@Label("EDT Dispatch")
+@Category({"PiCar", "View"})
+@Description("SwingWindow.propertyChange(): Nachziehen der Anzeige")
+@StackTrace(false)
+public class EdtDispatchEvent extends jdk.jfr.Event
+{
+    /**
+     * property - Name der Property (bzw. dataBatchKey)
+     */
+    @Label("Property")
+    public String property;
+}
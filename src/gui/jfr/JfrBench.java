@@ -0,0 +1,140 @@
+/**
+ *
+ */
+package gui.jfr;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import gui.Model;
+import gui.hardware.MotorDirection;
+import gui.hardware.PCA9685Actuator;
+import gui.hardware.PiCarActuator;
+import gui.hardware.i2c.SimulatedI2CDevice;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * JfrBench - Kosten der Ereignisse aus gui.jfr ohne Hardware: Model mit
+ * PCA9685Actuator auf SimulatedI2CDevice, Zeit je Model.setProperty()
+ * (inkl. Schreibzugriff) ohne Aufzeichnung und mit Aufzeichnung nach
+ * picar.jfc, danach Anzahl der aufgezeichneten Ereignisse je Typ.
+ * </p>
+ * <p>
+ * Aufruf: java gui.jfr.JfrBench [Aufrufe] [Taktung ms]
+ * </p>
+ */
+public class JfrBench
+{
+    /**
+     * SETTINGS = "picar.jfc" - Profil (Ressource neben dieser Klasse)
+     */
+    public final static String SETTINGS = "picar.jfc";
+
+    /**
+     * DEFAULT_CALLS = 200_000 - Aufrufe je Messung
+     */
+    public final static int DEFAULT_CALLS = 200_000;
+
+    /**
+     * DEFAULT_CYCLE_TIME = 5 - Taktung in ms
+     */
+    public final static int DEFAULT_CYCLE_TIME = 5;
+
+    /**
+     * ROUNDS = 3 - Messungen je Zustand (die erste als Anlauf)
+     */
+    private final static int ROUNDS = 3;
+
+    /**
+     * measure(Model model, int calls) - Zeit je setProperty()...
+     * @param model
+     * @param calls
+     * @return ns je Aufruf
+     */
+    private static double measure(Model model, int calls)
+    {
+        final Integer[] values = new Integer[61];
+        for (int index = 0; index < values.length; index++)
+        {
+            values[index] = Integer.valueOf(index - 30);
+        }
+        final long startNanos = System.nanoTime();
+        for (int call = 0; call < calls; call++)
+        {
+            model.setProperty(Model.DATA_SERVO_KEY, values[call % values.length]);
+        }
+        return (System.nanoTime() - startNanos)/(double)calls;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int calls = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+        final int cycleTime = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLE_TIME;
+
+        final Configuration configuration;
+        try (Reader reader = new InputStreamReader(JfrBench.class.getResourceAsStream(SETTINGS), StandardCharsets.UTF_8))
+        {
+            configuration = Configuration.create(reader);
+        }
+        final PCA9685Actuator actuator = new PCA9685Actuator(new SimulatedI2CDevice(PiCarActuator.ADDRESS), MotorDirection.NONE);
+        actuator.initialize(PiCarActuator.PWM_FREQUENCY);
+        final Model model = new Model(actuator, cycleTime);
+        model.start();
+
+        double disabledNanos = 0.0;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            disabledNanos = measure(model, calls);
+        }
+
+        final Path file = Files.createTempFile("picar-", ".jfr");
+        double enabledNanos = 0.0;
+        try (Recording recording = new Recording(configuration))
+        {
+            recording.start();
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                enabledNanos = measure(model, calls);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        model.stop();
+        model.shutdown();
+
+        final Map<String, Integer> counts = new TreeMap<>();
+        for (RecordedEvent event: RecordingFile.readAllEvents(file))
+        {
+            counts.merge(event.getEventType().getName(), Integer.valueOf(1), Integer::sum);
+        }
+        Files.delete(file);
+
+        System.out.println(String.format("Taktung %d ms, %d Aufrufe je Messung (Model.setProperty() inkl. PCA9685-Zugriff)", cycleTime, calls));
+        System.out.println(String.format("ohne Aufzeichnung: %.0f ns je Aufruf", disabledNanos));
+        System.out.println(String.format("mit %s:     %.0f ns je Aufruf", SETTINGS, enabledNanos));
+        for (Map.Entry<String, Integer> entry: counts.entrySet())
+        {
+            if (entry.getKey().startsWith("picar."))
+            {
+                System.out.println(String.format("  %-20s %8d", entry.getKey(), entry.getValue()));
+            }
+        }
+        final boolean isOk = counts.containsKey("picar.ControlCycle")
+                          && counts.containsKey("picar.ActuatorWrite")
+                          && counts.containsKey("picar.ModelProperty");
+        System.out.println("JfrBench: " + (isOk? "OK" : "FEHLER"));
+        System.exit(isOk? 0 : 1);
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package gui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ModelPropertyEvent - Model.setProperty(), Dauer inkl. Stellgliedern
+ * (doServo() bzw. doMotor()) und Benachrichtigung der Listener.
+ * </p>
+ */
+@Name("picar.ModelProperty")
+@Label("Model Property")
+@Category({"PiCar", "Model"})
+@Description("Model.setProperty(): Key und ob sich der Wert geaendert hat")
+@StackTrace(false)
+public class ModelPropertyEvent extends jdk.jfr.Event
+{
+    /**
+     * key - Key der Property
+     */
+    @Label("Key")
+    public String key;
+
+    /**
+     * changed - Wert geaendert (nur dann Stellglieder und Listener)
+     */
+    @Label("Changed")
+    public boolean changed;
+}
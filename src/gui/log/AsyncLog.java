@@ -0,0 +1,458 @@
+/**
+ * 
+ */
+package gui.log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * AsyncLog - asynchrone Ausgabe fuer die zeitkritischen Pfade (EDT, 
+ * Steuertakt): Die Aufrufer legen nur die Argumente in einem vorab 
+ * angelegten Ringpuffer ab (ohne Sperre, ohne Objekt-Erzeugung), ein 
+ * eigener Thread bildet daraus den Text und gibt ihn ueber slf4j aus.
+ * </p>
+ * <p>
+ * Der Ringpuffer ist eine begrenzte Warteschlange mit mehreren Erzeugern
+ * und einem Verbraucher (Folgenummer je Platz). Ist er voll, wird der 
+ * Eintrag verworfen und je {@link LogSite} gezaehlt, der Aufrufer wartet 
+ * nie. Die Zaehler werden alle REPORT_INTERVAL_NANOS und beim Beenden 
+ * ausgegeben, sofern etwas verworfen oder unterdrueckt wurde.
+ * </p>
+ * <p>
+ * Als Argumente sind long, boolean, double und Objekte moeglich. Objekte 
+ * werden erst im Hintergrund mit toString() umgewandelt, sie duerfen sich 
+ * danach nicht mehr aendern (String, Integer, enum, ...).
+ * </p>
+ */
+public final class AsyncLog implements Runnable
+{
+    /**
+     * logger - eigene Ausgaben (Zaehler)
+     */
+    private final static Logger logger = LoggerFactory.getLogger(AsyncLog.class);
+    
+    /**
+     * DEFAULT_CAPACITY = 4096 - Plaetze im Ringpuffer
+     */
+    public final static int DEFAULT_CAPACITY = 4096;
+    
+    /**
+     * MAX_ARGS = 4 - Argumente je Eintrag
+     */
+    public final static int MAX_ARGS = 4;
+    
+    /**
+     * Art der Argumente (je 2 Bit in kinds)...
+     */
+    final static int KIND_LONG = 0;
+    final static int KIND_OBJECT = 1;
+    final static int KIND_BOOLEAN = 2;
+    final static int KIND_DOUBLE = 3;
+    
+    /**
+     * IDLE_NANOS = 2 ms - Pause des Verbrauchers bei leerem Ringpuffer
+     */
+    private final static long IDLE_NANOS = 2_000_000L;
+    
+    /**
+     * LAG_NANOS = 10 ms - ab dieser Verzoegerung wird sie im Text vermerkt
+     */
+    private final static long LAG_NANOS = 10_000_000L;
+    
+    /**
+     * REPORT_INTERVAL_NANOS = 60 s - Ausgabe der Zaehler
+     */
+    private final static long REPORT_INTERVAL_NANOS = 60_000_000_000L;
+    
+    /**
+     * Holder - Anlage von INSTANCE beim ersten Zugriff
+     */
+    private static class Holder
+    {
+        final static AsyncLog INSTANCE = AsyncLog.start(new AsyncLog(DEFAULT_CAPACITY));
+    }
+    
+    /**
+     * capacity, mask - Groesse des Ringpuffers (Zweierpotenz)
+     */
+    private final int capacity;
+    private final int mask;
+    
+    /**
+     * sequences - Folgenummer je Platz: == Position frei zum Schreiben,
+     * == Position + 1 belegt
+     */
+    private final AtomicLongArray sequences;
+    
+    /**
+     * tail - naechste Schreibposition (Erzeuger)
+     */
+    private final AtomicLong tail = new AtomicLong();
+    
+    /**
+     * head - naechste Leseposition (nur Verbraucher)
+     */
+    private long head = 0L;
+    
+    /**
+     * Plaetze des Ringpuffers...
+     */
+    private final LogSite[] recordSites;
+    private final String[] recordThreads;
+    private final long[] recordTimes;
+    private final int[] recordKinds;
+    private final long[] recordLongs;
+    private final Object[] recordObjects;
+    
+    /**
+     * sites - alle angelegten LogSites (Zaehler)
+     */
+    private final List<LogSite> sites = new CopyOnWriteArrayList<>();
+    
+    /**
+     * dropped - insgesamt verworfene Eintraege (Ringpuffer voll)
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    
+    /**
+     * written - insgesamt ausgegebene Eintraege (nur Verbraucher)
+     */
+    private volatile long written = 0L;
+    
+    /**
+     * builder - Aufbau des Textes (nur Verbraucher)
+     */
+    private final StringBuilder builder = new StringBuilder(256);
+    
+    /**
+     * thread - Verbraucher
+     */
+    private Thread thread = null;
+    
+    /**
+     * running
+     */
+    private volatile boolean running = true;
+    
+    /**
+     * AsyncLog(int capacity)
+     * @param capacity - Plaetze, wird auf eine Zweierpotenz aufgerundet
+     */
+    AsyncLog(int capacity)
+    {
+        this.capacity = (Integer.bitCount(capacity) == 1)? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = this.capacity - 1;
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int index = 0; index < this.capacity; index++)
+        {
+            this.sequences.set(index, index);
+        }
+        this.recordSites = new LogSite[this.capacity];
+        this.recordThreads = new String[this.capacity];
+        this.recordTimes = new long[this.capacity];
+        this.recordKinds = new int[this.capacity];
+        this.recordLongs = new long[this.capacity * MAX_ARGS];
+        this.recordObjects = new Object[this.capacity * MAX_ARGS];
+    }
+    
+    /**
+     * start(AsyncLog log) - Verbraucher starten, beim Beenden (System.exit())
+     * wird der Ringpuffer noch ausgegeben...
+     */
+    static AsyncLog start(final AsyncLog log)
+    {
+        log.thread = new Thread(log, "AsyncLog");
+        log.thread.setDaemon(true);
+        log.thread.setPriority(Thread.MIN_PRIORITY);
+        log.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                log.stop();
+            }
+        }, "AsyncLog-Shutdown"));
+        return log;
+    }
+    
+    /**
+     * getInstance() - gemeinsamer AsyncLog
+     * @return AsyncLog
+     */
+    public static AsyncLog getInstance()
+    {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * site(Class<?> type, LogLevel level, String pattern, int maxPerSecond) - 
+     * neue Aufrufstelle am gemeinsamen AsyncLog (als static final Feld 
+     * ablegen)...
+     * @param type - Klasse fuer den slf4j-Logger
+     * @param level - Stufe
+     * @param pattern - Text mit {} je Argument
+     * @param maxPerSecond - max. Eintraege je Sekunde, 0: unbegrenzt
+     * @return LogSite
+     */
+    public static LogSite site(Class<?> type, LogLevel level, String pattern, int maxPerSecond)
+    {
+        return getInstance().createSite(LoggerFactory.getLogger(type), level, pattern, maxPerSecond);
+    }
+    
+    /**
+     * createSite(...) - vgl. site()
+     */
+    LogSite createSite(Logger siteLogger, LogLevel level, String pattern, int maxPerSecond)
+    {
+        final LogSite site = new LogSite(this, siteLogger, level, pattern, maxPerSecond);
+        this.sites.add(site);
+        return site;
+    }
+    
+    /**
+     * offer(...) - Eintrag in den Ringpuffer (Erzeuger, ohne Sperre)...
+     * @return false, wenn der Ringpuffer voll ist
+     */
+    boolean offer(LogSite site, int kinds, 
+                  long l0, long l1, long l2, long l3, 
+                  Object o0, Object o1, Object o2, Object o3)
+    {
+        long position = this.tail.get();
+        int index;
+        while (true)
+        {
+            index = (int)position & this.mask;
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0L)
+            {
+                if (this.tail.compareAndSet(position, position + 1L))
+                {
+                    break;
+                }
+                position = this.tail.get();
+            }
+            else if (difference < 0L)
+            {
+                this.dropped.incrementAndGet();
+                return false;
+            }
+            else
+            {
+                position = this.tail.get();
+            }
+        }
+        this.recordSites[index] = site;
+        this.recordThreads[index] = Thread.currentThread().getName();
+        this.recordTimes[index] = System.nanoTime();
+        this.recordKinds[index] = kinds;
+        final int offset = index * MAX_ARGS;
+        this.recordLongs[offset] = l0;
+        this.recordLongs[offset + 1] = l1;
+        this.recordLongs[offset + 2] = l2;
+        this.recordLongs[offset + 3] = l3;
+        this.recordObjects[offset] = o0;
+        this.recordObjects[offset + 1] = o1;
+        this.recordObjects[offset + 2] = o2;
+        this.recordObjects[offset + 3] = o3;
+        // Veroeffentlichen...
+        this.sequences.lazySet(index, position + 1L);
+        return true;
+    }
+    
+    /**
+     * drain() - alle vorliegenden Eintraege ausgeben (Verbraucher)...
+     * @return Anzahl
+     */
+    private int drain()
+    {
+        int count = 0;
+        while (true)
+        {
+            final int index = (int)this.head & this.mask;
+            if (this.sequences.get(index) != this.head + 1L)
+            {
+                return count;
+            }
+            format(index);
+            final int offset = index * MAX_ARGS;
+            for (int arg = 0; arg < MAX_ARGS; arg++)
+            {
+                this.recordObjects[offset + arg] = null;
+            }
+            this.recordSites[index] = null;
+            // Platz freigeben...
+            this.sequences.lazySet(index, this.head + this.capacity);
+            this.head++;
+            this.written++;
+            count++;
+        }
+    }
+    
+    /**
+     * format(int index) - Text zum Eintrag bilden und ausgeben...
+     */
+    private void format(int index)
+    {
+        final LogSite site = this.recordSites[index];
+        final String[] segments = site.getSegments();
+        final int kinds = this.recordKinds[index];
+        final int offset = index * MAX_ARGS;
+        final StringBuilder text = this.builder;
+        text.setLength(0);
+        text.append('[').append(this.recordThreads[index]).append("] ").append(segments[0]);
+        for (int arg = 1; arg < segments.length; arg++)
+        {
+            if (arg <= MAX_ARGS)
+            {
+                final long value = this.recordLongs[offset + arg - 1];
+                switch ((kinds >>> (2 * (arg - 1))) & 3)
+                {
+                    case KIND_OBJECT:
+                        text.append(this.recordObjects[offset + arg - 1]);
+                        break;
+                    case KIND_BOOLEAN:
+                        text.append(value != 0L);
+                        break;
+                    case KIND_DOUBLE:
+                        text.append(Double.longBitsToDouble(value));
+                        break;
+                    default:
+                        text.append(value);
+                }
+            }
+            text.append(segments[arg]);
+        }
+        final long lagNanos = System.nanoTime() - this.recordTimes[index];
+        if (lagNanos > LAG_NANOS)
+        {
+            text.append(" (+").append(lagNanos/1_000_000L).append(" ms)");
+        }
+        site.write(text.toString());
+    }
+    
+    /**
+     * run() - Verbraucher
+     */
+    @Override
+    public void run()
+    {
+        long lastReportNanos = System.nanoTime();
+        long lastLost = 0L;
+        while (this.running)
+        {
+            if (drain() == 0)
+            {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+            final long now = System.nanoTime();
+            if (now - lastReportNanos > REPORT_INTERVAL_NANOS)
+            {
+                lastReportNanos = now;
+                final long lost = getLost();
+                if (lost != lastLost)
+                {
+                    lastLost = lost;
+                    logger.warn(report());
+                }
+            }
+        }
+        drain();
+        if (getLost() > 0L)
+        {
+            logger.warn(report());
+        }
+    }
+    
+    /**
+     * stop() - Verbraucher beenden, Rest ausgeben...
+     */
+    public void stop()
+    {
+        this.running = false;
+        final Thread current = this.thread;
+        if (current != null)
+        {
+            LockSupport.unpark(current);
+            try
+            {
+                current.join(1000L);
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * getLost() - verworfen (Ringpuffer voll) und unterdrueckt (Rate)
+     * @return Anzahl
+     */
+    public long getLost()
+    {
+        long suppressed = 0L;
+        for (LogSite site: this.sites)
+        {
+            suppressed += site.getSuppressed();
+        }
+        return this.dropped.get() + suppressed;
+    }
+    
+    /**
+     * @return insgesamt verworfene Eintraege (Ringpuffer voll)
+     */
+    public long getDropped()
+    {
+        return this.dropped.get();
+    }
+    
+    /**
+     * @return insgesamt ausgegebene Eintraege
+     */
+    public long getWritten()
+    {
+        return this.written;
+    }
+    
+    /**
+     * @return Plaetze im Ringpuffer
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * report() - Zaehler je Aufrufstelle mit verworfenen oder unterdrueckten 
+     * Eintraegen...
+     * @return Text
+     */
+    public String report()
+    {
+        final StringBuilder text = new StringBuilder();
+        text.append("AsyncLog[written=")
+            .append(this.written)
+            .append(", dropped=")
+            .append(this.dropped.get())
+            .append("]");
+        for (LogSite site: this.sites)
+        {
+            if (site.getDropped() > 0L || site.getSuppressed() > 0L)
+            {
+                text.append(' ').append(site);
+            }
+        }
+        return text.toString();
+    }
+}
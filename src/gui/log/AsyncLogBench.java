@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package gui.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.time.ThreadMeter;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * AsyncLogBench - Laufzeit und Speicherbedarf eines Logaufrufes im 
+ * aufrufenden Thread: slf4j direkt (mit Stringverkettung) gegenueber 
+ * {@link AsyncLog}, ohne und mit Begrenzung der Rate.
+ * </p>
+ * <p>
+ * Aufruf: java gui.log.AsyncLogBench [Aufrufe] [Abstand (us)]
+ * </p>
+ * <p>
+ * Die Wirkung ist am deutlichsten mit slf4j-simple auf einer langsamen 
+ * Konsole (SSH, serielle Schnittstelle).
+ * </p>
+ */
+public class AsyncLogBench
+{
+    /**
+     * logger - synchroner Vergleich
+     */
+    private final static Logger logger = LoggerFactory.getLogger(AsyncLogBench.class);
+    
+    /**
+     * UNLIMITED_LOG, LIMITED_LOG - asynchron ohne bzw. mit Rate
+     */
+    private final static LogSite UNLIMITED_LOG = AsyncLog.site(AsyncLogBench.class, LogLevel.Info, "{}: {}", 0);
+    private final static LogSite LIMITED_LOG = AsyncLog.site(AsyncLogBench.class, LogLevel.Info, "{}: {} (max. 20/s)", 20);
+    
+    /**
+     * DEFAULT_CALLS = 20000
+     */
+    public final static int DEFAULT_CALLS = 20_000;
+    
+    /**
+     * DEFAULT_PAUSE_MICROS = 100 - Abstand der Aufrufe (Slider: ca. 10 ms)
+     */
+    public final static int DEFAULT_PAUSE_MICROS = 100;
+    
+    /**
+     * NAME - Argument wie source.getName()
+     */
+    private final static String NAME = "servo";
+    
+    /**
+     * Variant - verglichene Aufrufe
+     */
+    private enum Variant
+    {
+        /**
+         * Sync("slf4j") - logger.info(name + ": " + value)
+         */
+        Sync("slf4j"),
+        /**
+         * Async("AsyncLog") - UNLIMITED_LOG.log(name, value)
+         */
+        Async("AsyncLog"),
+        /**
+         * Limited("AsyncLog 20/s") - LIMITED_LOG.log(name, value)
+         */
+        Limited("AsyncLog 20/s");
+        
+        /**
+         * variant - Bezeichnung
+         */
+        private final String variant;
+        
+        private Variant(String variant)
+        {
+            this.variant = variant;
+        }
+        
+        public final String getVariant()
+        {
+            return this.variant;
+        }
+    }
+    
+    /**
+     * run(Variant variant, int calls, int pauseMicros)
+     */
+    private static void run(Variant variant, int calls, int pauseMicros)
+    {
+        final LatencyHistogram histogram = new LatencyHistogram(variant.getVariant());
+        final long startBytes = ThreadMeter.allocatedBytes();
+        for (int call = 0; call < calls; call++)
+        {
+            final int value = call % 61 - 30;
+            final long startNanos = System.nanoTime();
+            switch (variant)
+            {
+                case Sync:
+                    logger.info(NAME + ": " + value);
+                    break;
+                case Async:
+                    UNLIMITED_LOG.log(NAME, value);
+                    break;
+                default:
+                    LIMITED_LOG.log(NAME, value);
+            }
+            histogram.record(System.nanoTime() - startNanos);
+            final long until = System.nanoTime() + pauseMicros * 1000L;
+            while (System.nanoTime() < until)
+            {
+                Thread.onSpinWait();
+            }
+        }
+        final long bytes = ThreadMeter.allocatedBytes() - startBytes;
+        System.out.println(String.format("%-14s %s, %.1f Byte/Aufruf", 
+                                         variant.getVariant() + ":", 
+                                         histogram, 
+                                         (startBytes >= 0L)? (double)bytes/calls : Double.NaN));
+    }
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int calls = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+        final int pauseMicros = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_PAUSE_MICROS;
+        if (!UNLIMITED_LOG.isEnabled())
+        {
+            System.out.println("Info-Ausgaben sind abgeschaltet (slf4j-Bindung?), es wird nur die Pruefung gemessen.");
+        }
+        // Aufwaermen...
+        for (Variant variant: Variant.values())
+        {
+            run(variant, calls/10, pauseMicros);
+        }
+        Thread.sleep(1000L);
+        System.out.println("---");
+        for (Variant variant: Variant.values())
+        {
+            run(variant, calls, pauseMicros);
+            Thread.sleep(1000L);
+        }
+        System.out.println(AsyncLog.getInstance().report());
+    }
+}
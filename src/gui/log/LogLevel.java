@@ -0,0 +1,58 @@
+/**
+ * 
+ */
+package gui.log;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LogLevel - Stufe einer Ausgabe ueber {@link LogSite}, Abbildung auf die
+ * Methoden des slf4j-Loggers.
+ * </p>
+ */
+public enum LogLevel
+{
+    /**
+     * Trace("Trace") - Logger.trace()
+     */
+    Trace("Trace"),
+    /**
+     * Debug("Debug") - Logger.debug()
+     */
+    Debug("Debug"),
+    /**
+     * Info("Info") - Logger.info()
+     */
+    Info("Info"),
+    /**
+     * Warn("Warn") - Logger.warn()
+     */
+    Warn("Warn"),
+    /**
+     * Error("Error") - Logger.error()
+     */
+    Error("Error");
+    
+    /**
+     * level - Bezeichnung
+     */
+    private final String level;
+    
+    /**
+     * LogLevel(String level)
+     * @param level
+     */
+    private LogLevel(String level)
+    {
+        this.level = level;
+    }
+
+    /**
+     * @return the level
+     */
+    public final String getLevel()
+    {
+        return this.level;
+    }
+}
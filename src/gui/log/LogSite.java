@@ -0,0 +1,345 @@
+/**
+ * 
+ */
+package gui.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LogSite - Aufrufstelle fuer {@link AsyncLog}, je Stelle als static final
+ * Feld angelegt:
+ * </p>
+ * <pre>
+ * private final static LogSite SERVO_LOG = AsyncLog.site(Model.class, LogLevel.Debug, "doServo(): servoData={} relValue={}", 0);
+ * ...
+ * SERVO_LOG.log(servoData, relValue);
+ * </pre>
+ * <p>
+ * log() prueft die Stufe des slf4j-Loggers und die Rate (maxPerSecond, 
+ * Generic Cell Rate Algorithm mit einer Sekunde Vorrat), beides ohne Sperre.
+ * Zu haeufige Eintraege werden unterdrueckt, bei vollem Ringpuffer 
+ * verworfen, beides wird gezaehlt.
+ * </p>
+ */
+public final class LogSite
+{
+    /**
+     * log - Ringpuffer
+     */
+    private final AsyncLog log;
+    
+    /**
+     * logger - slf4j-Logger der Klasse
+     */
+    private final Logger logger;
+    
+    /**
+     * level - Stufe
+     */
+    private final LogLevel level;
+    
+    /**
+     * pattern - Text mit {} je Argument
+     */
+    private final String pattern;
+    
+    /**
+     * segments - pattern an den {} geteilt
+     */
+    private final String[] segments;
+    
+    /**
+     * intervalNanos - Mindestabstand bei Dauerlast (0: unbegrenzt)
+     */
+    private final long intervalNanos;
+    
+    /**
+     * burstNanos - Vorrat (eine Sekunde)
+     */
+    private final long burstNanos;
+    
+    /**
+     * nextNanos - theoretischer Zeitpunkt des naechsten Eintrages (GCRA)
+     */
+    private final AtomicLong nextNanos = new AtomicLong(Long.MIN_VALUE);
+    
+    /**
+     * suppressed, dropped - Zaehler
+     */
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    /**
+     * LogSite(...) - vgl. AsyncLog.site()
+     */
+    LogSite(AsyncLog log, Logger logger, LogLevel level, String pattern, int maxPerSecond)
+    {
+        if (maxPerSecond < 0)
+        {
+            throw new IllegalArgumentException("maxPerSecond < 0: " + maxPerSecond);
+        }
+        this.log = log;
+        this.logger = logger;
+        this.level = level;
+        this.pattern = pattern;
+        this.segments = pattern.split("\\{\\}", -1);
+        this.intervalNanos = (maxPerSecond > 0)? 1_000_000_000L / maxPerSecond : 0L;
+        this.burstNanos = (maxPerSecond > 0)? 1_000_000_000L - this.intervalNanos : 0L;
+    }
+    
+    /**
+     * isEnabled() - Stufe im slf4j-Logger freigeschaltet?
+     * @return true, wenn ausgegeben wird
+     */
+    public boolean isEnabled()
+    {
+        switch (this.level)
+        {
+            case Trace:
+                return this.logger.isTraceEnabled();
+            case Debug:
+                return this.logger.isDebugEnabled();
+            case Info:
+                return this.logger.isInfoEnabled();
+            case Warn:
+                return this.logger.isWarnEnabled();
+            default:
+                return this.logger.isErrorEnabled();
+        }
+    }
+    
+    /**
+     * acquire() - Stufe und Rate pruefen...
+     * @return true, wenn der Eintrag abgelegt werden soll
+     */
+    private boolean acquire()
+    {
+        if (!isEnabled())
+        {
+            return false;
+        }
+        if (this.intervalNanos == 0L)
+        {
+            return true;
+        }
+        final long now = System.nanoTime();
+        while (true)
+        {
+            final long next = this.nextNanos.get();
+            final long start = (next == Long.MIN_VALUE || next - now < 0L)? now : next;
+            if (start - now > this.burstNanos)
+            {
+                this.suppressed.incrementAndGet();
+                return false;
+            }
+            if (this.nextNanos.compareAndSet(next, start + this.intervalNanos))
+            {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * offer(...) - in den Ringpuffer, bei vollem Ringpuffer zaehlen...
+     */
+    private void offer(int kinds, long l0, long l1, long l2, Object o0, Object o1, Object o2)
+    {
+        if (!this.log.offer(this, kinds, l0, l1, l2, 0L, o0, o1, o2, null))
+        {
+            this.dropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * kind(int arg, int kind) - Art des Argumentes arg in kinds
+     */
+    private static int kind(int arg, int kind)
+    {
+        return kind << (2 * arg);
+    }
+    
+    /**
+     * log() - ohne Argumente
+     */
+    public void log()
+    {
+        if (acquire())
+        {
+            offer(0, 0L, 0L, 0L, null, null, null);
+        }
+    }
+    
+    /**
+     * log(long a)
+     * @param a
+     */
+    public void log(long a)
+    {
+        if (acquire())
+        {
+            offer(0, a, 0L, 0L, null, null, null);
+        }
+    }
+    
+    /**
+     * log(long a, long b)
+     * @param a
+     * @param b
+     */
+    public void log(long a, long b)
+    {
+        if (acquire())
+        {
+            offer(0, a, b, 0L, null, null, null);
+        }
+    }
+    
+    /**
+     * log(double a)
+     * @param a
+     */
+    public void log(double a)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_DOUBLE), Double.doubleToRawLongBits(a), 0L, 0L, null, null, null);
+        }
+    }
+    
+    /**
+     * log(Object a) - a unveraenderlich!
+     * @param a
+     */
+    public void log(Object a)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_OBJECT), 0L, 0L, 0L, a, null, null);
+        }
+    }
+    
+    /**
+     * log(Object a, long b) - a unveraenderlich!
+     * @param a
+     * @param b
+     */
+    public void log(Object a, long b)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_OBJECT), 0L, b, 0L, a, null, null);
+        }
+    }
+    
+    /**
+     * log(Object a, boolean b) - a unveraenderlich!
+     * @param a
+     * @param b
+     */
+    public void log(Object a, boolean b)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_OBJECT) | kind(1, AsyncLog.KIND_BOOLEAN), 0L, b? 1L : 0L, 0L, a, null, null);
+        }
+    }
+    
+    /**
+     * log(Object a, Object b) - a, b unveraenderlich!
+     * @param a
+     * @param b
+     */
+    public void log(Object a, Object b)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_OBJECT) | kind(1, AsyncLog.KIND_OBJECT), 0L, 0L, 0L, a, b, null);
+        }
+    }
+    
+    /**
+     * log(Object a, Object b, Object c) - a, b, c unveraenderlich!
+     * @param a
+     * @param b
+     * @param c
+     */
+    public void log(Object a, Object b, Object c)
+    {
+        if (acquire())
+        {
+            offer(kind(0, AsyncLog.KIND_OBJECT) | kind(1, AsyncLog.KIND_OBJECT) | kind(2, AsyncLog.KIND_OBJECT), 0L, 0L, 0L, a, b, c);
+        }
+    }
+    
+    /**
+     * write(String message) - Ausgabe ueber slf4j (nur Verbraucher)...
+     */
+    void write(String message)
+    {
+        switch (this.level)
+        {
+            case Trace:
+                this.logger.trace(message);
+                break;
+            case Debug:
+                this.logger.debug(message);
+                break;
+            case Info:
+                this.logger.info(message);
+                break;
+            case Warn:
+                this.logger.warn(message);
+                break;
+            default:
+                this.logger.error(message);
+        }
+    }
+    
+    /**
+     * @return the segments
+     */
+    final String[] getSegments()
+    {
+        return this.segments;
+    }
+    
+    /**
+     * @return unterdrueckte Eintraege (Rate)
+     */
+    public long getSuppressed()
+    {
+        return this.suppressed.get();
+    }
+    
+    /**
+     * @return verworfene Eintraege (Ringpuffer voll)
+     */
+    public long getDropped()
+    {
+        return this.dropped.get();
+    }
+    
+    /**
+     * toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[")
+               .append(this.logger.getName())
+               .append(" \"")
+               .append(this.pattern)
+               .append("\", suppressed=")
+               .append(this.suppressed.get())
+               .append(", dropped=")
+               .append(this.dropped.get())
+               .append("]");
+        return builder.toString();
+    }
+}
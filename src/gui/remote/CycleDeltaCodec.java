@@ -0,0 +1,148 @@
+/**
+ *
+ */
+package gui.remote;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Status;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * CycleDeltaCodec - ein Takt als Differenz zum vorherigen Takt: Der
+ * Taktzaehler gegen +1, die Zeit gegen + cycleTime, alle weiteren Zahlen
+ * gegen den Vorgaenger, jeweils als varint ({@link RemoteViewFormat});
+ * Gang und Status in einem Byte. Im eingeschwungenen Zustand sind das
+ * ca. 15 Byte je Takt (statt 80 Byte im Telemetrie-Datagramm).
+ * </p>
+ * <p>
+ * Sender und Empfaenger halten je einen CycleDeltaCodec, nach
+ * {@link #reset()} (CYCLE_RESET im Datenstrom) ist der Vorgaenger 0.
+ * </p>
+ */
+final class CycleDeltaCodec
+{
+    /**
+     * TRANSMISSIONS, STATUS - Werte zum Ordinal...
+     */
+    private final static Transmission[] TRANSMISSIONS = Transmission.values();
+    private final static Status[] STATUS = Status.values();
+
+    /**
+     * cycleNanos - erwarteter Abstand der Takte (ns)
+     */
+    private final long cycleNanos;
+
+    /**
+     * Vorgaenger bzw. (nach decode()) der zuletzt gelesene Takt...
+     */
+    private long counter;
+    private long timeNanos;
+    private long periodNanos;
+    private long jitterNanos;
+    private long busyNanos;
+    private long latencyNanos;
+    private int servo;
+    private int motor;
+    private Transmission transmission;
+    private Status status;
+
+    /**
+     * CycleDeltaCodec(int cycleTime)
+     * @param cycleTime - Taktung (ms)
+     */
+    CycleDeltaCodec(int cycleTime)
+    {
+        this.cycleNanos = cycleTime * 1_000_000L;
+        reset();
+    }
+
+    /**
+     * reset() - kein Vorgaenger...
+     */
+    void reset()
+    {
+        this.counter = -1L;
+        this.timeNanos = -this.cycleNanos;
+        this.periodNanos = 0L;
+        this.jitterNanos = 0L;
+        this.busyNanos = 0L;
+        this.latencyNanos = 0L;
+        this.servo = 0;
+        this.motor = 0;
+        this.transmission = TRANSMISSIONS[0];
+        this.status = STATUS[0];
+    }
+
+    /**
+     * encode(DataOutput output, CycleSample sample) - ohne Nachrichtenkennung...
+     * @param output
+     * @param sample
+     * @throws IOException
+     */
+    void encode(DataOutput output, CycleSample sample) throws IOException
+    {
+        RemoteViewFormat.writeVarLong(output, sample.getCounter() - this.counter - 1L);
+        RemoteViewFormat.writeVarLong(output, sample.getTimeNanos() - this.timeNanos - this.cycleNanos);
+        RemoteViewFormat.writeVarLong(output, sample.getPeriodNanos() - this.periodNanos);
+        RemoteViewFormat.writeVarLong(output, sample.getJitterNanos() - this.jitterNanos);
+        RemoteViewFormat.writeVarLong(output, sample.getBusyNanos() - this.busyNanos);
+        RemoteViewFormat.writeVarLong(output, sample.getLatencyNanos() - this.latencyNanos);
+        RemoteViewFormat.writeVarLong(output, sample.getServo() - this.servo);
+        RemoteViewFormat.writeVarLong(output, sample.getMotor() - this.motor);
+        output.writeByte((sample.getTransmission().ordinal() << 4) | sample.getStatus().ordinal());
+        this.counter = sample.getCounter();
+        this.timeNanos = sample.getTimeNanos();
+        this.periodNanos = sample.getPeriodNanos();
+        this.jitterNanos = sample.getJitterNanos();
+        this.busyNanos = sample.getBusyNanos();
+        this.latencyNanos = sample.getLatencyNanos();
+        this.servo = sample.getServo();
+        this.motor = sample.getMotor();
+    }
+
+    /**
+     * decode(DataInput input) - naechster Takt, abzulegen mit {@link #addTo(CycleBuffer)}...
+     * @param input
+     * @throws IOException
+     */
+    void decode(DataInput input) throws IOException
+    {
+        this.counter += RemoteViewFormat.readVarLong(input) + 1L;
+        this.timeNanos += RemoteViewFormat.readVarLong(input) + this.cycleNanos;
+        this.periodNanos += RemoteViewFormat.readVarLong(input);
+        this.jitterNanos += RemoteViewFormat.readVarLong(input);
+        this.busyNanos += RemoteViewFormat.readVarLong(input);
+        this.latencyNanos += RemoteViewFormat.readVarLong(input);
+        this.servo += (int)RemoteViewFormat.readVarLong(input);
+        this.motor += (int)RemoteViewFormat.readVarLong(input);
+        final int b = input.readUnsignedByte();
+        this.transmission = TRANSMISSIONS[b >>> 4];
+        this.status = STATUS[b & 0x0F];
+    }
+
+    /**
+     * addTo(CycleBuffer cycleBuffer) - zuletzt gelesenen Takt ablegen...
+     * @param cycleBuffer - Ringpuffer (Aufrufer ist der einzige Schreiber)
+     */
+    void addTo(CycleBuffer cycleBuffer)
+    {
+        cycleBuffer.add(this.counter,
+                        this.timeNanos,
+                        this.periodNanos,
+                        this.jitterNanos,
+                        this.busyNanos,
+                        this.latencyNanos,
+                        this.servo,
+                        this.motor,
+                        this.transmission,
+                        this.status);
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ */
+package gui.remote;
+
+import gui.trace.Trace;
+import gui.trace.TracedActionEvent;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RemoteCommandEvent - Eingabe an einer entfernten View (vgl.
+ * {@link RemoteViewServer}), fuer den Controller: actionCommand ist der
+ * Name der Komponente (z.B. Model.NAME_START_BUTTON oder
+ * Model.DATA_SERVO_KEY), {@link #getValue()} der Wert (Integer,
+ * Transmission, bei Buttons null). Der Trace beginnt beim Empfang.
+ * </p>
+ */
+public class RemoteCommandEvent extends TracedActionEvent
+{
+    /**
+     * serialVersionUID = 1L
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * value - Wert der Eingabe (wird nicht serialisiert)
+     */
+    private final transient Object value;
+
+    /**
+     * RemoteCommandEvent(Object source, String name, Object value)
+     * @param source - RemoteViewServer
+     * @param name - Name der Komponente
+     * @param value - Wert, null bei Buttons
+     */
+    public RemoteCommandEvent(Object source, String name, Object value)
+    {
+        super(source, ACTION_PERFORMED, name, Trace.begin());
+        this.value = value;
+    }
+
+    /**
+     * @return the value
+     */
+    public final Object getValue()
+    {
+        return this.value;
+    }
+}
@@ -0,0 +1,363 @@
+/**
+ *
+ */
+package gui.remote;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JSlider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.CycleBuffer;
+import gui.Model;
+import gui.Transmission;
+import gui.View;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RemoteViewClient - Gegenstueck zum {@link RemoteViewServer} auf dem
+ * Laptop: Empfangene Properties gehen im EDT an die View (SwingWindow,
+ * unveraendert), empfangene Takte in einen lokalen cycleBuffer
+ * (StripChartPanel). Der Client ist der ActionListener der View und
+ * sendet deren Eingaben wie der Controller sie auswertet (Name der
+ * Komponente, Wert von Slider bzw. ComboBox) als COMMAND.
+ * </p>
+ * <p>
+ * Der Empfangs-Thread ist der einzige Schreiber des cycleBuffer.
+ * </p>
+ */
+public class RemoteViewClient implements ActionListener, Runnable, Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(RemoteViewClient.class);
+
+    /**
+     * BUFFER_SIZE = 8192 - Puffer des Datenstroms
+     */
+    private final static int BUFFER_SIZE = 8192;
+
+    /**
+     * address - Adresse des RemoteViewServer
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * token - gemeinsamer Token mit dem RemoteViewServer
+     */
+    private final String token;
+
+    /**
+     * socket, input, output - Verbindung
+     */
+    private Socket socket = null;
+    private DataInputStream input = null;
+    private DataOutputStream output = null;
+
+    /**
+     * cycleTime - Taktung (ms) des Models im Server
+     */
+    private int cycleTime = 0;
+
+    /**
+     * view, cycleBuffer - Ziel der empfangenen Daten
+     */
+    private View view = null;
+    private CycleBuffer cycleBuffer = null;
+
+    /**
+     * thread - Empfangs-Thread
+     */
+    private Thread thread = null;
+
+    /**
+     * Statistik: empfangene Properties, Takte, gesendete Kommandos
+     */
+    private volatile long properties = 0L;
+    private volatile long cycles = 0L;
+    private volatile long commands = 0L;
+
+    /**
+     * RemoteViewClient(InetSocketAddress address, String token)
+     * @param address - Rechner und Port des RemoteViewServer
+     * @param token - gemeinsamer Token (remoteViewToken des Raspi)
+     */
+    public RemoteViewClient(InetSocketAddress address, String token)
+    {
+        this.address = address;
+        this.token = token;
+    }
+
+    /**
+     * toAddress(String text) - "Rechner[:Port]", ohne Port DEFAULT_PORT...
+     * @param text - z.B. picar.local:5098
+     * @return Adresse
+     */
+    public static InetSocketAddress toAddress(String text)
+    {
+        final int colon = text.lastIndexOf(':');
+        final String host = (colon >= 0)? text.substring(0, colon) : text;
+        final int port = (colon >= 0)? Integer.parseInt(text.substring(colon + 1)) : RemoteViewFormat.DEFAULT_PORT;
+        return new InetSocketAddress(host, port);
+    }
+
+    /**
+     * connect() - Verbindung aufbauen, Anmeldung mit dem Token...
+     * @return Taktung (ms) des Models im Server
+     * @throws IOException - auch bei abgewiesener Anmeldung
+     */
+    public int connect() throws IOException
+    {
+        this.socket = new Socket();
+        this.socket.setTcpNoDelay(true);
+        this.socket.connect(this.address);
+        this.input = new DataInputStream(new BufferedInputStream(this.socket.getInputStream(), BUFFER_SIZE));
+        this.output = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+        final byte[] nonce = RemoteViewFormat.readHello(this.input);
+        this.output.write(RemoteViewFormat.authenticate(this.token, nonce));
+        this.output.flush();
+        try
+        {
+            this.cycleTime = this.input.readShort();
+        }
+        catch (EOFException exception)
+        {
+            throw new IOException("RemoteView: Anmeldung bei " + this.address + " abgewiesen (Token?)");
+        }
+        logger.info("RemoteView: verbunden mit " + this.address + ", Taktung " + this.cycleTime + " ms");
+        return this.cycleTime;
+    }
+
+    /**
+     * start(View view, CycleBuffer cycleBuffer) - als ActionListener der
+     * View anmelden, Empfangs-Thread starten...
+     * @param view - z.B. SwingWindow eines nicht gestarteten Models
+     * @param cycleBuffer - z.B. dessen cycleBuffer
+     */
+    public void start(View view, CycleBuffer cycleBuffer)
+    {
+        this.view = view;
+        this.cycleBuffer = cycleBuffer;
+        view.addActionListener(this);
+        this.thread = new Thread(this, "RemoteViewClient");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * run() - Empfangs-Thread...
+     */
+    @Override
+    public void run()
+    {
+        final CycleDeltaCodec codec = new CycleDeltaCodec(this.cycleTime);
+        try
+        {
+            while (true)
+            {
+                final byte type = this.input.readByte();
+                switch (type)
+                {
+                    case RemoteViewFormat.PROPERTY:
+                    {
+                        final int index = this.input.readUnsignedByte();
+                        final Object value = RemoteViewFormat.readValue(this.input);
+                        this.properties++;
+                        if (index < RemoteViewFormat.KEYS.length)
+                        {
+                            deliver(RemoteViewFormat.KEYS[index], value);
+                        }
+                        break;
+                    }
+                    case RemoteViewFormat.CYCLE:
+                        codec.decode(this.input);
+                        codec.addTo(this.cycleBuffer);
+                        this.cycles++;
+                        break;
+                    case RemoteViewFormat.CYCLE_RESET:
+                        codec.reset();
+                        break;
+                    default:
+                        throw new IOException("Unbekannte Nachricht: " + type);
+                }
+            }
+        }
+        catch (EOFException exception)
+        {
+            logger.info("RemoteView: Verbindung beendet");
+        }
+        catch (IOException exception)
+        {
+            if (!this.socket.isClosed())
+            {
+                logger.warn("RemoteView: " + exception);
+            }
+        }
+        // Ohne Verbindung keine Eingaben mehr...
+        deliver(Model.DATA_IS_RUNNABLE_KEY, Boolean.FALSE);
+        deliver(Model.DATA_GEAR_ENABLED_KEY, Boolean.FALSE);
+    }
+
+    /**
+     * deliver(String key, Object value) - Property im EDT an die View...
+     * @param key
+     * @param value
+     */
+    private void deliver(String key, Object value)
+    {
+        final PropertyChangeEvent event = new PropertyChangeEvent(this, key, null, value);
+        EventQueue.invokeLater(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                RemoteViewClient.this.view.propertyChange(event);
+            }
+        });
+    }
+
+    /**
+     * actionPerformed(ActionEvent event) - Eingabe an der View, ausgewertet
+     * wie im Controller, an den Server...
+     */
+    @Override
+    public void actionPerformed(ActionEvent event)
+    {
+        if (!(event.getSource() instanceof JComponent))
+        {
+            return;
+        }
+        final JComponent source = (JComponent)event.getSource();
+        final String name = source.getName();
+        Object value = null;
+        if (source instanceof JSlider)
+        {
+            value = Integer.valueOf(((JSlider)source).getValue());
+        }
+        else if (source instanceof JComboBox<?>)
+        {
+            final Object selectedItem = ((JComboBox<?>)source).getSelectedItem();
+            if (!(selectedItem instanceof Transmission))
+            {
+                return;
+            }
+            value = selectedItem;
+        }
+        else if (!(source instanceof JButton))
+        {
+            return;
+        }
+        try
+        {
+            send(name, value);
+        }
+        catch (IOException exception)
+        {
+            logger.warn("RemoteView: " + exception);
+        }
+        if (Model.NAME_END_BUTTON.equals(name))
+        {
+            // Ende-Button: Anwendung im Server und hier beenden...
+            close();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * send(String name, Object value) - COMMAND...
+     * @param name - Name der Komponente
+     * @param value - Integer, Transmission oder null
+     * @throws IOException
+     */
+    public void send(String name, Object value) throws IOException
+    {
+        synchronized (this.output)
+        {
+            this.output.writeByte(RemoteViewFormat.COMMAND);
+            this.output.writeUTF(name);
+            RemoteViewFormat.writeValue(this.output, value);
+            this.output.flush();
+        }
+        this.commands++;
+    }
+
+    /**
+     * close() - Verbindung schliessen, der Empfangs-Thread endet...
+     */
+    @Override
+    public void close()
+    {
+        if (this.socket != null)
+        {
+            try
+            {
+                this.socket.close();
+            }
+            catch (IOException exception)
+            {
+                // ohne Bedeutung...
+            }
+        }
+    }
+
+    /**
+     * @return the cycleTime
+     */
+    public final int getCycleTime()
+    {
+        return this.cycleTime;
+    }
+
+    /**
+     * getProperties()
+     * @return Anzahl der empfangenen Properties
+     */
+    public long getProperties()
+    {
+        return this.properties;
+    }
+
+    /**
+     * getCycles()
+     * @return Anzahl der empfangenen Takte
+     */
+    public long getCycles()
+    {
+        return this.cycles;
+    }
+
+    /**
+     * getCommands()
+     * @return Anzahl der gesendeten Kommandos
+     */
+    public long getCommands()
+    {
+        return this.commands;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.remote.RemoteViewClient[" + this.address + ", properties=" + this.properties + ", cycles=" + this.cycles + ", commands=" + this.commands + "]";
+    }
+}
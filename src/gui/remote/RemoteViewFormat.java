@@ -0,0 +1,322 @@
+/**
+ *
+ */
+package gui.remote;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import gui.Data;
+import gui.Model;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RemoteViewFormat - Aufbau des Datenstroms zwischen RemoteViewServer
+ * (Raspi, Model) und RemoteViewClient (Laptop, SwingWindow) ueber TCP.
+ * </p>
+ * <pre>
+ * Anmeldung:
+ *   Server =&gt; Client: HELLO    int MAGIC "PCRV", short VERSION, byte[NONCE_SIZE] nonce
+ *   Client =&gt; Server: AUTH     byte[MAC_SIZE] HmacSHA256(Token, nonce)
+ *   Server =&gt; Client: ACCEPT   short cycleTime (ms), sonst Ende der Verbindung
+ * Server =&gt; Client:
+ *   PROPERTY     byte 1, byte Index in KEYS, Wert (s.u.)
+ *   CYCLE        byte 2, ein Takt als Differenz zum vorherigen Takt (vgl. CycleDeltaCodec)
+ *   CYCLE_RESET  byte 3, naechster CYCLE ohne Vorgaenger (nach Verbindung, nach Verlust)
+ * Client =&gt; Server:
+ *   COMMAND      byte 1, UTF Name der Komponente, Wert (s.u.)
+ * Wert:
+ *   byte VALUE_NULL | VALUE_FALSE | VALUE_TRUE
+ *   byte VALUE_INT, varint (zigzag)
+ *   byte VALUE_TRANSMISSION, byte ordinal()
+ *   byte VALUE_DATA, varint counter
+ * </pre>
+ * <p>
+ * Der Token ist ein gemeinsames Geheimnis von Raspi und Laptop, er selbst
+ * wird nicht uebertragen (Challenge-Response, je Verbindung neue nonce).
+ * </p>
+ * <p>
+ * Ganze Zahlen werden als varint (7 Bit je Byte, niederwertige zuerst)
+ * nach zigzag-Abbildung uebertragen, kleine Betraege brauchen so ein Byte.
+ * </p>
+ */
+public final class RemoteViewFormat
+{
+    /**
+     * MAGIC = "PCRV"
+     */
+    public final static int MAGIC = 0x50435256;
+
+    /**
+     * VERSION = 2 - mit Anmeldung
+     */
+    public final static short VERSION = 2;
+
+    /**
+     * NONCE_SIZE = 16 - Byte der Challenge
+     */
+    public final static int NONCE_SIZE = 16;
+
+    /**
+     * MAC_SIZE = 32 - Byte der Antwort (HmacSHA256)
+     */
+    public final static int MAC_SIZE = 32;
+
+    /**
+     * MAC_ALGORITHM = "HmacSHA256"
+     */
+    private final static String MAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * RANDOM - Erzeugung der nonce
+     */
+    private final static SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * DEFAULT_PORT = 5098
+     */
+    public final static int DEFAULT_PORT = 5098;
+
+    /**
+     * Nachrichten Server =&gt; Client...
+     */
+    public final static byte PROPERTY = 1;
+    public final static byte CYCLE = 2;
+    public final static byte CYCLE_RESET = 3;
+
+    /**
+     * Nachrichten Client =&gt; Server...
+     */
+    public final static byte COMMAND = 1;
+
+    /**
+     * Kennung des Wertes...
+     */
+    public final static byte VALUE_NULL = 0;
+    public final static byte VALUE_FALSE = 1;
+    public final static byte VALUE_TRUE = 2;
+    public final static byte VALUE_INT = 3;
+    public final static byte VALUE_TRANSMISSION = 4;
+    public final static byte VALUE_DATA = 5;
+
+    /**
+     * KEYS - die zur View uebertragenen Properties, Index = Nummer im
+     * Datenstrom (max. 32, vgl. Bitmaske im RemoteViewServer)
+     */
+    public final static String[] KEYS =
+    {
+        Model.DATA_KEY,
+        Model.DATA_SERVO_KEY,
+        Model.DATA_MOTOR_KEY,
+        Model.DATA_GEAR_KEY,
+        Model.DATA_GEAR_ENABLED_KEY,
+        Model.DATA_IS_RUNNABLE_KEY
+    };
+
+    /**
+     * TRANSMISSIONS - Werte zum Ordinal...
+     */
+    private final static Transmission[] TRANSMISSIONS = Transmission.values();
+
+    /**
+     * Privater Konstruktor, nur statische Elemente...
+     */
+    private RemoteViewFormat()
+    {
+    }
+
+    /**
+     * indexOf(String key) - Nummer der Property im Datenstrom...
+     * @param key
+     * @return Index in KEYS, -1: wird nicht uebertragen
+     */
+    public static int indexOf(String key)
+    {
+        for (int index = 0; index < KEYS.length; index++)
+        {
+            if (KEYS[index].equals(key))
+            {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * newNonce() - Challenge einer Verbindung...
+     * @return NONCE_SIZE zufaellige Byte
+     */
+    public static byte[] newNonce()
+    {
+        final byte[] nonce = new byte[NONCE_SIZE];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * writeHello(DataOutput output, byte[] nonce)
+     * @param output
+     * @param nonce - Challenge, vgl. newNonce()
+     * @throws IOException
+     */
+    public static void writeHello(DataOutput output, byte[] nonce) throws IOException
+    {
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.write(nonce);
+    }
+
+    /**
+     * readHello(DataInput input) - Kennung und Version pruefen...
+     * @param input
+     * @return nonce (Challenge)
+     * @throws IOException - unbekannter Datenstrom
+     */
+    public static byte[] readHello(DataInput input) throws IOException
+    {
+        final int magic = input.readInt();
+        final short version = input.readShort();
+        if (magic != MAGIC || version != VERSION)
+        {
+            throw new IOException("Kein RemoteView-Datenstrom: " + Integer.toHexString(magic) + ", Version " + version);
+        }
+        final byte[] nonce = new byte[NONCE_SIZE];
+        input.readFully(nonce);
+        return nonce;
+    }
+
+    /**
+     * authenticate(String token, byte[] nonce) - Antwort auf die Challenge...
+     * @param token - gemeinsamer Token
+     * @param nonce - Challenge
+     * @return MAC_SIZE Byte
+     */
+    public static byte[] authenticate(String token, byte[] nonce)
+    {
+        try
+        {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            return mac.doFinal(nonce);
+        }
+        catch (GeneralSecurityException exception)
+        {
+            // HmacSHA256 gehoert zu jeder Java-Plattform...
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * writeVarLong(DataOutput output, long value) - zigzag, dann varint...
+     * @param output
+     * @param value
+     * @throws IOException
+     */
+    public static void writeVarLong(DataOutput output, long value) throws IOException
+    {
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7FL) != 0L)
+        {
+            output.writeByte((int)((bits & 0x7FL) | 0x80L));
+            bits >>>= 7;
+        }
+        output.writeByte((int)bits);
+    }
+
+    /**
+     * readVarLong(DataInput input)
+     * @param input
+     * @return Wert
+     * @throws IOException - z.B. mehr als 10 Byte
+     */
+    public static long readVarLong(DataInput input) throws IOException
+    {
+        long bits = 0L;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            final int b = input.readUnsignedByte();
+            bits |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return (bits >>> 1) ^ -(bits & 1L);
+            }
+        }
+        throw new IOException("varint zu lang");
+    }
+
+    /**
+     * writeValue(DataOutput output, Object value) - Wert einer Property
+     * bzw. eines Kommandos...
+     * @param output
+     * @param value - null, Boolean, Integer, Transmission oder Data
+     * @throws IOException
+     */
+    public static void writeValue(DataOutput output, Object value) throws IOException
+    {
+        if (value == null)
+        {
+            output.writeByte(VALUE_NULL);
+        }
+        else if (value instanceof Boolean)
+        {
+            output.writeByte(((Boolean)value).booleanValue()? VALUE_TRUE : VALUE_FALSE);
+        }
+        else if (value instanceof Integer)
+        {
+            output.writeByte(VALUE_INT);
+            writeVarLong(output, ((Integer)value).intValue());
+        }
+        else if (value instanceof Transmission)
+        {
+            output.writeByte(VALUE_TRANSMISSION);
+            output.writeByte(((Transmission)value).ordinal());
+        }
+        else if (value instanceof Data)
+        {
+            output.writeByte(VALUE_DATA);
+            writeVarLong(output, ((Data)value).getCounter().longValue());
+        }
+        else
+        {
+            throw new IllegalArgumentException("Nicht uebertragbar: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * readValue(DataInput input)
+     * @param input
+     * @return null, Boolean, Integer, Transmission oder Data
+     * @throws IOException - unbekannte Kennung
+     */
+    public static Object readValue(DataInput input) throws IOException
+    {
+        final byte tag = input.readByte();
+        switch (tag)
+        {
+            case VALUE_NULL:
+                return null;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_INT:
+                return Integer.valueOf((int)readVarLong(input));
+            case VALUE_TRANSMISSION:
+                return TRANSMISSIONS[input.readUnsignedByte()];
+            case VALUE_DATA:
+                return new Data(Long.valueOf(readVarLong(input)));
+            default:
+                throw new IOException("Unbekannte Kennung des Wertes: " + tag);
+        }
+    }
+}
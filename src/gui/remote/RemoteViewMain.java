@@ -0,0 +1,355 @@
+/**
+ *
+ */
+package gui.remote;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.JButton;
+import javax.swing.JSlider;
+
+import gui.Controller;
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Model;
+import gui.SwingWindow;
+import gui.View;
+import gui.hardware.Actuator;
+import gui.sim.SimulatedActuator;
+import gui.time.Clock;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RemoteViewMain - SwingWindow auf dem Laptop fuer das Model auf dem
+ * Raspi (dort SwingMain mit remoteViewPort):
+ * </p>
+ * <ul>
+ *  <li>Rechner[:Port] Token - SwingWindow (unveraendert) zu einem lokalen,
+ *      nicht gestarteten Model (Actuator.NONE), das nur die Takte des
+ *      Servers aufnimmt; Token wie remoteViewToken des Raspi. Schliessen
+ *      des Fensters beendet nur den Laptop, der Ende-Button die Anwendung
+ *      auf dem Raspi nur mit remoteViewEnd=true</li>
+ *  <li>loopback [Sekunden] - ohne Bildschirm: Model (simuliert) mit
+ *      RemoteViewServer und Controller, RemoteViewClient mit einer
+ *      aufzeichnenden View ueber Loopback: Byte je Sekunde und je Takt,
+ *      Laufzeit Eingabe =&gt; Model =&gt; Anzeige, Vergleich des Standes und
+ *      der Takte, Abweisung eines falschen Token und des Ende-Buttons</li>
+ * </ul>
+ */
+public class RemoteViewMain
+{
+    /**
+     * LOOPBACK_CYCLE_TIME = 5 - Taktung (ms) fuer loopback (200 Hz)
+     */
+    private final static int LOOPBACK_CYCLE_TIME = 5;
+
+    /**
+     * INPUT_MILLIS = 20 - Abstand der Eingaben im loopback
+     */
+    private final static long INPUT_MILLIS = 20L;
+
+    /**
+     * TIMEOUT_NANOS = 1 s - max. Wartezeit auf die Anzeige
+     */
+    private final static long TIMEOUT_NANOS = 1_000_000_000L;
+
+    /**
+     * COMPARED_CYCLES = 1000 - verglichene juengste Takte
+     */
+    private final static int COMPARED_CYCLES = 1000;
+
+    /**
+     * RecordingView - View ohne Swing, haelt den zuletzt angezeigten Wert
+     * je Property fest...
+     */
+    private final static class RecordingView implements View
+    {
+        /**
+         * values - angezeigter Stand (nur im EDT geschrieben)
+         */
+        private final Map<String, Object> values = new HashMap<>();
+
+        /**
+         * listener - ActionListener (RemoteViewClient)
+         */
+        private volatile ActionListener listener = null;
+
+        @Override
+        public void addActionListener(ActionListener listener)
+        {
+            this.listener = listener;
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent event)
+        {
+            synchronized (this.values)
+            {
+                this.values.put(event.getPropertyName(), event.getNewValue());
+            }
+        }
+
+        /**
+         * get(String key)
+         * @param key
+         * @return angezeigter Wert
+         */
+        Object get(String key)
+        {
+            synchronized (this.values)
+            {
+                return this.values.get(key);
+            }
+        }
+    }
+
+    /**
+     * window(InetSocketAddress address, String token) - SwingWindow zum Server...
+     * @param address
+     * @param token - gemeinsamer Token
+     * @throws Exception
+     */
+    private static void window(InetSocketAddress address, String token) throws Exception
+    {
+        javax.swing.JFrame.setDefaultLookAndFeelDecorated(true);
+        final RemoteViewClient client = new RemoteViewClient(address, token);
+        final int cycleTime = client.connect();
+        // Lokales Model: Quelle von cycleBuffer und cycleTime fuer das SwingWindow, wird nicht gestartet...
+        final Model shadowModel = new Model(Actuator.NONE, cycleTime);
+        final SwingWindow swingWindow = new SwingWindow(shadowModel);
+        swingWindow.setTitle(swingWindow.getTitle() + " - " + address);
+        swingWindow.setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
+        swingWindow.pack();
+        swingWindow.setResizable(false);
+        client.start(swingWindow, shadowModel.getCycleBuffer());
+        EventQueue.invokeLater(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                swingWindow.setVisible(true);
+            }
+        });
+    }
+
+    /**
+     * await(RecordingView view, String key, Object value) - Warten auf die Anzeige...
+     * @return true, wenn angezeigt
+     */
+    private static boolean await(RecordingView view, String key, Object value)
+    {
+        final long endNanos = System.nanoTime() + TIMEOUT_NANOS;
+        while (!Objects.equals(view.get(key), value))
+        {
+            if (System.nanoTime() > endNanos)
+            {
+                return false;
+            }
+            LockSupport.parkNanos(50_000L);
+        }
+        return true;
+    }
+
+    /**
+     * isEqual(CycleSample a, CycleSample b)
+     * @return true, wenn alle Felder gleich sind
+     */
+    private static boolean isEqual(CycleSample a, CycleSample b)
+    {
+        return a.getCounter() == b.getCounter()
+            && a.getTimeNanos() == b.getTimeNanos()
+            && a.getPeriodNanos() == b.getPeriodNanos()
+            && a.getJitterNanos() == b.getJitterNanos()
+            && a.getBusyNanos() == b.getBusyNanos()
+            && a.getLatencyNanos() == b.getLatencyNanos()
+            && a.getServo() == b.getServo()
+            && a.getMotor() == b.getMotor()
+            && a.getTransmission() == b.getTransmission()
+            && a.getStatus() == b.getStatus();
+    }
+
+    /**
+     * loopback(int seconds)
+     * @param seconds
+     * @return true, wenn Stand und Takte uebereinstimmen
+     * @throws Exception
+     */
+    private static boolean loopback(int seconds) throws Exception
+    {
+        // Raspi...
+        final Model model = new Model(new SimulatedActuator(Clock.SYSTEM), LOOPBACK_CYCLE_TIME);
+        final String token = Base64.getEncoder().encodeToString(RemoteViewFormat.newNonce());
+        final RemoteViewServer server = new RemoteViewServer(model, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), token);
+        new Controller(server, model);
+        final AtomicLong events = new AtomicLong();
+        model.addPropertyChangeListener(new PropertyChangeListener()
+        {
+            @Override
+            public void propertyChange(PropertyChangeEvent event)
+            {
+                events.incrementAndGet();
+            }
+        });
+        server.start();
+
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        // Laptop...
+        final RemoteViewClient client = new RemoteViewClient(address, token);
+        final Model shadowModel = new Model(Actuator.NONE, client.connect());
+        final RecordingView view = new RecordingView();
+        client.start(view, shadowModel.getCycleBuffer());
+
+        final JButton startButton = new JButton();
+        startButton.setName(Model.NAME_START_BUTTON);
+        final JButton stopButton = new JButton();
+        stopButton.setName(Model.NAME_STOP_BUTTON);
+        final JSlider servoSlider = new JSlider(-30, 30, 0);
+        servoSlider.setName(Model.DATA_SERVO_KEY);
+
+        view.listener.actionPerformed(new ActionEvent(startButton, ActionEvent.ACTION_PERFORMED, "Start"));
+        final LatencyHistogram roundTrip = new LatencyHistogram("Eingabe => Model => Anzeige");
+        int failures = 0;
+        final long bytesBefore = server.getBytes();
+        final long cyclesBefore = server.getCycles();
+        final long startNanos = System.nanoTime();
+        final long endNanos = startNanos + seconds * 1_000_000_000L;
+        int value = 0;
+        while (System.nanoTime() < endNanos)
+        {
+            value = (value + 7) % 61;
+            final Integer servo = Integer.valueOf(value - 30);
+            servoSlider.setValue(servo.intValue());
+            final long inputNanos = System.nanoTime();
+            view.listener.actionPerformed(new ActionEvent(servoSlider, ActionEvent.ACTION_PERFORMED, "Servo"));
+            if (await(view, Model.DATA_SERVO_KEY, servo))
+            {
+                roundTrip.record(System.nanoTime() - inputNanos);
+            }
+            else
+            {
+                failures++;
+            }
+            Thread.sleep(INPUT_MILLIS);
+        }
+        final double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        final long bytes = server.getBytes() - bytesBefore;
+        final long cycles = server.getCycles() - cyclesBefore;
+        // Ende-Button (direkt, der Client beendete sich sonst selbst): ohne
+        // setEndAllowed(true) im Server verworfen, sonst endete hier der Prozess...
+        client.send(Model.NAME_END_BUTTON, null);
+        view.listener.actionPerformed(new ActionEvent(stopButton, ActionEvent.ACTION_PERFORMED, "Stop"));
+        if (!await(view, Model.DATA_IS_RUNNABLE_KEY, Boolean.TRUE))
+        {
+            failures++;
+        }
+        // Letzte Sendungen abwarten...
+        Thread.sleep(10L * RemoteViewServer.DEFAULT_FRAME_MILLIS);
+        EventQueue.invokeAndWait(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Leer: alle zuvor eingereihten Properties sind zugestellt...
+            }
+        });
+
+        int mismatches = 0;
+        for (String key: RemoteViewFormat.KEYS)
+        {
+            if (!Objects.equals(view.get(key), model.getProperty(key)))
+            {
+                System.out.println("Abweichung " + key + ": " + view.get(key) + " <> " + model.getProperty(key));
+                mismatches++;
+            }
+        }
+        final CycleBuffer source = model.getCycleBuffer();
+        final CycleBuffer target = shadowModel.getCycleBuffer();
+        final CycleSample a = new CycleSample();
+        final CycleSample b = new CycleSample();
+        int compared = 0;
+        for (int n = 1; n <= COMPARED_CYCLES && n <= target.getSequence(); n++)
+        {
+            if (source.read(source.getSequence() - n, a) && target.read(target.getSequence() - n, b))
+            {
+                compared++;
+                if (!isEqual(a, b))
+                {
+                    mismatches++;
+                }
+            }
+        }
+        client.close();
+        // Falscher Token (nach dem Laptop, die Wartezeit nach der Abweisung
+        // verfaelschte sonst die Laufzeiten): Anmeldung wird abgewiesen...
+        boolean isIntruderRejected = false;
+        try (RemoteViewClient intruder = new RemoteViewClient(address, token + "x"))
+        {
+            intruder.connect();
+        }
+        catch (IOException exception)
+        {
+            isIntruderRejected = true;
+        }
+        server.stop();
+        model.shutdown();
+
+        System.out.println(String.format("Takt %d ms, Sendetakt %d ms, %.1f s", LOOPBACK_CYCLE_TIME, RemoteViewServer.DEFAULT_FRAME_MILLIS, elapsed));
+        System.out.println(String.format("%.0f Byte/s, %.1f Byte je Takt (inkl. Properties, Telemetrie-Datagramm: %d Byte)",
+                                         bytes/elapsed, bytes/(double)Math.max(1L, cycles), gui.telemetry.TelemetryFormat.PACKET_SIZE));
+        System.out.println(String.format("Model-Events %d, gesendete Properties %d", events.get(), server.getProperties()));
+        System.out.println(server);
+        System.out.println(client);
+        System.out.println(roundTrip);
+        System.out.println(String.format("%d Takte verglichen, %d Abweichungen, %d ohne Anzeige", compared, mismatches, failures));
+        System.out.println("Falscher Token: " + (isIntruderRejected? "abgewiesen" : "ANGENOMMEN") + ", Ende-Button verworfen");
+        return isIntruderRejected
+            && server.getRejected() == 1L
+            && mismatches == 0
+            && failures == 0
+            && compared > 0
+            && server.getLost() == 0L
+            && client.getCycles() == server.getCycles();
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final String command = (args.length > 0)? args[0] : "";
+        if ("loopback".equals(command))
+        {
+            System.setProperty("java.awt.headless", "true");
+            final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : 5;
+            final boolean isOk = loopback(seconds);
+            System.out.println("Loopback: " + (isOk? "OK" : "FEHLER"));
+            System.exit(isOk? 0 : 1);
+        }
+        if (command.length() == 0)
+        {
+            System.err.println("Aufruf: java gui.remote.RemoteViewMain Rechner[:Port] Token");
+            System.err.println("        java gui.remote.RemoteViewMain loopback [Sekunden]");
+            System.exit(2);
+        }
+        if (args.length < 2)
+        {
+            System.err.println("Token fehlt (remoteViewToken in system.properties des Raspi)");
+            System.exit(2);
+        }
+        window(RemoteViewClient.toAddress(command), args[1]);
+    }
+}
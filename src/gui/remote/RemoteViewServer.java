@@ -0,0 +1,666 @@
+/**
+ *
+ */
+package gui.remote;
+
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Model;
+import gui.View;
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RemoteViewServer - View des Models auf dem Raspi ohne Swing: Die
+ * Darstellung uebernimmt ein SwingWindow auf einem anderen Rechner
+ * ({@link RemoteViewClient}), verbunden ueber TCP ({@link RemoteViewFormat}).
+ * Anmeldung wie jede View: new Controller(remoteViewServer, model).
+ * </p>
+ * <p>
+ * propertyChange() wird von den Threads des Models gerufen und darf nicht
+ * blockieren: Es legt nur den neuesten Wert je Property ab und markiert
+ * ihn (Bitmaske). Ein eigener Thread (MIN_PRIORITY) sendet alle
+ * frameMillis die seit dem letzten Senden geaenderten Properties (nur
+ * bei abweichendem Wert, Zwischenstaende entfallen) und die neuen Takte
+ * aus dem cycleBuffer (als Differenz, vgl. CycleDeltaCodec). Bei neuer
+ * Verbindung wird zuerst der vollstaendige Stand gesendet.
+ * </p>
+ * <p>
+ * Eingaben am entfernten SwingWindow kommen als COMMAND an und werden als
+ * {@link RemoteCommandEvent} an den ActionListener (Controller)
+ * weitergereicht. Es wird jeweils ein Client bedient, weitere warten bis
+ * zum Ende der Verbindung.
+ * </p>
+ * <p>
+ * Zugriff: Der Server bindet nur an die vorgegebene Adresse (in SwingMain
+ * ohne Eintrag Loopback, z.B. ueber einen SSH-Tunnel) und bedient nur
+ * Clients, die den gemeinsamen Token kennen (Challenge-Response, vgl.
+ * {@link RemoteViewFormat}). Das Kommando des Ende-Buttons wird nur mit
+ * setEndAllowed(true) weitergereicht, sonst verworfen.
+ * </p>
+ */
+public class RemoteViewServer implements View, Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(RemoteViewServer.class);
+
+    /**
+     * COMMAND_LOG - Eingaben des Clients
+     */
+    private final static LogSite COMMAND_LOG = AsyncLog.site(RemoteViewServer.class, LogLevel.Debug, "Kommando: {} {}", 20);
+
+    /**
+     * DEFAULT_FRAME_MILLIS = 20 - Sendetakt (50 Hz, Bildwiederholung der View)
+     */
+    public final static long DEFAULT_FRAME_MILLIS = 20L;
+
+    /**
+     * BUFFER_SIZE = 8192 - Puffer des Datenstroms
+     */
+    private final static int BUFFER_SIZE = 8192;
+
+    /**
+     * AUTH_TIMEOUT_MILLIS = 5000 - max. Wartezeit auf die Anmeldung
+     */
+    private final static int AUTH_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * AUTH_FAILURE_MILLIS = 1000 - Pause nach einer fehlgeschlagenen
+     * Anmeldung (bremst das Durchprobieren von Token)
+     */
+    private final static long AUTH_FAILURE_MILLIS = 1000L;
+
+    /**
+     * ALL_KEYS - Bitmaske aller Properties
+     */
+    private final static int ALL_KEYS = (1 << RemoteViewFormat.KEYS.length) - 1;
+
+    /**
+     * model - Quelle des vollstaendigen Standes und der Takte
+     */
+    private final Model model;
+
+    /**
+     * address - Adresse des ServerSocket
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * token - gemeinsamer Token von Server und Client
+     */
+    private final String token;
+
+    /**
+     * frameMillis - Sendetakt
+     */
+    private final long frameMillis;
+
+    /**
+     * isEndAllowed - Ende-Button des Clients beendet die Anwendung
+     */
+    private volatile boolean isEndAllowed = false;
+
+    /**
+     * latest - neuester Wert je Property (Index in RemoteViewFormat.KEYS)
+     */
+    private final AtomicReferenceArray<Object> latest = new AtomicReferenceArray<>(RemoteViewFormat.KEYS.length);
+
+    /**
+     * dirty - Bitmaske der seit dem letzten Senden geaenderten Properties
+     */
+    private final AtomicInteger dirty = new AtomicInteger(0);
+
+    /**
+     * sent - zuletzt gesendeter Wert je Property (nur Sende-Thread)
+     */
+    private final Object[] sent = new Object[RemoteViewFormat.KEYS.length];
+
+    /**
+     * sample - wiederverwendeter Takt (nur Sende-Thread)
+     */
+    private final CycleSample sample = new CycleSample();
+
+    /**
+     * codec - Differenzen der Takte (nur Sende-Thread)
+     */
+    private final CycleDeltaCodec codec;
+
+    /**
+     * actionListener - Empfaenger der Eingaben (Controller)
+     */
+    private volatile ActionListener actionListener = null;
+
+    /**
+     * serverSocket, socket - aktuelle Verbindung
+     */
+    private ServerSocket serverSocket = null;
+    private volatile Socket socket = null;
+
+    /**
+     * nextSequence - naechster zu sendender Takt
+     */
+    private long nextSequence = 0L;
+
+    /**
+     * Statistik: Verbindungen, gesendete Byte, Pakete (flush()),
+     * Properties, Takte, verlorene Takte, empfangene Kommandos
+     */
+    private volatile long connections = 0L;
+    private volatile long bytes = 0L;
+    private volatile long frames = 0L;
+    private volatile long properties = 0L;
+    private volatile long cycles = 0L;
+    private volatile long lost = 0L;
+    private volatile long commands = 0L;
+    private volatile long rejected = 0L;
+
+    /**
+     * thread - Sende-Thread (nimmt auch die Verbindungen an)
+     */
+    private Thread thread = null;
+
+    /**
+     * running - Sende-Thread laeuft
+     */
+    private volatile boolean running = false;
+
+    /**
+     * RemoteViewServer(Model model, InetSocketAddress address, String token) - 
+     * Sendetakt DEFAULT_FRAME_MILLIS...
+     * @param model
+     * @param address - z.B. new InetSocketAddress(InetAddress.getLoopbackAddress(), RemoteViewFormat.DEFAULT_PORT)
+     * @param token - gemeinsamer Token (nicht leer)
+     */
+    public RemoteViewServer(Model model, InetSocketAddress address, String token)
+    {
+        this(model, address, token, DEFAULT_FRAME_MILLIS);
+    }
+
+    /**
+     * RemoteViewServer(Model model, InetSocketAddress address, String token, long frameMillis)
+     * @param model
+     * @param address
+     * @param token - gemeinsamer Token (nicht leer)
+     * @param frameMillis - Sendetakt (ms)
+     */
+    public RemoteViewServer(Model model, InetSocketAddress address, String token, long frameMillis)
+    {
+        if (frameMillis < 1L)
+        {
+            throw new IllegalArgumentException("frameMillis: " + frameMillis);
+        }
+        if (token == null || token.isEmpty())
+        {
+            throw new IllegalArgumentException("RemoteViewServer: kein Token");
+        }
+        this.model = model;
+        this.address = address;
+        this.token = token;
+        this.frameMillis = frameMillis;
+        this.codec = new CycleDeltaCodec(model.getCycleTime());
+    }
+
+    /**
+     * setEndAllowed(boolean isEndAllowed) - darf der Ende-Button des Clients
+     * die Anwendung beenden? (Default: nein)
+     * @param isEndAllowed
+     */
+    public void setEndAllowed(boolean isEndAllowed)
+    {
+        this.isEndAllowed = isEndAllowed;
+    }
+
+    /**
+     * addActionListener(ActionListener listener) - Controller...
+     */
+    @Override
+    public void addActionListener(ActionListener listener)
+    {
+        this.actionListener = listener;
+    }
+
+    /**
+     * propertyChange(PropertyChangeEvent event) - nur ablegen und markieren,
+     * gesendet wird im Sende-Thread...
+     */
+    @Override
+    public void propertyChange(PropertyChangeEvent event)
+    {
+        final String propertyName = event.getPropertyName();
+        final Object newValue = event.getNewValue();
+        if (Model.DATA_BATCH_KEY.equals(propertyName))
+        {
+            if (newValue instanceof Map<?, ?>)
+            {
+                for (Map.Entry<?, ?> entry: ((Map<?, ?>)newValue).entrySet())
+                {
+                    store(String.valueOf(entry.getKey()), entry.getValue());
+                }
+            }
+            return;
+        }
+        store(propertyName, newValue);
+    }
+
+    /**
+     * store(String key, Object value)
+     * @param key
+     * @param value
+     */
+    private void store(String key, Object value)
+    {
+        final int index = RemoteViewFormat.indexOf(key);
+        if (index >= 0)
+        {
+            this.latest.set(index, value);
+            this.dirty.getAndAccumulate(1 << index, (mask, bit) -> mask | bit);
+        }
+    }
+
+    /**
+     * start() - ServerSocket oeffnen und Sende-Thread starten...
+     * @throws IOException
+     */
+    public void start() throws IOException
+    {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(this.address);
+        this.running = true;
+        this.thread = new Thread(this, "RemoteViewServer");
+        // Kein Daemon: haelt die Anwendung ohne Swing am Leben (Ende ueber den Controller)...
+        this.thread.setDaemon(false);
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+        this.thread.start();
+        logger.info("RemoteView auf " + this.serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * stop() - Verbindung und ServerSocket schliessen, Sende-Thread beenden...
+     */
+    public void stop()
+    {
+        this.running = false;
+        closeQuietly(this.socket);
+        try
+        {
+            if (this.serverSocket != null)
+            {
+                this.serverSocket.close();
+            }
+        }
+        catch (IOException exception)
+        {
+            logger.error("stop(): " + exception);
+        }
+        final Thread current = this.thread;
+        if (current != null)
+        {
+            current.interrupt();
+            try
+            {
+                current.join();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+        logger.info(toString());
+    }
+
+    /**
+     * run() - Sende-Thread: Verbindung annehmen, bedienen bis zum Abbruch...
+     */
+    @Override
+    public void run()
+    {
+        while (this.running)
+        {
+            try (Socket client = this.serverSocket.accept())
+            {
+                this.socket = client;
+                logger.info("RemoteView: Verbindung von " + client.getRemoteSocketAddress());
+                if (!authenticate(client))
+                {
+                    this.rejected++;
+                    logger.warn("RemoteView: Anmeldung von " + client.getRemoteSocketAddress() + " abgewiesen");
+                    Thread.sleep(AUTH_FAILURE_MILLIS);
+                    continue;
+                }
+                this.connections++;
+                serve(client);
+            }
+            catch (IOException exception)
+            {
+                if (this.running)
+                {
+                    logger.warn("RemoteView: " + exception);
+                }
+            }
+            catch (InterruptedException exception)
+            {
+                // stop()...
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally
+            {
+                this.socket = null;
+            }
+        }
+    }
+
+    /**
+     * authenticate(Socket client) - HELLO mit Challenge, Antwort pruefen...
+     * @param client
+     * @return true, wenn der Client den Token kennt
+     * @throws IOException
+     */
+    private boolean authenticate(Socket client) throws IOException
+    {
+        client.setSoTimeout(AUTH_TIMEOUT_MILLIS);
+        final DataOutputStream output = new DataOutputStream(client.getOutputStream());
+        final DataInputStream input = new DataInputStream(client.getInputStream());
+        final byte[] nonce = RemoteViewFormat.newNonce();
+        RemoteViewFormat.writeHello(output, nonce);
+        output.flush();
+        final byte[] response = new byte[RemoteViewFormat.MAC_SIZE];
+        try
+        {
+            input.readFully(response);
+        }
+        catch (SocketTimeoutException | EOFException exception)
+        {
+            return false;
+        }
+        client.setSoTimeout(0);
+        // Vergleich in konstanter Zeit...
+        return MessageDigest.isEqual(response, RemoteViewFormat.authenticate(this.token, nonce));
+    }
+
+    /**
+     * serve(Socket client) - vollstaendiger Stand, dann Aenderungen im
+     * Sendetakt...
+     * @param client
+     * @throws IOException
+     */
+    private void serve(Socket client) throws IOException
+    {
+        client.setTcpNoDelay(true);
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(client.getOutputStream(), BUFFER_SIZE));
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+        // ACCEPT: Taktung des Models...
+        output.writeShort(this.model.getCycleTime());
+        // Vollstaendiger Stand: bisher nicht gemeldete Properties aus dem Model...
+        for (int index = 0; index < RemoteViewFormat.KEYS.length; index++)
+        {
+            this.latest.compareAndSet(index, null, this.model.getProperty(RemoteViewFormat.KEYS[index]));
+        }
+        this.dirty.set(ALL_KEYS);
+        final CycleBuffer cycleBuffer = this.model.getCycleBuffer();
+        this.nextSequence = cycleBuffer.getSequence();
+        this.codec.reset();
+        output.writeByte(RemoteViewFormat.CYCLE_RESET);
+        sendFrame(output, cycleBuffer, true);
+
+        final Thread reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                receive(client, input);
+            }
+        }, "RemoteViewCommands");
+        reader.setDaemon(true);
+        reader.start();
+
+        while (this.running && !client.isClosed())
+        {
+            try
+            {
+                Thread.sleep(this.frameMillis);
+            }
+            catch (InterruptedException exception)
+            {
+                // stop()...
+            }
+            sendFrame(output, cycleBuffer, false);
+        }
+    }
+
+    /**
+     * sendFrame(...) - geaenderte Properties und neue Takte...
+     * @param output
+     * @param cycleBuffer
+     * @param isSnapshot - alle markierten Properties senden (auch gleiche Werte)
+     * @throws IOException
+     */
+    private void sendFrame(DataOutputStream output, CycleBuffer cycleBuffer, boolean isSnapshot) throws IOException
+    {
+        final int before = output.size();
+        final int mask = this.dirty.getAndSet(0);
+        for (int index = 0; index < RemoteViewFormat.KEYS.length; index++)
+        {
+            if ((mask & (1 << index)) == 0)
+            {
+                continue;
+            }
+            final Object value = this.latest.get(index);
+            if (!isSnapshot && Objects.equals(value, this.sent[index]))
+            {
+                continue;
+            }
+            output.writeByte(RemoteViewFormat.PROPERTY);
+            output.writeByte(index);
+            RemoteViewFormat.writeValue(output, value);
+            this.sent[index] = value;
+            this.properties++;
+        }
+        final long sequence = cycleBuffer.getSequence();
+        final long oldest = cycleBuffer.getOldestSequence();
+        if (this.nextSequence < oldest)
+        {
+            this.lost += oldest - this.nextSequence;
+            this.nextSequence = oldest;
+            this.codec.reset();
+            output.writeByte(RemoteViewFormat.CYCLE_RESET);
+        }
+        for (; this.nextSequence < sequence; this.nextSequence++)
+        {
+            if (!cycleBuffer.read(this.nextSequence, this.sample))
+            {
+                this.lost++;
+                this.codec.reset();
+                output.writeByte(RemoteViewFormat.CYCLE_RESET);
+                continue;
+            }
+            output.writeByte(RemoteViewFormat.CYCLE);
+            this.codec.encode(output, this.sample);
+            this.cycles++;
+        }
+        final int size = output.size() - before;
+        if (size > 0)
+        {
+            output.flush();
+            this.bytes += size;
+            this.frames++;
+        }
+    }
+
+    /**
+     * receive(Socket client, DataInputStream input) - Kommandos des Clients
+     * an den ActionListener, bis zum Ende der Verbindung...
+     * @param client
+     * @param input
+     */
+    private void receive(Socket client, DataInputStream input)
+    {
+        try
+        {
+            while (true)
+            {
+                final byte type = input.readByte();
+                if (type != RemoteViewFormat.COMMAND)
+                {
+                    throw new IOException("Unbekannte Nachricht: " + type);
+                }
+                final String name = input.readUTF();
+                final Object value = RemoteViewFormat.readValue(input);
+                this.commands++;
+                COMMAND_LOG.log(name, value);
+                if (Model.NAME_END_BUTTON.equals(name) && !this.isEndAllowed)
+                {
+                    logger.warn("RemoteView: Ende-Kommando verworfen (nicht freigegeben)");
+                    continue;
+                }
+                final ActionListener listener = this.actionListener;
+                if (listener != null)
+                {
+                    listener.actionPerformed(new RemoteCommandEvent(this, name, value));
+                }
+            }
+        }
+        catch (EOFException exception)
+        {
+            logger.info("RemoteView: Verbindung beendet");
+        }
+        catch (IOException exception)
+        {
+            if (!client.isClosed())
+            {
+                logger.warn("RemoteView: " + exception);
+            }
+        }
+        finally
+        {
+            closeQuietly(client);
+        }
+    }
+
+    /**
+     * closeQuietly(Socket socket)
+     * @param socket - null moeglich
+     */
+    private static void closeQuietly(Socket socket)
+    {
+        if (socket != null)
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException exception)
+            {
+                // ohne Bedeutung...
+            }
+        }
+    }
+
+    /**
+     * @return lokaler Port (nach start())
+     */
+    public int getLocalPort()
+    {
+        return (this.serverSocket != null)? this.serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * getBytes()
+     * @return Anzahl der gesendeten Byte (ohne Anmeldung)
+     */
+    public long getBytes()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * getFrames()
+     * @return Anzahl der Sendungen (je flush())
+     */
+    public long getFrames()
+    {
+        return this.frames;
+    }
+
+    /**
+     * getProperties()
+     * @return Anzahl der gesendeten Properties
+     */
+    public long getProperties()
+    {
+        return this.properties;
+    }
+
+    /**
+     * getCycles()
+     * @return Anzahl der gesendeten Takte
+     */
+    public long getCycles()
+    {
+        return this.cycles;
+    }
+
+    /**
+     * getLost()
+     * @return Anzahl der Takte, die der Ringpuffer vor dem Senden ueberschrieben hat
+     */
+    public long getLost()
+    {
+        return this.lost;
+    }
+
+    /**
+     * getRejected()
+     * @return Anzahl der abgewiesenen Anmeldungen
+     */
+    public long getRejected()
+    {
+        return this.rejected;
+    }
+
+    /**
+     * getCommands()
+     * @return Anzahl der empfangenen Kommandos
+     */
+    public long getCommands()
+    {
+        return this.commands;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.remote.RemoteViewServer[" + this.address + ", connections=" + this.connections + ", bytes=" + this.bytes
+             + ", frames=" + this.frames + ", properties=" + this.properties + ", cycles=" + this.cycles
+             + ", lost=" + this.lost + ", commands=" + this.commands + ", rejected=" + this.rejected + "]";
+    }
+}
@@ -0,0 +1,414 @@
+/**
+ * 
+ */
+package gui.schedule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import gui.Model;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Schedule - vorgegebener Ablauf (Manoever) aus zeitgestempelten Kommandos 
+ * fuer Servo, Motor und Gang, vorab uebersetzt in primitive Arrays.
+ * </p>
+ * <p>
+ * Format (eine Zeile je Kommando, Kommentare mit ';' wie in system.properties):
+ * </p>
+ * <pre>
+ * ; Zeit (ms)  Kommando  Wert
+ *   0          gear      D
+ *   0          motor     40
+ *   500        servo     20
+ *   1500       servo     -20
+ *   3000       motor     0
+ * </pre>
+ * <ul>
+ *  <li>servo - Servo-Sollwert -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE</li>
+ *  <li>motor - Motor-Sollwert MOTOR_NULL_VALUE ... MOTOR_MAX_VALUE</li>
+ *  <li>gear - Gang D oder R (nur bei freigegebenem Getriebe, vgl. Model.doMotor())</li>
+ * </ul>
+ * <p>
+ * Jedes Kommando wird der ersten Taktgrenze zugeordnet, die nicht vor 
+ * seinem Zeitpunkt liegt (Takt = Zeit/cycleTime, aufgerundet). Kommandos
+ * mit gleicher Zeit werden in der Reihenfolge der Datei ausgefuehrt.
+ * </p>
+ */
+public final class Schedule
+{
+    /**
+     * SERVO, MOTOR, GEAR - Kommandos
+     */
+    public final static byte SERVO = 0;
+    public final static byte MOTOR = 1;
+    public final static byte GEAR = 2;
+    
+    /**
+     * COMMAND_NAMES - Bezeichnung der Kommandos (Index: Kommando)
+     */
+    private final static String[] COMMAND_NAMES = {"servo", "motor", "gear"};
+    
+    /**
+     * COMMENT = ";" - Kommentarzeichen
+     */
+    public final static String COMMENT = ";";
+    
+    /**
+     * name - Bezeichnung (z.B. Dateiname)
+     */
+    private final String name;
+    
+    /**
+     * cycleTime - Taktung in ms, fuer die der Ablauf uebersetzt wurde
+     */
+    private final int cycleTime;
+    
+    /**
+     * timeNanos - Zeitpunkt je Kommando (ns ab Start)
+     */
+    private final long[] timeNanos;
+    
+    /**
+     * cycles - Takt je Kommando (0: erster Takt)
+     */
+    private final long[] cycles;
+    
+    /**
+     * commands - Kommando (SERVO, MOTOR, GEAR)
+     */
+    private final byte[] commands;
+    
+    /**
+     * values - Wert (GEAR: ordinal() von Transmission)
+     */
+    private final int[] values;
+    
+    /**
+     * lines - Zeilennummer in der Quelle (Protokoll)
+     */
+    private final int[] lines;
+    
+    /**
+     * Schedule(...) - privater Konstruktor, vgl. compile()...
+     */
+    private Schedule(String name, int cycleTime, long[] timeNanos, long[] cycles, byte[] commands, int[] values, int[] lines)
+    {
+        this.name = name;
+        this.cycleTime = cycleTime;
+        this.timeNanos = timeNanos;
+        this.cycles = cycles;
+        this.commands = commands;
+        this.values = values;
+        this.lines = lines;
+    }
+    
+    /**
+     * compile(Path path, int cycleTime) - Datei lesen und uebersetzen...
+     * @param path
+     * @param cycleTime - Taktung in ms
+     * @return Schedule
+     * @throws IOException - Lesefehler oder fehlerhafte Zeile
+     */
+    public static Schedule compile(Path path, int cycleTime) throws IOException
+    {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+        {
+            return compile(path.getFileName().toString(), reader, cycleTime);
+        }
+    }
+    
+    /**
+     * compile(String name, Reader reader, int cycleTime) - Uebersetzung in 
+     * primitive Arrays, sortiert nach Zeit (stabil)...
+     * @param name - Bezeichnung
+     * @param reader - Quelle
+     * @param cycleTime - Taktung in ms
+     * @return Schedule
+     * @throws IOException - Lesefehler oder fehlerhafte Zeile
+     */
+    public static Schedule compile(String name, Reader reader, int cycleTime) throws IOException
+    {
+        final int servoMaxValue = Integer.parseInt(Model.SERVO_MAX_VALUE);
+        final int motorNullValue = Integer.parseInt(Model.MOTOR_NULL_VALUE);
+        final int motorMaxValue = Integer.parseInt(Model.MOTOR_MAX_VALUE);
+        
+        long[] timeNanos = new long[16];
+        byte[] commands = new byte[16];
+        int[] values = new int[16];
+        int[] lines = new int[16];
+        int size = 0;
+        
+        final BufferedReader lineReader = (reader instanceof BufferedReader)? (BufferedReader)reader : new BufferedReader(reader);
+        int lineNumber = 0;
+        String line;
+        while ((line = lineReader.readLine()) != null)
+        {
+            lineNumber++;
+            final int commentIndex = line.indexOf(COMMENT);
+            final String content = ((commentIndex >= 0)? line.substring(0, commentIndex) : line).trim();
+            if (content.length() == 0)
+            {
+                continue;
+            }
+            final String[] fields = content.split("\\s+");
+            if (fields.length != 3)
+            {
+                throw new IOException(name + ":" + lineNumber + ": erwartet 'Zeit Kommando Wert': " + line);
+            }
+            final long timeMillis;
+            try
+            {
+                timeMillis = Long.parseLong(fields[0]);
+            }
+            catch (NumberFormatException exception)
+            {
+                throw new IOException(name + ":" + lineNumber + ": Zeit (ms) erwartet: " + fields[0]);
+            }
+            if (timeMillis < 0L)
+            {
+                throw new IOException(name + ":" + lineNumber + ": negative Zeit: " + timeMillis);
+            }
+            final byte command = parseCommand(fields[1]);
+            final int value;
+            switch (command)
+            {
+                case SERVO:
+                    value = parseValue(name, lineNumber, fields[2], -servoMaxValue, servoMaxValue);
+                    break;
+                case MOTOR:
+                    value = parseValue(name, lineNumber, fields[2], motorNullValue, motorMaxValue);
+                    break;
+                case GEAR:
+                    value = parseGear(name, lineNumber, fields[2]);
+                    break;
+                default:
+                    throw new IOException(name + ":" + lineNumber + ": unbekanntes Kommando: " + fields[1]);
+            }
+            if (size == timeNanos.length)
+            {
+                timeNanos = Arrays.copyOf(timeNanos, 2 * size);
+                commands = Arrays.copyOf(commands, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+                lines = Arrays.copyOf(lines, 2 * size);
+            }
+            timeNanos[size] = timeMillis * 1_000_000L;
+            commands[size] = command;
+            values[size] = value;
+            lines[size] = lineNumber;
+            size++;
+        }
+        
+        // Stabile Sortierung nach Zeit (Einfuegen, Ablaeufe sind kurz und meist sortiert)...
+        for (int index = 1; index < size; index++)
+        {
+            final long time = timeNanos[index];
+            final byte command = commands[index];
+            final int value = values[index];
+            final int lineNo = lines[index];
+            int position = index - 1;
+            while (position >= 0 && timeNanos[position] > time)
+            {
+                timeNanos[position + 1] = timeNanos[position];
+                commands[position + 1] = commands[position];
+                values[position + 1] = values[position];
+                lines[position + 1] = lines[position];
+                position--;
+            }
+            timeNanos[position + 1] = time;
+            commands[position + 1] = command;
+            values[position + 1] = value;
+            lines[position + 1] = lineNo;
+        }
+        
+        // Zuordnung zur Taktgrenze (aufgerundet)...
+        final long cycleNanos = cycleTime * 1_000_000L;
+        final long[] cycles = new long[size];
+        for (int index = 0; index < size; index++)
+        {
+            cycles[index] = (timeNanos[index] + cycleNanos - 1L) / cycleNanos;
+        }
+        return new Schedule(name, 
+                            cycleTime, 
+                            Arrays.copyOf(timeNanos, size), 
+                            cycles, 
+                            Arrays.copyOf(commands, size), 
+                            Arrays.copyOf(values, size), 
+                            Arrays.copyOf(lines, size));
+    }
+    
+    /**
+     * parseCommand(String command)
+     * @param command - servo, motor, gear
+     * @return SERVO, MOTOR, GEAR oder -1
+     */
+    private static byte parseCommand(String command)
+    {
+        for (byte index = 0; index < COMMAND_NAMES.length; index++)
+        {
+            if (COMMAND_NAMES[index].equalsIgnoreCase(command))
+            {
+                return index;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * parseValue(...) - ganzzahliger Wert im Bereich min ... max
+     * @throws IOException
+     */
+    private static int parseValue(String name, int lineNumber, String field, int min, int max) throws IOException
+    {
+        final int value;
+        try
+        {
+            value = Integer.parseInt(field);
+        }
+        catch (NumberFormatException exception)
+        {
+            throw new IOException(name + ":" + lineNumber + ": Zahl erwartet: " + field);
+        }
+        if (value < min || value > max)
+        {
+            throw new IOException(name + ":" + lineNumber + ": " + value + " ausserhalb " + min + " ... " + max);
+        }
+        return value;
+    }
+    
+    /**
+     * parseGear(...) - Gang D oder R
+     * @return ordinal() von Transmission
+     * @throws IOException
+     */
+    private static int parseGear(String name, int lineNumber, String field) throws IOException
+    {
+        for (Transmission transmission: Transmission.values())
+        {
+            if (transmission.getValue().equalsIgnoreCase(field))
+            {
+                return transmission.ordinal();
+            }
+        }
+        throw new IOException(name + ":" + lineNumber + ": Gang D oder R erwartet: " + field);
+    }
+    
+    /**
+     * getCommandName(byte command)
+     * @param command
+     * @return servo, motor, gear
+     */
+    public static String getCommandName(byte command)
+    {
+        return COMMAND_NAMES[command];
+    }
+    
+    /**
+     * getName()
+     * @return Bezeichnung
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+    
+    /**
+     * getCycleTime()
+     * @return Taktung in ms
+     */
+    public int getCycleTime()
+    {
+        return this.cycleTime;
+    }
+    
+    /**
+     * size()
+     * @return Anzahl der Kommandos
+     */
+    public int size()
+    {
+        return this.commands.length;
+    }
+    
+    /**
+     * getTimeNanos(int index)
+     * @param index
+     * @return Zeitpunkt (ns ab Start)
+     */
+    public long getTimeNanos(int index)
+    {
+        return this.timeNanos[index];
+    }
+    
+    /**
+     * getCycle(int index)
+     * @param index
+     * @return Takt (0: erster Takt)
+     */
+    public long getCycle(int index)
+    {
+        return this.cycles[index];
+    }
+    
+    /**
+     * getCommand(int index)
+     * @param index
+     * @return SERVO, MOTOR, GEAR
+     */
+    public byte getCommand(int index)
+    {
+        return this.commands[index];
+    }
+    
+    /**
+     * getValue(int index)
+     * @param index
+     * @return Wert (GEAR: ordinal() von Transmission)
+     */
+    public int getValue(int index)
+    {
+        return this.values[index];
+    }
+    
+    /**
+     * getLine(int index)
+     * @param index
+     * @return Zeilennummer in der Quelle
+     */
+    public int getLine(int index)
+    {
+        return this.lines[index];
+    }
+    
+    /**
+     * getDurationNanos() - Zeitpunkt des letzten Kommandos
+     * @return ns ab Start
+     */
+    public long getDurationNanos()
+    {
+        return (size() > 0)? this.timeNanos[size() - 1] : 0L;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[")
+                                  .append(this.name)
+                                  .append(", ")
+                                  .append(size())
+                                  .append(" Kommandos, ")
+                                  .append(getDurationNanos()/1_000_000L)
+                                  .append(" ms, Takt ")
+                                  .append(this.cycleTime)
+                                  .append(" ms]")
+                                  .toString();
+    }
+}
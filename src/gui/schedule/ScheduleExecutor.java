@@ -0,0 +1,249 @@
+/**
+ * 
+ */
+package gui.schedule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.Model;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ScheduleExecutor - Ausfuehrung eines {@link Schedule} im Takt der Steuerung.
+ * </p>
+ * <p>
+ * {@link #execute(Model, long)} wird zu Beginn jedes Taktes aufgerufen 
+ * (Model.doCycle()) und setzt die faelligen Kommandos ueber 
+ * Model.setProperty() um - wie eine Eingabe an der GUI. Ein Gangwechsel 
+ * wird nur bei freigegebenem Getriebe ausgefuehrt (gleiche Sperre wie in 
+ * Model.doMotor()), sonst als abgewiesen vermerkt.
+ * </p>
+ * <p>
+ * Je Kommando wird die Abweichung zwischen Ausfuehrung und vorgegebenem
+ * Zeitpunkt (bezogen auf den ersten Takt) festgehalten. Nur der Takt der
+ * Steuerung schreibt, gelesen wird nach {@link #await(long, TimeUnit)}.
+ * </p>
+ */
+public class ScheduleExecutor
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(ScheduleExecutor.class);
+    
+    /**
+     * NOT_EXECUTED - Kennung fuer noch nicht ausgefuehrte Kommandos
+     */
+    public final static long NOT_EXECUTED = Long.MIN_VALUE;
+    
+    /**
+     * schedule - auszufuehrender Ablauf
+     */
+    private final Schedule schedule;
+    
+    /**
+     * deviationNanos - Abweichung je Kommando (ns), NOT_EXECUTED vor der Ausfuehrung
+     */
+    private final long[] deviationNanos;
+    
+    /**
+     * rejected - Kommando abgewiesen (Gangwechsel bei gesperrtem Getriebe)
+     */
+    private final boolean[] rejected;
+    
+    /**
+     * completed - Ablauf vollstaendig ausgefuehrt
+     */
+    private final CountDownLatch completed = new CountDownLatch(1);
+    
+    /**
+     * startNanos - Beginn des ersten Taktes
+     */
+    private long startNanos = 0L;
+    
+    /**
+     * cycle - aktueller Takt (0: erster Takt)
+     */
+    private long cycle = 0L;
+    
+    /**
+     * next - naechstes Kommando
+     */
+    private int next = 0;
+    
+    /**
+     * ScheduleExecutor(Schedule schedule)
+     * @param schedule
+     */
+    public ScheduleExecutor(Schedule schedule)
+    {
+        this.schedule = schedule;
+        this.deviationNanos = new long[schedule.size()];
+        this.rejected = new boolean[schedule.size()];
+        java.util.Arrays.fill(this.deviationNanos, NOT_EXECUTED);
+        if (schedule.size() == 0)
+        {
+            this.completed.countDown();
+        }
+    }
+    
+    /**
+     * execute(Model model, long cycleStartNanos) - faellige Kommandos des 
+     * aktuellen Taktes...
+     * @param model
+     * @param cycleStartNanos - Beginn des Taktes (Zeitbasis des Models, vgl. Model.getClock())
+     */
+    public void execute(Model model, long cycleStartNanos)
+    {
+        final int size = this.schedule.size();
+        if (this.next >= size)
+        {
+            return;
+        }
+        if (this.cycle == 0L)
+        {
+            this.startNanos = cycleStartNanos;
+        }
+        while (this.next < size && this.schedule.getCycle(this.next) <= this.cycle)
+        {
+            final int index = this.next++;
+            final long executionNanos = model.getClock().nanoTime();
+            final int value = this.schedule.getValue(index);
+            switch (this.schedule.getCommand(index))
+            {
+                case Schedule.SERVO:
+                    model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(value));
+                    break;
+                case Schedule.MOTOR:
+                    model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(value));
+                    break;
+                case Schedule.GEAR:
+                    // Getriebesperre zum aktuellen Motor-Sollwert (auch nach einem Motor-Kommando im selben Takt),
+                    // Pruefung und Uebernahme gemeinsam unter der Sperre der dataMap (Model.apply())...
+                    if (!model.batch().set(Model.DATA_GEAR_KEY, Transmission.values()[value]).commit())
+                    {
+                        this.rejected[index] = true;
+                        logger.warn("execute(): Zeile " + this.schedule.getLine(index) + ": Getriebe gesperrt, gear " + Transmission.values()[value].getValue() + " abgewiesen.");
+                    }
+                    break;
+                default:
+                    break;
+            }
+            this.deviationNanos[index] = (executionNanos - this.startNanos) - this.schedule.getTimeNanos(index);
+        }
+        this.cycle++;
+        if (this.next >= size)
+        {
+            logger.info("Ablauf beendet: " + this.schedule + ", max. Abweichung " + getMaxDeviationNanos()/1000L + " us");
+            this.completed.countDown();
+        }
+    }
+    
+    /**
+     * await(long timeout, TimeUnit unit) - Warten auf das Ende des Ablaufes...
+     * @param timeout
+     * @param unit
+     * @return true, wenn alle Kommandos ausgefuehrt wurden
+     * @throws InterruptedException
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return this.completed.await(timeout, unit);
+    }
+    
+    /**
+     * isCompleted()
+     * @return true, wenn alle Kommandos ausgefuehrt wurden
+     */
+    public boolean isCompleted()
+    {
+        return this.completed.getCount() == 0L;
+    }
+    
+    /**
+     * getSchedule()
+     * @return Schedule
+     */
+    public Schedule getSchedule()
+    {
+        return this.schedule;
+    }
+    
+    /**
+     * getDeviationNanos(int index) - Abweichung der Ausfuehrung
+     * @param index
+     * @return ns (positiv: verspaetet) oder NOT_EXECUTED
+     */
+    public long getDeviationNanos(int index)
+    {
+        return this.deviationNanos[index];
+    }
+    
+    /**
+     * isRejected(int index)
+     * @param index
+     * @return true, wenn das Kommando abgewiesen wurde
+     */
+    public boolean isRejected(int index)
+    {
+        return this.rejected[index];
+    }
+    
+    /**
+     * getMaxDeviationNanos() - max. Betrag der Abweichung der ausgefuehrten Kommandos
+     * @return ns
+     */
+    public long getMaxDeviationNanos()
+    {
+        long max = 0L;
+        for (long deviation: this.deviationNanos)
+        {
+            if (deviation != NOT_EXECUTED)
+            {
+                max = Math.max(max, Math.abs(deviation));
+            }
+        }
+        return max;
+    }
+    
+    /**
+     * export(Writer writer) - Abweichung je Kommando (CSV, Trenner ';')...
+     * @param writer
+     * @throws IOException
+     */
+    public void export(Writer writer) throws IOException
+    {
+        writer.write("line;timeMs;command;value;cycle;deviationUs;status\n");
+        for (int index = 0; index < this.schedule.size(); index++)
+        {
+            final byte command = this.schedule.getCommand(index);
+            final int value = this.schedule.getValue(index);
+            final long deviation = this.deviationNanos[index];
+            writer.write(new StringBuilder().append(this.schedule.getLine(index))
+                                            .append(';')
+                                            .append(this.schedule.getTimeNanos(index)/1_000_000L)
+                                            .append(';')
+                                            .append(Schedule.getCommandName(command))
+                                            .append(';')
+                                            .append((command == Schedule.GEAR)? Transmission.values()[value].getValue() : String.valueOf(value))
+                                            .append(';')
+                                            .append(this.schedule.getCycle(index))
+                                            .append(';')
+                                            .append((deviation != NOT_EXECUTED)? String.format(java.util.Locale.ROOT, "%.1f", deviation/1000.0) : "")
+                                            .append(';')
+                                            .append((deviation == NOT_EXECUTED)? "offen" : (this.rejected[index]? "abgewiesen" : "ok"))
+                                            .append('\n')
+                                            .toString());
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package gui.schedule;
+
+import java.io.OutputStreamWriter;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import gui.Model;
+import gui.hardware.i2c.I2CBackend;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ScheduleMain - Ausfuehrung eines vorgegebenen Ablaufes ohne GUI, 
+ * Ausgabe der Abweichung je Kommando (CSV, Trenner ';').
+ * </p>
+ * <p>
+ * Aufruf: java gui.schedule.ScheduleMain Datei [Taktung (ms)]
+ * </p>
+ * <p>
+ * Auf dem Raspi wird die Hardware angesteuert, sonst laeuft der Ablauf 
+ * ohne Stellglieder (nur Zeitverhalten).
+ * </p>
+ */
+public class ScheduleMain
+{
+    /**
+     * DEFAULT_CYCLE_TIME = 20 - Taktung (ms) fuer Manoever
+     */
+    public final static int DEFAULT_CYCLE_TIME = 20;
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Aufruf: java gui.schedule.ScheduleMain Datei [Taktung (ms)]");
+            System.exit(1);
+        }
+        final int cycleTime = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLE_TIME;
+        final Schedule schedule = Schedule.compile(Paths.get(args[0]), cycleTime);
+        System.err.println("Ablauf: " + schedule);
+        
+        final Model model = new Model(Model.createActuator(I2CBackend.Pi4j, null), cycleTime);
+        model.setSchedule(schedule);
+        model.start();
+        final ScheduleExecutor executor = model.getScheduleExecutor();
+        final long timeoutMillis = schedule.getDurationNanos()/1_000_000L + 10L * cycleTime + 1000L;
+        final boolean isCompleted = executor.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        model.stop();
+        
+        executor.export(new OutputStreamWriter(System.out));
+        System.err.println(String.format("%s, max. Abweichung %.3f ms", 
+                                         isCompleted? "vollstaendig" : "ABGEBROCHEN", 
+                                         executor.getMaxDeviationNanos()/1.0e6));
+        model.shutdown();
+        System.exit(isCompleted? 0 : 1);
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ *
+ */
+package gui.sim;
+
+import java.util.Random;
+
+import gui.Model;
+import gui.hardware.Actuator;
+import gui.hardware.UltrasonicRanger;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * BrakeBench - Notbremse ueber das Ultraschall-Modul in Echtzeit mit einem
+ * {@link SimulatedEchoSource}: Das Model laeuft im regulaeren Takt, das
+ * Hindernis springt zu zufaelligen Zeitpunkten von FAR_DISTANCE auf
+ * NEAR_DISTANCE.
+ * </p>
+ * <p>
+ * Aufruf: java gui.sim.BrakeBench [Versuche] [Taktung ms]
+ * </p>
+ * <p>
+ * Ausgegeben werden die Zeit von der fallenden Flanke des ausloesenden
+ * Echos bis zum abgeschalteten Motor (UltrasonicRanger), die Zeit vom
+ * Versetzen des Hindernisses bis zum abgeschalteten Motor (inkl. Abstand
+ * der Messungen) sowie Vorwaerts-Schreibzugriffe waehrend der Sperre.
+ * </p>
+ * <p>
+ * Geprueft wird auch die Zeit vom Versetzen bis zum Abschalten: Gebremst
+ * wird mit der ersten Messung unter der Schwelle, hoechstens also eine 
+ * Messperiode plus Laufzeit des Echos und SCHEDULER_SLACK_MILLIS.
+ * Exit-Code 1 bei Ueberschreitung, fehlendem Ergebnis oder einem 
+ * Vorwaerts-Schreibzugriff.
+ * </p>
+ */
+public class BrakeBench
+{
+    /**
+     * DEFAULT_TRIALS = 100
+     */
+    public final static int DEFAULT_TRIALS = 100;
+
+    /**
+     * DEFAULT_CYCLE_TIME = 20 - Taktung in ms
+     */
+    public final static int DEFAULT_CYCLE_TIME = 20;
+
+    /**
+     * FAR_DISTANCE = 1.0, NEAR_DISTANCE = 0.1 - Abstand des Hindernisses in m
+     */
+    public final static double FAR_DISTANCE = 1.0;
+    public final static double NEAR_DISTANCE = 0.1;
+
+    /**
+     * SCHEDULER_SLACK_MILLIS = 5 - Zuschlag fuer Aufwecken und Scheduler
+     * in der Schranke Hindernis =&gt; Bremse
+     */
+    private final static long SCHEDULER_SLACK_MILLIS = 5L;
+
+    /**
+     * TIMEOUT_MILLIS = 2000 - max. Wartezeit je Schritt
+     */
+    private final static long TIMEOUT_MILLIS = 2000L;
+
+    /**
+     * ProbeActuator - Stellglieder ohne Hardware, haelt den Zeitpunkt des
+     * Abschaltens fest...
+     */
+    private final static class ProbeActuator implements Actuator
+    {
+        /**
+         * speed - letzte Motor-Vorgabe
+         */
+        private volatile float speed = 0.0f;
+
+        /**
+         * stopNanos - Zeitpunkt des letzten Wechsels auf 0
+         */
+        private volatile long stopNanos = 0L;
+
+        /**
+         * forwardWrites - Vorwaerts-Schreibzugriffe bei gesetzter Sperre
+         */
+        private volatile long forwardWrites = 0L;
+
+        /**
+         * model - zur Pruefung der Sperre
+         */
+        private volatile Model model = null;
+
+        @Override
+        public int getServoMinSteering()
+        {
+            return SimulatedActuator.SERVO_MIN_STEERING;
+        }
+
+        @Override
+        public int getServoMaxSteering()
+        {
+            return SimulatedActuator.SERVO_MAX_STEERING;
+        }
+
+        @Override
+        public void setServo(int relValue)
+        {
+        }
+
+        @Override
+        public synchronized void setMotor(float speed)
+        {
+            if (speed == 0.0f && this.speed != 0.0f)
+            {
+                this.stopNanos = System.nanoTime();
+            }
+            final Model currentModel = this.model;
+            if (speed > 0.0f && currentModel != null && currentModel.isObstacle())
+            {
+                this.forwardWrites++;
+            }
+            this.speed = speed;
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    }
+
+    /**
+     * await(ProbeActuator actuator, boolean isMoving) - Warten auf den Zustand des Motors...
+     * @return true, wenn erreicht
+     */
+    private static boolean await(ProbeActuator actuator, boolean isMoving) throws InterruptedException
+    {
+        final long endMillis = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((actuator.speed > 0.0f) != isMoving)
+        {
+            if (System.currentTimeMillis() > endMillis)
+            {
+                return false;
+            }
+            Thread.sleep(1L);
+        }
+        return true;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int trials = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_TRIALS;
+        final int cycleTime = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLE_TIME;
+
+        final ProbeActuator actuator = new ProbeActuator();
+        final Model model = new Model(actuator, cycleTime);
+        actuator.model = model;
+        final SimulatedEchoSource echoSource = new SimulatedEchoSource(FAR_DISTANCE);
+        final UltrasonicRanger ranger = new UltrasonicRanger(echoSource);
+        model.setUltrasonicRanger(ranger);
+        model.start();
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(50));
+
+        final LatencyHistogram stepToStop = new LatencyHistogram("Hindernis => Bremse");
+        final Random random = new Random(4711L);
+        int failures = 0;
+        for (int trial = 0; trial < trials; trial++)
+        {
+            echoSource.setDistance(FAR_DISTANCE);
+            // Freigabe, der naechste Takt schreibt wieder den Sollwert...
+            if (!await(actuator, true))
+            {
+                failures++;
+                continue;
+            }
+            Thread.sleep(random.nextInt(2 * (int)(ranger.getPeriodNanos()/1_000_000L)) + 1L);
+            final long stepNanos = System.nanoTime();
+            echoSource.setDistance(NEAR_DISTANCE);
+            if (!await(actuator, false))
+            {
+                failures++;
+                continue;
+            }
+            stepToStop.record(actuator.stopNanos - stepNanos);
+            // Sperre halten, Takte duerfen nicht wieder anfahren...
+            Thread.sleep(3L * cycleTime);
+        }
+        model.stop();
+        model.shutdown();
+
+        final LatencyHistogram brakeLatency = ranger.getBrakeLatency();
+        // Schranke: eine Messperiode, Hin- und Rueckweg des Echos, Zuschlag...
+        final long boundNanos = ranger.getPeriodNanos()
+                              + (long)(2.0 * NEAR_DISTANCE / UltrasonicRanger.SPEED_OF_SOUND * 1.0e9)
+                              + SCHEDULER_SLACK_MILLIS * 1_000_000L;
+        final boolean isWithinBound = stepToStop.getPercentile(100.0) <= boundNanos;
+        System.out.println(String.format("Takt %d ms, Messung alle %d ms, Freigabe ueber Median aus %d, Bremsschwelle %.2f m",
+                                         cycleTime,
+                                         ranger.getPeriodNanos()/1_000_000L,
+                                         UltrasonicRanger.DEFAULT_WINDOW,
+                                         UltrasonicRanger.DEFAULT_BRAKE_DISTANCE));
+        System.out.println(brakeLatency);
+        System.out.println("  davon " + echoSource.getWakeLatency() + " (Scheduler)");
+        System.out.println(String.format("  max. %.1f %% des Taktes", 100.0 * brakeLatency.getPercentile(100.0)/(cycleTime * 1.0e6)));
+        System.out.println(stepToStop);
+        System.out.println(String.format("  Schranke %.1f ms (eine Messung): %s",
+                                         boundNanos / 1.0e6, isWithinBound? "eingehalten" : "UEBERSCHRITTEN"));
+        System.out.println(String.format("%d Versuche, %d ohne Ergebnis, %d Messungen, %d Vorwaerts-Schreibzugriffe waehrend der Sperre",
+                                         trials, failures, ranger.getMeasurements(), actuator.forwardWrites));
+        System.exit((failures == 0 && actuator.forwardWrites == 0L && isWithinBound)? 0 : 1);
+    }
+}
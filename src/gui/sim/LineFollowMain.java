@@ -0,0 +1,130 @@
+/**
+ *
+ */
+package gui.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import gui.hardware.LineCalibration;
+import gui.hardware.LineFollower;
+import gui.hardware.LineFollowerModule;
+import gui.hardware.i2c.SimulatedI2CDevice;
+import gui.time.ThreadMeter;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LineFollowMain - Linienfolge ohne Hardware mit 200 Hz Regeltakt
+ * ({@link LinePilot}, {@link SimulatedLineSensor}).
+ * </p>
+ * <p>
+ * Aufruf: java gui.sim.LineFollowMain [runs] [Sekunden je Lauf] [Threads]
+ * </p>
+ * <p>
+ * Ausgegeben werden die Ergebnisse der Laeufe (Runden, Querablage) und
+ * die Kosten einer Erfassung (LineFollower.acquire()) je Aufruf, einmal
+ * mit dem simulierten Sensor und einmal ueber das LineFollowerModule mit
+ * einem {@link SimulatedI2CDevice} (Block-Lesezugriff und Dekodierung).
+ * </p>
+ */
+public class LineFollowMain
+{
+    /**
+     * DEFAULT_RUNS = 100 - Anzahl der Laeufe
+     */
+    public final static int DEFAULT_RUNS = 100;
+
+    /**
+     * DEFAULT_SECONDS = 60 - simulierte Sekunden je Lauf
+     */
+    public final static int DEFAULT_SECONDS = 60;
+
+    /**
+     * CONTROL_PERIOD_NANOS - Regeltakt 5 ms (200 Hz)
+     */
+    public final static long CONTROL_PERIOD_NANOS = 5_000_000L;
+
+    /**
+     * BASE_SEED - Basis der Seeds...
+     */
+    public final static long BASE_SEED = 4711L;
+
+    /**
+     * ACQUISITIONS = 1_000_000 - Erfassungen je Messung
+     */
+    private final static int ACQUISITIONS = 1_000_000;
+
+    /**
+     * measure(String name, LineFollower lineFollower) - Kosten je acquire()...
+     */
+    private static void measure(String name, LineFollower lineFollower) throws Exception
+    {
+        // Aufwaermen...
+        for (int index = 0; index < ACQUISITIONS; index++)
+        {
+            lineFollower.acquire();
+        }
+        final long startBytes = ThreadMeter.allocatedBytes();
+        final long startNanos = System.nanoTime();
+        for (int index = 0; index < ACQUISITIONS; index++)
+        {
+            lineFollower.acquire();
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        final long bytes = ThreadMeter.allocatedBytes() - startBytes;
+        System.out.println(String.format("%-22s %8.1f ns je Erfassung, %.3f Byte je Erfassung angelegt",
+                                         name,
+                                         (double)nanos/ACQUISITIONS,
+                                         (startBytes < 0L)? Double.NaN : (double)bytes/ACQUISITIONS));
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int runs = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        final int parallelism = (args.length > 2)? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        final Supplier<Pilot> pilotSupplier = new Supplier<Pilot>()
+        {
+            @Override
+            public Pilot get()
+            {
+                return new LinePilot();
+            }
+        };
+        final MonteCarlo monteCarlo = new MonteCarlo(BASE_SEED,
+                                                     seconds * 1_000_000_000L,
+                                                     CONTROL_PERIOD_NANOS,
+                                                     pilotSupplier,
+                                                     new Track(Track.DEFAULT_RADIUS));
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            final long startNanos = System.nanoTime();
+            final SimulationResult result = monteCarlo.run(pool, runs);
+            final double wallSeconds = (System.nanoTime() - startNanos)/1.0e9;
+            System.out.println("Pilot:       " + pilotSupplier.get() + " @ " + (1_000_000_000L/CONTROL_PERIOD_NANOS) + " Hz");
+            System.out.println("Ergebnis:    " + result);
+            System.out.println(String.format("Takte:       %d", result.getCycles()));
+            System.out.println(String.format("Durchsatz:   %.0f simulierte s je s Wanduhr (%d Threads)", result.getSimulatedSeconds()/wallSeconds, parallelism));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        // Erfassung: simulierter Sensor...
+        final Track track = new Track(Track.DEFAULT_RADIUS);
+        final VehicleModel vehicle = new VehicleModel(BASE_SEED, track.getRadius(), 0.0, Math.PI/2.0);
+        final SimulatedLineSensor lineSensor = new SimulatedLineSensor(track, vehicle, BASE_SEED);
+        measure("SimulatedLineSensor", new LineFollower(lineSensor, lineSensor.getCalibration()));
+        // ...und Modul ueber I2C (Registerinhalt fest)...
+        final SimulatedI2CDevice device = new SimulatedI2CDevice(LineFollowerModule.ADDRESS);
+        final byte[] registers = { 0x02, (byte)0xBC, 0x02, (byte)0x80, 0x00, 0x64, 0x02, (byte)0x80, 0x02, (byte)0xBC };
+        device.write(0, registers);
+        measure("LineFollowerModule", new LineFollower(new LineFollowerModule(device), LineCalibration.DEFAULT));
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ *
+ */
+package gui.sim;
+
+import gui.Model;
+import gui.hardware.LineFollower;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LinePilot - Spurfolge allein ueber den Linienfolger (ohne Kenntnis der
+ * Strecke): Der Punkt der Linie unter den Sensoren wird wie beim
+ * Pure-Pursuit-Verfahren angefahren.
+ * </p>
+ * <pre>
+ *   alpha = atan(position / LINE_SENSOR_DISTANCE)
+ *   delta = atan(2 * WHEELBASE * sin(alpha) / lookahead)
+ * </pre>
+ * <p>
+ * Die Position stammt aus dem {@link LineFollower} des Models und wird zu
+ * Beginn desselben Taktes erfasst (Model.doCycle()). Ist die Linie nicht
+ * erkannt, gilt die letzte gueltige Position.
+ * </p>
+ */
+public class LinePilot implements Pilot
+{
+    /**
+     * DEFAULT_MOTOR_VALUE = 50 - Motor-Sollwert (GUI-Einheiten 0...100)
+     */
+    public final static int DEFAULT_MOTOR_VALUE = 50;
+
+    /**
+     * SERVO_MAX_VALUE - Endwert des Servo-Ausschlages (Grad), vgl. Model.SERVO_MAX_VALUE
+     */
+    private final static int SERVO_MAX_VALUE = Integer.parseInt(Model.SERVO_MAX_VALUE);
+
+    /**
+     * motorValue - Motor-Sollwert
+     */
+    private final Integer motorValue;
+
+    /**
+     * LinePilot() - Default-Parameter...
+     */
+    public LinePilot()
+    {
+        this(DEFAULT_MOTOR_VALUE);
+    }
+
+    /**
+     * LinePilot(int motorValue)
+     * @param motorValue - Motor-Sollwert (0...100)
+     */
+    public LinePilot(int motorValue)
+    {
+        this.motorValue = Integer.valueOf(motorValue);
+    }
+
+    @Override
+    public void control(Track track, VehicleModel vehicle, Model model)
+    {
+        final LineFollower lineFollower = model.getLineFollower();
+        if (lineFollower == null)
+        {
+            return;
+        }
+        final double position = lineFollower.getPosition();
+        final double lookahead = Math.hypot(SimulatedLineSensor.LINE_SENSOR_DISTANCE, position);
+        final double alpha = Math.atan2(position, SimulatedLineSensor.LINE_SENSOR_DISTANCE);
+        final double delta = Math.atan(2.0 * VehicleModel.WHEELBASE * Math.sin(alpha)/lookahead);
+
+        // Lenkwinkel (rad) => Servo-Sollwert (Grad, -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE)
+        final int servoValue = (int)Math.max(-SERVO_MAX_VALUE, Math.min(SERVO_MAX_VALUE, Math.round(Math.toDegrees(delta))));
+
+        model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(servoValue));
+        model.setProperty(Model.DATA_MOTOR_KEY, this.motorValue);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("LinePilot[motorValue=")
+                                  .append(this.motorValue)
+                                  .append("]")
+                                  .toString();
+    }
+}
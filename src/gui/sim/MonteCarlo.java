@@ -0,0 +1,151 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * MonteCarlo - viele unabhaengige Simulationslaeufe (jeweils eigener Seed)
+ * parallel auf einem ForkJoinPool.
+ * </p>
+ * <p>
+ * Der Bereich der Laufnummern wird rekursiv geteilt, jeder Lauf erhaelt 
+ * den Seed baseSeed + Laufnummer und einen eigenen Piloten (pilotSupplier),
+ * d.h. die Laeufe teilen keinen Zustand.
+ * </p>
+ */
+public class MonteCarlo
+{
+    /**
+     * baseSeed - Basis fuer die Seeds der einzelnen Laeufe
+     */
+    private final long baseSeed;
+    
+    /**
+     * durationNanos - simulierte Dauer je Lauf in ns
+     */
+    private final long durationNanos;
+    
+    /**
+     * controlPeriodNanos - Regeltakt in ns
+     */
+    private final long controlPeriodNanos;
+    
+    /**
+     * pilotSupplier - liefert je Lauf einen neuen Piloten
+     */
+    private final Supplier<Pilot> pilotSupplier;
+    
+    /**
+     * track - Teststrecke (unveraenderlich, wird geteilt)
+     */
+    private final Track track;
+    
+    /**
+     * MonteCarlo(...)
+     * @param baseSeed
+     * @param durationNanos
+     * @param controlPeriodNanos - ganze ms (vgl. Simulation)
+     * @param pilotSupplier
+     * @param track
+     */
+    public MonteCarlo(long baseSeed, long durationNanos, long controlPeriodNanos, Supplier<Pilot> pilotSupplier, Track track)
+    {
+        // Vor den Laeufen pruefen, nicht erst im ForkJoinPool...
+        Simulation.toCycleTime(controlPeriodNanos);
+        this.baseSeed = baseSeed;
+        this.durationNanos = durationNanos;
+        this.controlPeriodNanos = controlPeriodNanos;
+        this.pilotSupplier = pilotSupplier;
+        this.track = track;
+    }
+    
+    /**
+     * run(ForkJoinPool pool, int runs) - Durchfuehrung von runs Laeufen...
+     * @param pool
+     * @param runs
+     * @return zusammengefasstes Ergebnis
+     * @throws IOException
+     */
+    public SimulationResult run(ForkJoinPool pool, int runs) throws IOException
+    {
+        try
+        {
+            return pool.invoke(new RunTask(0, runs));
+        }
+        catch (UncheckedIOException exception)
+        {
+            throw exception.getCause();
+        }
+    }
+    
+    /**
+     * RunTask - Laeufe from (inkl.) bis to (exkl.)...
+     */
+    private class RunTask extends RecursiveTask<SimulationResult>
+    {
+        /**
+         * serialVersionUID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * from - erste Laufnummer (inkl.)
+         */
+        private final int from;
+        
+        /**
+         * to - letzte Laufnummer (exkl.)
+         */
+        private final int to;
+        
+        /**
+         * RunTask(int from, int to)
+         * @param from
+         * @param to
+         */
+        RunTask(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected SimulationResult compute()
+        {
+            if (this.to - this.from <= 1)
+            {
+                if (this.to <= this.from)
+                {
+                    return SimulationResult.EMPTY;
+                }
+                final Simulation simulation = new Simulation(MonteCarlo.this.baseSeed + this.from,
+                                                             MonteCarlo.this.durationNanos,
+                                                             MonteCarlo.this.controlPeriodNanos,
+                                                             MonteCarlo.this.pilotSupplier.get(),
+                                                             MonteCarlo.this.track);
+                try
+                {
+                    return simulation.run();
+                }
+                catch (IOException exception)
+                {
+                    throw new UncheckedIOException(exception);
+                }
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            final RunTask left = new RunTask(this.from, middle);
+            left.fork();
+            final SimulationResult right = new RunTask(middle, this.to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import gui.Model;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface Pilot - der zu untersuchende Regelalgorithmus.
+ * </p>
+ * <p>
+ * Der Pilot wird in jedem Takt der Simulation beauftragt und gibt
+ * seine Sollwerte wie die GUI ueber 
+ * {@link Model#setProperty(String, Object)} vor 
+ * (Model.DATA_SERVO_KEY, Model.DATA_MOTOR_KEY, Model.DATA_GEAR_KEY).
+ * </p>
+ */
+public interface Pilot
+{
+    /**
+     * control(Track track, VehicleModel vehicle, Model model) - ein Takt...
+     * @param track - Teststrecke
+     * @param vehicle - Fahrzeugzustand
+     * @param model - Model, nimmt die Sollwerte auf
+     */
+    public void control(Track track, VehicleModel vehicle, Model model);
+}
@@ -0,0 +1,169 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import gui.hardware.Actuator;
+import gui.time.Clock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulatedActuator - Stellglieder des simulierten PiCar-S.
+ * </p>
+ * <p>
+ * Die Stellwerte des Model (Servo-PWM relativ zur Mittelstellung, 
+ * Motor-PWM inkl. Transmission-Faktor) werden abgelegt und vom 
+ * {@link VehicleModel} als Vorgabe (Lenkwinkel, Geschwindigkeit) 
+ * verwendet. Jeder Schreibzugriff wird mit der (virtuellen) Zeit 
+ * protokolliert.
+ * </p>
+ */
+public class SimulatedActuator implements Actuator
+{
+    /**
+     * SERVO_MIN_STEERING - Grenzwert (links) in PWM-Einheiten...
+     */
+    public final static int SERVO_MIN_STEERING = 250;
+    
+    /**
+     * SERVO_MAX_STEERING - Grenzwert (rechts) in PWM-Einheiten...
+     */
+    public final static int SERVO_MAX_STEERING = 450;
+    
+    /**
+     * clock - Zeitbasis (i.d.R. virtuell)
+     */
+    private final Clock clock;
+    
+    /**
+     * servoRelValue - letzter Servo-Stellwert (PWM relativ zur Mittelstellung)
+     */
+    private int servoRelValue = 0;
+    
+    /**
+     * motorSpeed - letzter Motor-Stellwert (-1.0 ... +1.0)
+     */
+    private float motorSpeed = 0.0f;
+    
+    /**
+     * writeCount - Anzahl der Schreibzugriffe (Servo und Motor)
+     */
+    private long writeCount = 0L;
+    
+    /**
+     * lastWriteNanos - Zeitpunkt des letzten Schreibzugriffes (ns)
+     */
+    private long lastWriteNanos = 0L;
+    
+    /**
+     * SimulatedActuator(Clock clock)
+     * @param clock - Zeitbasis
+     */
+    public SimulatedActuator(Clock clock)
+    {
+        this.clock = clock;
+    }
+    
+    @Override
+    public int getServoMinSteering()
+    {
+        return SERVO_MIN_STEERING;
+    }
+
+    @Override
+    public int getServoMaxSteering()
+    {
+        return SERVO_MAX_STEERING;
+    }
+
+    @Override
+    public void setServo(int relValue)
+    {
+        this.servoRelValue = relValue;
+        written();
+    }
+
+    @Override
+    public void setMotor(float speed)
+    {
+        this.motorSpeed = speed;
+        written();
+    }
+
+    @Override
+    public void reset()
+    {
+        this.servoRelValue = 0;
+        this.motorSpeed = 0.0f;
+        written();
+    }
+
+    @Override
+    public void shutdown()
+    {
+    }
+    
+    /**
+     * written() - Schreibzugriff protokollieren...
+     */
+    private void written()
+    {
+        this.writeCount++;
+        this.lastWriteNanos = this.clock.nanoTime();
+    }
+    
+    /**
+     * getSteeringCommand() - Umrechnung Servo-PWM => Lenkwinkel (rad)...
+     * <p>
+     * Die halbe Spanne (SERVO_MAX_STEERING - SERVO_MIN_STEERING)/2 entspricht
+     * dem max. Lenkwinkel {@link VehicleModel#MAX_STEERING_ANGLE}.
+     * </p>
+     * @return Lenkwinkel-Vorgabe in rad
+     */
+    public double getSteeringCommand()
+    {
+        final double servoDiffSteering = (SERVO_MAX_STEERING - SERVO_MIN_STEERING)/2.0;
+        return (this.servoRelValue/servoDiffSteering) * VehicleModel.MAX_STEERING_ANGLE;
+    }
+    
+    /**
+     * getSpeedCommand() 
+     * @return Motor-Vorgabe (-1.0 ... +1.0)
+     */
+    public double getSpeedCommand()
+    {
+        return this.motorSpeed;
+    }
+
+    /**
+     * @return the servoRelValue
+     */
+    public final int getServoRelValue()
+    {
+        return this.servoRelValue;
+    }
+
+    /**
+     * @return the writeCount
+     */
+    public final long getWriteCount()
+    {
+        return this.writeCount;
+    }
+
+    /**
+     * @return the lastWriteNanos
+     */
+    public final long getLastWriteNanos()
+    {
+        return this.lastWriteNanos;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.sim.SimulatedActuator";
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package gui.sim;
+
+import java.util.concurrent.locks.LockSupport;
+
+import gui.hardware.EchoSource;
+import gui.hardware.UltrasonicRanger;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulatedEchoSource - Ultraschall-Modul ohne Hardware in Echtzeit: Nach
+ * dem Trigger beginnt der Echo-Impuls nach MODULE_DELAY_NANOS, seine Breite
+ * entspricht der Laufzeit zum Hindernis ({@link #setDistance(double)}) und
+ * zurueck.
+ * </p>
+ * <p>
+ * {@link #awaitEcho(long[], long)} kehrt erst nach der fallenden Flanke
+ * zurueck (parkNanos(), wie das Warten in poll()) und liefert die idealen
+ * Zeitstempel der Flanken. Die Verzoegerung des Aufweckens geht damit wie
+ * an der Hardware in die gemessene Reaktionszeit ein und wird zum Vergleich
+ * getrennt festgehalten ({@link #getWakeLatency()}).
+ * </p>
+ */
+public class SimulatedEchoSource implements EchoSource
+{
+    /**
+     * MODULE_DELAY_NANOS - Trigger bis steigende Flanke (Burst), 0.45 ms
+     */
+    public final static long MODULE_DELAY_NANOS = 450_000L;
+
+    /**
+     * MAX_RANGE = 4.0 - groesster messbarer Abstand in m, darueber kein Echo
+     */
+    public final static double MAX_RANGE = 4.0;
+
+    /**
+     * distance - Abstand zum Hindernis in m
+     */
+    private volatile double distance;
+
+    /**
+     * triggerNanos - Zeitpunkt des letzten Triggers
+     */
+    private long triggerNanos = 0L;
+
+    /**
+     * triggerDistance - Abstand zum Zeitpunkt des Triggers
+     */
+    private double triggerDistance = 0.0;
+
+    /**
+     * triggers - Anzahl der Trigger
+     */
+    private volatile long triggers = 0L;
+
+    /**
+     * wakeLatency - fallende Flanke => Rueckkehr aus awaitEcho()
+     */
+    private final LatencyHistogram wakeLatency = new LatencyHistogram("Flanke => Aufwecken");
+
+    /**
+     * SimulatedEchoSource(double distance)
+     * @param distance - anfaenglicher Abstand in m
+     */
+    public SimulatedEchoSource(double distance)
+    {
+        this.distance = distance;
+    }
+
+    /**
+     * setDistance(double distance) - Hindernis versetzen, gilt ab dem naechsten Trigger...
+     * @param distance (m)
+     */
+    public void setDistance(double distance)
+    {
+        this.distance = distance;
+    }
+
+    /**
+     * getDistance()
+     * @return Abstand in m
+     */
+    public double getDistance()
+    {
+        return this.distance;
+    }
+
+    /**
+     * getTriggers()
+     * @return Anzahl der Trigger
+     */
+    public long getTriggers()
+    {
+        return this.triggers;
+    }
+
+    /**
+     * getWakeLatency()
+     * @return Histogramm fallende Flanke => Rueckkehr aus awaitEcho()
+     */
+    public LatencyHistogram getWakeLatency()
+    {
+        return this.wakeLatency;
+    }
+
+    @Override
+    public synchronized void trigger()
+    {
+        this.triggerNanos = System.nanoTime();
+        this.triggerDistance = this.distance;
+        this.triggers++;
+    }
+
+    @Override
+    public synchronized boolean awaitEcho(long[] edges, long timeoutNanos)
+    {
+        final long startNanos = System.nanoTime();
+        final long risingNanos = this.triggerNanos + MODULE_DELAY_NANOS;
+        final long fallingNanos = risingNanos + UltrasonicRanger.toWidthNanos(this.triggerDistance);
+        final boolean isEcho = (this.triggerDistance <= MAX_RANGE) && (fallingNanos - (startNanos + timeoutNanos) <= 0L);
+        final long endNanos = isEcho? fallingNanos : startNanos + timeoutNanos;
+        long waitNanos;
+        while ((waitNanos = endNanos - System.nanoTime()) > 0L)
+        {
+            LockSupport.parkNanos(waitNanos);
+        }
+        if (isEcho)
+        {
+            edges[RISING] = risingNanos;
+            edges[FALLING] = fallingNanos;
+            this.wakeLatency.record(System.nanoTime() - fallingNanos);
+        }
+        return isEcho;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.sim.SimulatedEchoSource";
+    }
+}
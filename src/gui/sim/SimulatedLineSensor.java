@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package gui.sim;
+
+import java.util.Random;
+
+import gui.hardware.LineCalibration;
+import gui.hardware.LineFollower;
+import gui.hardware.LineSensor;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulatedLineSensor - Linienfolger-Modul ohne Hardware: Die Rohwerte
+ * werden aus der Lage des {@link VehicleModel} zur {@link Track} bestimmt
+ * (die Strecke ist als dunkle Linie auf weissem Untergrund markiert).
+ * </p>
+ * <p>
+ * Die Sensoren liegen LINE_SENSOR_DISTANCE vor der Hinterachse quer zur
+ * Fahrtrichtung (Abstand LineFollower.SENSOR_SPACING). Je Sensor wird der
+ * Anteil der Linie im Messfleck bestimmt und zwischen dem Rohwert weiss
+ * und schwarz des Sensors gemischt, dazu kommt Rauschen. Weiss und schwarz
+ * streuen je Sensor (Seed), {@link #getCalibration()} liefert die passende
+ * Kalibrierung.
+ * </p>
+ */
+public class SimulatedLineSensor implements LineSensor
+{
+    /**
+     * LINE_SENSOR_DISTANCE = 0.19 - Abstand der Sensoren vor der Hinterachse in m
+     */
+    public final static double LINE_SENSOR_DISTANCE = 0.19;
+
+    /**
+     * LINE_WIDTH = 0.019 - Breite der Linie in m (Isolierband)
+     */
+    public final static double LINE_WIDTH = 0.019;
+
+    /**
+     * SPOT_RADIUS = 0.004 - Radius des Messflecks in m
+     */
+    public final static double SPOT_RADIUS = 0.004;
+
+    /**
+     * RAW_NOISE_SIGMA = 6.0 - Standardabweichung des Rauschens (Rohwert)
+     */
+    public final static double RAW_NOISE_SIGMA = 6.0;
+
+    /**
+     * RAW_MAX = 1023 - Endwert des AD-Wandlers
+     */
+    private final static int RAW_MAX = 1023;
+
+    /**
+     * OFFSET - Querlage der Sensoren in m (positiv: links)
+     */
+    private final static double[] OFFSET = new double[CHANNELS];
+    static
+    {
+        for (int channel = 0; channel < CHANNELS; channel++)
+        {
+            OFFSET[channel] = LineFollower.MAX_POSITION - channel * LineFollower.SENSOR_SPACING;
+        }
+    }
+
+    /**
+     * track - Strecke, entspricht der Linie
+     */
+    private final Track track;
+
+    /**
+     * vehicle - Lage der Sensoren
+     */
+    private final VehicleModel vehicle;
+
+    /**
+     * random - Rauschen (eigener Generator, das Fahrzeug bleibt unbeeinflusst)
+     */
+    private final Random random;
+
+    /**
+     * white, black - Rohwerte je Sensor
+     */
+    private final int[] white = new int[CHANNELS];
+    private final int[] black = new int[CHANNELS];
+
+    /**
+     * SimulatedLineSensor(Track track, VehicleModel vehicle, long seed)
+     * @param track - Strecke (Linie)
+     * @param vehicle - Fahrzeug mit den Sensoren
+     * @param seed - Seed fuer Streuung und Rauschen
+     */
+    public SimulatedLineSensor(Track track, VehicleModel vehicle, long seed)
+    {
+        this.track = track;
+        this.vehicle = vehicle;
+        this.random = new Random(~seed);
+        for (int channel = 0; channel < CHANNELS; channel++)
+        {
+            this.white[channel] = (int)Math.round(LineCalibration.DEFAULT_WHITE * (1.0 + 0.1 * this.random.nextGaussian()));
+            this.black[channel] = (int)Math.round(LineCalibration.DEFAULT_BLACK * (1.0 + 0.2 * this.random.nextGaussian()));
+        }
+    }
+
+    @Override
+    public void read(int[] raw)
+    {
+        final double heading = this.vehicle.getHeading();
+        final double cos = Math.cos(heading);
+        final double sin = Math.sin(heading);
+        final double centerX = this.vehicle.getX() + LINE_SENSOR_DISTANCE * cos;
+        final double centerY = this.vehicle.getY() + LINE_SENSOR_DISTANCE * sin;
+        for (int channel = 0; channel < CHANNELS; channel++)
+        {
+            // Querlage links: (-sin, cos)...
+            final double x = centerX - OFFSET[channel] * sin;
+            final double y = centerY + OFFSET[channel] * cos;
+            final double distance = Math.abs(this.track.crossTrackError(x, y));
+            // Anteil der Linie im Messfleck, linear ueber die Kante...
+            final double coverage = Math.max(0.0, Math.min(1.0, (LINE_WIDTH/2.0 + SPOT_RADIUS - distance)/(2.0 * SPOT_RADIUS)));
+            final double value = this.white[channel] - coverage * (this.white[channel] - this.black[channel])
+                               + RAW_NOISE_SIGMA * this.random.nextGaussian();
+            raw[channel] = (int)Math.max(0L, Math.min(RAW_MAX, Math.round(value)));
+        }
+    }
+
+    /**
+     * getCalibration()
+     * @return Kalibrierung passend zur Streuung der Sensoren
+     */
+    public LineCalibration getCalibration()
+    {
+        return new LineCalibration(this.white, this.black);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.sim.SimulatedLineSensor";
+    }
+}
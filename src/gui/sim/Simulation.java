@@ -0,0 +1,162 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import java.io.IOException;
+
+import gui.Model;
+import gui.hardware.LineFollower;
+import gui.time.VirtualClock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Simulation - ein Simulationslauf des PiCar-S.
+ * </p>
+ * <p>
+ * Ein Model wird mit einem {@link SimulatedActuator} verbunden. Je Regeltakt
+ * (controlPeriodNanos) fuehrt das Model einen Takt aus ({@link Model#doCycle()},
+ * inkl. Erfassung des {@link SimulatedLineSensor}), der {@link Pilot} gibt
+ * die Sollwerte vor und das {@link VehicleModel} wird in PHYSICS_STEPS
+ * Teilschritten integriert. Die Zeit wird ueber eine
+ * {@link VirtualClock} fortgeschaltet, d.h. der Lauf erfolgt so schnell wie
+ * moeglich (schneller als Echtzeit).
+ * </p>
+ */
+public class Simulation
+{
+    /**
+     * DEFAULT_CONTROL_PERIOD_NANOS - Regeltakt 20 ms (50 Hz, PWM-Frequenz)
+     */
+    public final static long DEFAULT_CONTROL_PERIOD_NANOS = 20_000_000L;
+    
+    /**
+     * PHYSICS_STEPS = 4 - Integrationsschritte je Regeltakt
+     */
+    public final static int PHYSICS_STEPS = 4;
+    
+    /**
+     * seed - Seed fuer das Rauschen des Laufes
+     */
+    private final long seed;
+    
+    /**
+     * durationNanos - Dauer des Laufes (simuliert) in ns
+     */
+    private final long durationNanos;
+    
+    /**
+     * controlPeriodNanos - Regeltakt in ns
+     */
+    private final long controlPeriodNanos;
+    
+    /**
+     * pilot - der zu untersuchende Regelalgorithmus
+     */
+    private final Pilot pilot;
+    
+    /**
+     * track - Teststrecke
+     */
+    private final Track track;
+    
+    /**
+     * Simulation(long seed, long durationNanos, long controlPeriodNanos, Pilot pilot, Track track)
+     * @param seed - Seed fuer das Rauschen
+     * @param durationNanos - simulierte Dauer in ns
+     * @param controlPeriodNanos - Regeltakt in ns (ganze ms, Taktung des Model)
+     * @param pilot - Regelalgorithmus
+     * @param track - Teststrecke
+     */
+    public Simulation(long seed, long durationNanos, long controlPeriodNanos, Pilot pilot, Track track)
+    {
+        toCycleTime(controlPeriodNanos);
+        this.seed = seed;
+        this.durationNanos = durationNanos;
+        this.controlPeriodNanos = controlPeriodNanos;
+        this.pilot = pilot;
+        this.track = track;
+    }
+    
+    /**
+     * toCycleTime(long controlPeriodNanos) - Regeltakt als Taktung des Model...
+     * @param controlPeriodNanos - Regeltakt in ns
+     * @return Taktung in ms
+     * @throws IllegalArgumentException - Regeltakt nicht positiv oder keine ganzen ms
+     */
+    static int toCycleTime(long controlPeriodNanos)
+    {
+        if (controlPeriodNanos <= 0L || controlPeriodNanos % 1_000_000L != 0L || controlPeriodNanos / 1_000_000L > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("controlPeriodNanos (ganze ms): " + controlPeriodNanos);
+        }
+        return (int)(controlPeriodNanos / 1_000_000L);
+    }
+    
+    /**
+     * run() - Durchfuehrung des Laufes...
+     * @return SimulationResult
+     * @throws IOException 
+     */
+    public SimulationResult run() throws IOException
+    {
+        final long startNanos = System.nanoTime();
+        
+        final VirtualClock clock = new VirtualClock();
+        final SimulatedActuator actuator = new SimulatedActuator(clock);
+        // Taktung des Model = Regeltakt (nicht Model.CYCLE_TIME)...
+        final Model model = new Model(actuator, toCycleTime(this.controlPeriodNanos), clock);
+        // Start auf der Strecke bei Winkel 0, Fahrtrichtung tangential...
+        final VehicleModel vehicle = new VehicleModel(this.seed, this.track.getRadius(), 0.0, Math.PI/2.0);
+        // Linienfolger auf der markierten Strecke...
+        final SimulatedLineSensor lineSensor = new SimulatedLineSensor(this.track, vehicle, this.seed);
+        model.setLineFollower(new LineFollower(lineSensor, lineSensor.getCalibration()));
+        
+        final double dt = (this.controlPeriodNanos/1.0e9)/PHYSICS_STEPS;
+        final long stepNanos = this.controlPeriodNanos/PHYSICS_STEPS;
+        
+        long cycles = 0L;
+        double sumSquaredError = 0.0;
+        double maxAbsError = 0.0;
+        // Rundenzaehlung ueber den aufsummierten Winkel...
+        double lastAngle = this.track.angle(vehicle.getX(), vehicle.getY());
+        double totalAngle = 0.0;
+        
+        while (clock.nanoTime() < this.durationNanos)
+        {
+            // 1.) Ein Takt im Model (Linie erfassen), Sollwerte durch den 
+            //     Piloten im selben Takt...
+            model.doCycle();
+            this.pilot.control(this.track, vehicle, model);
+            cycles++;
+            
+            // 2.) Fahrzeug integrieren...
+            for (int step = 0; step < PHYSICS_STEPS; step++)
+            {
+                vehicle.step(dt, actuator.getSteeringCommand(), actuator.getSpeedCommand());
+                clock.advance(stepNanos);
+            }
+            
+            // 3.) Auswertung...
+            final double error = this.track.crossTrackError(vehicle.getX(), vehicle.getY());
+            sumSquaredError += error * error;
+            maxAbsError = Math.max(maxAbsError, Math.abs(error));
+            
+            final double angle = this.track.angle(vehicle.getX(), vehicle.getY());
+            totalAngle += Math.IEEEremainder(angle - lastAngle, 2.0 * Math.PI);
+            lastAngle = angle;
+        }
+        final long laps = (long)Math.floor(totalAngle/(2.0 * Math.PI));
+        
+        return new SimulationResult(1, 
+                                    cycles, 
+                                    clock.nanoTime(), 
+                                    Math.max(0L, laps), 
+                                    sumSquaredError, 
+                                    maxAbsError, 
+                                    actuator.getWriteCount(), 
+                                    System.nanoTime() - startNanos);
+    }
+}
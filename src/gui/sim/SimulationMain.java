@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulationMain - Monte-Carlo-Simulation des PiCar-S ohne Hardware und ohne GUI.
+ * </p>
+ * <p>
+ * Aufruf: java gui.sim.SimulationMain [runs] [Sekunden je Lauf] [Threads]
+ * </p>
+ * <p>
+ * Ausgegeben werden die zusammengefassten Ergebnisse (Runden, Querablage)
+ * und der Durchsatz in simulierten Sekunden je Sekunde Wanduhr.
+ * </p>
+ */
+public class SimulationMain
+{
+    /**
+     * DEFAULT_RUNS = 1000 - Anzahl der Laeufe
+     */
+    public final static int DEFAULT_RUNS = 1000;
+    
+    /**
+     * DEFAULT_SECONDS = 60 - simulierte Sekunden je Lauf
+     */
+    public final static int DEFAULT_SECONDS = 60;
+    
+    /**
+     * BASE_SEED - Basis der Seeds...
+     */
+    public final static long BASE_SEED = 4711L;
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int runs = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        final int parallelism = (args.length > 2)? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        
+        final Supplier<Pilot> pilotSupplier = new Supplier<Pilot>()
+        {
+            @Override
+            public Pilot get()
+            {
+                return new StanleyPilot();
+            }
+        };
+        final MonteCarlo monteCarlo = new MonteCarlo(BASE_SEED, 
+                                                     seconds * 1_000_000_000L, 
+                                                     Simulation.DEFAULT_CONTROL_PERIOD_NANOS, 
+                                                     pilotSupplier, 
+                                                     new Track(Track.DEFAULT_RADIUS));
+        
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            final long startNanos = System.nanoTime();
+            final SimulationResult result = monteCarlo.run(pool, runs);
+            final long wallNanos = System.nanoTime() - startNanos;
+            
+            final double wallSeconds = wallNanos/1.0e9;
+            System.out.println("Pilot:       " + pilotSupplier.get());
+            System.out.println("Ergebnis:    " + result);
+            System.out.println(String.format("Takte:       %d (%d Schreibzugriffe)", result.getCycles(), result.getActuatorWrites()));
+            System.out.println(String.format("Wanduhr:     %.3f s (%d Threads)", wallSeconds, parallelism));
+            System.out.println(String.format("Durchsatz:   %.0f simulierte s je s Wanduhr", result.getSimulatedSeconds()/wallSeconds));
+            System.out.println(String.format("je Thread:   %.0f simulierte s je s Rechenzeit", result.getSimulatedSeconds()/(result.getCpuNanos()/1.0e9)));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * 
+ */
+package gui.sim;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SimulationResult - Ergebnis eines oder (zusammengefasst) mehrerer 
+ * Simulationslaeufe...
+ * </p>
+ */
+public class SimulationResult
+{
+    /**
+     * runs - Anzahl der zusammengefassten Laeufe
+     */
+    private final int runs;
+    
+    /**
+     * cycles - Anzahl der Regeltakte
+     */
+    private final long cycles;
+    
+    /**
+     * simulatedNanos - simulierte Zeit in ns
+     */
+    private final long simulatedNanos;
+    
+    /**
+     * laps - Anzahl der vollstaendigen Runden
+     */
+    private final long laps;
+    
+    /**
+     * sumSquaredError - Summe der quadrierten Querablagen (m^2), je Takt
+     */
+    private final double sumSquaredError;
+    
+    /**
+     * maxAbsError - max. Betrag der Querablage (m)
+     */
+    private final double maxAbsError;
+    
+    /**
+     * actuatorWrites - Anzahl der Schreibzugriffe auf die Stellglieder
+     */
+    private final long actuatorWrites;
+    
+    /**
+     * cpuNanos - Rechenzeit (Wanduhr) der Laeufe in ns
+     */
+    private final long cpuNanos;
+    
+    /**
+     * EMPTY - neutrales Element fuer {@link #merge(SimulationResult)}
+     */
+    public final static SimulationResult EMPTY = new SimulationResult(0, 0L, 0L, 0L, 0.0, 0.0, 0L, 0L);
+    
+    /**
+     * SimulationResult(...)
+     * @param runs
+     * @param cycles
+     * @param simulatedNanos
+     * @param laps
+     * @param sumSquaredError
+     * @param maxAbsError
+     * @param actuatorWrites
+     * @param cpuNanos
+     */
+    public SimulationResult(int runs, 
+                            long cycles, 
+                            long simulatedNanos, 
+                            long laps, 
+                            double sumSquaredError, 
+                            double maxAbsError, 
+                            long actuatorWrites, 
+                            long cpuNanos)
+    {
+        this.runs = runs;
+        this.cycles = cycles;
+        this.simulatedNanos = simulatedNanos;
+        this.laps = laps;
+        this.sumSquaredError = sumSquaredError;
+        this.maxAbsError = maxAbsError;
+        this.actuatorWrites = actuatorWrites;
+        this.cpuNanos = cpuNanos;
+    }
+    
+    /**
+     * merge(SimulationResult another) - Zusammenfassen zweier Ergebnisse...
+     * @param another
+     * @return neues SimulationResult
+     */
+    public SimulationResult merge(SimulationResult another)
+    {
+        return new SimulationResult(this.runs + another.runs,
+                                    this.cycles + another.cycles,
+                                    this.simulatedNanos + another.simulatedNanos,
+                                    this.laps + another.laps,
+                                    this.sumSquaredError + another.sumSquaredError,
+                                    Math.max(this.maxAbsError, another.maxAbsError),
+                                    this.actuatorWrites + another.actuatorWrites,
+                                    this.cpuNanos + another.cpuNanos);
+    }
+    
+    /**
+     * getRmsError() - mittlere Querablage (RMS) in m
+     * @return RMS der Querablage
+     */
+    public double getRmsError()
+    {
+        return (this.cycles > 0L)? Math.sqrt(this.sumSquaredError/this.cycles) : 0.0;
+    }
+    
+    /**
+     * getSimulatedSeconds()
+     * @return simulierte Zeit in s
+     */
+    public double getSimulatedSeconds()
+    {
+        return this.simulatedNanos/1.0e9;
+    }
+
+    /**
+     * @return the runs
+     */
+    public final int getRuns()
+    {
+        return this.runs;
+    }
+
+    /**
+     * @return the cycles
+     */
+    public final long getCycles()
+    {
+        return this.cycles;
+    }
+
+    /**
+     * @return the simulatedNanos
+     */
+    public final long getSimulatedNanos()
+    {
+        return this.simulatedNanos;
+    }
+
+    /**
+     * @return the laps
+     */
+    public final long getLaps()
+    {
+        return this.laps;
+    }
+
+    /**
+     * @return the maxAbsError (m)
+     */
+    public final double getMaxAbsError()
+    {
+        return this.maxAbsError;
+    }
+
+    /**
+     * @return the actuatorWrites
+     */
+    public final long getActuatorWrites()
+    {
+        return this.actuatorWrites;
+    }
+
+    /**
+     * @return the cpuNanos
+     */
+    public final long getCpuNanos()
+    {
+        return this.cpuNanos;
+    }
+    
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[runs=")
+                                  .append(this.runs)
+                                  .append(", simulated=")
+                                  .append(String.format("%.1f s", getSimulatedSeconds()))
+                                  .append(", laps=")
+                                  .append(this.laps)
+                                  .append(", rmsError=")
+                                  .append(String.format("%.4f m", getRmsError()))
+                                  .append(", maxAbsError=")
+                                  .append(String.format("%.4f m", this.maxAbsError))
+                                  .append("]")
+                                  .toString();
+    }
+}
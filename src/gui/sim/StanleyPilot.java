@@ -0,0 +1,103 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import gui.Model;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * StanleyPilot - einfacher Spurfolge-Regler (Stanley-Verfahren) als
+ * Referenz-Pilot fuer die Simulation.
+ * </p>
+ * <pre>
+ *   delta = atan(WHEELBASE/radius) + headingError + atan(gain * crossTrackError / speed)
+ * </pre>
+ */
+public class StanleyPilot implements Pilot
+{
+    /**
+     * DEFAULT_GAIN = 2.0 - Verstaerkung der Querablage (1/s)
+     */
+    public final static double DEFAULT_GAIN = 2.0;
+    
+    /**
+     * DEFAULT_MOTOR_VALUE = 50 - Motor-Sollwert (GUI-Einheiten 0...100)
+     */
+    public final static int DEFAULT_MOTOR_VALUE = 50;
+    
+    /**
+     * SERVO_MAX_VALUE - Endwert des Servo-Ausschlages (Grad), vgl. Model.SERVO_MAX_VALUE
+     */
+    private final static int SERVO_MAX_VALUE = Integer.parseInt(Model.SERVO_MAX_VALUE);
+    
+    /**
+     * MIN_SPEED - Untergrenze der Geschwindigkeit fuer die Regelung (m/s)
+     */
+    private final static double MIN_SPEED = 0.05;
+    
+    /**
+     * gain - Verstaerkung der Querablage...
+     */
+    private final double gain;
+    
+    /**
+     * motorValue - Motor-Sollwert
+     */
+    private final Integer motorValue;
+    
+    /**
+     * StanleyPilot() - Default-Parameter...
+     */
+    public StanleyPilot()
+    {
+        this(DEFAULT_GAIN, DEFAULT_MOTOR_VALUE);
+    }
+    
+    /**
+     * StanleyPilot(double gain, int motorValue)
+     * @param gain - Verstaerkung der Querablage (1/s)
+     * @param motorValue - Motor-Sollwert (0...100)
+     */
+    public StanleyPilot(double gain, int motorValue)
+    {
+        this.gain = gain;
+        this.motorValue = Integer.valueOf(motorValue);
+    }
+    
+    @Override
+    public void control(Track track, VehicleModel vehicle, Model model)
+    {
+        final double x = vehicle.getX();
+        final double y = vehicle.getY();
+        final double speed = Math.max(MIN_SPEED, Math.abs(vehicle.getSpeed()));
+        
+        // Richtungsfehler auf -PI ... +PI normieren...
+        final double headingError = Math.IEEEremainder(track.tangent(x, y) - vehicle.getHeading(), 2.0 * Math.PI);
+        // Querablage positiv => ausserhalb => nach links (positiv) lenken... 
+        final double crossTrackError = track.crossTrackError(x, y);
+        
+        final double delta = Math.atan(VehicleModel.WHEELBASE/track.getRadius()) 
+                           + headingError 
+                           + Math.atan(this.gain * crossTrackError/speed);
+        
+        // Lenkwinkel (rad) => Servo-Sollwert (Grad, -SERVO_MAX_VALUE ... +SERVO_MAX_VALUE)
+        final int servoValue = (int)Math.max(-SERVO_MAX_VALUE, Math.min(SERVO_MAX_VALUE, Math.round(Math.toDegrees(delta))));
+        
+        model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf(servoValue));
+        model.setProperty(Model.DATA_MOTOR_KEY, this.motorValue);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("StanleyPilot[gain=")
+                                  .append(this.gain)
+                                  .append(", motorValue=")
+                                  .append(this.motorValue)
+                                  .append("]")
+                                  .toString();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package gui.sim;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Track - kreisfoermige Teststrecke um den Ursprung (Radius in m),
+ * befahren gegen den Uhrzeigersinn.
+ * </p>
+ */
+public class Track
+{
+    /**
+     * DEFAULT_RADIUS = 1.0 - Radius in m
+     */
+    public final static double DEFAULT_RADIUS = 1.0;
+    
+    /**
+     * radius - Radius der Strecke in m
+     */
+    private final double radius;
+    
+    /**
+     * Track(double radius)
+     * @param radius - Radius in m
+     */
+    public Track(double radius)
+    {
+        this.radius = radius;
+    }
+    
+    /**
+     * crossTrackError(double x, double y) - Querablage in m 
+     * (positiv: ausserhalb der Strecke)
+     * @param x
+     * @param y
+     * @return Querablage (m)
+     */
+    public double crossTrackError(double x, double y)
+    {
+        return Math.hypot(x, y) - this.radius;
+    }
+    
+    /**
+     * angle(double x, double y) - Winkelposition auf der Strecke (rad)
+     * @param x
+     * @param y
+     * @return Winkel -PI ... +PI
+     */
+    public double angle(double x, double y)
+    {
+        return Math.atan2(y, x);
+    }
+    
+    /**
+     * tangent(double x, double y) - Fahrtrichtung der Strecke an der 
+     * Position (x, y) in rad...
+     * @param x
+     * @param y
+     * @return Richtung (rad)
+     */
+    public double tangent(double x, double y)
+    {
+        return angle(x, y) + Math.PI/2.0;
+    }
+
+    /**
+     * @return the radius
+     */
+    public final double getRadius()
+    {
+        return this.radius;
+    }
+}
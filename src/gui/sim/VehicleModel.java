@@ -0,0 +1,213 @@
+/**
+ * 
+ */
+package gui.sim;
+
+import java.util.Random;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * VehicleModel - kinematisches Modell (Einspurmodell, "bicycle model")
+ * des PiCar-S.
+ * </p>
+ * <p>
+ * Zustandsgroessen sind die Position (x, y) in m, die Ausrichtung (heading) 
+ * in rad, die Geschwindigkeit in m/s und der Lenkwinkel in rad. 
+ * Der Lenkwinkel folgt der Vorgabe mit begrenzter Stellgeschwindigkeit 
+ * (Servo), die Geschwindigkeit der Vorgabe mit einer Verzoegerung 1. Ordnung
+ * (Motor). Rauschen (Lenkwinkel-Offset, Geschwindigkeit, Gierrate) wird aus
+ * einem Zufallsgenerator mit vorgegebenem Seed erzeugt, d.h. ein Lauf 
+ * ist reproduzierbar.
+ * </p>
+ * <pre>
+ *   x'       = v * cos(heading)
+ *   y'       = v * sin(heading)
+ *   heading' = v * tan(delta) / WHEELBASE
+ * </pre>
+ */
+public class VehicleModel
+{
+    /**
+     * WHEELBASE = 0.14 - Radstand in m
+     */
+    public final static double WHEELBASE = 0.14;
+    
+    /**
+     * MAX_SPEED = 0.7 - Geschwindigkeit in m/s bei voller Motor-Vorgabe (speed = 1.0)
+     */
+    public final static double MAX_SPEED = 0.7;
+    
+    /**
+     * SPEED_TIME_CONSTANT = 0.25 - Zeitkonstante (s) des Antriebes
+     */
+    public final static double SPEED_TIME_CONSTANT = 0.25;
+    
+    /**
+     * MAX_STEERING_ANGLE - max. Lenkwinkel in rad (30 Grad, 
+     * entspricht Model.SERVO_MAX_VALUE)
+     */
+    public final static double MAX_STEERING_ANGLE = Math.toRadians(30.0);
+    
+    /**
+     * STEERING_RATE - Stellgeschwindigkeit des Servos in rad/s (60 Grad in 0.12 s)
+     */
+    public final static double STEERING_RATE = Math.toRadians(60.0)/0.12;
+    
+    /**
+     * STEERING_OFFSET_SIGMA - Standardabweichung des Lenkwinkel-Offsets (rad),
+     * einmal je Lauf gewuerfelt (Montagetoleranz)...
+     */
+    public final static double STEERING_OFFSET_SIGMA = Math.toRadians(1.0);
+    
+    /**
+     * SPEED_NOISE_SIGMA - relative Standardabweichung der Geschwindigkeit (je Sekunde)
+     */
+    public final static double SPEED_NOISE_SIGMA = 0.05;
+    
+    /**
+     * YAW_NOISE_SIGMA - Standardabweichung der Gierrate (rad/s, je Sekunde), 
+     * z.B. Schlupf...
+     */
+    public final static double YAW_NOISE_SIGMA = 0.05;
+    
+    /**
+     * random - Zufallsgenerator des Laufes...
+     */
+    private final Random random;
+    
+    /**
+     * steeringOffset - Lenkwinkel-Offset (rad)
+     */
+    private final double steeringOffset;
+    
+    /**
+     * x - Position in m
+     */
+    private double x;
+    
+    /**
+     * y - Position in m
+     */
+    private double y;
+    
+    /**
+     * heading - Ausrichtung in rad
+     */
+    private double heading;
+    
+    /**
+     * speed - Geschwindigkeit in m/s
+     */
+    private double speed = 0.0;
+    
+    /**
+     * steeringAngle - Lenkwinkel in rad
+     */
+    private double steeringAngle = 0.0;
+    
+    /**
+     * VehicleModel(long seed, double x, double y, double heading)
+     * @param seed - Seed fuer das Rauschen
+     * @param x - Startposition x (m)
+     * @param y - Startposition y (m)
+     * @param heading - Startausrichtung (rad)
+     */
+    public VehicleModel(long seed, double x, double y, double heading)
+    {
+        this.random = new Random(seed);
+        this.steeringOffset = STEERING_OFFSET_SIGMA * this.random.nextGaussian();
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+    
+    /**
+     * step(double dt, double steeringCommand, double speedCommand) - Integration
+     * ueber den Zeitschritt dt...
+     * @param dt - Zeitschritt in s
+     * @param steeringCommand - Vorgabe Lenkwinkel (rad)
+     * @param speedCommand - Vorgabe Motor von -1.0 bis +1.0 (inkl. Transmission-Faktor)
+     */
+    public void step(double dt, double steeringCommand, double speedCommand)
+    {
+        // 1.) Servo: Lenkwinkel mit begrenzter Stellgeschwindigkeit...
+        final double steeringTarget = Math.max(-MAX_STEERING_ANGLE, Math.min(MAX_STEERING_ANGLE, steeringCommand));
+        final double maxDelta = STEERING_RATE * dt;
+        final double delta = steeringTarget - this.steeringAngle;
+        this.steeringAngle += Math.max(-maxDelta, Math.min(maxDelta, delta));
+        
+        // 2.) Motor: Verzoegerung 1. Ordnung mit Rauschen...
+        final double sqrtDt = Math.sqrt(dt);
+        final double speedTarget = MAX_SPEED * Math.max(-1.0, Math.min(1.0, speedCommand));
+        this.speed += (speedTarget - this.speed) * (dt/(SPEED_TIME_CONSTANT + dt));
+        final double actualSpeed = this.speed * (1.0 + SPEED_NOISE_SIGMA * sqrtDt * this.random.nextGaussian());
+        
+        // 3.) Einspurmodell...
+        final double yawRate = actualSpeed * Math.tan(this.steeringAngle + this.steeringOffset)/WHEELBASE;
+        // Gier-Rauschen nur in der Bewegung (Schlupf)...
+        final double yawNoise = YAW_NOISE_SIGMA * sqrtDt * this.random.nextGaussian() * Math.abs(actualSpeed)/MAX_SPEED;
+        this.x += actualSpeed * Math.cos(this.heading) * dt;
+        this.y += actualSpeed * Math.sin(this.heading) * dt;
+        this.heading += yawRate * dt + yawNoise;
+    }
+
+    /**
+     * @return the x (m)
+     */
+    public final double getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * @return the y (m)
+     */
+    public final double getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * @return the heading (rad)
+     */
+    public final double getHeading()
+    {
+        return this.heading;
+    }
+
+    /**
+     * @return the speed (m/s)
+     */
+    public final double getSpeed()
+    {
+        return this.speed;
+    }
+
+    /**
+     * @return the steeringAngle (rad)
+     */
+    public final double getSteeringAngle()
+    {
+        return this.steeringAngle;
+    }
+    
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[x=")
+                                  .append(this.x)
+                                  .append(", y=")
+                                  .append(this.y)
+                                  .append(", heading=")
+                                  .append(this.heading)
+                                  .append(", speed=")
+                                  .append(this.speed)
+                                  .append("]")
+                                  .toString();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * 
+ */
+package gui.stats;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * enum Aggregate - Kennwerte eines {@link SignalWindow} ueber die letzten
+ * Werte (Fensterbreite).
+ * </p>
+ */
+public enum Aggregate
+{
+    /**
+     * Count("Count") - Anzahl der Werte im Fenster
+     */
+    Count("Count"),
+    /**
+     * Last("Last") - juengster Wert
+     */
+    Last("Last"),
+    /**
+     * Mean("Mean") - gleitender Mittelwert
+     */
+    Mean("Mean"),
+    /**
+     * Min("Min") - Minimum
+     */
+    Min("Min"),
+    /**
+     * Max("Max") - Maximum
+     */
+    Max("Max"),
+    /**
+     * Variance("Variance") - Stichprobenvarianz (n-1)
+     */
+    Variance("Variance"),
+    /**
+     * StdDev("StdDev") - Standardabweichung
+     */
+    StdDev("StdDev"),
+    /**
+     * Rate("Rate") - Aenderung je Takt (juengster - aeltester Wert)/(Anzahl - 1)
+     */
+    Rate("Rate");
+    
+    /**
+     * String aggregate - Kennung des Kennwertes...
+     */
+    private final String aggregate;
+    
+    /**
+     * private Aggregate(String aggregate) - Privater Konstruktor...
+     * @param aggregate
+     */
+    private Aggregate(String aggregate)
+    {
+        this.aggregate = aggregate;
+    }
+    
+    /**
+     * getAggregate() - Kennung des Kennwertes...
+     * @return aggregate
+     */
+    public String getAggregate()
+    {
+        return this.aggregate;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ */
+package gui.stats;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * enum Signal - je Takt erfasste Groessen der Steuerung (vgl. 
+ * {@link SignalStatistics}), abgelegt als ganze Zahl in der 
+ * angegebenen Einheit.
+ * </p>
+ */
+public enum Signal
+{
+    /**
+     * Servo("Servo", "") - Servo-Sollwert (-30 ... 30)
+     */
+    Servo("Servo", ""),
+    /**
+     * Motor("Motor", "") - Motor-Sollwert (0 ... 100)
+     */
+    Motor("Motor", ""),
+    /**
+     * Period("Period", "ns") - Abstand zum vorherigen Takt
+     */
+    Period("Period", "ns"),
+    /**
+     * Jitter("Jitter", "ns") - Abweichung von der Zykluszeit
+     */
+    Jitter("Jitter", "ns"),
+    /**
+     * Busy("Busy", "ns") - Rechenzeit des Taktes
+     */
+    Busy("Busy", "ns"),
+    /**
+     * Latency("Latency", "ns") - max. Laufzeit Eingabe =&gt; Hardware im Takt
+     */
+    Latency("Latency", "ns"),
+    /**
+     * LinePosition("LinePosition", "um") - Querablage der Linie (nur mit 
+     * Linienfolger und erkannter Linie)
+     */
+    LinePosition("LinePosition", "um"),
+    /**
+     * Distance("Distance", "mm") - Abstand zum Hindernis (nur mit 
+     * Ultraschall-Modul und gueltiger Messung)
+     */
+    Distance("Distance", "mm");
+    
+    /**
+     * String signal - Kennung des Signals...
+     */
+    private final String signal;
+    
+    /**
+     * String unit - Einheit der abgelegten Werte...
+     */
+    private final String unit;
+    
+    /**
+     * private Signal(String signal, String unit) - Privater Konstruktor...
+     * @param signal
+     * @param unit
+     */
+    private Signal(String signal, String unit)
+    {
+        this.signal = signal;
+        this.unit = unit;
+    }
+    
+    /**
+     * getSignal() - Kennung des Signals...
+     * @return signal
+     */
+    public String getSignal()
+    {
+        return this.signal;
+    }
+    
+    /**
+     * getUnit() - Einheit...
+     * @return unit
+     */
+    public String getUnit()
+    {
+        return this.unit;
+    }
+}
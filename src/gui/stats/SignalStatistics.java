@@ -0,0 +1,87 @@
+/**
+ *
+ */
+package gui.stats;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SignalStatistics - je {@link Signal} ein {@link SignalWindow} gleicher
+ * Fensterbreite. Der Steuertakt schreibt (Model.recordCycle()), Regler und
+ * Anzeige lesen beliebige Kennwerte ohne Sperre und ohne Objekte anzulegen:
+ * get(Signal.Period, Aggregate.StdDev).
+ * </p>
+ */
+public final class SignalStatistics
+{
+    /**
+     * windows - Index: Signal.ordinal()
+     */
+    private final SignalWindow[] windows;
+
+    /**
+     * SignalStatistics(int size)
+     * @param size - Fensterbreite (Anzahl Takte)
+     */
+    public SignalStatistics(int size)
+    {
+        final Signal[] signals = Signal.values();
+        this.windows = new SignalWindow[signals.length];
+        for (Signal signal: signals)
+        {
+            this.windows[signal.ordinal()] = new SignalWindow(size);
+        }
+    }
+
+    /**
+     * add(Signal signal, long value) - neuer Wert (nur der Steuertakt)...
+     * @param signal
+     * @param value - in der Einheit des Signals
+     */
+    public void add(Signal signal, long value)
+    {
+        this.windows[signal.ordinal()].add(value);
+    }
+
+    /**
+     * get(Signal signal, Aggregate aggregate)
+     * @param signal
+     * @param aggregate
+     * @return Kennwert, NaN ohne Werte
+     */
+    public double get(Signal signal, Aggregate aggregate)
+    {
+        return this.windows[signal.ordinal()].get(aggregate);
+    }
+
+    /**
+     * getWindow(Signal signal)
+     * @param signal
+     * @return Fenster des Signals
+     */
+    public SignalWindow getWindow(Signal signal)
+    {
+        return this.windows[signal.ordinal()];
+    }
+
+    /**
+     * getSize()
+     * @return Fensterbreite
+     */
+    public int getSize()
+    {
+        return this.windows[0].getSize();
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("gui.stats.SignalStatistics[size=").append(getSize());
+        for (Signal signal: Signal.values())
+        {
+            builder.append(", ").append(signal).append('=').append(getWindow(signal));
+        }
+        return builder.append(']').toString();
+    }
+}
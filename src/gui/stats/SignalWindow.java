@@ -0,0 +1,258 @@
+/**
+ *
+ */
+package gui.stats;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SignalWindow - gleitendes Fenster ueber die letzten size Werte eines
+ * Signals mit Kennwerten in O(1) je Wert: Summe und Quadratsumme werden
+ * fortgeschrieben (Wert hinein, aeltester Wert heraus), Minimum und Maximum
+ * ueber monotone Deques (Nummern der Kandidaten, jede Nummer wird genau
+ * einmal eingereiht und einmal entfernt).
+ * </p>
+ * <p>
+ * Summen werden exakt (long) relativ zum ersten Wert gebildet, so
+ * bleibt die Varianz auch bei grossem Gleichanteil (z.B. Periode in ns)
+ * ohne Ausloeschung. Alle Felder sind primitive Arrays, es werden nach
+ * dem Konstruktor keine Objekte angelegt.
+ * </p>
+ * <p>
+ * Ein Thread schreibt ({@link #add(long)}, Steuertakt), beliebige Threads
+ * lesen ohne Sperre (z.B. der EDT): Der Schreiber haelt den Schreibteil
+ * eines StampedLock, Leser lesen optimistisch und wiederholen nur, wenn
+ * waehrenddessen geschrieben wurde. Der Schreiber wartet nie auf Leser.
+ * </p>
+ */
+public final class SignalWindow
+{
+    /**
+     * lock - optimistisches Lesen, nur der Schreiber sperrt
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * values - Ringpuffer der letzten Werte, Index: Nummer % size
+     */
+    private final long[] values;
+
+    /**
+     * minQueue, maxQueue - monotone Deques (Nummern), Index: Zaehler % size
+     */
+    private final long[] minQueue;
+    private final long[] maxQueue;
+
+    /**
+     * Kopf und Ende der Deques (fortlaufend)...
+     */
+    private long minHead = 0L;
+    private long minTail = 0L;
+    private long maxHead = 0L;
+    private long maxTail = 0L;
+
+    /**
+     * sequence - Anzahl der bisher abgelegten Werte (Nummer des naechsten)
+     */
+    private long sequence = 0L;
+
+    /**
+     * offset - erster Wert, Bezug der Summen
+     */
+    private long offset = 0L;
+
+    /**
+     * sum, sumOfSquares - ueber das Fenster, relativ zu offset
+     */
+    private long sum = 0L;
+    private long sumOfSquares = 0L;
+
+    /**
+     * SignalWindow(int size)
+     * @param size - Fensterbreite (Anzahl Werte), mind. 2
+     */
+    public SignalWindow(int size)
+    {
+        if (size < 2)
+        {
+            throw new IllegalArgumentException("SignalWindow: Fensterbreite mind. 2: " + size);
+        }
+        this.values = new long[size];
+        this.minQueue = new long[size];
+        this.maxQueue = new long[size];
+    }
+
+    /**
+     * add(long value) - neuer Wert (nur ein schreibender Thread)...
+     * @param value - Betrag max. ca. 3e9/sqrt(size) Abstand zum ersten Wert
+     */
+    public void add(long value)
+    {
+        final long stamp = this.lock.writeLock();
+        try
+        {
+            final int size = this.values.length;
+            final long number = this.sequence;
+            if (number == 0L)
+            {
+                this.offset = value;
+            }
+            final int index = (int)(number % size);
+            if (number >= size)
+            {
+                // Aeltester Wert verlaesst das Fenster...
+                final long oldest = this.values[index] - this.offset;
+                this.sum -= oldest;
+                this.sumOfSquares -= oldest * oldest;
+                final long expired = number - size;
+                if (this.minQueue[(int)(this.minHead % size)] == expired)
+                {
+                    this.minHead++;
+                }
+                if (this.maxQueue[(int)(this.maxHead % size)] == expired)
+                {
+                    this.maxHead++;
+                }
+            }
+            this.values[index] = value;
+            final long relative = value - this.offset;
+            this.sum += relative;
+            this.sumOfSquares += relative * relative;
+            // Minimum: groessere (gleiche) Kandidaten am Ende verwerfen...
+            while (this.minTail > this.minHead && this.values[(int)(this.minQueue[(int)((this.minTail - 1) % size)] % size)] >= value)
+            {
+                this.minTail--;
+            }
+            this.minQueue[(int)(this.minTail++ % size)] = number;
+            // Maximum: kleinere (gleiche) Kandidaten am Ende verwerfen...
+            while (this.maxTail > this.maxHead && this.values[(int)(this.maxQueue[(int)((this.maxTail - 1) % size)] % size)] <= value)
+            {
+                this.maxTail--;
+            }
+            this.maxQueue[(int)(this.maxTail++ % size)] = number;
+            this.sequence = number + 1L;
+        }
+        finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * reset() - alle Werte verwerfen (nur der schreibende Thread)...
+     */
+    public void reset()
+    {
+        final long stamp = this.lock.writeLock();
+        try
+        {
+            this.sequence = 0L;
+            this.minHead = this.minTail = 0L;
+            this.maxHead = this.maxTail = 0L;
+            this.sum = 0L;
+            this.sumOfSquares = 0L;
+        }
+        finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * get(Aggregate aggregate) - Kennwert ueber das Fenster, ohne Sperre...
+     * @param aggregate
+     * @return Kennwert, NaN ohne Werte (Rate, Variance, StdDev: mit weniger als 2 Werten)
+     */
+    public double get(Aggregate aggregate)
+    {
+        while (true)
+        {
+            final long stamp = this.lock.tryOptimisticRead();
+            if (stamp != 0L)
+            {
+                final double result = compute(aggregate);
+                if (this.lock.validate(stamp))
+                {
+                    return result;
+                }
+            }
+            // Waehrend des Lesens geschrieben (kurz): erneut lesen...
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * compute(Aggregate aggregate) - bei optimistischem Lesen evtl.
+     * inkonsistent, das Ergebnis gilt erst nach validate()...
+     * @param aggregate
+     * @return Kennwert
+     */
+    private double compute(Aggregate aggregate)
+    {
+        final int size = this.values.length;
+        final long number = this.sequence;
+        final long count = Math.min(number, size);
+        if (aggregate == Aggregate.Count)
+        {
+            return count;
+        }
+        if (count == 0L)
+        {
+            return Double.NaN;
+        }
+        switch (aggregate)
+        {
+            case Last:
+                return this.values[(int)((number - 1L) % size)];
+            case Mean:
+                return this.offset + this.sum/(double)count;
+            case Min:
+                return this.values[(int)(this.minQueue[(int)(this.minHead % size)] % size)];
+            case Max:
+                return this.values[(int)(this.maxQueue[(int)(this.maxHead % size)] % size)];
+            case Variance:
+            case StdDev:
+            {
+                if (count < 2L)
+                {
+                    return Double.NaN;
+                }
+                final double mean = this.sum/(double)count;
+                final double variance = Math.max(0.0, (this.sumOfSquares - mean * this.sum)/(count - 1L));
+                return (aggregate == Aggregate.Variance)? variance : Math.sqrt(variance);
+            }
+            case Rate:
+            {
+                if (count < 2L)
+                {
+                    return Double.NaN;
+                }
+                final long newest = this.values[(int)((number - 1L) % size)];
+                final long oldest = this.values[(int)((number - count) % size)];
+                return (newest - oldest)/(double)(count - 1L);
+            }
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * getSize()
+     * @return Fensterbreite
+     */
+    public int getSize()
+    {
+        return this.values.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.stats.SignalWindow[size=" + this.values.length + ", count=" + (long)get(Aggregate.Count)
+             + ", mean=" + get(Aggregate.Mean) + ", min=" + get(Aggregate.Min) + ", max=" + get(Aggregate.Max)
+             + ", stdDev=" + get(Aggregate.StdDev) + ", rate=" + get(Aggregate.Rate) + "]";
+    }
+}
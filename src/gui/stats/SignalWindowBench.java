@@ -0,0 +1,191 @@
+/**
+ *
+ */
+package gui.stats;
+
+import java.util.Random;
+
+import gui.time.ThreadMeter;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * SignalWindowBench - {@link SignalWindow} ohne Hardware:
+ * </p>
+ * <ul>
+ *  <li>Vergleich aller Kennwerte mit der direkten Berechnung ueber das
+ *      Fenster (Zufallswerte mit grossem Gleichanteil, wie die Periode in ns)</li>
+ *  <li>Zeit je add() fuer verschiedene Fensterbreiten (O(1): unabhaengig
+ *      von der Breite)</li>
+ *  <li>Leser parallel zum Schreiber: Min &lt;= Mittelwert &lt;= Max bei
+ *      jedem Lesen, Allokation des Lesers</li>
+ * </ul>
+ * <p>
+ * Aufruf: java gui.stats.SignalWindowBench [Werte je Breite]
+ * </p>
+ */
+public class SignalWindowBench
+{
+    /**
+     * DEFAULT_VALUES = 2_000_000 - Werte je Fensterbreite
+     */
+    public final static int DEFAULT_VALUES = 2_000_000;
+
+    /**
+     * SIZES - gemessene Fensterbreiten
+     */
+    private final static int[] SIZES = {10, 100, 1000, 10000};
+
+    /**
+     * CHECKED_VALUES = 20_000 - Werte mit direktem Vergleich
+     */
+    private final static int CHECKED_VALUES = 20_000;
+
+    /**
+     * BASE = 10 ms in ns - Gleichanteil der Zufallswerte
+     */
+    private final static long BASE = 10_000_000L;
+
+    /**
+     * isClose(double a, double b)
+     * @return true bei relativer Abweichung unter 1e-9
+     */
+    private static boolean isClose(double a, double b)
+    {
+        return Math.abs(a - b) <= 1e-9 * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    /**
+     * check(int size) - alle Kennwerte gegen die direkte Berechnung...
+     * @param size
+     * @return Anzahl der Abweichungen
+     */
+    private static int check(int size)
+    {
+        final SignalWindow window = new SignalWindow(size);
+        final long[] history = new long[CHECKED_VALUES];
+        final Random random = new Random(size);
+        int mismatches = 0;
+        for (int n = 0; n < CHECKED_VALUES; n++)
+        {
+            history[n] = BASE + random.nextInt(200_000) - 100_000;
+            window.add(history[n]);
+            final int first = Math.max(0, n + 1 - size);
+            final int count = n + 1 - first;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            double sum = 0.0;
+            for (int k = first; k <= n; k++)
+            {
+                min = Math.min(min, history[k]);
+                max = Math.max(max, history[k]);
+                sum += history[k];
+            }
+            final double mean = sum/count;
+            double squares = 0.0;
+            for (int k = first; k <= n; k++)
+            {
+                squares += (history[k] - mean) * (history[k] - mean);
+            }
+            if (window.get(Aggregate.Count) != count
+             || window.get(Aggregate.Last) != history[n]
+             || window.get(Aggregate.Min) != min
+             || window.get(Aggregate.Max) != max
+             || !isClose(window.get(Aggregate.Mean), mean))
+            {
+                mismatches++;
+            }
+            if (count > 1
+             && (!isClose(window.get(Aggregate.Variance), squares/(count - 1))
+              || !isClose(window.get(Aggregate.Rate), (history[n] - history[first])/(double)(count - 1))))
+            {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int values = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_VALUES;
+
+        int mismatches = 0;
+        for (int size: SIZES)
+        {
+            final int result = check(size);
+            System.out.println(String.format("Breite %5d: %d Abweichungen in %d Werten", size, result, CHECKED_VALUES));
+            mismatches += result;
+        }
+
+        final long[] input = new long[1 << 16];
+        final Random random = new Random(4711L);
+        for (int n = 0; n < input.length; n++)
+        {
+            input[n] = BASE + random.nextInt(200_000) - 100_000;
+        }
+        for (int round = 0; round < 2; round++)
+        {
+            // Runde 0: Anlauf (JIT)...
+            for (int size: SIZES)
+            {
+                final SignalWindow window = new SignalWindow(size);
+                final long startNanos = System.nanoTime();
+                for (int n = 0; n < values; n++)
+                {
+                    window.add(input[n & (input.length - 1)]);
+                }
+                final long nanos = System.nanoTime() - startNanos;
+                if (round > 0)
+                {
+                    System.out.println(String.format("Breite %5d: %.1f ns je add(), Mittelwert %.0f", size, nanos/(double)values, window.get(Aggregate.Mean)));
+                }
+            }
+        }
+
+        // Leser parallel zum Schreiber...
+        final SignalWindow window = new SignalWindow(1000);
+        final long[] readerResult = new long[3];
+        final Thread reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                long reads = 0L;
+                long violations = 0L;
+                final long bytesBefore = ThreadMeter.allocatedBytes();
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    final double min = window.get(Aggregate.Min);
+                    final double mean = window.get(Aggregate.Mean);
+                    final double max = window.get(Aggregate.Max);
+                    // Drei einzelne Lesevorgaenge: Fenster kann sich dazwischen bewegen, nur grobe Pruefung...
+                    if (!Double.isNaN(mean) && (min > max || mean < BASE - 100_000 || mean > BASE + 100_000))
+                    {
+                        violations++;
+                    }
+                    reads += 3;
+                }
+                readerResult[0] = reads;
+                readerResult[1] = violations;
+                readerResult[2] = ThreadMeter.allocatedBytes() - bytesBefore;
+            }
+        }, "Reader");
+        reader.start();
+        final long startNanos = System.nanoTime();
+        for (int n = 0; n < values; n++)
+        {
+            window.add(input[n & (input.length - 1)]);
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        reader.interrupt();
+        reader.join();
+        System.out.println(String.format("Mit Leser: %.1f ns je add(), %d Lesevorgaenge, %d unplausibel, %d Byte allokiert im Leser",
+                                         nanos/(double)values, readerResult[0], readerResult[1], readerResult[2]));
+        System.out.println(window);
+        final boolean isOk = mismatches == 0 && readerResult[1] == 0L;
+        System.out.println("SignalWindowBench: " + (isOk? "OK" : "FEHLER"));
+        System.exit(isOk? 0 : 1);
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ *
+ */
+package gui.task;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import gui.Model;
+import gui.sim.SimulatedActuator;
+import gui.time.Clock;
+import gui.time.ThreadMeter;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * IdleBench - Ruhebetrieb ({@link IdlePolicy}) ohne Hardware: Model mit
+ * SimulatedActuator, je Zustand CPU-Zeit der Steuerung und des Prozesses
+ * sowie Aufweckungen (Rueckkehr aus dem Warten) und Takte je Sekunde:
+ * </p>
+ * <ul>
+ *  <li>Fahrt - Motor-Sollwert ungleich 0, volle Rate</li>
+ *  <li>Ruhe - Motor 0, nach idleDelay abgesenkte Rate</li>
+ * </ul>
+ * <p>
+ * Danach wird wiederholt aus der Ruhe eine Eingabe gemacht und die Zeit
+ * bis zum Beginn des naechsten Taktes gemessen (Soll: hoechstens ein Takt,
+ * bewertet wird der Median, einzelne Ausreisser des Betriebssystems treten
+ * ebenso bei voller Rate auf, vgl. Terminverletzungen).
+ * </p>
+ * <p>
+ * Aufruf: java gui.task.IdleBench [Sekunden je Zustand] [Taktung ms] [idlePeriod ms]
+ * </p>
+ */
+public class IdleBench
+{
+    /**
+     * DEFAULT_SECONDS = 5 - Messdauer je Zustand
+     */
+    public final static int DEFAULT_SECONDS = 5;
+
+    /**
+     * DEFAULT_CYCLE_TIME = 5 - Taktung in ms
+     */
+    public final static int DEFAULT_CYCLE_TIME = 5;
+
+    /**
+     * DEFAULT_IDLE_PERIOD = 200 - laengste Periode im Ruhebetrieb in ms
+     */
+    public final static int DEFAULT_IDLE_PERIOD = 200;
+
+    /**
+     * IDLE_DELAY_NANOS = 500 ms - Ruhezeit bis zur Absenkung
+     */
+    private final static long IDLE_DELAY_NANOS = 500_000_000L;
+
+    /**
+     * WAKES = 10 - Eingaben aus der Ruhe
+     */
+    private final static int WAKES = 10;
+
+    /**
+     * SLACK_NANOS = 2 ms - zulaessige Weckverzoegerung des Betriebssystems
+     */
+    private final static long SLACK_NANOS = 2_000_000L;
+
+    /**
+     * Sample - Zaehlerstaende zu Beginn bzw. Ende einer Messung...
+     */
+    private final static class Sample
+    {
+        private final long nanos = System.nanoTime();
+        private final long controlCpuNanos = ThreadMeter.cpuNanos("ControlTask-");
+        private final long processCpuNanos = ThreadMeter.processCpuNanos();
+        private final long wakeups;
+        private final long cycles;
+
+        private Sample(Model model)
+        {
+            this.wakeups = model.getTaskExecutive().getWakeups();
+            this.cycles = model.getCounter();
+        }
+    }
+
+    /**
+     * report(String state, Sample begin, Sample end, int divider)
+     * @return Aufweckungen je Sekunde
+     */
+    private static double report(String state, Sample begin, Sample end, int divider)
+    {
+        final double seconds = (end.nanos - begin.nanos)/1e9;
+        final double wakeupsPerSecond = (end.wakeups - begin.wakeups)/seconds;
+        System.out.println(String.format("%-6s Teiler %3d: %7.1f Aufweckungen/s, %7.1f Takte/s, Steuerung %5.2f %% CPU, Prozess %5.2f %% CPU",
+                                         state,
+                                         divider,
+                                         wakeupsPerSecond,
+                                         (end.cycles - begin.cycles)/seconds,
+                                         100.0 * (end.controlCpuNanos - begin.controlCpuNanos)/(end.nanos - begin.nanos),
+                                         100.0 * (end.processCpuNanos - begin.processCpuNanos)/(end.nanos - begin.nanos)));
+        return wakeupsPerSecond;
+    }
+
+    /**
+     * awaitIdle(TaskExecutive executive, int divider, long timeoutNanos) - Warten auf die volle Absenkung...
+     * @return true, wenn erreicht
+     */
+    private static boolean awaitIdle(TaskExecutive executive, int divider, long timeoutNanos) throws InterruptedException
+    {
+        final long endNanos = System.nanoTime() + timeoutNanos;
+        while (executive.getRateDivider() < divider)
+        {
+            if (System.nanoTime() > endNanos)
+            {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        return true;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int seconds = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_SECONDS;
+        final int cycleTime = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLE_TIME;
+        final int idlePeriod = (args.length > 2)? Integer.parseInt(args[2]) : DEFAULT_IDLE_PERIOD;
+        final long cycleNanos = cycleTime * 1_000_000L;
+        final long idleWaitNanos = IDLE_DELAY_NANOS + 4L * idlePeriod * 1_000_000L;
+
+        final Model model = new Model(new SimulatedActuator(Clock.SYSTEM), cycleTime);
+        final IdlePolicy policy = new IdlePolicy(IDLE_DELAY_NANOS, idlePeriod * 1_000_000L);
+        final int maxDivider = policy.getMaxDivider(cycleNanos);
+        model.setIdlePolicy(policy);
+        model.start();
+        final TaskExecutive executive = model.getTaskExecutive();
+        System.out.println(String.format("Taktung %d ms, %s, groesster Teiler %d", cycleTime, policy, maxDivider));
+
+        // Fahrt...
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(30));
+        TimeUnit.MILLISECONDS.sleep(500L);
+        final Sample activeBegin = new Sample(model);
+        TimeUnit.SECONDS.sleep(seconds);
+        final Sample activeEnd = new Sample(model);
+        final int activeDivider = executive.getRateDivider();
+
+        // Ruhe...
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(0));
+        boolean isOk = awaitIdle(executive, maxDivider, idleWaitNanos);
+        final Sample idleBegin = new Sample(model);
+        TimeUnit.SECONDS.sleep(seconds);
+        final Sample idleEnd = new Sample(model);
+        final int idleDivider = executive.getRateDivider();
+
+        // Eingaben aus der Ruhe...
+        final LatencyHistogram wakeLatency = new LatencyHistogram("Eingabe => naechster Takt");
+        final long[] latencies = new long[WAKES];
+        for (int wake = 0; wake < WAKES && isOk; wake++)
+        {
+            isOk = awaitIdle(executive, maxDivider, idleWaitNanos);
+            final long counter = model.getCounter();
+            final long inputNanos = System.nanoTime();
+            model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf((wake % 2 == 0)? 10 : -10));
+            while (model.getCounter() == counter)
+            {
+                LockSupport.parkNanos(100_000L);
+            }
+            final long latencyNanos = System.nanoTime() - inputNanos;
+            wakeLatency.record(latencyNanos);
+            latencies[wake] = latencyNanos;
+        }
+        model.stop();
+        model.shutdown();
+
+        final double activeWakeups = report("Fahrt", activeBegin, activeEnd, activeDivider);
+        final double idleWakeups = report("Ruhe", idleBegin, idleEnd, idleDivider);
+        for (TaskStatistics statistics: executive.getStatistics())
+        {
+            System.out.println("  " + statistics);
+        }
+        System.out.println(wakeLatency);
+        Arrays.sort(latencies);
+        final long medianNanos = latencies[WAKES / 2];
+        System.out.println(String.format("Median %.3f ms, max. %.3f ms bis zum naechsten Takt (Taktung %d ms), Terminverletzungen %d",
+                                         medianNanos/1e6, latencies[WAKES - 1]/1e6, cycleTime, executive.getTotalMisses()));
+        isOk = isOk
+            && activeDivider == 1
+            && idleDivider == maxDivider
+            && idleWakeups * maxDivider < 2.0 * activeWakeups
+            && medianNanos <= cycleNanos + SLACK_NANOS;
+        System.out.println("IdleBench: " + (isOk? "OK" : "FEHLER"));
+        System.exit(isOk? 0 : 1);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package gui.task;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * IdlePolicy - Ruhebetrieb der Steuerung (vgl. Model.start()): Steht der
+ * Motor (Sollwert 0) und gab es idleDelay lang keine Eingabe und kein
+ * Sensor-Ereignis, so wird die Rate des {@link TaskExecutive} schrittweise
+ * gesenkt (Periode je Takt verdoppelt), bis der Takt hoechstens alle
+ * idlePeriod freigegeben wird. Jede Eingabe stellt ueber
+ * {@link TaskExecutive#wake()} sofort die volle Rate wieder her.
+ * </p>
+ * <p>
+ * {@link #NONE} entspricht dem bisherigen Verhalten: immer volle Rate.
+ * </p>
+ * <p>
+ * Beispiel (Takt 5 ms): idleDelay 5 s, idlePeriod 200 ms => nach 5 s ohne
+ * Eingabe 10, 20, 40, 80, 160 ms, danach 40 statt 200 Freigaben je Sekunde.
+ * </p>
+ */
+public final class IdlePolicy
+{
+    /**
+     * NONE - kein Ruhebetrieb
+     */
+    public final static IdlePolicy NONE = new IdlePolicy(0L, 0L);
+
+    /**
+     * idleDelayNanos - Ruhezeit bis zur ersten Absenkung (ns)
+     */
+    private final long idleDelayNanos;
+
+    /**
+     * idlePeriodNanos - laengste Periode des Taktes im Ruhebetrieb (ns, 0: kein Ruhebetrieb)
+     */
+    private final long idlePeriodNanos;
+
+    /**
+     * IdlePolicy(long idleDelayNanos, long idlePeriodNanos) - Konstruktor...
+     * @param idleDelayNanos - Ruhezeit bis zur ersten Absenkung (ns, >= 0)
+     * @param idlePeriodNanos - laengste Periode im Ruhebetrieb (ns, 0: kein Ruhebetrieb)
+     */
+    public IdlePolicy(long idleDelayNanos, long idlePeriodNanos)
+    {
+        if (idleDelayNanos < 0L || idlePeriodNanos < 0L)
+        {
+            throw new IllegalArgumentException("IdlePolicy: negative Vorgabe");
+        }
+        this.idleDelayNanos = idleDelayNanos;
+        this.idlePeriodNanos = idlePeriodNanos;
+    }
+
+    /**
+     * isEnabled()
+     * @return true, wenn die Rate im Ruhebetrieb gesenkt wird
+     */
+    public boolean isEnabled()
+    {
+        return this.idlePeriodNanos > 0L;
+    }
+
+    /**
+     * getIdleDelayNanos()
+     * @return Ruhezeit bis zur ersten Absenkung (ns)
+     */
+    public long getIdleDelayNanos()
+    {
+        return this.idleDelayNanos;
+    }
+
+    /**
+     * getIdlePeriodNanos()
+     * @return laengste Periode des Taktes im Ruhebetrieb (ns)
+     */
+    public long getIdlePeriodNanos()
+    {
+        return this.idlePeriodNanos;
+    }
+
+    /**
+     * getMaxDivider(long cycleNanos) - groesster Teiler der Rate...
+     * @param cycleNanos - Taktung (ns)
+     * @return Teiler (>= 1, 1: keine Absenkung)
+     */
+    public int getMaxDivider(long cycleNanos)
+    {
+        if (!isEnabled() || cycleNanos <= 0L)
+        {
+            return 1;
+        }
+        return (int)Math.max(1L, Math.min(Integer.MAX_VALUE, this.idlePeriodNanos / cycleNanos));
+    }
+
+    /**
+     * parse(String idleDelay, String idlePeriod) - Vorgaben aus der
+     * properties-Datei (leer: kein Ruhebetrieb)...
+     * @param idleDelay - Ruhezeit in s (Default: 0)
+     * @param idlePeriod - laengste Periode in ms (Default: kein Ruhebetrieb)
+     * @return IdlePolicy
+     */
+    public static IdlePolicy parse(String idleDelay, String idlePeriod)
+    {
+        return new IdlePolicy(parseLong(idleDelay) * 1_000_000_000L,
+                              parseLong(idlePeriod) * 1_000_000L);
+    }
+
+    /**
+     * parseLong(String value)
+     * @param value
+     * @return long, 0L bei leerem Wert
+     */
+    private static long parseLong(String value)
+    {
+        return (value == null || value.trim().length() == 0)? 0L : Long.parseLong(value.trim());
+    }
+
+    @Override
+    public String toString()
+    {
+        if (!isEnabled())
+        {
+            return "[kein Ruhebetrieb]";
+        }
+        return String.format("[idleDelay=%.1f s, idlePeriod=%.3f ms]",
+                             this.idleDelayNanos/1.0e9,
+                             this.idlePeriodNanos/1.0e6);
+    }
+}
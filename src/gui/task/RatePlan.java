@@ -0,0 +1,179 @@
+/**
+ *
+ */
+package gui.task;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * RatePlan - Perioden der Aufgaben des Models (vgl. Model.start()):
+ * Servo, Motor und GUI, dazu der Versatz (Phase) der Stellglieder
+ * gegenueber dem Takt und die Anzahl der Threads des {@link TaskExecutive}.
+ * </p>
+ * <p>
+ * Der Takt selbst (Taktzaehler, vorgegebener Ablauf, cycleBuffer) laeuft
+ * mit der Taktung des Models bei Phase 0. Eine Periode 0 bedeutet "wie der
+ * Takt". {@link #UNIFORM} entspricht dem bisherigen Verhalten: alle Aufgaben
+ * im Takt, nacheinander in einem Thread.
+ * </p>
+ * <p>
+ * Beispiel (Takt 5 ms): Servo 20 ms (PWM 50 Hz), Motor 5 ms, GUI 50 ms,
+ * Stellglieder 1000 us nach dem Takt (Sensoren lesen, rechnen, stellen).
+ * </p>
+ */
+public final class RatePlan
+{
+    /**
+     * UNIFORM - alle Aufgaben im Takt, ohne Versatz, ein Thread
+     */
+    public final static RatePlan UNIFORM = new RatePlan(0L, 0L, 0L, 0L, TaskExecutive.DEFAULT_THREADS);
+
+    /**
+     * servoPeriodNanos - Periode Servo (ns, 0: Takt)
+     */
+    private final long servoPeriodNanos;
+
+    /**
+     * motorPeriodNanos - Periode Motor (ns, 0: Takt)
+     */
+    private final long motorPeriodNanos;
+
+    /**
+     * guiPeriodNanos - Periode der GUI-Information (ns, 0: Takt)
+     */
+    private final long guiPeriodNanos;
+
+    /**
+     * actuationPhaseNanos - Versatz von Servo und Motor (ns)
+     */
+    private final long actuationPhaseNanos;
+
+    /**
+     * threads - Anzahl der Threads (hoechstens)
+     */
+    private final int threads;
+
+    /**
+     * RatePlan(long servoPeriodNanos, long motorPeriodNanos, long guiPeriodNanos, long actuationPhaseNanos, int threads) - Konstruktor...
+     * @param servoPeriodNanos - Periode Servo (ns, 0: Takt)
+     * @param motorPeriodNanos - Periode Motor (ns, 0: Takt)
+     * @param guiPeriodNanos - Periode GUI (ns, 0: Takt)
+     * @param actuationPhaseNanos - Versatz von Servo und Motor (ns, kleiner als deren Perioden)
+     * @param threads - Anzahl der Threads (>= 1)
+     */
+    public RatePlan(long servoPeriodNanos, long motorPeriodNanos, long guiPeriodNanos, long actuationPhaseNanos, int threads)
+    {
+        if (servoPeriodNanos < 0L || motorPeriodNanos < 0L || guiPeriodNanos < 0L || actuationPhaseNanos < 0L)
+        {
+            throw new IllegalArgumentException("RatePlan: negative Vorgabe");
+        }
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads: " + threads);
+        }
+        this.servoPeriodNanos = servoPeriodNanos;
+        this.motorPeriodNanos = motorPeriodNanos;
+        this.guiPeriodNanos = guiPeriodNanos;
+        this.actuationPhaseNanos = actuationPhaseNanos;
+        this.threads = threads;
+    }
+
+    /**
+     * getServoPeriodNanos(long cycleNanos)
+     * @param cycleNanos - Taktung (ns)
+     * @return Periode Servo (ns)
+     */
+    public long getServoPeriodNanos(long cycleNanos)
+    {
+        return (this.servoPeriodNanos > 0L)? this.servoPeriodNanos : cycleNanos;
+    }
+
+    /**
+     * getMotorPeriodNanos(long cycleNanos)
+     * @param cycleNanos - Taktung (ns)
+     * @return Periode Motor (ns)
+     */
+    public long getMotorPeriodNanos(long cycleNanos)
+    {
+        return (this.motorPeriodNanos > 0L)? this.motorPeriodNanos : cycleNanos;
+    }
+
+    /**
+     * getGuiPeriodNanos(long cycleNanos)
+     * @param cycleNanos - Taktung (ns)
+     * @return Periode GUI (ns)
+     */
+    public long getGuiPeriodNanos(long cycleNanos)
+    {
+        return (this.guiPeriodNanos > 0L)? this.guiPeriodNanos : cycleNanos;
+    }
+
+    /**
+     * getActuationPhaseNanos()
+     * @return Versatz von Servo und Motor (ns)
+     */
+    public long getActuationPhaseNanos()
+    {
+        return this.actuationPhaseNanos;
+    }
+
+    /**
+     * getThreads()
+     * @return Anzahl der Threads (hoechstens)
+     */
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * parse(String servoPeriod, String motorPeriod, String guiPeriod, String actuationPhase, String threads) -
+     * Vorgaben aus der properties-Datei (leer: Default)...
+     * @param servoPeriod - Periode Servo in ms (Default: Takt)
+     * @param motorPeriod - Periode Motor in ms (Default: Takt)
+     * @param guiPeriod - Periode GUI in ms (Default: Takt)
+     * @param actuationPhase - Versatz der Stellglieder in us (Default: 0)
+     * @param threads - Anzahl der Threads (Default: 1)
+     * @return RatePlan
+     */
+    public static RatePlan parse(String servoPeriod, String motorPeriod, String guiPeriod, String actuationPhase, String threads)
+    {
+        return new RatePlan(parseLong(servoPeriod) * 1_000_000L,
+                            parseLong(motorPeriod) * 1_000_000L,
+                            parseLong(guiPeriod) * 1_000_000L,
+                            parseLong(actuationPhase) * 1_000L,
+                            (threads == null || threads.trim().length() == 0)? TaskExecutive.DEFAULT_THREADS : Integer.parseInt(threads.trim()));
+    }
+
+    /**
+     * parseLong(String value)
+     * @param value
+     * @return long, 0L bei leerem Wert
+     */
+    private static long parseLong(String value)
+    {
+        return (value == null || value.trim().length() == 0)? 0L : Long.parseLong(value.trim());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("[servo=%s, motor=%s, gui=%s, phase=%d us, threads=%d]",
+                             format(this.servoPeriodNanos),
+                             format(this.motorPeriodNanos),
+                             format(this.guiPeriodNanos),
+                             this.actuationPhaseNanos / 1_000L,
+                             this.threads);
+    }
+
+    /**
+     * format(long periodNanos)
+     * @param periodNanos
+     * @return "Takt" oder Periode in ms
+     */
+    private static String format(long periodNanos)
+    {
+        return (periodNanos > 0L)? String.format("%.3f ms", periodNanos/1.0e6) : "Takt";
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ *
+ */
+package gui.task;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface Task - periodische Aufgabe des {@link TaskExecutive}
+ * (z.B. Sensoren lesen, Servo stellen, GUI informieren).
+ * </p>
+ * <p>
+ * Die Aufgabe laeuft immer im selben Thread des TaskExecutive und
+ * soll innerhalb ihrer Periode abgeschlossen sein, sonst wird eine
+ * Terminverletzung gezaehlt ({@link TaskStatistics#getMisses()}).
+ * </p>
+ */
+public interface Task
+{
+    /**
+     * execute(long releaseNanos) - eine Ausfuehrung der Aufgabe...
+     * @param releaseNanos - geplanter Beginn (Freigabe) auf der Basis
+     * von System.nanoTime()
+     * @throws IOException
+     */
+    public void execute(long releaseNanos) throws IOException;
+}
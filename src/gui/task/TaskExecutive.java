@@ -0,0 +1,776 @@
+/**
+ *
+ */
+package gui.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.jfr.ControlCycleEvent;
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+import gui.time.Clock;
+import gui.time.CycleTimer;
+import gui.time.VirtualClock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TaskExecutive - Ausfuehrung periodischer Aufgaben ({@link Task}) mit
+ * eigener Periode und eigenem Versatz (Phase) auf einer kleinen, festen
+ * Anzahl von Threads.
+ * </p>
+ * <p>
+ * Die Aufgaben werden nach der Periode geordnet (rate-monotonic: kuerzere
+ * Periode => hoehere Prioritaet) und in zusammenhaengenden Gruppen auf die
+ * Threads verteilt, Aufgaben gleicher Periode laufen im selben Thread.
+ * Innerhalb eines Threads wird immer die Aufgabe mit der fruehesten Freigabe
+ * ausgefuehrt, bei gleicher Freigabe die mit der kuerzeren Periode, danach
+ * in der Reihenfolge der Anmeldung. Mit dem Versatz lassen sich so z.B.
+ * Sensoren bei Phase 0 lesen und die Stellglieder bei fester Phase danach
+ * stellen.
+ * </p>
+ * <p>
+ * Alle Freigaben beziehen sich auf einen gemeinsamen Startzeitpunkt.
+ * Der Termin einer Ausfuehrung ist das Ende ihrer Periode, Ueberschreitungen
+ * werden je Aufgabe gezaehlt ({@link TaskStatistics}). Liegt eine Aufgabe
+ * mehr als eine Periode zurueck, werden die versaeumten Freigaben
+ * ausgelassen (keine Folge von Aufhollaeufen), die Phasenlage bleibt erhalten.
+ * </p>
+ * <p>
+ * Gewartet wird mit dem {@link CycleTimer}. Ist eine SCHED_FIFO-Prioritaet
+ * vorgegeben, erhaelt der Thread mit den schnellsten Aufgaben diese
+ * Prioritaet, jeder weitere Thread eine Stufe weniger.
+ * </p>
+ * <p>
+ * Mit einer {@link VirtualClock} werden keine Threads gestartet: Die 
+ * Freigaben laufen deterministisch im aufrufenden Thread von 
+ * {@link #advance(long)}, die Uhr springt jeweils zur naechsten Freigabe
+ * (kein Warten). Die Rechenzeit der Aufgaben wird unabhaengig davon mit 
+ * System.nanoTime() erfasst ({@link TaskStatistics#getComputeNanos()}).
+ * </p>
+ * <p>
+ * Ruhebetrieb (vgl. {@link IdlePolicy}): Mit {@link #slowDown(int, long)}
+ * folgt jede weitere Freigabe erst nach einem Vielfachen der Periode
+ * (rateDivider). Liegt die naechste Freigabe mehr als eine Periode voraus,
+ * warten die Threads mit LockSupport.parkNanos() statt mit dem CycleTimer.
+ * {@link #wake()} setzt die volle Rate und weckt die Threads mit
+ * LockSupport.unpark(), diese ziehen ihre Freigaben auf die naechste 
+ * Freigabe im urspruenglichen Raster vor (Phasenlage bleibt erhalten).
+ * </p>
+ */
+public class TaskExecutive
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(TaskExecutive.class);
+
+    /**
+     * Terminverletzungen (Aufgabe, Antwortzeit in us), hoechstens eine je Sekunde...
+     */
+    private final static LogSite MISS_LOG = AsyncLog.site(TaskExecutive.class, LogLevel.Warn, "{}: Termin verfehlt, Antwortzeit {} us", 1);
+
+    /**
+     * DEFAULT_THREADS = 1 - Anzahl der Threads (Default)
+     */
+    public final static int DEFAULT_THREADS = 1;
+
+    /**
+     * name - Bezeichnung (Praefix der Thread-Namen)
+     */
+    private final String name;
+
+    /**
+     * maxThreads - hoechstens so viele Threads
+     */
+    private final int maxThreads;
+
+    /**
+     * timer - Warten auf die Freigaben
+     */
+    private final CycleTimer timer;
+
+    /**
+     * clock - Zeitbasis der Freigaben (Clock.SYSTEM oder VirtualClock)
+     */
+    private final Clock clock;
+
+    /**
+     * virtualOrder - alle Aufgaben nach Periode geordnet, nur mit VirtualClock
+     * (nach start(), sonst null)
+     */
+    private Entry[] virtualOrder = null;
+
+    /**
+     * entries - angemeldete Aufgaben (Reihenfolge der Anmeldung)
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * workers - Threads nach start(), Index 0: schnellste Aufgaben
+     */
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * threads - Threads nach start() fuer wake() (ohne Sperre lesbar)
+     */
+    private volatile Thread[] threads = new Thread[0];
+
+    /**
+     * rateDivider - Freigaben im Vielfachen der Periode (1: volle Rate)
+     */
+    private volatile int rateDivider = 1;
+
+    /**
+     * wakeRequests - Anzahl der Aufrufe von wake(), die Threads vergleichen
+     * mit ihrem letzten Stand und ziehen dann ihre Freigaben vor
+     */
+    private final AtomicLong wakeRequests = new AtomicLong();
+
+    /**
+     * virtualWakeRequests - letzter Stand von wakeRequests in advance()
+     */
+    private long virtualWakeRequests = 0L;
+
+    /**
+     * wakeups - Rueckkehr der Threads aus dem Warten (Summe aller Threads)
+     */
+    private final LongAdder wakeups = new LongAdder();
+
+    /**
+     * isRunning - Flag...
+     */
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+    /**
+     * isStarted - start() nur einmal je Instanz
+     */
+    private boolean isStarted = false;
+
+    /**
+     * TaskExecutive(String name, int maxThreads, CycleTimer timer) - Konstruktor...
+     * @param name - Bezeichnung (Praefix der Thread-Namen)
+     * @param maxThreads - hoechstens so viele Threads (>= 1)
+     * @param timer - Warten auf die Freigaben (null: CycleTimer.SLEEP)
+     */
+    public TaskExecutive(String name, int maxThreads, CycleTimer timer)
+    {
+        this(name, maxThreads, timer, Clock.SYSTEM);
+    }
+
+    /**
+     * TaskExecutive(String name, int maxThreads, CycleTimer timer, Clock clock) - Konstruktor...
+     * @param name - Bezeichnung (Praefix der Thread-Namen)
+     * @param maxThreads - hoechstens so viele Threads (>= 1, ohne Wirkung mit VirtualClock)
+     * @param timer - Warten auf die Freigaben (null: CycleTimer.SLEEP, ohne Wirkung mit VirtualClock)
+     * @param clock - Zeitbasis (null: Clock.SYSTEM)
+     */
+    public TaskExecutive(String name, int maxThreads, CycleTimer timer, Clock clock)
+    {
+        if (maxThreads < 1)
+        {
+            throw new IllegalArgumentException("maxThreads: " + maxThreads);
+        }
+        this.name = name;
+        this.maxThreads = maxThreads;
+        this.timer = (timer != null)? timer : CycleTimer.SLEEP;
+        this.clock = (clock != null)? clock : Clock.SYSTEM;
+    }
+
+    /**
+     * register(String name, long periodNanos, long phaseNanos, Task task) -
+     * Anmeldung einer Aufgabe vor start()...
+     * @param name - Bezeichnung der Aufgabe
+     * @param periodNanos - Periode (ns, > 0)
+     * @param phaseNanos - Versatz der ersten Freigabe (ns, 0 <= phase < period)
+     * @param task
+     * @return TaskStatistics der Aufgabe
+     */
+    public synchronized TaskStatistics register(String name, long periodNanos, long phaseNanos, Task task)
+    {
+        if (this.isStarted)
+        {
+            throw new IllegalStateException("register() nach start(): " + name);
+        }
+        if (periodNanos <= 0L)
+        {
+            throw new IllegalArgumentException(name + ": periodNanos " + periodNanos);
+        }
+        if (phaseNanos < 0L || phaseNanos >= periodNanos)
+        {
+            throw new IllegalArgumentException(name + ": phaseNanos " + phaseNanos);
+        }
+        if (task == null)
+        {
+            throw new IllegalArgumentException(name + ": task null");
+        }
+        final Entry entry = new Entry(new TaskStatistics(name, periodNanos, phaseNanos), task);
+        this.entries.add(entry);
+        return entry.statistics;
+    }
+
+    /**
+     * start() - Verteilung der Aufgaben auf die Threads und Start...
+     */
+    public synchronized void start()
+    {
+        if (this.isStarted)
+        {
+            throw new IllegalStateException("start(): bereits gestartet");
+        }
+        this.isStarted = true;
+        if (this.entries.isEmpty())
+        {
+            logger.warn(this.name + ": keine Aufgaben");
+            return;
+        }
+        // Rate-monotonic: nach Periode, bei gleicher Periode nach Anmeldung (sort() ist stabil)...
+        final List<Entry> ordered = new ArrayList<>(this.entries);
+        Collections.sort(ordered, Comparator.comparingLong(entry -> entry.statistics.getPeriodNanos()));
+        // Gemeinsamer Startzeitpunkt aller Freigaben...
+        final long startNanos = this.clock.nanoTime();
+        for (Entry entry: ordered)
+        {
+            entry.nextReleaseNanos = startNanos + entry.statistics.getPhaseNanos();
+        }
+        if (this.clock instanceof VirtualClock)
+        {
+            // Keine Threads, Ausfuehrung ueber advance()...
+            this.virtualOrder = ordered.toArray(new Entry[ordered.size()]);
+            this.isRunning.set(true);
+            logger.info(this.name + " (virtuell): " + ordered);
+            return;
+        }
+        // Gruppen gleicher Periode...
+        final List<List<Entry>> groups = new ArrayList<>();
+        long groupPeriodNanos = 0L;
+        for (Entry entry: ordered)
+        {
+            if (groups.isEmpty() || entry.statistics.getPeriodNanos() != groupPeriodNanos)
+            {
+                groups.add(new ArrayList<>());
+                groupPeriodNanos = entry.statistics.getPeriodNanos();
+            }
+            groups.get(groups.size() - 1).add(entry);
+        }
+        // ...zusammenhaengend auf die Threads verteilen (Thread 0: kuerzeste Perioden)...
+        final int threadCount = Math.min(this.maxThreads, groups.size());
+        final List<List<Entry>> bands = new ArrayList<>();
+        for (int index = 0; index < threadCount; index++)
+        {
+            bands.add(new ArrayList<>());
+        }
+        for (int index = 0; index < groups.size(); index++)
+        {
+            bands.get(index * threadCount / groups.size()).addAll(groups.get(index));
+        }
+        this.isRunning.set(true);
+        for (int index = 0; index < threadCount; index++)
+        {
+            final List<Entry> band = bands.get(index);
+            final Thread worker = new Thread(new Worker(band, timerFor(index)), this.name + "-" + index);
+            worker.setPriority(Math.max(Thread.NORM_PRIORITY, Thread.MAX_PRIORITY - index));
+            this.workers.add(worker);
+            logger.info(worker.getName() + ": " + band);
+        }
+        this.threads = this.workers.toArray(new Thread[this.workers.size()]);
+        for (Thread worker: this.workers)
+        {
+            worker.start();
+        }
+    }
+
+    /**
+     * timerFor(int index) - CycleTimer des Threads index: CPU-Kern wie
+     * vorgegeben, SCHED_FIFO-Prioritaet je Thread eine Stufe niedriger...
+     * @param index - Thread (0: kuerzeste Perioden)
+     * @return CycleTimer
+     */
+    private CycleTimer timerFor(int index)
+    {
+        if (index == 0 || this.timer.getPriority() == CycleTimer.NO_PRIORITY)
+        {
+            return this.timer;
+        }
+        return new CycleTimer(this.timer.getMode(),
+                              this.timer.getSpinMarginNanos(),
+                              this.timer.getCpu(),
+                              Math.max(1, this.timer.getPriority() - index));
+    }
+
+    /**
+     * advance(long deltaNanos) - nur mit VirtualClock: alle Freigaben bis 
+     * clock + deltaNanos ausfuehren, die Uhr springt jeweils zur Freigabe
+     * und abschliessend auf clock + deltaNanos...
+     * <p>
+     * Reihenfolge wie in den Threads: frueheste Freigabe, bei Gleichstand
+     * die kuerzere Periode, danach die Anmeldung. Nach stop() wird nur 
+     * noch die Uhr fortgeschaltet.
+     * </p>
+     * @param deltaNanos - Zeitschritt in ns (nicht negativ)
+     * @return Anzahl der Ausfuehrungen
+     */
+    public long advance(long deltaNanos)
+    {
+        if (!(this.clock instanceof VirtualClock))
+        {
+            throw new IllegalStateException("advance(): keine VirtualClock");
+        }
+        if (deltaNanos < 0L)
+        {
+            throw new IllegalArgumentException("deltaNanos < 0: " + deltaNanos);
+        }
+        final VirtualClock virtualClock = (VirtualClock) this.clock;
+        final long endNanos = virtualClock.nanoTime() + deltaNanos;
+        final Entry[] order;
+        synchronized (this)
+        {
+            order = this.virtualOrder;
+        }
+        long executions = 0L;
+        while (order != null && this.isRunning.get())
+        {
+            final long requests = this.wakeRequests.get();
+            if (requests != this.virtualWakeRequests)
+            {
+                this.virtualWakeRequests = requests;
+                realign(order, virtualClock.nanoTime());
+            }
+            Entry next = order[0];
+            for (int index = 1; index < order.length; index++)
+            {
+                if (order[index].nextReleaseNanos - next.nextReleaseNanos < 0L)
+                {
+                    next = order[index];
+                }
+            }
+            if (next.nextReleaseNanos - endNanos > 0L)
+            {
+                break;
+            }
+            virtualClock.advanceTo(next.nextReleaseNanos);
+            execute(next);
+            executions++;
+        }
+        virtualClock.advanceTo(endNanos);
+        return executions;
+    }
+
+    /**
+     * execute(Entry entry) - eine Ausfuehrung, Auswertung des Termins
+     * und Bestimmung der naechsten Freigabe...
+     * @param entry
+     */
+    private void execute(Entry entry)
+    {
+        final long releaseNanos = entry.nextReleaseNanos;
+        final long startNanos = this.clock.nanoTime();
+        final ControlCycleEvent event = new ControlCycleEvent();
+        event.begin();
+        final long computeStartNanos = System.nanoTime();
+        try
+        {
+            entry.task.execute(releaseNanos);
+        }
+        catch (IOException exception)
+        {
+            // Die Aufgabe bleibt angemeldet, dauerhafte Stoerungen
+            // fuehren ueber den Actuator zum sicheren Zustand...
+            logger.error("IOException in " + entry, exception);
+        }
+        final long computeNanos = System.nanoTime() - computeStartNanos;
+        final long endNanos = this.clock.nanoTime();
+        final long responseNanos = endNanos - releaseNanos;
+        final boolean isMissed = entry.statistics.record(startNanos - releaseNanos, responseNanos, computeNanos);
+        if (isMissed)
+        {
+            MISS_LOG.log(entry, responseNanos / 1_000L);
+        }
+        final long periodNanos = entry.statistics.getPeriodNanos();
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.task = entry.statistics.getName();
+            event.periodNanos = periodNanos;
+            event.releaseDelayNanos = startNanos - releaseNanos;
+            event.responseNanos = responseNanos;
+            event.overrun = isMissed;
+            event.commit();
+        }
+        // Im Ruhebetrieb ein Vielfaches der Periode, die Freigaben bleiben im Raster...
+        long nextReleaseNanos = releaseNanos + periodNanos * this.rateDivider;
+        final long lateNanos = endNanos - nextReleaseNanos;
+        if (lateNanos > periodNanos)
+        {
+            // Mehr als eine Periode verspaetet => versaeumte Freigaben auslassen...
+            final long skipped = lateNanos / periodNanos;
+            nextReleaseNanos += skipped * periodNanos;
+            entry.statistics.skip(skipped);
+        }
+        entry.nextReleaseNanos = nextReleaseNanos;
+    }
+
+    /**
+     * isVirtual()
+     * @return true mit VirtualClock (Ausfuehrung ueber advance())
+     */
+    public boolean isVirtual()
+    {
+        return (this.clock instanceof VirtualClock);
+    }
+
+    /**
+     * stop() - die Threads enden nach der laufenden Ausfuehrung bzw. dem
+     * laufenden Warten (im Ruhebetrieb werden sie geweckt)...
+     */
+    public void stop()
+    {
+        if (this.isRunning.getAndSet(false))
+        {
+            unparkAll();
+            for (TaskStatistics statistics: getStatistics())
+            {
+                logger.info(this.name + ": " + statistics);
+            }
+        }
+    }
+
+    /**
+     * slowDown(int maxDivider, long requests) - Ruhebetrieb: Rate halbieren
+     * (Teiler verdoppeln) bis hoechstens maxDivider, wirksam ab der
+     * naechsten Freigabe jeder Aufgabe...
+     * <p>
+     * requests ist der Stand von {@link #getWakeRequests()} bei der
+     * Entscheidung fuer den Ruhebetrieb. Kam seitdem ein wake(), gilt 
+     * wieder die volle Rate (wake() zaehlt zuerst und setzt dann den 
+     * Teiler, so geht keine Eingabe verloren).
+     * </p>
+     * @param maxDivider - groesster Teiler (>= 1)
+     * @param requests - Stand von getWakeRequests() vor der Entscheidung
+     * @return wirksamer Teiler
+     */
+    public int slowDown(int maxDivider, long requests)
+    {
+        if (maxDivider < 1)
+        {
+            throw new IllegalArgumentException("maxDivider: " + maxDivider);
+        }
+        final int divider = this.rateDivider;
+        if (divider >= maxDivider)
+        {
+            return divider;
+        }
+        this.rateDivider = (int)Math.min(maxDivider, 2L * divider);
+        if (this.wakeRequests.get() != requests)
+        {
+            // Gleichzeitige Eingabe => volle Rate...
+            this.rateDivider = 1;
+            unparkAll();
+            return 1;
+        }
+        return this.rateDivider;
+    }
+
+    /**
+     * wake() - volle Rate nach einer Eingabe oder einem Sensor-Ereignis,
+     * die naechste Freigabe folgt spaetestens eine Periode danach (aus 
+     * beliebigem Thread, ohne Sperre)...
+     */
+    public void wake()
+    {
+        this.wakeRequests.incrementAndGet();
+        if (this.rateDivider != 1)
+        {
+            this.rateDivider = 1;
+            unparkAll();
+        }
+    }
+
+    /**
+     * unparkAll() - alle Threads aus LockSupport.parkNanos() wecken...
+     */
+    private void unparkAll()
+    {
+        for (Thread thread: this.threads)
+        {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * realign(Entry[] band, long nowNanos) - nach wake(): Freigaben, die
+     * mehr als eine Periode in der Zukunft liegen, auf die naechste
+     * Freigabe im Raster der Periode vorziehen...
+     * @param band - Aufgaben eines Threads
+     * @param nowNanos - aktuelle Zeit
+     */
+    private static void realign(Entry[] band, long nowNanos)
+    {
+        for (Entry entry: band)
+        {
+            final long periodNanos = entry.statistics.getPeriodNanos();
+            final long aheadNanos = entry.nextReleaseNanos - nowNanos;
+            if (aheadNanos > periodNanos)
+            {
+                entry.nextReleaseNanos -= (aheadNanos / periodNanos) * periodNanos;
+            }
+        }
+    }
+
+    /**
+     * getRateDivider()
+     * @return Freigaben im Vielfachen der Periode (1: volle Rate)
+     */
+    public int getRateDivider()
+    {
+        return this.rateDivider;
+    }
+
+    /**
+     * getWakeRequests()
+     * @return Anzahl der Aufrufe von wake()
+     */
+    public long getWakeRequests()
+    {
+        return this.wakeRequests.get();
+    }
+
+    /**
+     * getWakeups() - Rueckkehr der Threads aus dem Warten (Summe aller
+     * Threads, je Sekunde ein Mass fuer die Aufweckungen der CPU)...
+     * @return Anzahl
+     */
+    public long getWakeups()
+    {
+        return this.wakeups.sum();
+    }
+
+    /**
+     * isRunning()
+     * @return true zwischen start() und stop()
+     */
+    public boolean isRunning()
+    {
+        return this.isRunning.get();
+    }
+
+    /**
+     * getThreadCount()
+     * @return Anzahl der Threads nach start(), davor 0
+     */
+    public synchronized int getThreadCount()
+    {
+        return this.workers.size();
+    }
+
+    /**
+     * getStatistics() - Laufzeitverhalten aller Aufgaben (Reihenfolge der Anmeldung)...
+     * @return List<TaskStatistics>
+     */
+    public synchronized List<TaskStatistics> getStatistics()
+    {
+        final List<TaskStatistics> statistics = new ArrayList<>(this.entries.size());
+        for (Entry entry: this.entries)
+        {
+            statistics.add(entry.statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * getTotalMisses()
+     * @return Summe der Terminverletzungen aller Aufgaben
+     */
+    public long getTotalMisses()
+    {
+        long misses = 0L;
+        for (TaskStatistics statistics: getStatistics())
+        {
+            misses += statistics.getMisses();
+        }
+        return misses;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name + getStatistics();
+    }
+
+    /**
+     * Entry - angemeldete Aufgabe mit ihrer naechsten Freigabe...
+     */
+    private final static class Entry
+    {
+        /**
+         * statistics - Laufzeitverhalten (mit Name, Periode und Phase)
+         */
+        private final TaskStatistics statistics;
+
+        /**
+         * task
+         */
+        private final Task task;
+
+        /**
+         * nextReleaseNanos - naechste Freigabe, nur im Thread der Aufgabe verwendet
+         */
+        private long nextReleaseNanos;
+
+        /**
+         * Entry(TaskStatistics statistics, Task task)
+         * @param statistics
+         * @param task
+         */
+        private Entry(TaskStatistics statistics, Task task)
+        {
+            this.statistics = statistics;
+            this.task = task;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.statistics.getName();
+        }
+    }
+
+    /**
+     * Worker - Thread fuer eine Gruppe von Aufgaben (nach Periode geordnet)...
+     */
+    private class Worker implements Runnable
+    {
+        /**
+         * band - Aufgaben dieses Threads, kuerzeste Periode zuerst
+         */
+        private final Entry[] band;
+
+        /**
+         * timer - Warten auf die Freigaben
+         */
+        private final CycleTimer timer;
+
+        /**
+         * seenWakeRequests - Stand von wakeRequests beim letzten Vorziehen
+         */
+        private long seenWakeRequests = 0L;
+
+        /**
+         * Worker(List<Entry> band, CycleTimer timer)
+         * @param band
+         * @param timer
+         */
+        private Worker(List<Entry> band, CycleTimer timer)
+        {
+            this.band = band.toArray(new Entry[band.size()]);
+            this.timer = timer;
+        }
+
+        @Override
+        public void run()
+        {
+            logger.debug("run()...");
+            // Einstellungen am Thread (CPU-Kern, SCHED_FIFO) vor der ersten Freigabe...
+            this.timer.prepareThread();
+            while (TaskExecutive.this.isRunning.get())
+            {
+                // Nach wake(): Freigaben des Ruhebetriebes vorziehen...
+                final long requests = TaskExecutive.this.wakeRequests.get();
+                if (requests != this.seenWakeRequests)
+                {
+                    this.seenWakeRequests = requests;
+                    realign(this.band, TaskExecutive.this.clock.nanoTime());
+                }
+                // Frueheste Freigabe, bei Gleichstand die kuerzere Periode (Reihenfolge in band)...
+                Entry next = this.band[0];
+                for (int index = 1; index < this.band.length; index++)
+                {
+                    if (this.band[index].nextReleaseNanos - next.nextReleaseNanos < 0L)
+                    {
+                        next = this.band[index];
+                    }
+                }
+                try
+                {
+                    final long aheadNanos = next.nextReleaseNanos - TaskExecutive.this.clock.nanoTime();
+                    if (aheadNanos > 0L)
+                    {
+                        if (TaskExecutive.this.wakeRequests.get() != requests)
+                        {
+                            // wake() seit dem Vorziehen: erneut vorziehen und waehlen...
+                            continue;
+                        }
+                        // Nur tatsaechliches Warten zaehlt als Aufweckung...
+                        TaskExecutive.this.wakeups.increment();
+                        // Freigabe des Ruhebetriebes (unabhaengig vom aktuellen rateDivider): 
+                        // unterbrechbar warten, der CycleTimer (z.B. Thread.sleep()) ignoriert unpark()...
+                        if (aheadNanos > next.statistics.getPeriodNanos())
+                        {
+                            if (!park(next.nextReleaseNanos, requests))
+                            {
+                                // Geweckt: vorziehen und erneut waehlen...
+                                continue;
+                            }
+                        }
+                        else
+                        {
+                            this.timer.waitUntil(next.nextReleaseNanos);
+                        }
+                    }
+                }
+                catch (InterruptedException exception)
+                {
+                    Thread.currentThread().interrupt();
+                    logger.error("Thread was interrupted, Failed to complete operation", exception);
+                    return;
+                }
+                if (!TaskExecutive.this.isRunning.get())
+                {
+                    break;
+                }
+                execute(next);
+            }
+        }
+
+        /**
+         * park(long releaseNanos, long requests) - Warten im Ruhebetrieb:
+         * LockSupport.parkNanos() bis zur Freigabe, vorzeitige Rueckkehr 
+         * bei wake() bzw. stop() (Genauigkeit des CycleTimer ist hier 
+         * nicht erforderlich)...
+         * @param releaseNanos - Freigabe
+         * @param requests - Stand von wakeRequests vor dem Warten
+         * @return true zur Freigabe, false nach wake() bzw. stop()
+         * @throws InterruptedException
+         */
+        private boolean park(long releaseNanos, long requests) throws InterruptedException
+        {
+            while (TaskExecutive.this.wakeRequests.get() == requests && TaskExecutive.this.isRunning.get())
+            {
+                final long remainingNanos = releaseNanos - TaskExecutive.this.clock.nanoTime();
+                if (remainingNanos <= 0L)
+                {
+                    return true;
+                }
+                LockSupport.parkNanos(TaskExecutive.this, remainingNanos);
+                if (Thread.interrupted())
+                {
+                    throw new InterruptedException();
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ *
+ */
+package gui.task;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TaskStatistics - Laufzeitverhalten einer Aufgabe im {@link TaskExecutive}:
+ * Ausfuehrungen, Terminverletzungen (Ende nach Ablauf der Periode),
+ * ausgelassene Freigaben und Antwortzeiten (Freigabe bis Ende).
+ * </p>
+ * <p>
+ * Anm.: Geschrieben wird nur aus dem Thread der Aufgabe, gelesen aus
+ * beliebigen Threads (volatile, keine Sperre).
+ * </p>
+ */
+public final class TaskStatistics
+{
+    /**
+     * name - Bezeichnung der Aufgabe
+     */
+    private final String name;
+
+    /**
+     * periodNanos - Periode (ns)
+     */
+    private final long periodNanos;
+
+    /**
+     * phaseNanos - Versatz der Freigabe gegenueber dem Start (ns)
+     */
+    private final long phaseNanos;
+
+    /**
+     * releases - Anzahl der Ausfuehrungen
+     */
+    private volatile long releases = 0L;
+
+    /**
+     * misses - Anzahl der Ausfuehrungen mit Ende nach Ablauf der Periode
+     */
+    private volatile long misses = 0L;
+
+    /**
+     * skipped - Anzahl der ausgelassenen Freigaben (mehr als eine Periode verspaetet)
+     */
+    private volatile long skipped = 0L;
+
+    /**
+     * lastResponseNanos - Antwortzeit der letzten Ausfuehrung (ns)
+     */
+    private volatile long lastResponseNanos = 0L;
+
+    /**
+     * maxResponseNanos - groesste Antwortzeit (ns)
+     */
+    private volatile long maxResponseNanos = 0L;
+
+    /**
+     * maxStartLatencyNanos - groesste Verspaetung des Beginns gegenueber der Freigabe (ns)
+     */
+    private volatile long maxStartLatencyNanos = 0L;
+
+    /**
+     * computeNanos - aufsummierte Rechenzeit (ns, System.nanoTime(), ohne Warten)
+     */
+    private volatile long computeNanos = 0L;
+
+    /**
+     * TaskStatistics(String name, long periodNanos, long phaseNanos)
+     * @param name
+     * @param periodNanos
+     * @param phaseNanos
+     */
+    TaskStatistics(String name, long periodNanos, long phaseNanos)
+    {
+        this.name = name;
+        this.periodNanos = periodNanos;
+        this.phaseNanos = phaseNanos;
+    }
+
+    /**
+     * record(long startLatencyNanos, long responseNanos, long computeNanos) - Ablage einer Ausfuehrung...
+     * @param startLatencyNanos - Beginn nach der Freigabe (ns, Zeitbasis des TaskExecutive)
+     * @param responseNanos - Ende nach der Freigabe (ns, Zeitbasis des TaskExecutive)
+     * @param computeNanos - Rechenzeit (ns, System.nanoTime())
+     * @return true, wenn der Termin (Ende der Periode) verfehlt wurde
+     */
+    boolean record(long startLatencyNanos, long responseNanos, long computeNanos)
+    {
+        this.releases++;
+        this.computeNanos += computeNanos;
+        this.lastResponseNanos = responseNanos;
+        if (responseNanos > this.maxResponseNanos)
+        {
+            this.maxResponseNanos = responseNanos;
+        }
+        if (startLatencyNanos > this.maxStartLatencyNanos)
+        {
+            this.maxStartLatencyNanos = startLatencyNanos;
+        }
+        final boolean isMissed = (responseNanos > this.periodNanos);
+        if (isMissed)
+        {
+            this.misses++;
+        }
+        return isMissed;
+    }
+
+    /**
+     * skip(long count) - ausgelassene Freigaben zaehlen...
+     * @param count
+     */
+    void skip(long count)
+    {
+        this.skipped += count;
+    }
+
+    /**
+     * getName()
+     * @return Bezeichnung der Aufgabe
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * getPeriodNanos()
+     * @return Periode (ns)
+     */
+    public long getPeriodNanos()
+    {
+        return this.periodNanos;
+    }
+
+    /**
+     * getPhaseNanos()
+     * @return Versatz der Freigabe (ns)
+     */
+    public long getPhaseNanos()
+    {
+        return this.phaseNanos;
+    }
+
+    /**
+     * getReleases()
+     * @return Anzahl der Ausfuehrungen
+     */
+    public long getReleases()
+    {
+        return this.releases;
+    }
+
+    /**
+     * getMisses()
+     * @return Anzahl der Terminverletzungen
+     */
+    public long getMisses()
+    {
+        return this.misses;
+    }
+
+    /**
+     * getSkipped()
+     * @return Anzahl der ausgelassenen Freigaben
+     */
+    public long getSkipped()
+    {
+        return this.skipped;
+    }
+
+    /**
+     * getLastResponseNanos()
+     * @return Antwortzeit der letzten Ausfuehrung (ns)
+     */
+    public long getLastResponseNanos()
+    {
+        return this.lastResponseNanos;
+    }
+
+    /**
+     * getMaxResponseNanos()
+     * @return groesste Antwortzeit (ns)
+     */
+    public long getMaxResponseNanos()
+    {
+        return this.maxResponseNanos;
+    }
+
+    /**
+     * getMaxStartLatencyNanos()
+     * @return groesste Verspaetung des Beginns (ns)
+     */
+    public long getMaxStartLatencyNanos()
+    {
+        return this.maxStartLatencyNanos;
+    }
+
+    /**
+     * getComputeNanos()
+     * @return aufsummierte Rechenzeit (ns), auch mit VirtualClock real gemessen
+     */
+    public long getComputeNanos()
+    {
+        return this.computeNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[%.3f ms @ %.3f ms: %d Ausfuehrungen, %d verfehlt, %d ausgelassen, max. %.3f ms]",
+                             this.name,
+                             this.periodNanos/1.0e6,
+                             this.phaseNanos/1.0e6,
+                             this.releases,
+                             this.misses,
+                             this.skipped,
+                             this.maxResponseNanos/1.0e6);
+    }
+}
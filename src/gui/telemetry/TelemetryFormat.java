@@ -0,0 +1,182 @@
+/**
+ *
+ */
+package gui.telemetry;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+import gui.CycleSample;
+import gui.Status;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TelemetryFormat - Aufbau eines Telemetrie-Datagramms (ein Takt der
+ * Steuerung, feste Laenge PACKET_SIZE), alle Zahlen little-endian.
+ * </p>
+ * <pre>
+ *   0 int   MAGIC "PCTM"
+ *   4 short VERSION
+ *   6 short decimation (jeder n-te Takt)
+ *   8 long  sequence - Paketnummer, fortlaufend (Luecke: Paket verloren)
+ *  16 long  counter - Taktzaehler
+ *  24 long  timeNanos - Beginn des Taktes (ns, monoton, Uhr des Senders)
+ *  32 long  periodNanos
+ *  40 long  jitterNanos
+ *  48 long  busyNanos
+ *  56 long  latencyNanos
+ *  64 int   servo
+ *  68 int   motor
+ *  72 byte  transmission - ordinal()
+ *  73 byte  status - ordinal()
+ *  74 short cycleTime (ms)
+ *  76 int   lost - im Sender verlorene Takte (Ringpuffer ueberholt), aufsummiert
+ * </pre>
+ * <p>
+ * Kodiert und gelesen wird mit absoluten Zugriffen auf einen
+ * wiederverwendeten ByteBuffer, es werden keine Objekte angelegt.
+ * </p>
+ */
+public final class TelemetryFormat
+{
+    /**
+     * MAGIC = "PCTM"
+     */
+    public final static int MAGIC = 0x5043544D;
+
+    /**
+     * VERSION = 1
+     */
+    public final static short VERSION = 1;
+
+    /**
+     * Positionen der Felder im Datagramm...
+     */
+    public final static int MAGIC_OFFSET = 0;
+    public final static int VERSION_OFFSET = 4;
+    public final static int DECIMATION_OFFSET = 6;
+    public final static int SEQUENCE_OFFSET = 8;
+    public final static int COUNTER_OFFSET = 16;
+    public final static int TIME_OFFSET = 24;
+    public final static int PERIOD_OFFSET = 32;
+    public final static int JITTER_OFFSET = 40;
+    public final static int BUSY_OFFSET = 48;
+    public final static int LATENCY_OFFSET = 56;
+    public final static int SERVO_OFFSET = 64;
+    public final static int MOTOR_OFFSET = 68;
+    public final static int TRANSMISSION_OFFSET = 72;
+    public final static int STATUS_OFFSET = 73;
+    public final static int CYCLE_TIME_OFFSET = 74;
+    public final static int LOST_OFFSET = 76;
+
+    /**
+     * PACKET_SIZE = 80 - Laenge eines Datagramms
+     */
+    public final static int PACKET_SIZE = 80;
+
+    /**
+     * DEFAULT_PORT = 5099
+     */
+    public final static int DEFAULT_PORT = 5099;
+
+    /**
+     * DEFAULT_GROUP = "239.255.80.67" - Gruppe im organisationslokalen
+     * Bereich (RFC 2365)
+     */
+    public final static String DEFAULT_GROUP = "239.255.80.67";
+
+    /**
+     * TRANSMISSIONS, STATUS - Werte zum Ordinal...
+     */
+    private final static Transmission[] TRANSMISSIONS = Transmission.values();
+    private final static Status[] STATUS = Status.values();
+
+    /**
+     * Privater Konstruktor, nur statische Elemente...
+     */
+    private TelemetryFormat()
+    {
+    }
+
+    /**
+     * toGroup(String text) - "Gruppe[:Port]", ohne Port DEFAULT_PORT...
+     * @param text - z.B. 239.255.80.67:5099
+     * @return Gruppe und Port
+     * @throws UnknownHostException
+     */
+    public static InetSocketAddress toGroup(String text) throws UnknownHostException
+    {
+        final int colon = text.lastIndexOf(':');
+        final String host = (colon >= 0)? text.substring(0, colon) : text;
+        final int port = (colon >= 0)? Integer.parseInt(text.substring(colon + 1)) : DEFAULT_PORT;
+        return new InetSocketAddress(InetAddress.getByName(host), port);
+    }
+
+    /**
+     * encode(...) - ein Takt in das Datagramm (Position 0 ... PACKET_SIZE)...
+     * @param packet - little-endian, mind. PACKET_SIZE Byte
+     * @param sequence - Paketnummer
+     * @param decimation - jeder n-te Takt
+     * @param cycleTime - Taktung (ms)
+     * @param lost - verlorene Takte
+     * @param sample - Takt
+     */
+    public static void encode(ByteBuffer packet, long sequence, int decimation, int cycleTime, long lost, CycleSample sample)
+    {
+        packet.putInt(MAGIC_OFFSET, MAGIC);
+        packet.putShort(VERSION_OFFSET, VERSION);
+        packet.putShort(DECIMATION_OFFSET, (short)decimation);
+        packet.putLong(SEQUENCE_OFFSET, sequence);
+        packet.putLong(COUNTER_OFFSET, sample.getCounter());
+        packet.putLong(TIME_OFFSET, sample.getTimeNanos());
+        packet.putLong(PERIOD_OFFSET, sample.getPeriodNanos());
+        packet.putLong(JITTER_OFFSET, sample.getJitterNanos());
+        packet.putLong(BUSY_OFFSET, sample.getBusyNanos());
+        packet.putLong(LATENCY_OFFSET, sample.getLatencyNanos());
+        packet.putInt(SERVO_OFFSET, sample.getServo());
+        packet.putInt(MOTOR_OFFSET, sample.getMotor());
+        packet.put(TRANSMISSION_OFFSET, (byte)sample.getTransmission().ordinal());
+        packet.put(STATUS_OFFSET, (byte)sample.getStatus().ordinal());
+        packet.putShort(CYCLE_TIME_OFFSET, (short)cycleTime);
+        packet.putInt(LOST_OFFSET, (int)Math.min(lost, Integer.MAX_VALUE));
+        packet.limit(PACKET_SIZE).position(0);
+    }
+
+    /**
+     * isValid(ByteBuffer packet, int length) - Kennung, Version und Laenge pruefen...
+     * @param packet - little-endian
+     * @param length - empfangene Laenge
+     * @return true, wenn lesbar
+     */
+    public static boolean isValid(ByteBuffer packet, int length)
+    {
+        return length == PACKET_SIZE
+            && packet.getInt(MAGIC_OFFSET) == MAGIC
+            && packet.getShort(VERSION_OFFSET) == VERSION;
+    }
+
+    /**
+     * getTransmission(ByteBuffer packet)
+     * @param packet
+     * @return Gang
+     */
+    public static Transmission getTransmission(ByteBuffer packet)
+    {
+        return TRANSMISSIONS[packet.get(TRANSMISSION_OFFSET)];
+    }
+
+    /**
+     * getStatus(ByteBuffer packet)
+     * @param packet
+     * @return Status der Steuerung
+     */
+    public static Status getStatus(ByteBuffer packet)
+    {
+        return STATUS[packet.get(STATUS_OFFSET)];
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ */
+package gui.telemetry;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+
+import gui.Model;
+import gui.sim.SimulatedActuator;
+import gui.time.Clock;
+import gui.time.ThreadMeter;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TelemetryMain - Werkzeug fuer die Telemetrie:
+ * </p>
+ * <ul>
+ *  <li>listen [Gruppe[:Port]] [Schnittstelle] - empfangene Takte als CSV
+ *      (Trenner ';'), Bodenstation</li>
+ *  <li>loopback [Sekunden] [decimation] - Model (simuliert) mit
+ *      TelemetryPublisher und TelemetryReceiver ueber Loopback-Multicast:
+ *      gesendet, verworfen, empfangen, fehlend, Allokation je Paket im
+ *      Sender</li>
+ * </ul>
+ */
+public class TelemetryMain
+{
+    /**
+     * LOOPBACK_CYCLE_TIME = 5 - Taktung (ms) fuer loopback (200 Hz)
+     */
+    private final static int LOOPBACK_CYCLE_TIME = 5;
+
+    /**
+     * LOOPBACK_PORT - Port fuer loopback (nicht DEFAULT_PORT, damit eine
+     * laufende Bodenstation nicht mitliest)
+     */
+    private final static int LOOPBACK_PORT = TelemetryFormat.DEFAULT_PORT + 1;
+
+    /**
+     * WARMUP_MILLIS = 1000 - Anlauf vor der Allokationsmessung
+     */
+    private final static long WARMUP_MILLIS = 1000L;
+
+    /**
+     * listen(InetSocketAddress group, NetworkInterface networkInterface)
+     * @param group
+     * @param networkInterface
+     * @throws Exception
+     */
+    private static void listen(InetSocketAddress group, NetworkInterface networkInterface) throws Exception
+    {
+        try (TelemetryReceiver receiver = new TelemetryReceiver(group, networkInterface))
+        {
+            receiver.open();
+            System.err.println("Telemetrie " + group + " auf " + networkInterface.getName() + "...");
+            System.out.println("sequence;counter;timeNanos;periodNanos;jitterNanos;busyNanos;latencyNanos;servo;motor;transmission;status;missed");
+            final StringBuilder builder = new StringBuilder(128);
+            while (true)
+            {
+                receiver.receive();
+                builder.setLength(0);
+                builder.append(receiver.getSequence()).append(';')
+                       .append(receiver.getCounter()).append(';')
+                       .append(receiver.getTimeNanos()).append(';')
+                       .append(receiver.getPeriodNanos()).append(';')
+                       .append(receiver.getJitterNanos()).append(';')
+                       .append(receiver.getBusyNanos()).append(';')
+                       .append(receiver.getLatencyNanos()).append(';')
+                       .append(receiver.getServo()).append(';')
+                       .append(receiver.getMotor()).append(';')
+                       .append(receiver.getTransmission()).append(';')
+                       .append(receiver.getStatus()).append(';')
+                       .append(receiver.getMissed());
+                System.out.println(builder);
+            }
+        }
+    }
+
+    /**
+     * loopback(int seconds, int decimation)
+     * @param seconds
+     * @param decimation
+     * @return true, wenn alle gesendeten Pakete vollstaendig und in Folge empfangen wurden
+     * @throws Exception
+     */
+    private static boolean loopback(int seconds, int decimation) throws Exception
+    {
+        final InetSocketAddress group = new InetSocketAddress(InetAddress.getByName(TelemetryFormat.DEFAULT_GROUP), LOOPBACK_PORT);
+        final NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+
+        final TelemetryReceiver receiver = new TelemetryReceiver(group, loopback);
+        receiver.open();
+        final long[] steps = new long[2];
+        final Thread listener = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                long lastCounter = -1L;
+                try
+                {
+                    while (true)
+                    {
+                        receiver.receive();
+                        // steps[0]: Takte im Abstand decimation, steps[1]: andere...
+                        if (lastCounter >= 0L)
+                        {
+                            steps[(receiver.getCounter() - lastCounter == decimation)? 0 : 1]++;
+                        }
+                        lastCounter = receiver.getCounter();
+                    }
+                }
+                catch (Exception exception)
+                {
+                    // close()...
+                }
+            }
+        }, "TelemetryListener");
+        listener.start();
+
+        final Model model = new Model(new SimulatedActuator(Clock.SYSTEM), LOOPBACK_CYCLE_TIME);
+        final TelemetryPublisher publisher = new TelemetryPublisher(group, loopback, decimation, LOOPBACK_CYCLE_TIME);
+        publisher.start(model.getCycleBuffer());
+        model.start();
+        Thread.sleep(WARMUP_MILLIS);
+        final long sentBefore = publisher.getSent() + publisher.getDropped();
+        final long bytesBefore = ThreadMeter.allocatedBytes("TelemetryPublisher");
+        final long endMillis = System.currentTimeMillis() + seconds * 1000L;
+        int value = 0;
+        while (System.currentTimeMillis() < endMillis)
+        {
+            model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf((value++ % 61) - 30));
+            Thread.sleep(20L);
+        }
+        final long bytesAfter = ThreadMeter.allocatedBytes("TelemetryPublisher");
+        final long sentAfter = publisher.getSent() + publisher.getDropped();
+        model.stop();
+        Thread.sleep(2L * TelemetryPublisher.POLL_MILLIS);
+        publisher.stop();
+        model.shutdown();
+        // Die letzten Pakete abwarten...
+        Thread.sleep(100L);
+        receiver.close();
+        listener.join();
+
+        final long packets = sentAfter - sentBefore;
+        System.out.println(String.format("Takt %d ms, jeder %d. Takt, %d Byte je Paket, %.0f Pakete/s",
+                                         LOOPBACK_CYCLE_TIME, decimation, TelemetryFormat.PACKET_SIZE,
+                                         packets/(double)seconds));
+        System.out.println(publisher);
+        System.out.println(receiver);
+        System.out.println(String.format("Abstand der Taktzaehler: %d x %d, %d abweichend", steps[0], decimation, steps[1]));
+        if (bytesBefore >= 0L && packets > 0L)
+        {
+            System.out.println(String.format("Allokation im Sender: %d Byte fuer %d Pakete (%.2f Byte/Paket)",
+                                             bytesAfter - bytesBefore, packets, (bytesAfter - bytesBefore)/(double)packets));
+        }
+        return publisher.getDropped() == 0L
+            && receiver.getReceived() == publisher.getSent()
+            && receiver.getMissed() == 0L
+            && steps[1] == 0L;
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final String command = (args.length > 0)? args[0] : "";
+        switch (command)
+        {
+            case "listen":
+            {
+                final InetSocketAddress group = TelemetryFormat.toGroup((args.length > 1)? args[1] : TelemetryFormat.DEFAULT_GROUP);
+                listen(group, TelemetryReceiver.findInterface((args.length > 2)? args[2] : null));
+                break;
+            }
+            case "loopback":
+            {
+                final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : 5;
+                final int decimation = (args.length > 2)? Integer.parseInt(args[2]) : TelemetryPublisher.DEFAULT_DECIMATION;
+                final boolean isOk = loopback(seconds, decimation);
+                System.out.println("Loopback: " + (isOk? "OK" : "FEHLER"));
+                System.exit(isOk? 0 : 1);
+                break;
+            }
+            default:
+                System.err.println("Aufruf: java gui.telemetry.TelemetryMain listen [Gruppe[:Port]] [Schnittstelle]");
+                System.err.println("        java gui.telemetry.TelemetryMain loopback [Sekunden] [decimation]");
+                System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ *
+ */
+package gui.telemetry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.log.AsyncLog;
+import gui.log.LogLevel;
+import gui.log.LogSite;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TelemetryPublisher - sendet jeden decimation-ten Takt der Steuerung als
+ * Datagramm fester Laenge ({@link TelemetryFormat}) an eine
+ * Multicast-Gruppe. Empfaenger (Bodenstation, {@link TelemetryReceiver})
+ * treten der Gruppe bei, ohne Verbindung zur Swing-Oberflaeche.
+ * </p>
+ * <p>
+ * Wie der SessionArchiveWriter holt ein eigener Thread alle POLL_MILLIS
+ * die neuen Takte aus dem cycleBuffer des Models (ohne Sperre, der
+ * Steuertakt bleibt unberuehrt). Kodiert wird in einen wiederverwendeten
+ * direkten ByteBuffer, gesendet ohne zu blockieren: Ist der Sendepuffer
+ * des Betriebssystems voll oder scheitert das Senden, so wird das Paket
+ * verworfen (dropped) und nicht wiederholt. Die Paketnummer zaehlt auch
+ * verworfene Pakete, ein Empfaenger erkennt so jeden Verlust.
+ * </p>
+ */
+public class TelemetryPublisher implements Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(TelemetryPublisher.class);
+
+    /**
+     * SEND_LOG - Fehler beim Senden
+     */
+    private final static LogSite SEND_LOG = AsyncLog.site(TelemetryPublisher.class, LogLevel.Warn, "Telemetrie: {}", 1);
+
+    /**
+     * POLL_MILLIS = 10 - Abfrage des Ringpuffers
+     */
+    public final static long POLL_MILLIS = 10L;
+
+    /**
+     * DEFAULT_DECIMATION = 1 - jeder Takt
+     */
+    public final static int DEFAULT_DECIMATION = 1;
+
+    /**
+     * DEFAULT_TTL = 1 - nur im lokalen Netz
+     */
+    public final static int DEFAULT_TTL = 1;
+
+    /**
+     * group - Multicast-Gruppe und Port
+     */
+    private final InetSocketAddress group;
+
+    /**
+     * networkInterface - Schnittstelle fuer das Senden, null: Vorgabe des
+     * Betriebssystems
+     */
+    private final NetworkInterface networkInterface;
+
+    /**
+     * decimation - jeder n-te Takt
+     */
+    private final int decimation;
+
+    /**
+     * cycleTime - Taktung (ms) des Models
+     */
+    private final int cycleTime;
+
+    /**
+     * packet - wiederverwendetes Datagramm (direct, little-endian)
+     */
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(TelemetryFormat.PACKET_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * sample - wiederverwendeter Takt
+     */
+    private final CycleSample sample = new CycleSample();
+
+    /**
+     * channel - nicht blockierend
+     */
+    private DatagramChannel channel = null;
+
+    /**
+     * cycleBuffer - Quelle
+     */
+    private CycleBuffer cycleBuffer = null;
+
+    /**
+     * nextSequence - naechster abzuholender Takt
+     */
+    private long nextSequence = 0L;
+
+    /**
+     * Statistik: gesendete, verworfene Pakete, im Ringpuffer verlorene Takte
+     */
+    private volatile long sent = 0L;
+    private volatile long dropped = 0L;
+    private volatile long lost = 0L;
+
+    /**
+     * thread - Hintergrundthread
+     */
+    private Thread thread = null;
+
+    /**
+     * running - Hintergrundthread laeuft
+     */
+    private volatile boolean running = false;
+
+    /**
+     * TelemetryPublisher(InetSocketAddress group, int cycleTime) - jeder
+     * Takt, Schnittstelle nach Vorgabe des Betriebssystems...
+     * @param group - Multicast-Gruppe und Port
+     * @param cycleTime - Taktung (ms)
+     */
+    public TelemetryPublisher(InetSocketAddress group, int cycleTime)
+    {
+        this(group, null, DEFAULT_DECIMATION, cycleTime);
+    }
+
+    /**
+     * TelemetryPublisher(InetSocketAddress group, NetworkInterface networkInterface, int decimation, int cycleTime)
+     * @param group - Multicast-Gruppe und Port
+     * @param networkInterface - Schnittstelle (z.B. wlan0, lo), null: Vorgabe des Betriebssystems
+     * @param decimation - jeder n-te Takt (1 ... 32767)
+     * @param cycleTime - Taktung (ms)
+     */
+    public TelemetryPublisher(InetSocketAddress group, NetworkInterface networkInterface, int decimation, int cycleTime)
+    {
+        if (!group.getAddress().isMulticastAddress())
+        {
+            throw new IllegalArgumentException("Keine Multicast-Adresse: " + group);
+        }
+        if (decimation < 1 || decimation > Short.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("decimation: " + decimation);
+        }
+        this.group = group;
+        this.networkInterface = networkInterface;
+        this.decimation = decimation;
+        this.cycleTime = cycleTime;
+    }
+
+    /**
+     * start(CycleBuffer cycleBuffer) - Kanal oeffnen und Hintergrundthread,
+     * der die Takte aus dem cycleBuffer abholt...
+     * @param cycleBuffer - Ringpuffer des Models
+     * @throws IOException
+     */
+    public void start(CycleBuffer cycleBuffer) throws IOException
+    {
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        this.channel.configureBlocking(false);
+        this.channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, Integer.valueOf(DEFAULT_TTL));
+        this.channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, Boolean.TRUE);
+        if (this.networkInterface != null)
+        {
+            this.channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, this.networkInterface);
+        }
+        this.cycleBuffer = cycleBuffer;
+        this.nextSequence = cycleBuffer.getSequence();
+        this.running = true;
+        this.thread = new Thread(this, "TelemetryPublisher");
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+        this.thread.start();
+        logger.info("Telemetrie an " + this.group + ", jeder " + this.decimation + ". Takt");
+    }
+
+    /**
+     * stop() - beendet den Hintergrundthread (inkl. der letzten Takte) und
+     * schliesst den Kanal...
+     */
+    public void stop()
+    {
+        this.running = false;
+        final Thread current = this.thread;
+        if (current != null)
+        {
+            current.interrupt();
+            try
+            {
+                current.join();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+        if (this.channel != null)
+        {
+            try
+            {
+                this.channel.close();
+            }
+            catch (IOException exception)
+            {
+                logger.error("stop(): " + exception);
+            }
+            this.channel = null;
+        }
+        logger.info(toString());
+    }
+
+    /**
+     * run() - Hintergrundthread
+     */
+    @Override
+    public void run()
+    {
+        while (this.running)
+        {
+            poll();
+            try
+            {
+                Thread.sleep(POLL_MILLIS);
+            }
+            catch (InterruptedException exception)
+            {
+                // stop()...
+            }
+        }
+        poll();
+    }
+
+    /**
+     * poll() - alle neuen Takte aus dem cycleBuffer, davon jeden
+     * decimation-ten senden...
+     */
+    private void poll()
+    {
+        final long sequence = this.cycleBuffer.getSequence();
+        final long oldest = this.cycleBuffer.getOldestSequence();
+        if (this.nextSequence < oldest)
+        {
+            this.lost += oldest - this.nextSequence;
+            this.nextSequence = oldest;
+        }
+        for (; this.nextSequence < sequence; this.nextSequence++)
+        {
+            if (this.nextSequence % this.decimation != 0L)
+            {
+                continue;
+            }
+            if (this.cycleBuffer.read(this.nextSequence, this.sample))
+            {
+                send();
+            }
+            else
+            {
+                this.lost++;
+            }
+        }
+    }
+
+    /**
+     * send() - sample kodieren und senden, ohne Wiederholung...
+     */
+    private void send()
+    {
+        final long number = this.sent + this.dropped;
+        TelemetryFormat.encode(this.packet, number, this.decimation, this.cycleTime, this.lost, this.sample);
+        try
+        {
+            if (this.channel.send(this.packet, this.group) > 0)
+            {
+                this.sent++;
+                return;
+            }
+        }
+        catch (IOException exception)
+        {
+            SEND_LOG.log(exception);
+        }
+        this.dropped++;
+    }
+
+    /**
+     * getSent()
+     * @return Anzahl der gesendeten Pakete
+     */
+    public long getSent()
+    {
+        return this.sent;
+    }
+
+    /**
+     * getDropped()
+     * @return Anzahl der verworfenen Pakete (Sendepuffer voll, Fehler)
+     */
+    public long getDropped()
+    {
+        return this.dropped;
+    }
+
+    /**
+     * getLost()
+     * @return Anzahl der Takte, die der Ringpuffer vor dem Abholen ueberschrieben hat
+     */
+    public long getLost()
+    {
+        return this.lost;
+    }
+
+    /**
+     * @return the group
+     */
+    public final InetSocketAddress getGroup()
+    {
+        return this.group;
+    }
+
+    /**
+     * @return the decimation
+     */
+    public final int getDecimation()
+    {
+        return this.decimation;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.telemetry.TelemetryPublisher[" + this.group + ", sent=" + this.sent + ", dropped=" + this.dropped + ", lost=" + this.lost + "]";
+    }
+}
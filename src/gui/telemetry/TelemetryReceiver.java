@@ -0,0 +1,323 @@
+/**
+ *
+ */
+package gui.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.util.Enumeration;
+
+import gui.Status;
+import gui.Transmission;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TelemetryReceiver - Empfang der Telemetrie ({@link TelemetryPublisher})
+ * auf der Bodenstation: tritt der Multicast-Gruppe bei, {@link #receive()}
+ * wartet auf das naechste gueltige Datagramm, die Getter lesen dessen
+ * Felder direkt aus dem wiederverwendeten Puffer.
+ * </p>
+ * <p>
+ * Luecken in der Paketnummer werden als fehlende Pakete gezaehlt
+ * ({@link #getMissed()}), unabhaengig davon, ob sie im Sender (dropped)
+ * oder im Netz verloren gingen. Ein Neustart des Senders (kleinere
+ * Paketnummer) beginnt die Zaehlung neu.
+ * </p>
+ */
+public class TelemetryReceiver implements Closeable
+{
+    /**
+     * group - Multicast-Gruppe und Port
+     */
+    private final InetSocketAddress group;
+
+    /**
+     * networkInterface - Schnittstelle fuer den Beitritt
+     */
+    private final NetworkInterface networkInterface;
+
+    /**
+     * packet - wiederverwendeter Empfangspuffer (direct, little-endian),
+     * ein Byte groesser als PACKET_SIZE (zu lange Datagramme erkennen)
+     */
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(TelemetryFormat.PACKET_SIZE + 1).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * channel, membership
+     */
+    private DatagramChannel channel = null;
+    private MembershipKey membership = null;
+
+    /**
+     * nextNumber - erwartete Paketnummer, -1: noch keine
+     */
+    private long nextNumber = -1L;
+
+    /**
+     * Statistik: gueltige Pakete, fehlende Pakete, ungueltige Datagramme
+     */
+    private volatile long received = 0L;
+    private volatile long missed = 0L;
+    private volatile long invalid = 0L;
+
+    /**
+     * TelemetryReceiver(InetSocketAddress group, NetworkInterface networkInterface)
+     * @param group - Multicast-Gruppe und Port
+     * @param networkInterface - Schnittstelle (vgl. {@link #findInterface(String)})
+     */
+    public TelemetryReceiver(InetSocketAddress group, NetworkInterface networkInterface)
+    {
+        if (!group.getAddress().isMulticastAddress())
+        {
+            throw new IllegalArgumentException("Keine Multicast-Adresse: " + group);
+        }
+        this.group = group;
+        this.networkInterface = networkInterface;
+    }
+
+    /**
+     * findInterface(String name) - Schnittstelle zum Namen, ohne Namen die
+     * erste aktive, multicast-faehige Schnittstelle (ausser Loopback),
+     * sonst Loopback...
+     * @param name - z.B. wlan0, lo oder null
+     * @return NetworkInterface
+     * @throws SocketException - keine passende Schnittstelle
+     */
+    public static NetworkInterface findInterface(String name) throws SocketException
+    {
+        if (name != null && name.length() > 0)
+        {
+            final NetworkInterface networkInterface = NetworkInterface.getByName(name);
+            if (networkInterface == null)
+            {
+                throw new SocketException("Unbekannte Schnittstelle: " + name);
+            }
+            return networkInterface;
+        }
+        final Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements())
+        {
+            final NetworkInterface networkInterface = interfaces.nextElement();
+            if (networkInterface.isUp() && networkInterface.supportsMulticast() && !networkInterface.isLoopback())
+            {
+                return networkInterface;
+            }
+        }
+        final NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback == null)
+        {
+            throw new SocketException("Keine Schnittstelle fuer Multicast");
+        }
+        return loopback;
+    }
+
+    /**
+     * open() - Port binden, der Gruppe beitreten...
+     * @throws IOException
+     */
+    public void open() throws IOException
+    {
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE);
+        this.channel.bind(new InetSocketAddress(this.group.getPort()));
+        this.membership = this.channel.join(this.group.getAddress(), this.networkInterface);
+    }
+
+    /**
+     * receive() - auf das naechste gueltige Datagramm warten (blockierend,
+     * Abbruch durch close() aus einem anderen Thread)...
+     * @throws IOException - z.B. AsynchronousCloseException
+     */
+    public void receive() throws IOException
+    {
+        while (true)
+        {
+            this.packet.clear();
+            this.channel.receive(this.packet);
+            if (TelemetryFormat.isValid(this.packet, this.packet.position()))
+            {
+                break;
+            }
+            this.invalid++;
+        }
+        final long number = getSequence();
+        if (this.nextNumber >= 0L && number > this.nextNumber)
+        {
+            this.missed += number - this.nextNumber;
+        }
+        this.nextNumber = number + 1L;
+        this.received++;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.membership != null)
+        {
+            this.membership.drop();
+            this.membership = null;
+        }
+        if (this.channel != null)
+        {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * @return Paketnummer des zuletzt empfangenen Datagramms
+     */
+    public long getSequence()
+    {
+        return this.packet.getLong(TelemetryFormat.SEQUENCE_OFFSET);
+    }
+
+    /**
+     * @return Taktzaehler
+     */
+    public long getCounter()
+    {
+        return this.packet.getLong(TelemetryFormat.COUNTER_OFFSET);
+    }
+
+    /**
+     * @return Beginn des Taktes (ns, Uhr des Senders)
+     */
+    public long getTimeNanos()
+    {
+        return this.packet.getLong(TelemetryFormat.TIME_OFFSET);
+    }
+
+    /**
+     * @return Abstand zum vorherigen Takt (ns)
+     */
+    public long getPeriodNanos()
+    {
+        return this.packet.getLong(TelemetryFormat.PERIOD_OFFSET);
+    }
+
+    /**
+     * @return Abweichung von der Zykluszeit (ns)
+     */
+    public long getJitterNanos()
+    {
+        return this.packet.getLong(TelemetryFormat.JITTER_OFFSET);
+    }
+
+    /**
+     * @return Rechenzeit des Taktes (ns)
+     */
+    public long getBusyNanos()
+    {
+        return this.packet.getLong(TelemetryFormat.BUSY_OFFSET);
+    }
+
+    /**
+     * @return Laufzeit Eingabe =&gt; Hardware (ns)
+     */
+    public long getLatencyNanos()
+    {
+        return this.packet.getLong(TelemetryFormat.LATENCY_OFFSET);
+    }
+
+    /**
+     * @return Servo-Sollwert
+     */
+    public int getServo()
+    {
+        return this.packet.getInt(TelemetryFormat.SERVO_OFFSET);
+    }
+
+    /**
+     * @return Motor-Sollwert
+     */
+    public int getMotor()
+    {
+        return this.packet.getInt(TelemetryFormat.MOTOR_OFFSET);
+    }
+
+    /**
+     * @return Gang
+     */
+    public Transmission getTransmission()
+    {
+        return TelemetryFormat.getTransmission(this.packet);
+    }
+
+    /**
+     * @return Status der Steuerung
+     */
+    public Status getStatus()
+    {
+        return TelemetryFormat.getStatus(this.packet);
+    }
+
+    /**
+     * @return Taktung (ms) des Senders
+     */
+    public int getCycleTime()
+    {
+        return this.packet.getShort(TelemetryFormat.CYCLE_TIME_OFFSET);
+    }
+
+    /**
+     * @return jeder n-te Takt
+     */
+    public int getDecimation()
+    {
+        return this.packet.getShort(TelemetryFormat.DECIMATION_OFFSET);
+    }
+
+    /**
+     * @return im Sender verlorene Takte (aufsummiert)
+     */
+    public int getSenderLost()
+    {
+        return this.packet.getInt(TelemetryFormat.LOST_OFFSET);
+    }
+
+    /**
+     * getReceived()
+     * @return Anzahl der gueltigen Pakete
+     */
+    public long getReceived()
+    {
+        return this.received;
+    }
+
+    /**
+     * getMissed()
+     * @return Anzahl der fehlenden Pakete (Luecken der Paketnummer)
+     */
+    public long getMissed()
+    {
+        return this.missed;
+    }
+
+    /**
+     * getInvalid()
+     * @return Anzahl der ungueltigen Datagramme
+     */
+    public long getInvalid()
+    {
+        return this.invalid;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "gui.telemetry.TelemetryReceiver[" + this.group + ", received=" + this.received + ", missed=" + this.missed + ", invalid=" + this.invalid + "]";
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * 
+ */
+package gui.time;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface Clock - Zeitbasis der Anwendung (monoton, in Nanosekunden).
+ * </p>
+ * <p>
+ * Im regulaeren Lauf wird die Systemuhr verwendet ({@link #SYSTEM}),
+ * die Simulation arbeitet mit einer virtuellen Uhr ({@link VirtualClock}),
+ * die beliebig schnell fortgeschaltet werden kann.
+ * </p>
+ */
+public interface Clock
+{
+    /**
+     * SYSTEM - Zeitbasis auf Basis von System.nanoTime()...
+     */
+    public final static Clock SYSTEM = new Clock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "gui.time.Clock.SYSTEM";
+        }
+    };
+    
+    /**
+     * nanoTime() - monotone Zeit in ns (Nullpunkt beliebig)...
+     * @return Zeit in ns
+     */
+    public long nanoTime();
+}
@@ -0,0 +1,293 @@
+/**
+ * 
+ */
+package gui.time;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * CycleTimer - Warten des Steuerungstaktes auf die naechste Taktgrenze 
+ * (Deadline, vgl. gui.task.TaskExecutive).
+ * </p>
+ * <p>
+ * {@link TimerMode#Sleep}: Thread.sleep() bis zur Deadline (Default).
+ * {@link TimerMode#Precision}: LockSupport.parkNanos() bis spinMargin vor 
+ * der Deadline, danach aktives Warten mit Thread.onSpinWait(). Der Thread
+ * belegt damit je Takt bis zu spinMargin CPU-Zeit (500 Hz, 200 us => 10 % 
+ * eines Kernes), der Weckfehler des Kernels wird durch den Spin aufgefangen, 
+ * solange er kleiner als spinMargin ist.
+ * </p>
+ * <p>
+ * Optional wird der Thread des Taktes in {@link #prepareThread()} an einen 
+ * (isolierten) CPU-Kern gebunden und mit SCHED_FIFO eingeplant 
+ * ({@link RealtimeScheduling}, nur mit dem FFM-Build). Fehler dabei werden 
+ * protokolliert, der Takt laeuft dann ohne diese Einstellung.
+ * </p>
+ * <p>
+ * Anm.: Mit SCHED_FIFO darf spinMargin nicht die ganze Taktzeit umfassen,
+ * sonst verdraengt der Takt auf seinem Kern alle anderen Threads.
+ * </p>
+ */
+public final class CycleTimer
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(CycleTimer.class);
+    
+    /**
+     * DEFAULT_SPIN_MARGIN_NANOS = 200 us - Spin vor der Deadline im Modus Precision
+     */
+    public final static long DEFAULT_SPIN_MARGIN_NANOS = 200_000L;
+    
+    /**
+     * NO_CPU = -1 - keine Bindung an einen CPU-Kern
+     */
+    public final static int NO_CPU = -1;
+    
+    /**
+     * NO_PRIORITY = 0 - kein SCHED_FIFO
+     */
+    public final static int NO_PRIORITY = 0;
+    
+    /**
+     * SLEEP - bisheriges Verhalten (Thread.sleep(), keine Einstellungen am Thread)
+     */
+    public final static CycleTimer SLEEP = new CycleTimer(TimerMode.Sleep, 0L, NO_CPU, NO_PRIORITY);
+    
+    /**
+     * REALTIME_SCHEDULING_CLASS - Klassenname der FFM-Implementierung
+     */
+    private final static String REALTIME_SCHEDULING_CLASS = "gui.time.ffm.LinuxRealtimeScheduling";
+    
+    /**
+     * mode - Art des Wartens
+     */
+    private final TimerMode mode;
+    
+    /**
+     * spinMarginNanos - aktives Warten vor der Deadline (ns), nur Precision
+     */
+    private final long spinMarginNanos;
+    
+    /**
+     * cpu - CPU-Kern des Taktes oder NO_CPU
+     */
+    private final int cpu;
+    
+    /**
+     * priority - SCHED_FIFO-Prioritaet (1..99) oder NO_PRIORITY
+     */
+    private final int priority;
+    
+    /**
+     * CycleTimer(TimerMode mode, long spinMarginNanos, int cpu, int priority) - Konstruktor...
+     * @param mode - Sleep oder Precision
+     * @param spinMarginNanos - aktives Warten vor der Deadline (ns, >= 0)
+     * @param cpu - CPU-Kern (0..) oder NO_CPU
+     * @param priority - SCHED_FIFO-Prioritaet (1..99) oder NO_PRIORITY
+     */
+    public CycleTimer(TimerMode mode, long spinMarginNanos, int cpu, int priority)
+    {
+        if (mode == null)
+        {
+            throw new IllegalArgumentException("mode: null");
+        }
+        if (spinMarginNanos < 0L)
+        {
+            throw new IllegalArgumentException("spinMarginNanos: " + spinMarginNanos);
+        }
+        if (priority < NO_PRIORITY || priority > 99)
+        {
+            throw new IllegalArgumentException("priority: " + priority);
+        }
+        this.mode = mode;
+        this.spinMarginNanos = spinMarginNanos;
+        this.cpu = (cpu < 0)? NO_CPU : cpu;
+        this.priority = priority;
+    }
+    
+    /**
+     * getMode()
+     * @return TimerMode
+     */
+    public TimerMode getMode()
+    {
+        return this.mode;
+    }
+    
+    /**
+     * getSpinMarginNanos()
+     * @return aktives Warten vor der Deadline (ns)
+     */
+    public long getSpinMarginNanos()
+    {
+        return this.spinMarginNanos;
+    }
+    
+    /**
+     * getCpu()
+     * @return CPU-Kern oder NO_CPU
+     */
+    public int getCpu()
+    {
+        return this.cpu;
+    }
+    
+    /**
+     * getPriority()
+     * @return SCHED_FIFO-Prioritaet oder NO_PRIORITY
+     */
+    public int getPriority()
+    {
+        return this.priority;
+    }
+    
+    /**
+     * prepareThread() - Einstellungen fuer den aufrufenden Thread (zu Beginn 
+     * von run() des Taktes): Bindung an cpu, SCHED_FIFO mit priority...
+     * @return true, wenn alle gewuenschten Einstellungen wirksam sind
+     */
+    public boolean prepareThread()
+    {
+        if (this.cpu == NO_CPU && this.priority == NO_PRIORITY)
+        {
+            return true;
+        }
+        final RealtimeScheduling scheduling;
+        try
+        {
+            scheduling = (RealtimeScheduling)Class.forName(REALTIME_SCHEDULING_CLASS).getConstructor().newInstance();
+        }
+        catch (InvocationTargetException exception)
+        {
+            logger.warn("RealtimeScheduling: " + exception.getCause());
+            return false;
+        }
+        catch (ReflectiveOperationException | LinkageError exception)
+        {
+            // Nicht uebersetzt (ant -Dffm=true) oder Laufzeit vor Java 22...
+            logger.warn("RealtimeScheduling nicht verfuegbar: " + exception);
+            return false;
+        }
+        boolean isPrepared = true;
+        if (this.cpu != NO_CPU)
+        {
+            try
+            {
+                scheduling.setAffinity(this.cpu);
+                logger.info(Thread.currentThread().getName() + ": CPU " + this.cpu);
+            }
+            catch (IOException | RuntimeException | LinkageError exception)
+            {
+                logger.warn(Thread.currentThread().getName() + ": " + exception);
+                isPrepared = false;
+            }
+        }
+        if (this.priority != NO_PRIORITY)
+        {
+            try
+            {
+                scheduling.setFifoPriority(this.priority);
+                logger.info(Thread.currentThread().getName() + ": SCHED_FIFO " + this.priority);
+            }
+            catch (IOException | RuntimeException | LinkageError exception)
+            {
+                logger.warn(Thread.currentThread().getName() + ": " + exception);
+                isPrepared = false;
+            }
+        }
+        return isPrepared;
+    }
+    
+    /**
+     * waitUntil(long deadlineNanos) - Warten bis System.nanoTime() die 
+     * Deadline erreicht (sofortige Rueckkehr bei verstrichener Deadline)...
+     * @param deadlineNanos - Zeitpunkt auf der Basis von System.nanoTime()
+     * @throws InterruptedException
+     */
+    public void waitUntil(long deadlineNanos) throws InterruptedException
+    {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (this.mode == TimerMode.Sleep)
+        {
+            if (remainingNanos > 0L)
+            {
+                TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            }
+            return;
+        }
+        // Precision: park bis spinMargin vor der Deadline (parkNanos() kann 
+        // vorzeitig zurueckkehren => erneut pruefen)...
+        while (remainingNanos > this.spinMarginNanos)
+        {
+            LockSupport.parkNanos(this, remainingNanos - this.spinMarginNanos);
+            if (Thread.interrupted())
+            {
+                throw new InterruptedException();
+            }
+            remainingNanos = deadlineNanos - System.nanoTime();
+        }
+        // ... Rest aktiv warten...
+        while (deadlineNanos - System.nanoTime() > 0L)
+        {
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * parse(String mode, String spinMarginMicros, String cpu, String priority) - 
+     * Vorgaben aus der properties-Datei (leer: Default)...
+     * @param mode - "sleep" oder "precision"
+     * @param spinMarginMicros - aktives Warten in us (Default: 200)
+     * @param cpu - CPU-Kern (Default: keine Bindung)
+     * @param priority - SCHED_FIFO-Prioritaet (Default: kein SCHED_FIFO)
+     * @return CycleTimer
+     */
+    public static CycleTimer parse(String mode, String spinMarginMicros, String cpu, String priority)
+    {
+        final long spinMarginNanos = (spinMarginMicros == null || spinMarginMicros.trim().length() == 0)
+                                   ? DEFAULT_SPIN_MARGIN_NANOS : Long.parseLong(spinMarginMicros.trim()) * 1_000L;
+        return new CycleTimer(TimerMode.parse(mode), spinMarginNanos, parseInt(cpu, NO_CPU), parseInt(priority, NO_PRIORITY));
+    }
+    
+    /**
+     * parseInt(String value, int defaultValue)
+     * @param value
+     * @param defaultValue - Ergebnis bei leerem Wert
+     * @return int
+     */
+    private static int parseInt(String value, int defaultValue)
+    {
+        return (value == null || value.trim().length() == 0)? defaultValue : Integer.parseInt(value.trim());
+    }
+    
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("[")
+               .append(this.mode)
+               .append(", spinMargin=")
+               .append(this.spinMarginNanos / 1_000L)
+               .append(" us");
+        if (this.cpu != NO_CPU)
+        {
+            builder.append(", cpu=").append(this.cpu);
+        }
+        if (this.priority != NO_PRIORITY)
+        {
+            builder.append(", SCHED_FIFO ").append(this.priority);
+        }
+        return builder.append("]").toString();
+    }
+}
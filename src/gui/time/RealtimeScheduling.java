@@ -0,0 +1,40 @@
+/**
+ * 
+ */
+package gui.time;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Interface RealtimeScheduling - Einstellungen des Linux-Schedulers fuer 
+ * den <b>aufrufenden</b> Thread (Bindung an einen CPU-Kern, SCHED_FIFO).
+ * </p>
+ * <p>
+ * Implementierung {@link gui.time.ffm.LinuxRealtimeScheduling} ueber die 
+ * FFM-API (ab Java 22), nur mit 'ant -Dffm=true' uebersetzt und daher 
+ * per Reflection geladen (vgl. {@link CycleTimer#prepareThread()}).
+ * </p>
+ */
+public interface RealtimeScheduling
+{
+    /**
+     * setAffinity(int cpu) - aufrufenden Thread an den CPU-Kern cpu binden 
+     * (sched_setaffinity()). Sinnvoll mit einem isolierten Kern 
+     * (Kernel-Parameter isolcpus=3).
+     * @param cpu - Nummer des Kernes (0..)
+     * @throws IOException - z.B. ungueltiger Kern (EINVAL)
+     */
+    public void setAffinity(int cpu) throws IOException;
+    
+    /**
+     * setFifoPriority(int priority) - aufrufenden Thread mit SCHED_FIFO und 
+     * der Prioritaet priority einplanen (sched_setscheduler()). Erfordert 
+     * CAP_SYS_NICE bzw. ein passendes RLIMIT_RTPRIO.
+     * @param priority - 1..99
+     * @throws IOException - z.B. fehlende Berechtigung (EPERM)
+     */
+    public void setFifoPriority(int priority) throws IOException;
+}
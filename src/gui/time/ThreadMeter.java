@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package gui.time;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ThreadMeter - Messwerte der Threads fuer die Benchmarks: auf dem Heap
+ * angelegte Byte und CPU-Zeit (HotSpot, com.sun.management.ThreadMXBean).
+ * </p>
+ * <p>
+ * Andere Threads werden ueber ihren Namen gefunden (ThreadInfo aus dem
+ * ThreadMXBean), ohne Thread.getId() (ab Java 19 veraltet) und ohne
+ * Thread.threadId() (erst ab Java 19 vorhanden).
+ * </p>
+ */
+public final class ThreadMeter
+{
+    /**
+     * ThreadMeter() - nur statische Methoden
+     */
+    private ThreadMeter()
+    {
+    }
+
+    /**
+     * allocatedBytes() - bisher im aktuellen Thread angelegte Byte...
+     * @return Byte, -1L wenn nicht verfuegbar
+     */
+    public static long allocatedBytes()
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean)bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1L;
+    }
+
+    /**
+     * allocatedBytes(String namePrefix) - bisher angelegte Byte aller
+     * Threads, deren Name mit namePrefix beginnt...
+     * @param namePrefix - Name bzw. Anfang des Namens
+     * @return Byte, -1L wenn nicht verfuegbar oder kein Thread gefunden
+     */
+    public static long allocatedBytes(String namePrefix)
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+        {
+            return -1L;
+        }
+        long bytes = -1L;
+        for (ThreadInfo info: bean.getThreadInfo(bean.getAllThreadIds()))
+        {
+            if (info != null && info.getThreadName().startsWith(namePrefix))
+            {
+                final long threadBytes = ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(info.getThreadId());
+                if (threadBytes >= 0L)
+                {
+                    bytes = Math.max(0L, bytes) + threadBytes;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * cpuNanos(String namePrefix) - bisherige CPU-Zeit aller Threads,
+     * deren Name mit namePrefix beginnt...
+     * @param namePrefix - Name bzw. Anfang des Namens
+     * @return ns (0L ohne passenden Thread)
+     */
+    public static long cpuNanos(String namePrefix)
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long nanos = 0L;
+        for (ThreadInfo info: bean.getThreadInfo(bean.getAllThreadIds()))
+        {
+            if (info != null && info.getThreadName().startsWith(namePrefix))
+            {
+                nanos += Math.max(0L, bean.getThreadCpuTime(info.getThreadId()));
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * threadInfo(String name) - ThreadInfo (z.B. Blockierungen) des Threads...
+     * @param name - Name des Threads
+     * @return ThreadInfo oder null
+     */
+    public static ThreadInfo threadInfo(String name)
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        for (ThreadInfo info: bean.getThreadInfo(bean.getAllThreadIds()))
+        {
+            if (info != null && info.getThreadName().equals(name))
+            {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * processCpuNanos() - bisherige CPU-Zeit des Prozesses...
+     * @return ns, -1L wenn nicht verfuegbar
+     */
+    public static long processCpuNanos()
+    {
+        final java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean)
+        {
+            return ((com.sun.management.OperatingSystemMXBean)bean).getProcessCpuTime();
+        }
+        return -1L;
+    }
+}
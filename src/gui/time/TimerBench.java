@@ -0,0 +1,183 @@
+/**
+ * 
+ */
+package gui.time;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TimerBench - Genauigkeit der Taktgrenzen mit {@link TimerMode#Sleep} und 
+ * {@link TimerMode#Precision}: Je Takt wird die Verspaetung gegenueber der 
+ * Deadline erfasst (wie gui.task.TaskExecutive, ohne Arbeit im Takt), dazu die 
+ * CPU-Zeit des Taktes je Sekunde.
+ * </p>
+ * <p>
+ * Aufruf: java gui.time.TimerBench [Zykluszeit (us)] [Takte] [spinMargin (us)] 
+ * [Last-Threads] [CPU-Kern] [SCHED_FIFO-Prioritaet]
+ * </p>
+ * <p>
+ * CPU-Kern/Prioritaet nur mit dem FFM-Build (vgl. {@link RealtimeScheduling}).
+ * </p>
+ */
+public class TimerBench
+{
+    /**
+     * DEFAULT_CYCLE_MICROS = 2000 - 500 Hz
+     */
+    public final static int DEFAULT_CYCLE_MICROS = 2_000;
+    
+    /**
+     * DEFAULT_CYCLES = 5000 - 10 s bei 500 Hz
+     */
+    public final static int DEFAULT_CYCLES = 5_000;
+    
+    /**
+     * run(CycleTimer timer, long cycleNanos, int cycles) - Takte im aktuellen
+     * Thread, Verspaetung je Takt im Histogramm...
+     * @param timer
+     * @param cycleNanos
+     * @param cycles
+     * @return LatencyHistogram der Verspaetung
+     * @throws InterruptedException
+     */
+    private static LatencyHistogram run(CycleTimer timer, long cycleNanos, int cycles) throws InterruptedException
+    {
+        final LatencyHistogram histogram = new LatencyHistogram(timer.getMode().getMode());
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        final long startCpuNanos = threadBean.getCurrentThreadCpuTime();
+        final long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos;
+        long maxNanos = 0L;
+        for (int index = 0; index < cycles; index++)
+        {
+            deadlineNanos += cycleNanos;
+            timer.waitUntil(deadlineNanos);
+            final long lateNanos = System.nanoTime() - deadlineNanos;
+            histogram.record(lateNanos);
+            maxNanos = Math.max(maxNanos, lateNanos);
+        }
+        final long cpuNanos = threadBean.getCurrentThreadCpuTime() - startCpuNanos;
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        System.out.printf("%-10s p50=%7.1f us  p99=%7.1f us  p99.9=%7.1f us  max=%8.1f us  >100 us: %5.2f %%  CPU %5.1f %%%n", 
+                          timer.getMode().getMode(),
+                          histogram.getPercentile(50.0) / 1000.0,
+                          histogram.getPercentile(99.0) / 1000.0,
+                          histogram.getPercentile(99.9) / 1000.0,
+                          maxNanos / 1000.0,
+                          100.0 * countAbove(histogram, 100_000L) / histogram.getCount(),
+                          100.0 * cpuNanos / elapsedNanos);
+        return histogram;
+    }
+    
+    /**
+     * countAbove(LatencyHistogram histogram, long limitNanos) - Anzahl der 
+     * Werte in Buckets oberhalb von limitNanos...
+     * @param histogram
+     * @param limitNanos
+     * @return Anzahl
+     */
+    private static long countAbove(LatencyHistogram histogram, long limitNanos)
+    {
+        long count = 0L;
+        for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++)
+        {
+            if (histogram.getLowerBound(bucket) >= limitNanos)
+            {
+                count += histogram.getCount(bucket);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * startLoad(int threads) - Hintergrundlast (Daemon-Threads, Rechnen mit 
+     * kurzen Pausen wie GUI/Logging)...
+     * @param threads
+     */
+    private static void startLoad(int threads)
+    {
+        for (int index = 0; index < threads; index++)
+        {
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long value = 0L;
+                    while (true)
+                    {
+                        final long endNanos = System.nanoTime() + 3_000_000L;
+                        while (System.nanoTime() < endNanos)
+                        {
+                            value = value * 31L + 7L;
+                        }
+                        try
+                        {
+                            Thread.sleep(1L);
+                        }
+                        catch (InterruptedException exception)
+                        {
+                            return;
+                        }
+                        if (value == 42L)
+                        {
+                            System.out.print("");
+                        }
+                    }
+                }
+            }, "Load-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int cycleMicros = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_CYCLE_MICROS;
+        final int cycles = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_CYCLES;
+        final long spinMarginNanos = (args.length > 2)? Long.parseLong(args[2]) * 1_000L : CycleTimer.DEFAULT_SPIN_MARGIN_NANOS;
+        final int load = (args.length > 3)? Integer.parseInt(args[3]) : 0;
+        final int cpu = (args.length > 4)? Integer.parseInt(args[4]) : CycleTimer.NO_CPU;
+        final int priority = (args.length > 5)? Integer.parseInt(args[5]) : CycleTimer.NO_PRIORITY;
+        
+        System.out.println("Zykluszeit " + cycleMicros + " us, " + cycles + " Takte, Last-Threads: " + load);
+        startLoad(load);
+        final CycleTimer[] timers = new CycleTimer[] 
+        {
+            new CycleTimer(TimerMode.Sleep, 0L, cpu, priority),
+            new CycleTimer(TimerMode.Precision, spinMarginNanos, cpu, priority)
+        };
+        for (final CycleTimer timer: timers)
+        {
+            // Je Modus ein eigener Thread (Einstellungen wirken je Thread)...
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    final boolean isPrepared = timer.prepareThread();
+                    System.out.println(timer + ((isPrepared)? "" : " (Einstellungen nicht wirksam)"));
+                    try
+                    {
+                        // Aufwaermen (JIT), dann messen...
+                        TimerBench.run(timer, cycleMicros * 1_000L, Math.min(cycles, 500));
+                        TimerBench.run(timer, cycleMicros * 1_000L, cycles);
+                    }
+                    catch (InterruptedException exception)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, "TimerBench-" + timer.getMode().getMode());
+            thread.start();
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package gui.time;
+
+/**
+ * enum TimerMode - Warten auf den Beginn des naechsten Taktes.
+ * 
+ * @author Detlef Tribius
+ * 
+ * <p>
+ * Sleep - Thread.sleep() bis zur Taktgrenze (bisheriges Verhalten, keine 
+ * zusaetzliche CPU-Last). Die Genauigkeit haengt vom Timer-Slack des 
+ * Kernels und der Last ab.
+ * </p>
+ * <p>
+ * Precision - LockSupport.parkNanos() bis kurz vor die Taktgrenze, den 
+ * Rest (spinMargin) aktiv mit Thread.onSpinWait(). Kostet je Takt bis zu 
+ * spinMargin CPU-Zeit, vgl. {@link CycleTimer}.
+ * </p>
+ */
+public enum TimerMode
+{
+    /**
+     * Sleep("sleep")
+     */
+    Sleep("sleep"),
+    /**
+     * Precision("precision")
+     */
+    Precision("precision");
+    
+    /**
+     * String mode - Kennung...
+     */
+    private final String mode;
+    
+    /**
+     * private TimerMode(String mode) - Privater Konstruktor...
+     * @param mode
+     */
+    private TimerMode(String mode)
+    {
+        this.mode = mode;
+    }
+    
+    /**
+     * getMode()
+     * @return Kennung, z.B. "precision"
+     */
+    public String getMode()
+    {
+        return this.mode;
+    }
+    
+    /**
+     * parse(String mode) - Kennung aus der properties-Datei...
+     * @param mode - "sleep", "precision" oder leer (=> Sleep)
+     * @return TimerMode
+     */
+    public static TimerMode parse(String mode)
+    {
+        if (mode == null || mode.trim().length() == 0)
+        {
+            return Sleep;
+        }
+        for (TimerMode value: values())
+        {
+            if (value.mode.equalsIgnoreCase(mode.trim()))
+            {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannter TimerMode: " + mode);
+    }
+}
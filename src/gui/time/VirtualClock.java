@@ -0,0 +1,86 @@
+/**
+ * 
+ */
+package gui.time;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * VirtualClock - virtuelle Zeitbasis, die Zeit wird ausschliesslich
+ * ueber {@link #advance(long)} fortgeschaltet.
+ * </p>
+ * <p>
+ * Anm.: Die Instanz ist nicht synchronisiert, sie gehoert genau einem 
+ * (Simulations-)Lauf.
+ * </p>
+ */
+public class VirtualClock implements Clock
+{
+    /**
+     * nanos - aktuelle virtuelle Zeit in ns...
+     */
+    private long nanos;
+    
+    /**
+     * VirtualClock() - Start bei 0 ns...
+     */
+    public VirtualClock()
+    {
+        this(0L);
+    }
+    
+    /**
+     * VirtualClock(long startNanos)
+     * @param startNanos - Startzeit in ns
+     */
+    public VirtualClock(long startNanos)
+    {
+        this.nanos = startNanos;
+    }
+
+    @Override
+    public long nanoTime()
+    {
+        return this.nanos;
+    }
+    
+    /**
+     * advance(long deltaNanos) - Zeit fortschalten...
+     * @param deltaNanos - Zeitschritt in ns (nicht negativ)
+     * @return neue Zeit in ns
+     */
+    public long advance(long deltaNanos)
+    {
+        if (deltaNanos < 0L)
+        {
+            throw new IllegalArgumentException("deltaNanos < 0: " + deltaNanos);
+        }
+        this.nanos += deltaNanos;
+        return this.nanos;
+    }
+    
+    /**
+     * advanceTo(long targetNanos) - Zeit bis targetNanos fortschalten 
+     * (ohne Wirkung, wenn targetNanos bereits erreicht ist)...
+     * @param targetNanos - Zielzeit in ns
+     * @return neue Zeit in ns
+     */
+    public long advanceTo(long targetNanos)
+    {
+        if (targetNanos - this.nanos > 0L)
+        {
+            this.nanos = targetNanos;
+        }
+        return this.nanos;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("[")
+                                  .append(this.nanos)
+                                  .append(" ns]")
+                                  .toString();
+    }
+}
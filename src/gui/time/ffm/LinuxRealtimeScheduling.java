@@ -0,0 +1,115 @@
+/**
+ * 
+ */
+package gui.time.ffm;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import gui.hardware.ffm.LibC;
+import gui.time.RealtimeScheduling;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LinuxRealtimeScheduling - sched_setaffinity()/sched_setscheduler() der 
+ * libc ueber die FFM-API (ab Java 22, vgl. {@link LibC}).
+ * </p>
+ * <p>
+ * Beide Aufrufe erhalten pid 0 und wirken unter Linux damit auf den 
+ * aufrufenden Thread (Task), nicht auf den ganzen Prozess.
+ * </p>
+ */
+public class LinuxRealtimeScheduling implements RealtimeScheduling
+{
+    /**
+     * SCHED_FIFO = 1 (linux/sched.h)
+     */
+    public final static int SCHED_FIFO = 1;
+    
+    /**
+     * CPU_SET_SIZE = 128 - sizeof(cpu_set_t) der glibc (1024 Kerne)
+     */
+    private final static int CPU_SET_SIZE = 128;
+    
+    /**
+     * LinuxRealtimeScheduling() - Konstruktor (fuer Class.forName())...
+     */
+    public LinuxRealtimeScheduling()
+    {
+    }
+    
+    /**
+     * setAffinity(int cpu)
+     */
+    @Override
+    public void setAffinity(int cpu) throws IOException
+    {
+        if (cpu < 0 || cpu >= CPU_SET_SIZE * 8)
+        {
+            throw new IllegalArgumentException("cpu: " + cpu);
+        }
+        try (Arena arena = Arena.ofConfined())
+        {
+            final MemorySegment callState = LibC.allocateCallState(arena);
+            final MemorySegment mask = arena.allocate(CPU_SET_SIZE, 8);
+            mask.set(JAVA_BYTE, cpu / 8, (byte)(1 << (cpu % 8)));
+            final int result;
+            try
+            {
+                result = (int)LibC.SCHED_SETAFFINITY.invokeExact(callState, 0, (long)CPU_SET_SIZE, mask);
+            }
+            catch (Throwable throwable)
+            {
+                throw new IOException("sched_setaffinity(" + cpu + "): " + throwable, throwable);
+            }
+            if (result < 0)
+            {
+                throw new IOException("sched_setaffinity(" + cpu + "): errno " + LibC.errno(callState));
+            }
+        }
+    }
+    
+    /**
+     * setFifoPriority(int priority)
+     */
+    @Override
+    public void setFifoPriority(int priority) throws IOException
+    {
+        if (priority < 1 || priority > 99)
+        {
+            throw new IllegalArgumentException("priority: " + priority);
+        }
+        try (Arena arena = Arena.ofConfined())
+        {
+            final MemorySegment callState = LibC.allocateCallState(arena);
+            // struct sched_param { int sched_priority; }
+            final MemorySegment param = arena.allocate(JAVA_INT);
+            param.set(JAVA_INT, 0L, priority);
+            final int result;
+            try
+            {
+                result = (int)LibC.SCHED_SETSCHEDULER.invokeExact(callState, 0, SCHED_FIFO, param);
+            }
+            catch (Throwable throwable)
+            {
+                throw new IOException("sched_setscheduler(SCHED_FIFO, " + priority + "): " + throwable, throwable);
+            }
+            if (result < 0)
+            {
+                throw new IOException("sched_setscheduler(SCHED_FIFO, " + priority + "): errno " + LibC.errno(callState));
+            }
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "gui.time.ffm.LinuxRealtimeScheduling[SCHED_FIFO]";
+    }
+}
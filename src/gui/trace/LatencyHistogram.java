@@ -0,0 +1,229 @@
+/**
+ * 
+ */
+package gui.trace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LatencyHistogram - Histogramm fuer Laufzeiten in ns mit logarithmischer
+ * Klasseneinteilung (je Zweierpotenz 16 Unterklassen, d.h. relativer 
+ * Fehler max. 1/16).
+ * </p>
+ * <p>
+ * Die Ablage erfolgt in einem AtomicLongArray, record() kann damit ohne 
+ * Sperre und ohne Objekt-Erzeugung aus beliebigen Threads beauftragt werden.
+ * </p>
+ */
+public class LatencyHistogram
+{
+    /**
+     * SUB_BITS = 4 - 16 Unterklassen je Zweierpotenz
+     */
+    private final static int SUB_BITS = 4;
+    
+    /**
+     * SUB_COUNT = 16
+     */
+    private final static int SUB_COUNT = 1 << SUB_BITS;
+    
+    /**
+     * BUCKETS - Anzahl der Klassen (bis Long.MAX_VALUE)
+     */
+    private final static int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+    
+    /**
+     * name - Bezeichnung des Histogramms
+     */
+    private final String name;
+    
+    /**
+     * counts - Haeufigkeit je Klasse
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    
+    /**
+     * LatencyHistogram(String name)
+     * @param name - Bezeichnung
+     */
+    public LatencyHistogram(String name)
+    {
+        this.name = name;
+    }
+    
+    /**
+     * record(long nanos) - Aufnahme eines Wertes (negative Werte zaehlen als 0)...
+     * @param nanos
+     */
+    public void record(long nanos)
+    {
+        this.counts.incrementAndGet(bucketOf(Math.max(0L, nanos)));
+    }
+    
+    /**
+     * bucketOf(long value) - Klasse zum Wert...
+     */
+    static int bucketOf(long value)
+    {
+        if (value < SUB_COUNT)
+        {
+            return (int)value;
+        }
+        final int major = 63 - Long.numberOfLeadingZeros(value);
+        final int minor = (int)(value >>> (major - SUB_BITS)) & (SUB_COUNT - 1);
+        return (major - SUB_BITS + 1) * SUB_COUNT + minor;
+    }
+    
+    /**
+     * lowerBound(int bucket) - kleinster Wert der Klasse...
+     */
+    static long lowerBound(int bucket)
+    {
+        if (bucket < SUB_COUNT)
+        {
+            return bucket;
+        }
+        final int major = bucket/SUB_COUNT + SUB_BITS - 1;
+        final int minor = bucket % SUB_COUNT;
+        return (1L << major) | ((long)minor << (major - SUB_BITS));
+    }
+    
+    /**
+     * upperBound(int bucket) - groesster Wert der Klasse...
+     */
+    static long upperBound(int bucket)
+    {
+        return (bucket + 1 < BUCKETS)? lowerBound(bucket + 1) - 1L : Long.MAX_VALUE;
+    }
+    
+    /**
+     * getCount() - Anzahl der aufgenommenen Werte...
+     * @return Anzahl
+     */
+    public long getCount()
+    {
+        long count = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            count += this.counts.get(bucket);
+        }
+        return count;
+    }
+    
+    /**
+     * getPercentile(double percentile) - Perzentil (obere Klassengrenze)...
+     * @param percentile - 0.0 ... 100.0
+     * @return Wert in ns, 0L wenn leer
+     */
+    public long getPercentile(double percentile)
+    {
+        final long count = getCount();
+        if (count == 0L)
+        {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long)Math.ceil(count * percentile/100.0));
+        long sum = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            sum += this.counts.get(bucket);
+            if (sum >= rank)
+            {
+                return upperBound(bucket);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * getBucketCount() - Anzahl der Klassen...
+     * @return BUCKETS
+     */
+    public int getBucketCount()
+    {
+        return BUCKETS;
+    }
+    
+    /**
+     * getCount(int bucket) - Haeufigkeit einer Klasse
+     * @param bucket
+     * @return Haeufigkeit
+     */
+    public long getCount(int bucket)
+    {
+        return this.counts.get(bucket);
+    }
+    
+    /**
+     * getLowerBound(int bucket)
+     * @param bucket
+     * @return kleinster Wert der Klasse (ns)
+     */
+    public long getLowerBound(int bucket)
+    {
+        return lowerBound(bucket);
+    }
+    
+    /**
+     * getUpperBound(int bucket)
+     * @param bucket
+     * @return groesster Wert der Klasse (ns)
+     */
+    public long getUpperBound(int bucket)
+    {
+        return upperBound(bucket);
+    }
+    
+    /**
+     * add(LatencyHistogram other) - Haeufigkeiten von other hinzufuegen 
+     * (Zusammenfassen von Teilergebnissen)...
+     * @param other
+     */
+    public void add(LatencyHistogram other)
+    {
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            final long count = other.counts.get(bucket);
+            if (count != 0L)
+            {
+                this.counts.addAndGet(bucket, count);
+            }
+        }
+    }
+    
+    /**
+     * reset() - alle Haeufigkeiten auf 0...
+     */
+    public void reset()
+    {
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            this.counts.set(bucket, 0L);
+        }
+    }
+
+    /**
+     * @return the name
+     */
+    public final String getName()
+    {
+        return this.name;
+    }
+    
+    /**
+     * toString() - Zusammenfassung (Anzahl, Median, 99%, Maximum) in us...
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s[n=%d, p50=%.1f us, p99=%.1f us, max=%.1f us]", 
+                             this.name, 
+                             getCount(), 
+                             getPercentile(50.0)/1000.0, 
+                             getPercentile(99.0)/1000.0, 
+                             getPercentile(100.0)/1000.0);
+    }
+}
@@ -0,0 +1,343 @@
+/**
+ * 
+ */
+package gui.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * LatencyTracer - Auswertung der abgeschlossenen {@link Trace}s.
+ * </p>
+ * <p>
+ * Je Station (ausser TraceStage.Event) wird die Laufzeit seit der vorherigen,
+ * erreichten Station in einem {@link LatencyHistogram} aufgenommen, je Paar
+ * (vorherige Station, Station) ein eigenes Histogramm, damit die Bezeichnung
+ * auch bei uebersprungenen Stationen zum gemessenen Intervall passt.
+ * </p>
+ * <p>
+ * Die Gesamtlaufzeit (Eingang des Events bis TraceStage.Written, Eingabe =>
+ * PWM) enthaelt nur Traces mit Schreibzugriff. Traces ohne Schreibzugriff 
+ * (unveraenderte Werte, Gangwahl, abgewiesene Vorgaben, Echo der GUI) 
+ * zaehlen getrennt im Histogramm "NoWrite" bis zur letzten erreichten
+ * Station. Die letzten Traces werden ausserdem einzeln in einem Ringpuffer
+ * gehalten.
+ * </p>
+ * <p>
+ * Mit {@link #export(Writer)} werden Histogramme und Einzelwerte als CSV
+ * (Trennzeichen ';') zur Offline-Auswertung ausgegeben.
+ * </p>
+ */
+public class LatencyTracer
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(LatencyTracer.class);
+    
+    /**
+     * STAGES - alle Stationen...
+     */
+    private final static TraceStage[] STAGES = TraceStage.values();
+    
+    /**
+     * DEFAULT_CAPACITY = 4096 - Anzahl der einzeln gehaltenen Traces
+     */
+    public final static int DEFAULT_CAPACITY = 4096;
+    
+    /**
+     * stageHistograms - Laufzeit von der vorherigen erreichten Station zur
+     * Station (Index [vorherige][Station] = Ordinal, nur vorherige < Station)
+     */
+    private final LatencyHistogram[][] stageHistograms = new LatencyHistogram[STAGES.length][STAGES.length];
+    
+    /**
+     * totalHistogram - Gesamtlaufzeit bis TraceStage.Written
+     */
+    private final LatencyHistogram totalHistogram = new LatencyHistogram("Total");
+    
+    /**
+     * noWriteHistogram - Laufzeit der Traces ohne TraceStage.Written
+     */
+    private final LatencyHistogram noWriteHistogram = new LatencyHistogram("NoWrite");
+    
+    /**
+     * capacity - Groesse des Ringpuffers
+     */
+    private final int capacity;
+    
+    /**
+     * traceIds, keys, marks - Ringpuffer der letzten Traces, marks relativ
+     * zum Event (ns), -1L: Station nicht erreicht...
+     */
+    private final long[] traceIds;
+    private final String[] keys;
+    private final long[][] marks;
+    
+    /**
+     * completed - Anzahl der abgeschlossenen Traces
+     */
+    private long completed = 0L;
+    
+    /**
+     * pendingMaxNanos - groesste Gesamtlaufzeit (bis TraceStage.Written) 
+     * seit dem letzten takeMaxLatency()
+     */
+    private final AtomicLong pendingMaxNanos = new AtomicLong();
+    
+    /**
+     * LatencyTracer() - Ringpuffer mit DEFAULT_CAPACITY...
+     */
+    public LatencyTracer()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * LatencyTracer(int capacity)
+     * @param capacity - Anzahl der einzeln gehaltenen Traces
+     */
+    public LatencyTracer(int capacity)
+    {
+        for (int index = 1; index < STAGES.length; index++)
+        {
+            for (int previous = 0; previous < index; previous++)
+            {
+                this.stageHistograms[previous][index] = new LatencyHistogram(STAGES[previous].getStage() + "->" + STAGES[index].getStage());
+            }
+        }
+        this.capacity = capacity;
+        this.traceIds = new long[capacity];
+        this.keys = new String[capacity];
+        this.marks = new long[capacity][STAGES.length];
+    }
+    
+    /**
+     * complete(Trace trace) - Auswertung eines abgeschlossenen Traces...
+     * @param trace
+     */
+    public void complete(Trace trace)
+    {
+        if (trace == null)
+        {
+            return;
+        }
+        final long start = trace.getMark(TraceStage.Event);
+        long previous = start;
+        int previousIndex = TraceStage.Event.ordinal();
+        for (int index = 1; index < STAGES.length; index++)
+        {
+            final long mark = trace.getMark(STAGES[index]);
+            if (mark != 0L)
+            {
+                this.stageHistograms[previousIndex][index].record(mark - previous);
+                previous = mark;
+                previousIndex = index;
+            }
+        }
+        if (trace.getMark(TraceStage.Written) != 0L)
+        {
+            this.totalHistogram.record(previous - start);
+            this.pendingMaxNanos.accumulateAndGet(previous - start, Math::max);
+        }
+        else
+        {
+            this.noWriteHistogram.record(previous - start);
+        }
+        
+        synchronized(this)
+        {
+            final int slot = (int)(this.completed % this.capacity);
+            this.traceIds[slot] = trace.getTraceId();
+            this.keys[slot] = trace.getKey();
+            for (TraceStage stage: STAGES)
+            {
+                final long mark = trace.getMark(stage);
+                this.marks[slot][stage.ordinal()] = (mark != 0L)? mark - start : -1L;
+            }
+            this.completed++;
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("complete(): " + trace);
+        }
+    }
+    
+    /**
+     * takeMaxLatency() - groesste Gesamtlaufzeit der seit dem letzten Aufruf
+     * abgeschlossenen Traces mit Schreibzugriff (Ablage je Takt im cycleBuffer)...
+     * @return Laufzeit in ns, 0L wenn kein Trace abgeschlossen wurde
+     */
+    public long takeMaxLatency()
+    {
+        return this.pendingMaxNanos.getAndSet(0L);
+    }
+    
+    /**
+     * getHistogram(TraceStage stage) - Laufzeit von der direkt vorherigen 
+     * Station bis zur Station...
+     * @param stage - Station (nicht TraceStage.Event)
+     * @return LatencyHistogram, null fuer TraceStage.Event
+     */
+    public LatencyHistogram getHistogram(TraceStage stage)
+    {
+        return (stage.ordinal() > 0)? this.stageHistograms[stage.ordinal() - 1][stage.ordinal()] : null;
+    }
+    
+    /**
+     * getHistogram(TraceStage previous, TraceStage stage) - Laufzeit von der
+     * Station previous bis zur Station, wenn dazwischen keine Station 
+     * erreicht wurde...
+     * @param previous - vorherige erreichte Station
+     * @param stage - Station (nach previous)
+     * @return LatencyHistogram, null wenn stage nicht nach previous liegt
+     */
+    public LatencyHistogram getHistogram(TraceStage previous, TraceStage stage)
+    {
+        return this.stageHistograms[previous.ordinal()][stage.ordinal()];
+    }
+    
+    /**
+     * getTotalHistogram()
+     * @return Histogramm der Gesamtlaufzeit (Eingabe => TraceStage.Written)
+     */
+    public LatencyHistogram getTotalHistogram()
+    {
+        return this.totalHistogram;
+    }
+    
+    /**
+     * getNoWriteHistogram()
+     * @return Histogramm der Laufzeit der Traces ohne Schreibzugriff
+     */
+    public LatencyHistogram getNoWriteHistogram()
+    {
+        return this.noWriteHistogram;
+    }
+    
+    /**
+     * getCompleted()
+     * @return Anzahl der abgeschlossenen Traces
+     */
+    public synchronized long getCompleted()
+    {
+        return this.completed;
+    }
+    
+    /**
+     * export(Writer writer) - Ausgabe als CSV...
+     * <p>
+     * Abschnitt 1: Zusammenfassung je Histogramm (Perzentile in ns),<br>
+     * Abschnitt 2: Histogramme (nur besetzte Klassen),<br>
+     * Abschnitt 3: die letzten Traces einzeln (ns relativ zum Event, -1: nicht erreicht).
+     * </p>
+     * @param writer
+     * @throws IOException
+     */
+    public void export(Writer writer) throws IOException
+    {
+        final LatencyHistogram[] histograms = getHistograms();
+        
+        writer.write("# summary\n");
+        writer.write("histogram;count;p50;p90;p99;p999;max\n");
+        for (LatencyHistogram histogram: histograms)
+        {
+            writer.write(histogram.getName() + ";" 
+                       + histogram.getCount() + ";"
+                       + histogram.getPercentile(50.0) + ";"
+                       + histogram.getPercentile(90.0) + ";"
+                       + histogram.getPercentile(99.0) + ";"
+                       + histogram.getPercentile(99.9) + ";"
+                       + histogram.getPercentile(100.0) + "\n");
+        }
+        
+        writer.write("# histograms\n");
+        writer.write("histogram;lowerNanos;upperNanos;count\n");
+        for (LatencyHistogram histogram: histograms)
+        {
+            for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++)
+            {
+                final long count = histogram.getCount(bucket);
+                if (count > 0L)
+                {
+                    writer.write(histogram.getName() + ";" 
+                               + histogram.getLowerBound(bucket) + ";" 
+                               + histogram.getUpperBound(bucket) + ";" 
+                               + count + "\n");
+                }
+            }
+        }
+        
+        writer.write("# traces\n");
+        final StringBuilder header = new StringBuilder("traceId;key");
+        for (TraceStage stage: STAGES)
+        {
+            header.append(";").append(stage.getStage());
+        }
+        writer.write(header.append("\n").toString());
+        synchronized(this)
+        {
+            final long first = Math.max(0L, this.completed - this.capacity);
+            for (long number = first; number < this.completed; number++)
+            {
+                final int slot = (int)(number % this.capacity);
+                final StringBuilder line = new StringBuilder().append(this.traceIds[slot])
+                                                              .append(";")
+                                                              .append(this.keys[slot]);
+                for (TraceStage stage: STAGES)
+                {
+                    line.append(";").append(this.marks[slot][stage.ordinal()]);
+                }
+                writer.write(line.append("\n").toString());
+            }
+        }
+        writer.flush();
+    }
+    
+    /**
+     * getHistograms() - Histogramme der aufeinander folgenden Stationen, 
+     * der uebersprungenen Stationen (nur wenn besetzt), Gesamt und ohne
+     * Schreibzugriff...
+     */
+    private LatencyHistogram[] getHistograms()
+    {
+        final List<LatencyHistogram> histograms = new ArrayList<>();
+        for (int index = 1; index < STAGES.length; index++)
+        {
+            for (int previous = index - 1; previous >= 0; previous--)
+            {
+                final LatencyHistogram histogram = this.stageHistograms[previous][index];
+                if (previous == index - 1 || histogram.getCount() > 0L)
+                {
+                    histograms.add(histogram);
+                }
+            }
+        }
+        histograms.add(this.totalHistogram);
+        histograms.add(this.noWriteHistogram);
+        return histograms.toArray(new LatencyHistogram[histograms.size()]);
+    }
+    
+    /**
+     * toString() - Zusammenfassung...
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (LatencyHistogram histogram: getHistograms())
+        {
+            builder.append(histogram).append("\n");
+        }
+        return builder.toString();
+    }
+}
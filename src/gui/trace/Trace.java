@@ -0,0 +1,142 @@
+/**
+ * 
+ */
+package gui.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * Trace - Begleitobjekt einer Eingabe (Slider, ComboBox) auf dem Weg
+ * durch Controller und Model bis zum Schreibzugriff auf die Hardware.
+ * </p>
+ * <p>
+ * Jeder Trace erhaelt eine eindeutige traceId und nimmt je 
+ * {@link TraceStage} einen monotonen Zeitstempel (System.nanoTime()) auf.
+ * Ausgewertet wird er durch den {@link LatencyTracer}.
+ * </p>
+ * <p>
+ * Anm.: Ein Trace wird nur von einem Thread (i.d.R. EDT) bearbeitet.
+ * </p>
+ */
+public class Trace
+{
+    /**
+     * NEXT_ID - Vergabe der traceId...
+     */
+    private final static AtomicLong NEXT_ID = new AtomicLong(0L);
+    
+    /**
+     * STAGES - alle Stationen...
+     */
+    private final static TraceStage[] STAGES = TraceStage.values();
+    
+    /**
+     * traceId - eindeutige Kennung
+     */
+    private final long traceId;
+    
+    /**
+     * marks - Zeitstempel je Station (ns), 0L: Station nicht erreicht
+     */
+    private final long[] marks = new long[STAGES.length];
+    
+    /**
+     * key - Key der Eingabe (z.B. Model.DATA_SERVO_KEY)
+     */
+    private String key = null;
+    
+    /**
+     * begin() - neuer Trace, Zeitstempel fuer TraceStage.Event...
+     * @return Trace
+     */
+    public static Trace begin()
+    {
+        return new Trace(NEXT_ID.incrementAndGet(), System.nanoTime());
+    }
+    
+    /**
+     * Trace(long traceId, long startNanos)
+     * @param traceId
+     * @param startNanos
+     */
+    private Trace(long traceId, long startNanos)
+    {
+        this.traceId = traceId;
+        this.marks[TraceStage.Event.ordinal()] = startNanos;
+    }
+    
+    /**
+     * mark(TraceStage stage) - Zeitstempel fuer die Station setzen...
+     * <p>
+     * Beim mehrfachen Erreichen einer Station zaehlt der erste Zeitstempel.
+     * </p>
+     * @param stage
+     */
+    public void mark(TraceStage stage)
+    {
+        final int index = stage.ordinal();
+        if (this.marks[index] == 0L)
+        {
+            this.marks[index] = System.nanoTime();
+        }
+    }
+    
+    /**
+     * getMark(TraceStage stage)
+     * @param stage
+     * @return Zeitstempel (ns) oder 0L, wenn die Station nicht erreicht wurde
+     */
+    public long getMark(TraceStage stage)
+    {
+        return this.marks[stage.ordinal()];
+    }
+
+    /**
+     * @return the traceId
+     */
+    public final long getTraceId()
+    {
+        return this.traceId;
+    }
+
+    /**
+     * @return the key
+     */
+    public final String getKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * @param key the key to set
+     */
+    public final void setKey(String key)
+    {
+        this.key = key;
+    }
+    
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder().append("[")
+                                                         .append(this.traceId)
+                                                         .append(", ")
+                                                         .append(this.key);
+        final long start = this.marks[TraceStage.Event.ordinal()];
+        for (TraceStage stage: STAGES)
+        {
+            final long mark = this.marks[stage.ordinal()];
+            if (mark != 0L)
+            {
+                builder.append(", ").append(stage.getStage()).append("=").append(mark - start).append(" ns");
+            }
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * 
+ */
+package gui.trace;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * enum TraceStage - Stationen einer Eingabe auf dem Weg von der GUI 
+ * bis zum Schreibzugriff auf die Hardware (PWM-Register).
+ * </p>
+ */
+public enum TraceStage
+{
+    /**
+     * Event("Event") - Eingang des Events (SwingWindow.stateChangedDelegate()
+     * bzw. Controller.actionPerformed())
+     */
+    Event("Event"),
+    /**
+     * Controller("Controller") - Controller.actionPerformed()
+     */
+    Controller("Controller"),
+    /**
+     * Model("Model") - Model.setProperty()
+     */
+    Model("Model"),
+    /**
+     * Actuate("Actuate") - doServo() bzw. doMotor()
+     */
+    Actuate("Actuate"),
+    /**
+     * Written("Written") - Schreibzugriff (I2C) abgeschlossen
+     */
+    Written("Written");
+    
+    /**
+     * String stage - Kennung der Station...
+     */
+    private final String stage;
+    
+    /**
+     * private TraceStage(String stage) - Privater Konstruktor...
+     * @param stage
+     */
+    private TraceStage(String stage)
+    {
+        this.stage = stage;
+    }
+    
+    /**
+     * getStage() - Kennung der Station...
+     * @return stage
+     */
+    public String getStage()
+    {
+        return this.stage;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package gui.trace;
+
+import java.awt.event.ActionEvent;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * TracedActionEvent - ActionEvent mit zugehoerigem {@link Trace}, 
+ * damit der Zeitstempel des Event-Eingangs in der View bis in das 
+ * Model weitergereicht werden kann.
+ * </p>
+ */
+public class TracedActionEvent extends ActionEvent
+{
+    /**
+     * serialVersionUID = 1L
+     */
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * trace - Begleitobjekt (wird nicht serialisiert)
+     */
+    private final transient Trace trace;
+    
+    /**
+     * TracedActionEvent(Object source, int id, String command, Trace trace)
+     * @param source
+     * @param id
+     * @param command
+     * @param trace
+     */
+    public TracedActionEvent(Object source, int id, String command, Trace trace)
+    {
+        super(source, id, command);
+        this.trace = trace;
+    }
+
+    /**
+     * @return the trace
+     */
+    public final Trace getTrace()
+    {
+        return this.trace;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * 
+ */
+package gui.web;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Model;
+import gui.sim.SimulatedActuator;
+import gui.time.Clock;
+import gui.trace.LatencyHistogram;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * DashboardBench - Pruefung des DashboardServer ueber loopback: Jitter und
+ * Rechenzeit des Steuertaktes ohne und mit Clients (davon einer, der 
+ * zeitweise nicht liest, dafuer muessen Bilder uebersprungen werden).
+ * </p>
+ * <p>
+ * Aufruf: java gui.web.DashboardBench [Clients] [Sekunden] [Bilder/s]
+ * </p>
+ * <p>
+ * Hinweis: Uebersprungen wird erst, wenn die Socket-Puffer des 
+ * Betriebssystems voll sind. Ueber loopback waechst der Sendepuffer unter
+ * Linux bis tcp_wmem (max. 4 MB), bei 100 Bildern/s dauert das Minuten.
+ * </p>
+ */
+public class DashboardBench
+{
+    /**
+     * DEFAULT_CLIENTS = 10
+     */
+    public final static int DEFAULT_CLIENTS = 10;
+    
+    /**
+     * DEFAULT_SECONDS = 10 - Dauer je Phase
+     */
+    public final static int DEFAULT_SECONDS = 10;
+    
+    /**
+     * DEFAULT_FRAME_RATE = 50 - hoeher als im Betrieb, damit der Client 
+     * ohne Lesen die Puffer in kurzer Zeit fuellt
+     */
+    public final static int DEFAULT_FRAME_RATE = 50;
+    
+    /**
+     * CYCLE_TIME = 10 - Taktung (ms) des Models
+     */
+    private final static int CYCLE_TIME = 10;
+    
+    /**
+     * Client - liest /events ueber einen eigenen Socket und zaehlt die 
+     * Bilder und Luecken (id), stalledMillis: Pause vor dem Lesen
+     */
+    private static class Client implements Runnable
+    {
+        final int port;
+        final long stalledMillis;
+        final AtomicLong frames = new AtomicLong();
+        final AtomicLong gaps = new AtomicLong();
+        volatile Socket socket;
+        
+        Client(int port, long stalledMillis)
+        {
+            this.port = port;
+            this.stalledMillis = stalledMillis;
+        }
+        
+        @Override
+        public void run()
+        {
+            try (Socket socket = new Socket())
+            {
+                this.socket = socket;
+                // Kleiner Empfangspuffer, damit ein stehender Client den Server bremst...
+                socket.setReceiveBufferSize(4096);
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port));
+                final OutputStream out = socket.getOutputStream();
+                out.write("GET /events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 256);
+                if (this.stalledMillis > 0L)
+                {
+                    Thread.sleep(this.stalledMillis);
+                }
+                long last = 0L;
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    if (line.startsWith("id: "))
+                    {
+                        final long id = Long.parseLong(line.substring(4));
+                        if (last != 0L && id > last + 1L)
+                        {
+                            this.gaps.addAndGet(id - last - 1L);
+                        }
+                        last = id;
+                        this.frames.incrementAndGet();
+                    }
+                }
+            }
+            catch (Exception exception)
+            {
+                // Socket durch close() beendet...
+            }
+        }
+        
+        void close() throws Exception
+        {
+            if (this.socket != null)
+            {
+                this.socket.close();
+            }
+        }
+    }
+    
+    /**
+     * measure(Model model, int seconds, String name) - Jitter und Rechenzeit
+     * der Takte waehrend seconds...
+     */
+    private static void measure(Model model, int seconds, String name) throws InterruptedException
+    {
+        final CycleBuffer cycleBuffer = model.getCycleBuffer();
+        final CycleSample sample = new CycleSample();
+        final LatencyHistogram jitter = new LatencyHistogram("|jitter| " + name);
+        final LatencyHistogram busy = new LatencyHistogram("busy " + name);
+        long next = cycleBuffer.getSequence();
+        final long end = System.currentTimeMillis() + seconds * 1000L;
+        while (System.currentTimeMillis() < end)
+        {
+            Thread.sleep(100L);
+            final long sequence = cycleBuffer.getSequence();
+            for (next = Math.max(next, cycleBuffer.getOldestSequence()); next < sequence; next++)
+            {
+                if (cycleBuffer.read(next, sample) && sample.getPeriodNanos() != 0L)
+                {
+                    jitter.record(Math.abs(sample.getJitterNanos()));
+                    busy.record(sample.getBusyNanos());
+                }
+            }
+        }
+        System.out.println(jitter);
+        System.out.println(busy);
+    }
+    
+    /**
+     * get(int port, String path) - einfache Anfrage, Laenge der Antwort
+     */
+    private static String get(int port, String path) throws Exception
+    {
+        final HttpURLConnection connection = (HttpURLConnection)URI.create("http://127.0.0.1:" + port + path).toURL().openConnection();
+        try
+        {
+            final byte[] body = connection.getInputStream().readAllBytes();
+            return connection.getResponseCode() + ", " + connection.getContentType() + ", " + body.length + " Byte" 
+                 + (path.equals("/state")? ": " + new String(body, StandardCharsets.UTF_8) : "");
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+    
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int clientCount = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        final int frameRate = (args.length > 2)? Integer.parseInt(args[2]) : DEFAULT_FRAME_RATE;
+        
+        final Model model = new Model(new SimulatedActuator(Clock.SYSTEM), CYCLE_TIME);
+        model.start();
+        Thread.sleep(1000L);
+        measure(model, seconds, "ohne Clients");
+        
+        final DashboardServer server = new DashboardServer(model, 
+                                                           new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 
+                                                           frameRate, 
+                                                           Math.max(clientCount, 1));
+        server.start();
+        final int port = server.getPort();
+        System.out.println("/      => " + get(port, "/"));
+        System.out.println("/state => " + get(port, "/state"));
+        
+        // Client 0 liest die erste Haelfte der Phase nicht...
+        final Client[] clients = new Client[clientCount];
+        for (int index = 0; index < clientCount; index++)
+        {
+            clients[index] = new Client(port, (index == 0)? seconds * 500L : 0L);
+            final Thread thread = new Thread(clients[index], "Client-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(500L);
+        measure(model, seconds, "mit " + server.getClients() + " Clients");
+        
+        for (int index = 0; index < clientCount; index++)
+        {
+            System.out.println(String.format("Client %2d: %5d Bilder, %5d uebersprungen%s", 
+                                             index, 
+                                             clients[index].frames.get(), 
+                                             clients[index].gaps.get(), 
+                                             (clients[index].stalledMillis > 0L)? " (liest " + clients[index].stalledMillis + " ms nicht)" : ""));
+        }
+        System.out.println(server);
+        for (Client client: clients)
+        {
+            client.close();
+        }
+        server.stop();
+        model.stop();
+        model.shutdown();
+        System.exit(0);
+    }
+}
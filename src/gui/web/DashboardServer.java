@@ -0,0 +1,544 @@
+/**
+ * 
+ */
+package gui.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import gui.CycleBuffer;
+import gui.CycleSample;
+import gui.Model;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * DashboardServer - Web-Oberflaeche (Browser auf Handy oder Laptop) mit dem
+ * HttpServer des JDK:
+ * </p>
+ * <ul>
+ *  <li>/ - Seite dashboard.html</li>
+ *  <li>/state - aktueller Zustand (JSON)</li>
+ *  <li>/events - Zustand als Server-Sent Events mit frameRate Bildern je 
+ *      Sekunde</li>
+ * </ul>
+ * <p>
+ * Ein eigener Thread (publisher) liest je Bild den juengsten Takt aus dem
+ * cycleBuffer des Models (ohne Sperre, der Steuertakt bleibt unberuehrt) 
+ * und legt ihn als fertig kodiertes Ereignis ab. Jeder Client schreibt nur
+ * das jeweils juengste Bild: Ein langsamer Client ueberspringt Bilder,
+ * es entstehen keine wachsenden Puffer. (Der Schreibzugriff blockiert erst,
+ * wenn die Socket-Puffer des Betriebssystems voll sind.)
+ * </p>
+ */
+public class DashboardServer
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(DashboardServer.class);
+    
+    /**
+     * DEFAULT_PORT = 8080
+     */
+    public final static int DEFAULT_PORT = 8080;
+    
+    /**
+     * DEFAULT_FRAME_RATE = 10 - Bilder je Sekunde
+     */
+    public final static int DEFAULT_FRAME_RATE = 10;
+    
+    /**
+     * DEFAULT_MAX_CLIENTS = 16 - gleichzeitige /events-Verbindungen
+     */
+    public final static int DEFAULT_MAX_CLIENTS = 16;
+    
+    /**
+     * DASHBOARD_RESOURCE - Seite im Klassenpfad
+     */
+    private final static String DASHBOARD_RESOURCE = "dashboard.html";
+    
+    /**
+     * Frame - ein fertig kodiertes Bild, wird von allen Clients geteilt
+     */
+    private final static class Frame
+    {
+        /**
+         * number - fortlaufende Nummer
+         */
+        final long number;
+        
+        /**
+         * json - Zustand
+         */
+        final String json;
+        
+        /**
+         * event - SSE-Ereignis (UTF-8)
+         */
+        final byte[] event;
+        
+        Frame(long number, String json)
+        {
+            this.number = number;
+            this.json = json;
+            this.event = ("id: " + number + "\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * model - Quelle der Daten
+     */
+    private final Model model;
+    
+    /**
+     * address - Adresse des Servers (Port 0: beliebig)
+     */
+    private final InetSocketAddress address;
+    
+    /**
+     * frameRate - Bilder je Sekunde
+     */
+    private final int frameRate;
+    
+    /**
+     * maxClients - gleichzeitige /events-Verbindungen
+     */
+    private final int maxClients;
+    
+    /**
+     * monitor - schuetzt latest, Benachrichtigung der Clients
+     */
+    private final Object monitor = new Object();
+    
+    /**
+     * latest - juengstes Bild
+     */
+    private Frame latest = null;
+    
+    /**
+     * clients - aktuelle /events-Verbindungen
+     */
+    private final AtomicInteger clients = new AtomicInteger();
+    
+    /**
+     * framesSent, framesSkipped - Statistik ueber alle Clients
+     */
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    
+    /**
+     * sample - juengster Takt (nur publish())
+     */
+    private final CycleSample sample = new CycleSample();
+    
+    /**
+     * frameNumber - Nummer des letzten Bildes (nur publish())
+     */
+    private long frameNumber = 0L;
+    
+    /**
+     * server, executor, publisher
+     */
+    private HttpServer server = null;
+    private ExecutorService executor = null;
+    private Thread publisher = null;
+    
+    /**
+     * running
+     */
+    private volatile boolean running = false;
+    
+    /**
+     * DashboardServer(Model model, int port) - mit DEFAULT_FRAME_RATE und 
+     * DEFAULT_MAX_CLIENTS auf allen Schnittstellen...
+     * @param model
+     * @param port
+     */
+    public DashboardServer(Model model, int port)
+    {
+        this(model, new InetSocketAddress(port), DEFAULT_FRAME_RATE, DEFAULT_MAX_CLIENTS);
+    }
+    
+    /**
+     * DashboardServer(Model model, InetSocketAddress address, int frameRate, int maxClients)
+     * @param model
+     * @param address - z.B. new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)
+     * @param frameRate - Bilder je Sekunde (1 ... 100)
+     * @param maxClients - gleichzeitige /events-Verbindungen
+     */
+    public DashboardServer(Model model, InetSocketAddress address, int frameRate, int maxClients)
+    {
+        if (frameRate < 1 || frameRate > 100)
+        {
+            throw new IllegalArgumentException("frameRate: " + frameRate);
+        }
+        if (maxClients < 1)
+        {
+            throw new IllegalArgumentException("maxClients < 1: " + maxClients);
+        }
+        this.model = model;
+        this.address = address;
+        this.frameRate = frameRate;
+        this.maxClients = maxClients;
+    }
+    
+    /**
+     * start() - Server und publisher starten...
+     * @throws IOException - Port belegt
+     */
+    public void start() throws IOException
+    {
+        this.server = HttpServer.create(this.address, 0);
+        this.server.createContext("/", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handlePage(exchange);
+            }
+        });
+        this.server.createContext("/state", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handleState(exchange);
+            }
+        });
+        this.server.createContext("/events", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handleEvents(exchange);
+            }
+        });
+        // Je /events-Verbindung ein Thread, dazu Reserve fuer / und /state...
+        this.executor = Executors.newFixedThreadPool(this.maxClients + 2, new ThreadFactory()
+        {
+            private final AtomicInteger number = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "DashboardServer-" + this.number.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        this.server.setExecutor(this.executor);
+        this.running = true;
+        publish();
+        this.server.start();
+        
+        this.publisher = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                final long frameNanos = 1_000_000_000L / DashboardServer.this.frameRate;
+                long deadline = System.nanoTime();
+                while (DashboardServer.this.running)
+                {
+                    deadline += frameNanos;
+                    final long sleepNanos = deadline - System.nanoTime();
+                    if (sleepNanos > 0L)
+                    {
+                        try
+                        {
+                            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                        }
+                        catch (InterruptedException exception)
+                        {
+                            // stop()...
+                        }
+                    }
+                    else
+                    {
+                        deadline = System.nanoTime();
+                    }
+                    publish();
+                }
+            }
+        }, "DashboardPublisher");
+        this.publisher.setDaemon(true);
+        this.publisher.setPriority(Thread.MIN_PRIORITY);
+        this.publisher.start();
+        logger.info("Dashboard: http://" + this.server.getAddress().getHostString() + ":" + getPort() + "/");
+    }
+    
+    /**
+     * stop() - beendet publisher, Clients und Server...
+     */
+    public void stop()
+    {
+        this.running = false;
+        synchronized(this.monitor)
+        {
+            this.monitor.notifyAll();
+        }
+        if (this.publisher != null)
+        {
+            this.publisher.interrupt();
+            try
+            {
+                this.publisher.join();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.publisher = null;
+        }
+        if (this.server != null)
+        {
+            this.server.stop(0);
+            this.server = null;
+        }
+        if (this.executor != null)
+        {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+    
+    /**
+     * publish() - naechstes Bild aus dem juengsten Takt (nur im publisher
+     * bzw. vor dessen Start)...
+     */
+    private void publish()
+    {
+        final CycleBuffer cycleBuffer = this.model.getCycleBuffer();
+        final long sequence = cycleBuffer.getSequence();
+        final boolean hasSample = (sequence > 0L) && cycleBuffer.read(sequence - 1L, this.sample);
+        final long number = ++this.frameNumber;
+        final StringBuilder json = new StringBuilder(256);
+        json.append("{\"frame\":").append(number)
+            .append(",\"clients\":").append(this.clients.get())
+            .append(",\"faulted\":").append(this.model.isFaulted());
+        if (hasSample)
+        {
+            json.append(",\"counter\":").append(this.sample.getCounter())
+                .append(",\"ageMs\":").append((System.nanoTime() - this.sample.getTimeNanos())/1_000_000L)
+                .append(",\"periodMs\":").append(millis(this.sample.getPeriodNanos()))
+                .append(",\"jitterMs\":").append(millis(this.sample.getJitterNanos()))
+                .append(",\"busyMs\":").append(millis(this.sample.getBusyNanos()))
+                .append(",\"latencyMs\":").append(millis(this.sample.getLatencyNanos()))
+                .append(",\"servo\":").append(this.sample.getServo())
+                .append(",\"motor\":").append(this.sample.getMotor())
+                .append(",\"transmission\":\"").append(this.sample.getTransmission()).append('"')
+                .append(",\"status\":\"").append(this.sample.getStatus()).append('"');
+        }
+        json.append('}');
+        final Frame frame = new Frame(number, json.toString());
+        synchronized(this.monitor)
+        {
+            this.latest = frame;
+            this.monitor.notifyAll();
+        }
+    }
+    
+    /**
+     * millis(long nanos) - ms mit drei Nachkommastellen (JSON)
+     */
+    private static String millis(long nanos)
+    {
+        return String.format(Locale.ROOT, "%.3f", nanos/1.0e6);
+    }
+    
+    /**
+     * handlePage(HttpExchange exchange) - dashboard.html
+     */
+    private void handlePage(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (!"/".equals(exchange.getRequestURI().getPath()))
+            {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            try (InputStream in = DashboardServer.class.getResourceAsStream(DASHBOARD_RESOURCE))
+            {
+                if (in == null)
+                {
+                    exchange.sendResponseHeaders(500, -1);
+                    return;
+                }
+                final byte[] page = in.readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, page.length);
+                try (OutputStream out = exchange.getResponseBody())
+                {
+                    out.write(page);
+                }
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * handleState(HttpExchange exchange) - juengstes Bild als JSON
+     */
+    private void handleState(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            final Frame frame;
+            synchronized(this.monitor)
+            {
+                frame = this.latest;
+            }
+            final byte[] body = frame.json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody())
+            {
+                out.write(body);
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * handleEvents(HttpExchange exchange) - SSE: bis zum Abbruch der 
+     * Verbindung jeweils das juengste Bild...
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (this.clients.incrementAndGet() > this.maxClients)
+            {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            final OutputStream out = exchange.getResponseBody();
+            out.write("retry: 2000\n\n".getBytes(StandardCharsets.UTF_8));
+            long last = 0L;
+            while (this.running)
+            {
+                Frame frame;
+                synchronized(this.monitor)
+                {
+                    while (this.running && this.latest.number == last)
+                    {
+                        this.monitor.wait();
+                    }
+                    frame = this.latest;
+                }
+                if (!this.running)
+                {
+                    break;
+                }
+                if (last != 0L && frame.number > last + 1L)
+                {
+                    // Konflation: zwischenzeitliche Bilder entfallen...
+                    this.framesSkipped.addAndGet(frame.number - last - 1L);
+                }
+                out.write(frame.event);
+                out.flush();
+                this.framesSent.incrementAndGet();
+                last = frame.number;
+            }
+        }
+        catch (IOException exception)
+        {
+            // Client hat die Verbindung beendet...
+            logger.debug("/events: " + exception.getMessage());
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.clients.decrementAndGet();
+            exchange.close();
+        }
+    }
+    
+    /**
+     * getPort() - tatsaechlicher Port (nach start())
+     * @return Port
+     */
+    public int getPort()
+    {
+        return this.server.getAddress().getPort();
+    }
+    
+    /**
+     * @return aktuelle /events-Verbindungen
+     */
+    public int getClients()
+    {
+        return this.clients.get();
+    }
+    
+    /**
+     * @return gesendete Bilder (alle Clients)
+     */
+    public long getFramesSent()
+    {
+        return this.framesSent.get();
+    }
+    
+    /**
+     * @return durch Konflation uebersprungene Bilder (alle Clients)
+     */
+    public long getFramesSkipped()
+    {
+        return this.framesSkipped.get();
+    }
+    
+    /**
+     * toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[")
+               .append(this.address)
+               .append(", frameRate=")
+               .append(this.frameRate)
+               .append(", clients=")
+               .append(this.clients.get())
+               .append(", sent=")
+               .append(this.framesSent.get())
+               .append(", skipped=")
+               .append(this.framesSkipped.get())
+               .append("]");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,609 @@
+/**
+ *
+ */
+package gui;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import gui.hardware.Actuator;
+import gui.time.ThreadMeter;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * ModelStressBench - nebenlaeufige Aufrufe aller Einstiegspunkte des
+ * {@link Model} (wie EDT, Takt, Eingabegeraet, Ablauf gleichzeitig) mit
+ * zufaelliger Verschraenkung, anschliessend Pruefung der Invarianten.
+ * Laeuft ohne GUI (headless).
+ * </p>
+ * <p>
+ * Aufruf: java gui.ModelStressBench [Threads] [Sekunden] [Seed]
+ * bzw. ant stress (Quelle unter test/, nicht im Jar)
+ * </p>
+ * <p>
+ * Phase 1 (Sollwerte): setProperty() fuer Servo, Motor und Gang,
+ * PropertyBatch, doCycle(), notifyGUI() und Lesezugriffe. Geprueft wird:
+ * </p>
+ * <ul>
+ *  <li>Getriebesperre passt zum Motor-Sollwert (doMotor(), PropertyBatch),
+ *  auch waehrend der Laufzeit: Der Sampler prueft jede SAMPLE_PERIOD 
+ *  zwischen zwei Aufrufen (alle Threads ausserhalb des Models)</li>
+ *  <li>keine verlorenen Aenderungen: Servo und Motor stehen auf dem zuletzt
+ *  geschriebenen Wert eines der Threads</li>
+ *  <li>Taktzaehler = Anzahl der doCycle()-Aufrufe</li>
+ *  <li>Stellglieder nach einem weiteren Takt = Sollwerte</li>
+ * </ul>
+ * <p>
+ * Phase 2 (Lebenszyklus): zusaetzlich start() und stop(), danach muss nach
+ * einem abschliessenden stop() der Takt angehalten sein (Status Stopped,
+ * TaskExecutive nicht aktiv) und die Getriebesperre wieder passen.
+ * </p>
+ * <p>
+ * Ausgegeben werden die Aufrufe je Sekunde und Einstiegspunkt sowie die
+ * Sperrkonflikte (ThreadMXBean: blockiert Anzahl/Zeit). Exit-Code 1 bei
+ * einer verletzten Invariante.
+ * </p>
+ */
+public class ModelStressBench
+{
+    /**
+     * DEFAULT_THREADS = 8
+     */
+    public final static int DEFAULT_THREADS = 8;
+
+    /**
+     * DEFAULT_SECONDS = 4 - Dauer beider Phasen zusammen
+     */
+    public final static int DEFAULT_SECONDS = 4;
+
+    /**
+     * DEFAULT_SEED = 42L
+     */
+    public final static long DEFAULT_SEED = 42L;
+
+    /**
+     * CYCLE_TIME = 10 ms - Taktung des Models (Phase 2)
+     */
+    private final static int CYCLE_TIME = 10;
+
+    /**
+     * Operation - Einstiegspunkte des Models
+     */
+    private enum Operation
+    {
+        Servo("setProperty(servo)"),
+        Motor("setProperty(motor)"),
+        Gear("setProperty(gear)"),
+        Batch("batch().commit()"),
+        Cycle("doCycle()"),
+        Notify("notifyGUI()"),
+        Read("get...()"),
+        Start("start()"),
+        Stop("stop()");
+
+        /**
+         * operation - Bezeichnung
+         */
+        private final String operation;
+
+        private Operation(String operation)
+        {
+            this.operation = operation;
+        }
+
+        public final String getOperation()
+        {
+            return this.operation;
+        }
+    }
+
+    /**
+     * SETPOINT_MIX - Gewichtung der Aufrufe in Phase 1 (je Eintrag ein Anteil)
+     */
+    private final static Operation[] SETPOINT_MIX =
+    {
+        Operation.Servo, Operation.Servo, Operation.Servo,
+        Operation.Motor, Operation.Motor, Operation.Motor,
+        Operation.Gear,
+        Operation.Batch, Operation.Batch,
+        Operation.Cycle, Operation.Cycle,
+        Operation.Notify,
+        Operation.Read, Operation.Read
+    };
+
+    /**
+     * LIFECYCLE_RATIO = 200 - in Phase 2 jeder 200. Aufruf start() oder stop()
+     */
+    private final static int LIFECYCLE_RATIO = 200;
+
+    /**
+     * SAMPLE_PERIOD = 1 ms - Abstand der Stichproben waehrend Phase 1
+     */
+    private final static long SAMPLE_PERIOD = 1L;
+
+    /**
+     * RecordingActuator - Stellglieder ohne Hardware, letzter Stellwert
+     * (thread-sicher, im Gegensatz zum SimulatedActuator)...
+     */
+    private final static class RecordingActuator implements Actuator
+    {
+        private int servoRelValue = 0;
+        private float motorSpeed = 0.0f;
+        private long writeCount = 0L;
+
+        @Override
+        public int getServoMinSteering()
+        {
+            return 250;
+        }
+
+        @Override
+        public int getServoMaxSteering()
+        {
+            return 450;
+        }
+
+        @Override
+        public synchronized void setServo(int relValue)
+        {
+            this.servoRelValue = relValue;
+            this.writeCount++;
+        }
+
+        @Override
+        public synchronized void setMotor(float speed)
+        {
+            this.motorSpeed = speed;
+            this.writeCount++;
+        }
+
+        @Override
+        public synchronized void set(int relValue, float speed)
+        {
+            this.servoRelValue = relValue;
+            this.motorSpeed = speed;
+            this.writeCount++;
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            this.servoRelValue = 0;
+            this.motorSpeed = 0.0f;
+            this.writeCount++;
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+
+        public synchronized int getServoRelValue()
+        {
+            return this.servoRelValue;
+        }
+
+        public synchronized float getMotorSpeed()
+        {
+            return this.motorSpeed;
+        }
+
+        public synchronized long getWriteCount()
+        {
+            return this.writeCount;
+        }
+    }
+
+    /**
+     * Worker - ein Thread mit zufaelligen Aufrufen...
+     */
+    private final static class Worker implements Runnable
+    {
+        private final Model model;
+        private final Random random;
+        private final boolean withLifecycle;
+        private final long endNanos;
+        private final CountDownLatch startSignal;
+
+        /**
+         * quiescence - Lesesperre je Aufruf, die Schreibsperre haelt der 
+         * Sampler (kein Aufruf in Arbeit)
+         */
+        private final ReadWriteLock quiescence;
+
+        /**
+         * counts - Aufrufe je Operation
+         */
+        private final long[] counts = new long[Operation.values().length];
+
+        /**
+         * lastServo, lastMotor - zuletzt geschriebene Sollwerte, null: keiner
+         */
+        private Integer lastServo = null;
+        private Integer lastMotor = null;
+
+        /**
+         * blockedCount, blockedMillis - Sperrkonflikte (ThreadMXBean), -1: nicht verfuegbar
+         */
+        private long blockedCount = -1L;
+        private long blockedMillis = -1L;
+
+        /**
+         * failure - Ausnahme im Thread oder null
+         */
+        private Throwable failure = null;
+
+        private Worker(Model model, long seed, boolean withLifecycle, long endNanos, CountDownLatch startSignal, ReadWriteLock quiescence)
+        {
+            this.model = model;
+            this.random = new Random(seed);
+            this.withLifecycle = withLifecycle;
+            this.endNanos = endNanos;
+            this.startSignal = startSignal;
+            this.quiescence = quiescence;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                this.startSignal.await();
+                while (System.nanoTime() - this.endNanos < 0L)
+                {
+                    final Operation operation = (this.withLifecycle && this.random.nextInt(LIFECYCLE_RATIO) == 0)
+                                              ? (this.random.nextBoolean()? Operation.Start : Operation.Stop)
+                                              : SETPOINT_MIX[this.random.nextInt(SETPOINT_MIX.length)];
+                    this.quiescence.readLock().lock();
+                    try
+                    {
+                        execute(operation);
+                    }
+                    finally
+                    {
+                        this.quiescence.readLock().unlock();
+                    }
+                    this.counts[operation.ordinal()]++;
+                    // Zufaellige Verschraenkung...
+                    if (this.random.nextInt(16) == 0)
+                    {
+                        Thread.yield();
+                    }
+                }
+            }
+            catch (Throwable exception)
+            {
+                this.failure = exception;
+            }
+            // Ueber den Namen: Thread.getId() ist veraltet, Thread.threadId() erst ab Java 19...
+            final ThreadInfo info = ThreadMeter.threadInfo(Thread.currentThread().getName());
+            if (info != null)
+            {
+                this.blockedCount = info.getBlockedCount();
+                this.blockedMillis = info.getBlockedTime();
+            }
+        }
+
+        /**
+         * execute(Operation operation)
+         * @param operation
+         * @throws IOException
+         */
+        private void execute(Operation operation) throws IOException
+        {
+            switch (operation)
+            {
+                case Servo:
+                    this.lastServo = Integer.valueOf(this.random.nextInt(61) - 30);
+                    this.model.setProperty(Model.DATA_SERVO_KEY, this.lastServo);
+                    break;
+                case Motor:
+                    this.lastMotor = Integer.valueOf(this.random.nextInt(101));
+                    this.model.setProperty(Model.DATA_MOTOR_KEY, this.lastMotor);
+                    break;
+                case Gear:
+                    this.model.setProperty(Model.DATA_GEAR_KEY, this.random.nextBoolean()? Transmission.D : Transmission.R);
+                    break;
+                case Batch:
+                    this.lastServo = Integer.valueOf(this.random.nextInt(61) - 30);
+                    this.lastMotor = Integer.valueOf(this.random.nextInt(101));
+                    this.model.batch()
+                              .set(Model.DATA_SERVO_KEY, this.lastServo)
+                              .set(Model.DATA_MOTOR_KEY, this.lastMotor)
+                              .set(Model.DATA_GEAR_KEY, this.random.nextBoolean()? Transmission.D : Transmission.R)
+                              .commit();
+                    break;
+                case Cycle:
+                    this.model.doCycle();
+                    break;
+                case Notify:
+                    this.model.notifyGUI();
+                    break;
+                case Read:
+                    this.model.getCounter();
+                    this.model.getStatus();
+                    this.model.isGearEnabled();
+                    this.model.getCycleBuffer().getSequence();
+                    break;
+                case Start:
+                    this.model.start();
+                    break;
+                case Stop:
+                    this.model.stop();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sampler - Stichproben der Getriebesperre waehrend der Laufzeit...
+     * <p>
+     * setProperty() legt Motor-Sollwert und Getriebesperre nacheinander ab,
+     * geprueft wird daher nur unter der Schreibsperre von quiescence, d.h.
+     * wenn kein Worker im Model ist. Ein dann abweichender Wert ist keine 
+     * Momentaufnahme, sondern ein verlorenes Update. Nur in Phase 1, in 
+     * Phase 2 schreibt zusaetzlich der Takt des Models.
+     * </p>
+     */
+    private final static class Sampler implements Runnable
+    {
+        private final Model model;
+        private final long endNanos;
+        private final CountDownLatch startSignal;
+        private final ReadWriteLock quiescence;
+
+        /**
+         * samples, mismatches - Stichproben, davon mit falscher Getriebesperre
+         */
+        private long samples = 0L;
+        private long mismatches = 0L;
+
+        /**
+         * firstMismatch - erste Abweichung oder null
+         */
+        private String firstMismatch = null;
+
+        private Sampler(Model model, long endNanos, CountDownLatch startSignal, ReadWriteLock quiescence)
+        {
+            this.model = model;
+            this.endNanos = endNanos;
+            this.startSignal = startSignal;
+            this.quiescence = quiescence;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                this.startSignal.await();
+                while (System.nanoTime() - this.endNanos < 0L)
+                {
+                    Thread.sleep(SAMPLE_PERIOD);
+                    this.quiescence.writeLock().lock();
+                    try
+                    {
+                        final Object motorValue = this.model.getProperty(Model.DATA_MOTOR_KEY);
+                        final boolean isGearEnabled = this.model.isGearEnabled();
+                        this.samples++;
+                        if (isGearEnabled != isGearEnabledFor(motorValue))
+                        {
+                            this.mismatches++;
+                            if (this.firstMismatch == null)
+                            {
+                                this.firstMismatch = "Motor " + motorValue + ", gearEnabled=" + isGearEnabled;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        this.quiescence.writeLock().unlock();
+                    }
+                }
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * violations - Anzahl der verletzten Invarianten
+     */
+    private static int violations = 0;
+
+    /**
+     * check(boolean condition, String message)
+     * @param condition - Invariante erfuellt?
+     * @param message
+     */
+    private static void check(boolean condition, String message)
+    {
+        System.out.println((condition? "  ok      " : "  VERLETZT ") + message);
+        if (!condition)
+        {
+            violations++;
+        }
+    }
+
+    /**
+     * isGearEnabledFor(Object motorValue) - erwartete Getriebesperre...
+     * @param motorValue
+     * @return true, wenn der Gang gewechselt werden darf
+     */
+    private static boolean isGearEnabledFor(Object motorValue)
+    {
+        final int motor = (motorValue instanceof Integer)? ((Integer)motorValue).intValue() : 0;
+        return (motor / Float.parseFloat(Model.MOTOR_MAX_VALUE)) <= Model.LIMIT_FOR_GEAR_ENABLED;
+    }
+
+    /**
+     * run(String phase, Model model, int threads, long durationNanos, long seed, boolean withLifecycle) -
+     * eine Phase mit Bericht, ohne Lebenszyklus mit Stichproben der Getriebesperre...
+     * @return Worker nach dem Ende aller Threads
+     */
+    private static List<Worker> run(String phase, Model model, int threads, long durationNanos, long seed, boolean withLifecycle) throws InterruptedException
+    {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final ReadWriteLock quiescence = new ReentrantReadWriteLock();
+        final long endNanos = System.nanoTime() + durationNanos;
+        final List<Worker> workers = new ArrayList<>(threads);
+        final List<Thread> workerThreads = new ArrayList<>(threads + 1);
+        for (int index = 0; index < threads; index++)
+        {
+            final Worker worker = new Worker(model, seed + index, withLifecycle, endNanos, startSignal, quiescence);
+            workers.add(worker);
+            workerThreads.add(new Thread(worker, "Stress-" + index));
+        }
+        final Sampler sampler = (withLifecycle)? null : new Sampler(model, endNanos, startSignal, quiescence);
+        if (sampler != null)
+        {
+            workerThreads.add(new Thread(sampler, "Stress-Sampler"));
+        }
+        for (Thread thread: workerThreads)
+        {
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread: workerThreads)
+        {
+            thread.join();
+        }
+        report(phase, workers, durationNanos/1.0e9);
+        if (sampler != null)
+        {
+            check(sampler.samples > 0L && sampler.mismatches == 0L,
+                  "Getriebesperre waehrend der Laufzeit: " + sampler.samples + " Stichproben, " + sampler.mismatches + " abweichend"
+                  + ((sampler.firstMismatch != null)? " (zuerst " + sampler.firstMismatch + ")" : ""));
+        }
+        return workers;
+    }
+
+    /**
+     * report(String phase, List<Worker> workers, double seconds) - Durchsatz und Sperrkonflikte...
+     */
+    private static void report(String phase, List<Worker> workers, double seconds)
+    {
+        System.out.println(phase + ":");
+        long total = 0L;
+        for (Operation operation: Operation.values())
+        {
+            long count = 0L;
+            for (Worker worker: workers)
+            {
+                count += worker.counts[operation.ordinal()];
+            }
+            total += count;
+            if (count > 0L)
+            {
+                System.out.println(String.format("  %-20s %12.0f /s", operation.getOperation(), count/seconds));
+            }
+        }
+        long blockedCount = 0L;
+        long blockedMillis = 0L;
+        for (Worker worker: workers)
+        {
+            blockedCount += worker.blockedCount;
+            blockedMillis += worker.blockedMillis;
+            if (worker.failure != null)
+            {
+                check(false, "Ausnahme im Thread: " + worker.failure);
+                worker.failure.printStackTrace();
+            }
+        }
+        System.out.println(String.format("  %-20s %12.0f /s", "gesamt", total/seconds));
+        System.out.println(String.format("  blockiert: %d mal, %d ms (%.1f %% der Thread-Zeit)",
+                                         blockedCount,
+                                         blockedMillis,
+                                         (blockedMillis >= 0L)? 100.0 * blockedMillis / (workers.size() * seconds * 1000.0) : Double.NaN));
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int threads = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        final int seconds = (args.length > 1)? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        final long seed = (args.length > 2)? Long.parseLong(args[2]) : DEFAULT_SEED;
+        final long phaseNanos = seconds * 1_000_000_000L / 2L;
+
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean.isThreadContentionMonitoringSupported())
+        {
+            bean.setThreadContentionMonitoringEnabled(true);
+        }
+        final RecordingActuator actuator = new RecordingActuator();
+        final Model model = new Model(actuator, CYCLE_TIME);
+        // Events zaehlen, Typ der Getriebesperre pruefen...
+        final AtomicLong events = new AtomicLong();
+        final AtomicLong badEvents = new AtomicLong();
+        model.addPropertyChangeListener(new PropertyChangeListener()
+        {
+            @Override
+            public void propertyChange(PropertyChangeEvent event)
+            {
+                events.incrementAndGet();
+                if (Model.DATA_GEAR_ENABLED_KEY.equals(event.getPropertyName()) && !(event.getNewValue() instanceof Boolean))
+                {
+                    badEvents.incrementAndGet();
+                }
+            }
+        });
+        System.out.println(String.format("%d Threads, %d s, Seed %d", threads, seconds, seed));
+
+        // *** Phase 1: Sollwerte, Takt, Lesen... ***
+        final List<Worker> setpointWorkers = run("Phase 1 (Sollwerte)", model, threads, phaseNanos, seed, false);
+        final Object servoValue = model.getProperty(Model.DATA_SERVO_KEY);
+        final Object motorValue = model.getProperty(Model.DATA_MOTOR_KEY);
+        check(model.isGearEnabled() == isGearEnabledFor(motorValue),
+              "Getriebesperre passt zum Motor-Sollwert " + motorValue + " (gearEnabled=" + model.isGearEnabled() + ")");
+        boolean isServoWritten = false;
+        boolean isMotorWritten = false;
+        long cycles = 0L;
+        for (Worker worker: setpointWorkers)
+        {
+            isServoWritten |= servoValue.equals(worker.lastServo);
+            isMotorWritten |= motorValue.equals(worker.lastMotor);
+            cycles += worker.counts[Operation.Cycle.ordinal()];
+        }
+        check(isServoWritten, "Servo " + servoValue + " ist der letzte Wert eines Threads");
+        check(isMotorWritten, "Motor " + motorValue + " ist der letzte Wert eines Threads");
+        check(model.getCounter() == cycles, "Taktzaehler " + model.getCounter() + " = doCycle()-Aufrufe " + cycles);
+        model.doCycle();
+        final Object gearValue = model.getProperty(Model.DATA_GEAR_KEY);
+        final float expectedSpeed = ((Transmission)gearValue).getFactor() * ((Integer)motorValue).intValue() / Float.parseFloat(Model.MOTOR_MAX_VALUE);
+        check(actuator.getMotorSpeed() == expectedSpeed, "Motor-Stellwert " + actuator.getMotorSpeed() + " nach doCycle() = " + expectedSpeed);
+
+        // *** Phase 2: zusaetzlich start()/stop()... ***
+        run("Phase 2 (Lebenszyklus)", model, threads, phaseNanos, seed + threads, true);
+        model.stop();
+        // Die Threads eines gestoppten TaskExecutive enden nach ihrem Warten...
+        Thread.sleep(2L * CYCLE_TIME);
+        check(model.getStatus() == Status.Stopped, "Status nach stop(): " + model.getStatus());
+        check(model.getTaskExecutive() == null || !model.getTaskExecutive().isRunning(), "TaskExecutive nach stop() angehalten");
+        final long counter = model.getCounter();
+        Thread.sleep(5L * CYCLE_TIME);
+        check(model.getCounter() == counter, "kein Takt nach stop() (Zaehler " + counter + " => " + model.getCounter() + ")");
+        check(model.isGearEnabled() == isGearEnabledFor(model.getProperty(Model.DATA_MOTOR_KEY)),
+              "Getriebesperre passt zum Motor-Sollwert " + model.getProperty(Model.DATA_MOTOR_KEY));
+        check(badEvents.get() == 0L, events.get() + " Events, " + badEvents.get() + " fehlerhaft");
+        System.out.println(String.format("%d Schreibzugriffe, %d verletzte Invarianten", actuator.getWriteCount(), violations));
+        model.shutdown();
+        System.exit((violations == 0)? 0 : 1);
+    }
+}
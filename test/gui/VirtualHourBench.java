@@ -0,0 +1,261 @@
+/**
+ *
+ */
+package gui;
+
+import gui.sim.SimulatedActuator;
+import gui.task.IdlePolicy;
+import gui.task.TaskExecutive;
+import gui.task.TaskStatistics;
+import gui.time.VirtualClock;
+
+/**
+ * @author Detlef Tribius
+ *
+ * <p>
+ * VirtualHourBench - eine simulierte Stunde Fahrbetrieb ueber die
+ * {@link VirtualClock}: Das Model laeuft nach start() ohne eigene Threads,
+ * jeder Schritt von {@link Model#advanceTime(long)} fuehrt alle faelligen
+ * Aufgaben aus (vgl. TaskExecutive.advance()). Laeuft ohne GUI (headless)
+ * in Millisekunden bis wenigen Sekunden.
+ * </p>
+ * <p>
+ * Aufruf: java gui.VirtualHourBench [Minuten]
+ * bzw. ant virtual (Quelle unter test/, nicht im Jar)
+ * </p>
+ * <p>
+ * Phase 1 (Fahrt, volle Rate): Motor an, jede Minute eine Eingabe.
+ * Geprueft wird:
+ * </p>
+ * <ul>
+ *  <li>Taktzaehler = Freigaben des Taktes = Dauer/Taktung + 1 (Freigabe
+ *  bei 0 und am Ende)</li>
+ *  <li>keine Terminverletzung und keine ausgelassene Freigabe (die Uhr
+ *  steht waehrend einer Ausfuehrung)</li>
+ * </ul>
+ * <p>
+ * Phase 2 (Ruhebetrieb): Motor aus, IdlePolicy(IDLE_DELAY, IDLE_PERIOD),
+ * alle INPUT_PERIOD eine Eingabe. Geprueft wird:
+ * </p>
+ * <ul>
+ *  <li>nach der Ruhezeit erreicht der Teiler seinen Hoechstwert, in der
+ *  letzten Minute vor jeder Eingabe laeuft genau ein Takt je IDLE_PERIOD</li>
+ *  <li>jede Eingabe weckt: Teiler 1 und mindestens ein Takt innerhalb
+ *  einer Taktung</li>
+ *  <li>keine Terminverletzung, deutlich weniger Takte als bei voller Rate</li>
+ * </ul>
+ * <p>
+ * Ausgegeben werden Wanduhr und Rechenzeit je Takt (reine Rechenzeit,
+ * ohne Warten). Exit-Code 1 bei einer verletzten Invariante.
+ * </p>
+ */
+public class VirtualHourBench
+{
+    /**
+     * DEFAULT_MINUTES = 60 - simulierte Dauer je Phase
+     */
+    public final static int DEFAULT_MINUTES = 60;
+
+    /**
+     * CYCLE_TIME = 20 ms - Taktung des Models (50 Hz)
+     */
+    private final static int CYCLE_TIME = 20;
+
+    /**
+     * CYCLE_NANOS - Taktung in ns
+     */
+    private final static long CYCLE_NANOS = CYCLE_TIME * 1_000_000L;
+
+    /**
+     * STEP_NANOS = 1 s - Schritt von advanceTime()
+     */
+    private final static long STEP_NANOS = 1_000_000_000L;
+
+    /**
+     * IDLE_DELAY = 10 s - Ruhezeit bis zur ersten Absenkung (Phase 2)
+     */
+    private final static long IDLE_DELAY = 10_000_000_000L;
+
+    /**
+     * IDLE_PERIOD = 1 s - laengste Periode im Ruhebetrieb (Phase 2)
+     */
+    private final static long IDLE_PERIOD = 1_000_000_000L;
+
+    /**
+     * INPUT_PERIOD = 600 - Sekunden zwischen zwei Eingaben (Phase 2)
+     */
+    private final static int INPUT_PERIOD = 600;
+
+    /**
+     * MOTOR_VALUE = 50 - Motor-Sollwert der Fahrt (Phase 1)
+     */
+    private final static int MOTOR_VALUE = 50;
+
+    /**
+     * violations - Anzahl der verletzten Invarianten
+     */
+    private static int violations = 0;
+
+    /**
+     * check(boolean condition, String message)
+     * @param condition - Invariante erfuellt?
+     * @param message
+     */
+    private static void check(boolean condition, String message)
+    {
+        System.out.println((condition? "  ok      " : "  VERLETZT ") + message);
+        if (!condition)
+        {
+            violations++;
+        }
+    }
+
+    /**
+     * statistics(Model model, String name) - Laufzeitverhalten einer Aufgabe...
+     * @param model
+     * @param name - z.B. "cycle"
+     * @return TaskStatistics oder null
+     */
+    private static TaskStatistics statistics(Model model, String name)
+    {
+        for (TaskStatistics statistics: model.getTaskExecutive().getStatistics())
+        {
+            if (name.equals(statistics.getName()))
+            {
+                return statistics;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * report(String phase, Model model, long wallNanos) - Wanduhr und
+     * Rechenzeit je Takt...
+     * @param phase
+     * @param model
+     * @param wallNanos - Dauer der Phase (Wanduhr)
+     */
+    private static void report(String phase, Model model, long wallNanos)
+    {
+        final TaskStatistics cycle = statistics(model, "cycle");
+        final long cycles = Math.max(1L, model.getCounter());
+        System.out.println(String.format("%s: %d Takte in %.1f ms Wanduhr, %.0f ns Rechenzeit des Taktes, %.0f ns Wanduhr je Takt (inkl. Servo, Motor, GUI)",
+                                         phase,
+                                         model.getCounter(),
+                                         wallNanos / 1e6,
+                                         cycle.getComputeNanos() / (double)cycles,
+                                         wallNanos / (double)cycles));
+    }
+
+    /**
+     * drive(int minutes) - Phase 1: Fahrt mit voller Rate...
+     * @param minutes - simulierte Dauer
+     */
+    private static void drive(int minutes)
+    {
+        System.out.println("Phase 1 (Fahrt, " + minutes + " min)");
+        final VirtualClock clock = new VirtualClock();
+        final Model model = new Model(new SimulatedActuator(clock), CYCLE_TIME, clock);
+        final long startNanos = System.nanoTime();
+        model.start();
+        model.setProperty(Model.DATA_MOTOR_KEY, Integer.valueOf(MOTOR_VALUE));
+        final long steps = minutes * 60_000_000_000L / STEP_NANOS;
+        for (long step = 1; step <= steps; step++)
+        {
+            model.advanceTime(STEP_NANOS);
+            if (step % 60 == 0)
+            {
+                // Jede Minute eine Lenkbewegung...
+                model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf((step % 120 == 0)? 10 : -10));
+            }
+        }
+        final long wallNanos = System.nanoTime() - startNanos;
+        final TaskExecutive executive = model.getTaskExecutive();
+        final TaskStatistics cycle = statistics(model, "cycle");
+        final long expected = steps * STEP_NANOS / CYCLE_NANOS + 1L;
+        check(model.getCounter() == expected, "Taktzaehler " + model.getCounter() + " = " + expected);
+        check(cycle.getReleases() == model.getCounter(), "Freigaben des Taktes " + cycle.getReleases() + " = Taktzaehler");
+        check(executive.getTotalMisses() == 0L, "Terminverletzungen " + executive.getTotalMisses());
+        check(cycle.getSkipped() == 0L, "ausgelassene Freigaben " + cycle.getSkipped());
+        check(executive.getRateDivider() == 1, "volle Rate (Teiler " + executive.getRateDivider() + ")");
+        report("Phase 1", model, wallNanos);
+        model.stop();
+        model.shutdown();
+    }
+
+    /**
+     * idle(int minutes) - Phase 2: Ruhebetrieb und Wecken...
+     * @param minutes - simulierte Dauer
+     */
+    private static void idle(int minutes)
+    {
+        System.out.println("Phase 2 (Ruhebetrieb, " + minutes + " min)");
+        final VirtualClock clock = new VirtualClock();
+        final Model model = new Model(new SimulatedActuator(clock), CYCLE_TIME, clock);
+        final IdlePolicy policy = new IdlePolicy(IDLE_DELAY, IDLE_PERIOD);
+        final int maxDivider = policy.getMaxDivider(CYCLE_NANOS);
+        model.setIdlePolicy(policy);
+        final long startNanos = System.nanoTime();
+        model.start();
+        final TaskExecutive executive = model.getTaskExecutive();
+        final long steps = minutes * 60_000_000_000L / STEP_NANOS;
+        final long idlePeriodSteps = IDLE_PERIOD / STEP_NANOS;
+        int inputs = 0;
+        int lateWakes = 0;
+        int notSlowed = 0;
+        int wrongIdleRate = 0;
+        long minuteCounter = 0L;
+        for (long step = 1; step <= steps; step++)
+        {
+            model.advanceTime(STEP_NANOS);
+            final long second = step % INPUT_PERIOD;
+            if (second == IDLE_DELAY / STEP_NANOS + 2L && executive.getRateDivider() != maxDivider)
+            {
+                // Ruhezeit und Absenkung (wenige Takte) vorbei...
+                notSlowed++;
+            }
+            if (second == INPUT_PERIOD - 60)
+            {
+                minuteCounter = model.getCounter();
+            }
+            if (second == 0)
+            {
+                // Letzte Minute vor der Eingabe: ein Takt je IDLE_PERIOD...
+                if (model.getCounter() - minuteCounter != 60L / idlePeriodSteps)
+                {
+                    wrongIdleRate++;
+                }
+                // Eingabe => volle Rate, naechster Takt innerhalb einer Taktung...
+                final long counter = model.getCounter();
+                model.setProperty(Model.DATA_SERVO_KEY, Integer.valueOf((inputs % 2 == 0)? 10 : -10));
+                inputs++;
+                model.advanceTime(CYCLE_NANOS);
+                if (executive.getRateDivider() != 1 || model.getCounter() == counter)
+                {
+                    lateWakes++;
+                }
+            }
+        }
+        final long wallNanos = System.nanoTime() - startNanos;
+        final long fullRate = steps * STEP_NANOS / CYCLE_NANOS;
+        check(inputs > 0, inputs + " Eingaben (alle " + INPUT_PERIOD + " s)");
+        check(notSlowed == 0, "Teiler " + maxDivider + " nach der Ruhezeit (" + notSlowed + " Abweichungen)");
+        check(wrongIdleRate == 0, "ein Takt je " + (IDLE_PERIOD / 1_000_000L) + " ms in der Ruhe (" + wrongIdleRate + " Abweichungen)");
+        check(lateWakes == 0, "Wecken innerhalb " + CYCLE_TIME + " ms (" + lateWakes + " verspaetet)");
+        check(executive.getTotalMisses() == 0L, "Terminverletzungen " + executive.getTotalMisses());
+        check(model.getCounter() < fullRate / 10L, "Takte " + model.getCounter() + " < 10 % der vollen Rate " + fullRate);
+        report("Phase 2", model, wallNanos);
+        model.stop();
+        model.shutdown();
+    }
+
+    /** main()-Funktionalitaet... */
+    public static void main(String[] args) throws Exception
+    {
+        final int minutes = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_MINUTES;
+        drive(minutes);
+        idle(minutes);
+        System.out.println(String.format("%d verletzte Invarianten", violations));
+        System.exit((violations == 0)? 0 : 1);
+    }
+}